@@ -1,12 +1,16 @@
 package Aplicacion;
 
+import Config.MigradorEsquema;
+import Config.PerfilArranque;
 import Controlador.ControladorConexion;
 import com.formdev.flatlaf.intellijthemes.FlatArcDarkIJTheme;
 import com.formdev.flatlaf.intellijthemes.materialthemeuilite.FlatMaterialDeepOceanIJTheme;
 import com.formdev.flatlaf.intellijthemes.FlatNordIJTheme;
+import java.util.Arrays;
 /**
  * Clase principal de la aplicación.
  * Configura el aspecto visual (Look and Feel) e inicia el controlador de conexión.
+ * Con "--migrar usuario contraseña" solo aplica las migraciones de esquema pendientes, sin interfaz.
  *
  * @author manue
  */
@@ -14,6 +18,11 @@ import com.formdev.flatlaf.intellijthemes.FlatNordIJTheme;
 public class MAIN {
 
     public static void main(String[] args) {
+        if (args.length > 0 && "--migrar".equals(args[0])) {
+            MigradorEsquema.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        PerfilArranque.Fase tema = PerfilArranque.empezar("Tema visual");
         try {
             // Opción 1: Arc Dark
             //FlatArcDarkIJTheme.setup();
@@ -24,6 +33,7 @@ public class MAIN {
         } catch (Exception ex) {
             System.err.println("No se pudo iniciar el tema visual");
         }
+        tema.terminar();
         new ControladorConexion();
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package Config;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Diagnóstico de rendimiento: reúne las medidas de los DAOs ({@link MetricasConsultas}), las estadísticas
+ * de Hibernate, las del pool de conexiones y las de la caché. Se publica por JMX al crear la SessionFactory
+ * y es la fuente de datos del panel de Diagnóstico.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class Diagnostico implements DiagnosticoMXBean {
+
+    /**
+     * Nombre JMX del diagnóstico.
+     */
+    public static final String NOMBRE_JMX = "DDSI:type=Diagnostico";
+
+    private final SessionFactory sessionFactory;
+
+    /**
+     * @param sessionFactory SessionFactory activa.
+     */
+    public Diagnostico(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Publica el diagnóstico en el servidor JMX de la plataforma, sustituyendo al anterior si lo hay.
+     * @param sessionFactory SessionFactory activa.
+     */
+    public static void registrar(SessionFactory sessionFactory) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (servidor.isRegistered(nombre)) {
+                servidor.unregisterMBean(nombre);
+            }
+            servidor.registerMBean(new Diagnostico(sessionFactory), nombre);
+        } catch (JMException e) {
+            System.err.println("No se pudo registrar el diagnóstico en JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retira el diagnóstico del servidor JMX.
+     */
+    public static void desregistrar() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (servidor.isRegistered(nombre)) {
+                servidor.unregisterMBean(nombre);
+            }
+        } catch (JMException e) {
+            System.err.println("No se pudo retirar el diagnóstico de JMX: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<EstadisticaOperacion> getOperaciones() {
+        return MetricasConsultas.instantanea();
+    }
+
+    @Override
+    public String getResumenHibernate() {
+        Statistics st = sessionFactory.getStatistics();
+        return String.format("Consultas: %d ejecutadas, máx. %d ms (%s)%n"
+                + "Entidades: %d cargadas, %d obtenidas por asociación, %d insertadas, %d actualizadas, %d borradas%n"
+                + "Colecciones: %d cargadas, %d obtenidas por asociación%n"
+                + "JDBC: %d sentencias preparadas, %d conexiones, %d transacciones, %d flush",
+                st.getQueryExecutionCount(), st.getQueryExecutionMaxTime(),
+                st.getQueryExecutionMaxTimeQueryString() == null ? "-" : st.getQueryExecutionMaxTimeQueryString(),
+                st.getEntityLoadCount(), st.getEntityFetchCount(), st.getEntityInsertCount(),
+                st.getEntityUpdateCount(), st.getEntityDeleteCount(),
+                st.getCollectionLoadCount(), st.getCollectionFetchCount(),
+                st.getPrepareStatementCount(), st.getConnectCount(), st.getTransactionCount(), st.getFlushCount());
+    }
+
+    @Override
+    public String getResumenPool() {
+        try {
+            return HibernateUtil.getMetricasPool().resumen();
+        } catch (IllegalStateException e) {
+            return "Pool no inicializado";
+        }
+    }
+
+    @Override
+    public String getResumenCache() {
+        return EstadisticasCache.resumen(sessionFactory);
+    }
+
+    @Override
+    public void reiniciar() {
+        MetricasConsultas.reiniciar();
+        sessionFactory.getStatistics().clear();
+    }
+}
@@ -0,0 +1,37 @@
+package Config;
+
+import java.util.List;
+
+/**
+ * Interfaz JMX del diagnóstico de la aplicación (objeto "DDSI:type=Diagnostico"),
+ * consultable desde JConsole o VisualVM.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public interface DiagnosticoMXBean {
+
+    /**
+     * @return Medidas por operación de los DAOs.
+     */
+    List<EstadisticaOperacion> getOperaciones();
+
+    /**
+     * @return Resumen de las estadísticas de Hibernate (consultas, cargas, sentencias).
+     */
+    String getResumenHibernate();
+
+    /**
+     * @return Resumen del pool de conexiones.
+     */
+    String getResumenPool();
+
+    /**
+     * @return Resumen de la caché de segundo nivel.
+     */
+    String getResumenCache();
+
+    /**
+     * Pone a cero las medidas de los DAOs y las estadísticas de Hibernate.
+     */
+    void reiniciar();
+}
@@ -0,0 +1,187 @@
+package Config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.persistence.OptimisticLockException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StaleStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.lock.OptimisticEntityLockException;
+
+/**
+ * Ejecuta las operaciones de base de datos fuera del hilo de eventos de Swing.
+ * Cada operación se lanza en un hilo virtual con su propia sesión y transacción, y devuelve un
+ * CompletableFuture con el resultado. Los hilos virtuales apenas consumen recursos mientras esperan
+ * a la base de datos; el número real de consultas simultáneas lo limita el pool de conexiones.
+ * Las operaciones sobre entidades con control de concurrencia optimista (@Version) pueden lanzarse con
+ * reintentos: si otra transacción ha modificado la misma fila, se repiten desde el principio.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public final class EjecutorBD {
+
+    /**
+     * Operación de acceso a datos sobre una sesión abierta (normalmente una llamada a un DAO).
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface OperacionBD<T> {
+        T ejecutar(Session sesion) throws Exception;
+    }
+
+    /**
+     * Operación de acceso a datos sobre una sesión sin estado (recorridos completos de una tabla).
+     * @param <T> Tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface OperacionSinEstado<T> {
+        T ejecutar(StatelessSession sesion) throws Exception;
+    }
+
+    /**
+     * Número máximo de intentos de una operación que falla por un conflicto de versión.
+     */
+    public static final int INTENTOS_CONFLICTO = 3;
+
+    private static final ExecutorService HILOS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("bd-", 0).factory());
+
+    private EjecutorBD() {
+    }
+
+    /**
+     * Ejecuta la operación en segundo plano dentro de una transacción, que se confirma si termina bien
+     * y se deshace si lanza una excepción.
+     *
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param operacion Operación a ejecutar.
+     * @return Futuro con el resultado de la operación.
+     */
+    public static <T> CompletableFuture<T> enTransaccion(SessionFactory sessionFactory, OperacionBD<T> operacion) {
+        return CompletableFuture.supplyAsync(() -> ejecutar(sessionFactory, operacion, false, false), HILOS);
+    }
+
+    /**
+     * Ejecuta la operación en segundo plano dentro de una transacción y, si falla porque otra transacción
+     * ha modificado entretanto una entidad versionada, la repite entera con una sesión nueva (hasta
+     * {@link #INTENTOS_CONFLICTO} veces). Los reintentos leen las entidades de la base de datos y no de
+     * la caché de segundo nivel, para partir de la versión confirmada más reciente.
+     * La operación no debe tener efectos fuera de la base de datos, ya que puede ejecutarse varias veces.
+     *
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param operacion Operación a ejecutar.
+     * @return Futuro con el resultado del intento que se confirma.
+     */
+    public static <T> CompletableFuture<T> enTransaccionConReintentos(SessionFactory sessionFactory, OperacionBD<T> operacion) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (int intento = 1; ; intento++) {
+                try {
+                    return ejecutar(sessionFactory, operacion, false, intento > 1);
+                } catch (CompletionException ex) {
+                    if (intento >= INTENTOS_CONFLICTO || !esConflictoVersion(ex)) {
+                        throw ex;
+                    }
+                }
+                // Espera breve y aleatoria para que los puestos en conflicto no vuelvan a coincidir
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * intento);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(ex);
+                }
+            }
+        }, HILOS);
+    }
+
+    /**
+     * Indica si un error se debe a un conflicto de concurrencia optimista (la versión de una entidad
+     * ha cambiado desde que se leyó).
+     *
+     * @param error Error recibido.
+     * @return true si alguna de sus causas es un conflicto de versión.
+     */
+    public static boolean esConflictoVersion(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof StaleStateException || t instanceof OptimisticLockException
+                    || t instanceof OptimisticEntityLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ejecuta una consulta en segundo plano con una sesión de solo lectura: las entidades cargadas
+     * no se comprueban al confirmar, ya que no se van a modificar.
+     *
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param consulta Consulta a ejecutar.
+     * @return Futuro con el resultado de la consulta.
+     */
+    public static <T> CompletableFuture<T> enLectura(SessionFactory sessionFactory, OperacionBD<T> consulta) {
+        return CompletableFuture.supplyAsync(() -> ejecutar(sessionFactory, consulta, true, false), HILOS);
+    }
+
+    /**
+     * Ejecuta un recorrido en segundo plano con una sesión sin estado: las filas leídas no se guardan
+     * en ningún contexto de persistencia, por lo que la memoria no crece con el tamaño de la tabla.
+     *
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param recorrido Recorrido a ejecutar.
+     * @return Futuro con el resultado del recorrido.
+     */
+    public static <T> CompletableFuture<T> sinEstado(SessionFactory sessionFactory, OperacionSinEstado<T> recorrido) {
+        return CompletableFuture.supplyAsync(() -> {
+            Transaction tr = null;
+            try (StatelessSession sesion = sessionFactory.openStatelessSession()) {
+                tr = sesion.beginTransaction();
+                T resultado = recorrido.ejecutar(sesion);
+                tr.commit();
+                return resultado;
+            } catch (Exception ex) {
+                if (tr != null && tr.isActive()) tr.rollback();
+                throw new CompletionException(ex);
+            }
+        }, HILOS);
+    }
+
+    /**
+     * Devuelve la excepción original de un futuro que ha fallado, sin los envoltorios
+     * CompletionException/ExecutionException.
+     *
+     * @param error Error recibido del futuro.
+     * @return La causa real del fallo.
+     */
+    public static Exception causa(Throwable error) {
+        Throwable t = error;
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof Exception ? (Exception) t : new Exception(t);
+    }
+
+    private static <T> T ejecutar(SessionFactory sessionFactory, OperacionBD<T> operacion, boolean soloLectura,
+            boolean sinLeerCache) {
+        Transaction tr = null;
+        try (Session sesion = sessionFactory.openSession()) {
+            sesion.setDefaultReadOnly(soloLectura);
+            if (sinLeerCache) {
+                sesion.setCacheMode(CacheMode.REFRESH);
+            }
+            tr = sesion.beginTransaction();
+            T resultado = operacion.ejecutar(sesion);
+            tr.commit();
+            return resultado;
+        } catch (Exception ex) {
+            if (tr != null && tr.isActive()) tr.rollback();
+            throw new CompletionException(ex);
+        }
+    }
+}
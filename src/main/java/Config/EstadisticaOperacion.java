@@ -0,0 +1,109 @@
+package Config;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Resumen de las medidas de una operación de acceso a datos en un momento dado.
+ * Se muestra en el panel de Diagnóstico y se publica por JMX.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class EstadisticaOperacion {
+
+    private final String operacion;
+    private final long llamadas;
+    private final long errores;
+    private final double mediaMs;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maximoMs;
+    private final long filas;
+    private final long entidades;
+
+    @ConstructorProperties({"operacion", "llamadas", "errores", "mediaMs", "p50Ms", "p95Ms", "p99Ms", "maximoMs",
+        "filas", "entidades"})
+    public EstadisticaOperacion(String operacion, long llamadas, long errores, double mediaMs, double p50Ms,
+            double p95Ms, double p99Ms, double maximoMs, long filas, long entidades) {
+        this.operacion = operacion;
+        this.llamadas = llamadas;
+        this.errores = errores;
+        this.mediaMs = mediaMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+        this.maximoMs = maximoMs;
+        this.filas = filas;
+        this.entidades = entidades;
+    }
+
+    /**
+     * @return Nombre de la operación (clase DAO y método).
+     */
+    public String getOperacion() {
+        return operacion;
+    }
+
+    /**
+     * @return Número de llamadas.
+     */
+    public long getLlamadas() {
+        return llamadas;
+    }
+
+    /**
+     * @return Número de llamadas que terminaron con excepción.
+     */
+    public long getErrores() {
+        return errores;
+    }
+
+    /**
+     * @return Latencia media en milisegundos.
+     */
+    public double getMediaMs() {
+        return mediaMs;
+    }
+
+    /**
+     * @return Mediana de la latencia en milisegundos.
+     */
+    public double getP50Ms() {
+        return p50Ms;
+    }
+
+    /**
+     * @return Percentil 95 de la latencia en milisegundos.
+     */
+    public double getP95Ms() {
+        return p95Ms;
+    }
+
+    /**
+     * @return Percentil 99 de la latencia en milisegundos.
+     */
+    public double getP99Ms() {
+        return p99Ms;
+    }
+
+    /**
+     * @return Latencia máxima en milisegundos.
+     */
+    public double getMaximoMs() {
+        return maximoMs;
+    }
+
+    /**
+     * @return Filas devueltas en total (tamaño de las listas, 1 por resultado único).
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * @return Entidades incorporadas a la sesión en total.
+     */
+    public long getEntidades() {
+        return entidades;
+    }
+}
@@ -0,0 +1,56 @@
+package Config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Regiones de la caché de segundo nivel y acceso a sus estadísticas de aciertos y fallos.
+ * Las regiones se configuran (tamaño y TTL) en ehcache.xml.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class EstadisticasCache {
+
+    /**
+     * Región de la caché de consultas usada por los listados de monitores y actividades.
+     */
+    public static final String REGION_LISTADOS = "consultas.listados";
+
+    /**
+     * Regiones de entidades y colecciones cacheadas.
+     */
+    public static final String[] REGIONES_ENTIDADES = {
+        "Modelo.Monitor", "Modelo.Actividad", "Modelo.Actividad.socios", "Modelo.Socio"
+    };
+
+    /**
+     * Devuelve los contadores de una región de entidades o colecciones.
+     * @param sf SessionFactory activa.
+     * @param region Nombre de la región.
+     * @return Estadísticas de la región.
+     */
+    public static CacheRegionStatistics region(SessionFactory sf, String region) {
+        return sf.getStatistics().getDomainDataRegionStatistics(region);
+    }
+
+    /**
+     * Devuelve un resumen legible de aciertos y fallos de la caché de segundo nivel y de la caché de consultas.
+     * @param sf SessionFactory activa.
+     * @return Texto con una línea por región.
+     */
+    public static String resumen(SessionFactory sf) {
+        Statistics st = sf.getStatistics();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Caché L2: %d aciertos, %d fallos, %d escrituras%n",
+                st.getSecondLevelCacheHitCount(), st.getSecondLevelCacheMissCount(), st.getSecondLevelCachePutCount()));
+        for (String nombre : REGIONES_ENTIDADES) {
+            CacheRegionStatistics r = st.getDomainDataRegionStatistics(nombre);
+            sb.append(String.format("  %-26s %6d aciertos %6d fallos %6d en memoria%n",
+                    nombre, r.getHitCount(), r.getMissCount(), r.getElementCountInMemory()));
+        }
+        sb.append(String.format("Caché de consultas: %d aciertos, %d fallos, %d escrituras",
+                st.getQueryCacheHitCount(), st.getQueryCacheMissCount(), st.getQueryCachePutCount()));
+        return sb.toString();
+    }
+}
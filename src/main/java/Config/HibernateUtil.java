@@ -1,52 +1,108 @@
 package Config;
 
+import com.zaxxer.hikari.pool.HikariPool;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.HibernateException;
 
 /**
  * Clase de utilidad para la configuración y gestión de la sesión de Hibernate.
  * Se encarga de establecer la conexión con la base de datos MariaDB y construir la SessionFactory.
+ * Las conexiones se obtienen de un pool propio ({@link PoolConexiones}) que se entrega a Hibernate como DataSource.
+ * Al crear la SessionFactory se publica el diagnóstico de rendimiento por JMX ({@link Diagnostico}).
+ * El esquema de la base de datos lo mantiene {@link MigradorEsquema}, no Hibernate.
  *
  * @author Manuel Martín Rodrigo
  */
 public class HibernateUtil {
-    private static SessionFactory sessionFactory;
-    private static StandardServiceRegistry serviceRegistry;
+    private static volatile SessionFactory sessionFactory;
+    private static volatile StandardServiceRegistry serviceRegistry;
+    private static volatile PoolConexiones pool;
 
     /**
      * Construye y devuelve la SessionFactory de Hibernate utilizando las credenciales proporcionadas.
-     * Configura dinámicamente la conexión JDBC.
+     * Crea el pool de conexiones con la URL dinámica del usuario y lo registra como DataSource.
+     * hibernate.cfg.xml se lee una sola vez: sus propiedades configuran tanto el pool como el registro de servicios.
      *
      * @param user Nombre de usuario para la conexión a la base de datos.
      * @param pass Contraseña del usuario.
      * @return La SessionFactory creada o null si ocurre un error.
      */
-    public static SessionFactory buildSessionFactory(String user, String pass) {
+    public static synchronized SessionFactory buildSessionFactory(String user, String pass) {
+        StandardServiceRegistryBuilder builder = new StandardServiceRegistryBuilder();
         try {
-            serviceRegistry = new StandardServiceRegistryBuilder()
-                .configure("hibernate.cfg.xml") // Carga la configuración base
-                .applySetting("hibernate.connection.username", user)
-                .applySetting("hibernate.connection.password", pass)
-                .applySetting("hibernate.connection.url", 
-                    "jdbc:mariadb://172.18.1.241:3306/" + user) // URL dinámica
+            builder.configure("hibernate.cfg.xml"); // Configuración base
+
+            pool = PoolConexiones.crear(builder.getAggregatedCfgXml().getConfigurationValues(),
+                    urlBaseDatos(user), // URL dinámica
+                    user, pass);
+
+            serviceRegistry = builder
+                .applySetting(AvailableSettings.DATASOURCE, pool.getDataSource())
                 .build();
 
             Metadata metadata = new MetadataSources(serviceRegistry).getMetadataBuilder().build();
             sessionFactory = metadata.getSessionFactoryBuilder().build();
+            Diagnostico.registrar(sessionFactory);
             return sessionFactory;
 
-        } catch (HibernateException e) {
-            if (serviceRegistry != null) {
-                StandardServiceRegistryBuilder.destroy(serviceRegistry);
-                serviceRegistry = null;
-            }
-            sessionFactory = null;
+        } catch (HibernateException | HikariPool.PoolInitializationException e) {
+            liberar(builder);
             System.err.println("Error al crear la SessionFactory: " + e.getMessage());
             return null;
+        } catch (RuntimeException e) {
+            liberar(builder);
+            throw e;
+        }
+    }
+
+    /**
+     * Libera lo creado por una construcción fallida de la SessionFactory: la factoría, el registro
+     * de servicios y el pool. Si el registro de servicios no llegó a construirse, se destruye
+     * el registro de arranque que el builder crea al leer hibernate.cfg.xml.
+     *
+     * @param builder Builder usado en la construcción.
+     */
+    private static void liberar(StandardServiceRegistryBuilder builder) {
+        boolean sinRegistro = serviceRegistry == null;
+        close();
+        if (sinRegistro) {
+            builder.getBootstrapServiceRegistry().close();
+        }
+    }
+
+    /**
+     * Devuelve la URL JDBC de la base de datos de un usuario (cada usuario tiene la suya, con su nombre).
+     *
+     * @param user Nombre de usuario.
+     * @return La URL de conexión.
+     */
+    public static String urlBaseDatos(String user) {
+        return "jdbc:mariadb://172.18.1.241:3306/" + user;
+    }
+
+    /**
+     * Aplica las migraciones de esquema pendientes con una conexión del pool.
+     *
+     * @return Migraciones aplicadas (vacía si el esquema ya estaba al día).
+     * @throws SQLException Si falla alguna migración.
+     * @throws IllegalStateException Si el pool no ha sido inicializado previamente.
+     */
+    public static List<String> migrarEsquema() throws SQLException {
+        if (pool == null) {
+            throw new IllegalStateException("El pool de conexiones aún no está inicializado.");
+        }
+        try (Connection con = pool.getDataSource().getConnection()) {
+            return new MigradorEsquema().migrar(con);
         }
     }
 
@@ -65,9 +121,49 @@ public class HibernateUtil {
     }
 
     /**
-     * Cierra la SessionFactory y libera los recursos del registro de servicios.
+     * Abre las conexiones mínimas del pool para que la primera pantalla no pague el coste de conexión.
+     *
+     * @throws SQLException Si no se pueden abrir las conexiones.
+     */
+    public static void precalentarConexiones() throws SQLException {
+        if (pool != null) {
+            pool.precalentar();
+        }
+    }
+
+    /**
+     * Precompila las consultas HQL indicadas. Hibernate guarda el plan de cada consulta en su caché,
+     * por lo que la primera ejecución real ya no tiene que analizarla.
+     *
+     * @param consultas Consultas HQL a precompilar.
+     */
+    public static void precompilarConsultas(Collection<String> consultas) {
+        try (Session session = getSessionFactory().openSession()) {
+            for (String hql : consultas) {
+                session.createQuery(hql);
+            }
+        }
+    }
+
+    /**
+     * Obtiene las métricas del pool de conexiones activo.
+     *
+     * @return Las métricas del pool.
+     * @throws IllegalStateException Si el pool no ha sido inicializado previamente.
      */
-    public static void close() {
+    public static MetricasPool getMetricasPool() {
+        if (pool == null) {
+            throw new IllegalStateException("El pool de conexiones aún no está inicializado.");
+        }
+        return pool.getMetricas();
+    }
+
+    /**
+     * Cierra la SessionFactory, libera los recursos del registro de servicios y cierra el pool de conexiones.
+     * Si hay una construcción en curso (arranque cancelado), espera a que termine y cierra lo construido.
+     */
+    public static synchronized void close() {
+        Diagnostico.desregistrar();
         try {
             if (sessionFactory != null && !sessionFactory.isClosed()) {
                 sessionFactory.close();
@@ -78,6 +174,10 @@ public class HibernateUtil {
                 StandardServiceRegistryBuilder.destroy(serviceRegistry);
                 serviceRegistry = null;
             }
+            if (pool != null) {
+                pool.cerrar();
+                pool = null;
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package Config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas (cuatro por cada potencia de dos, en microsegundos),
+ * lo que da percentiles con un error máximo del 25% usando memoria fija y sin bloqueos.
+ * Cubre desde 1 µs hasta varios minutos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class HistogramaLatencias {
+
+    private static final int SUBCUBETAS = 4;
+    private static final int CUBETAS = 40 * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumaMicros = new LongAdder();
+    private final AtomicLong maximoMicros = new AtomicLong();
+
+    /**
+     * Registra una medida.
+     * @param nanos Duración en nanosegundos.
+     */
+    public void registrar(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        cubetas.incrementAndGet(cubeta(micros));
+        total.increment();
+        sumaMicros.add(micros);
+        maximoMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return Número de medidas registradas.
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return Latencia media en milisegundos.
+     */
+    public double getMediaMs() {
+        long n = total.sum();
+        return n == 0 ? 0 : sumaMicros.sum() / 1000.0 / n;
+    }
+
+    /**
+     * @return Latencia máxima en milisegundos.
+     */
+    public double getMaximoMs() {
+        return maximoMicros.get() / 1000.0;
+    }
+
+    /**
+     * Calcula un percentil, redondeado al límite superior de su cubeta.
+     * @param p Percentil entre 0 y 1 (por ejemplo 0.95).
+     * @return Latencia en milisegundos por debajo de la cual está la fracción {@code p} de las medidas.
+     */
+    public double percentilMs(double p) {
+        long[] copia = new long[CUBETAS];
+        long n = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            n += copia[i];
+        }
+        if (n == 0) return 0;
+
+        long objetivo = (long) Math.ceil(p * n);
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximoMicros.get()) / 1000.0;
+            }
+        }
+        return getMaximoMs();
+    }
+
+    /**
+     * Pone a cero todas las medidas.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cubetas.set(i, 0);
+        }
+        total.reset();
+        sumaMicros.reset();
+        maximoMicros.set(0);
+    }
+
+    // Cubeta = 4 * floor(log2(micros)) + los dos bits siguientes al más significativo
+    private static int cubeta(long micros) {
+        int exponente = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponente < 2) {
+            return (int) micros;
+        }
+        int sub = (int) (micros >>> (exponente - 2)) & (SUBCUBETAS - 1);
+        return Math.min(CUBETAS - 1, exponente * SUBCUBETAS + sub);
+    }
+
+    private static long limiteSuperior(int cubeta) {
+        int exponente = cubeta / SUBCUBETAS;
+        if (exponente < 2) {
+            return cubeta + 1;
+        }
+        long ancho = 1L << (exponente - 2);
+        return (SUBCUBETAS + cubeta % SUBCUBETAS) * ancho + ancho;
+    }
+}
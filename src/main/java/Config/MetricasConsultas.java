@@ -0,0 +1,105 @@
+package Config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+
+/**
+ * Medidas de las operaciones de los DAOs: número de llamadas, histograma de latencias,
+ * filas devueltas y entidades cargadas en la sesión.
+ * Cada método de los DAOs se ejecuta a través de {@link #medir}; los datos se consultan en el panel
+ * de Diagnóstico y por JMX ({@link Diagnostico}).
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public final class MetricasConsultas {
+
+    /**
+     * Cuerpo de una operación medida.
+     * @param <T> Tipo del resultado.
+     * @param <E> Excepción que puede lanzar.
+     */
+    @FunctionalInterface
+    public interface Medible<T, E extends Exception> {
+        T ejecutar() throws E;
+    }
+
+    private static final Map<String, Metrica> METRICAS = new ConcurrentHashMap<>();
+
+    private MetricasConsultas() {
+    }
+
+    /**
+     * Ejecuta y mide una operación de acceso a datos.
+     *
+     * @param operacion Nombre de la operación (por ejemplo "SocioDAO.listaSocios").
+     * @param session Sesión usada; con una Session se cuentan también las entidades cargadas.
+     * @param cuerpo Operación a ejecutar.
+     * @return El resultado de la operación.
+     * @throws E La excepción de la operación, que también se contabiliza.
+     */
+    public static <T, E extends Exception> T medir(String operacion, SharedSessionContract session,
+            Medible<T, E> cuerpo) throws E {
+        Metrica m = METRICAS.get(operacion);
+        if (m == null) {
+            m = METRICAS.computeIfAbsent(operacion, k -> new Metrica());
+        }
+        Session conContexto = session instanceof Session ? (Session) session : null;
+        int entidadesAntes = conContexto != null ? conContexto.getStatistics().getEntityCount() : 0;
+        long inicio = System.nanoTime();
+        try {
+            T resultado = cuerpo.ejecutar();
+            m.filas.add(filas(resultado));
+            return resultado;
+        } catch (Exception ex) {
+            m.errores.increment();
+            throw ex;
+        } finally {
+            m.latencias.registrar(System.nanoTime() - inicio);
+            if (conContexto != null && conContexto.isOpen()) {
+                m.entidades.add(Math.max(0, conContexto.getStatistics().getEntityCount() - entidadesAntes));
+            }
+        }
+    }
+
+    /**
+     * @return Las medidas de todas las operaciones, de mayor a menor tiempo total.
+     */
+    public static List<EstadisticaOperacion> instantanea() {
+        List<EstadisticaOperacion> lista = new ArrayList<>();
+        for (Map.Entry<String, Metrica> e : METRICAS.entrySet()) {
+            HistogramaLatencias h = e.getValue().latencias;
+            lista.add(new EstadisticaOperacion(e.getKey(), h.getTotal(), e.getValue().errores.sum(), h.getMediaMs(),
+                    h.percentilMs(0.50), h.percentilMs(0.95), h.percentilMs(0.99), h.getMaximoMs(),
+                    e.getValue().filas.sum(), e.getValue().entidades.sum()));
+        }
+        lista.sort(Comparator.comparingDouble((EstadisticaOperacion o) -> o.getMediaMs() * o.getLlamadas()).reversed());
+        return lista;
+    }
+
+    /**
+     * Pone a cero todas las medidas.
+     */
+    public static void reiniciar() {
+        METRICAS.clear();
+    }
+
+    private static long filas(Object resultado) {
+        if (resultado == null) return 0;
+        if (resultado instanceof Collection) return ((Collection<?>) resultado).size();
+        return 1;
+    }
+
+    private static final class Metrica {
+        final HistogramaLatencias latencias = new HistogramaLatencias();
+        final LongAdder errores = new LongAdder();
+        final LongAdder filas = new LongAdder();
+        final LongAdder entidades = new LongAdder();
+    }
+}
@@ -0,0 +1,138 @@
+package Config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recoge las métricas del pool de conexiones.
+ * HikariCP notifica cada préstamo de conexión, su tiempo de uso y los timeouts;
+ * el estado instantáneo (conexiones activas, inactivas, hilos en espera) se lee de {@link PoolStats}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class MetricasPool implements MetricsTrackerFactory, IMetricsTracker {
+
+    private volatile PoolStats estadoPool;
+    private final LongAdder prestamos = new LongAdder();
+    private final LongAdder nanosEsperaTotal = new LongAdder();
+    private final AtomicLong nanosEsperaMaxima = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder milisUsoTotal = new LongAdder();
+    private final AtomicLong milisUsoMaximo = new AtomicLong();
+
+    /**
+     * Llamado por HikariCP al crear el pool; la propia instancia actúa como tracker.
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.estadoPool = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        prestamos.increment();
+        nanosEsperaTotal.add(elapsedAcquiredNanos);
+        nanosEsperaMaxima.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        milisUsoTotal.add(elapsedBorrowedMillis);
+        milisUsoMaximo.accumulateAndGet(elapsedBorrowedMillis, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    /**
+     * @return Conexiones prestadas en este momento.
+     */
+    public int getConexionesActivas() {
+        return estadoPool != null ? estadoPool.getActiveConnections() : 0;
+    }
+
+    /**
+     * @return Conexiones abiertas y libres en el pool.
+     */
+    public int getConexionesInactivas() {
+        return estadoPool != null ? estadoPool.getIdleConnections() : 0;
+    }
+
+    /**
+     * @return Conexiones físicas abiertas (activas + inactivas).
+     */
+    public int getConexionesTotales() {
+        return estadoPool != null ? estadoPool.getTotalConnections() : 0;
+    }
+
+    /**
+     * @return Hilos bloqueados esperando una conexión libre.
+     */
+    public int getHilosEsperando() {
+        return estadoPool != null ? estadoPool.getPendingThreads() : 0;
+    }
+
+    /**
+     * @return Número de conexiones entregadas desde el arranque.
+     */
+    public long getPrestamos() {
+        return prestamos.sum();
+    }
+
+    /**
+     * @return Tiempo medio de espera para obtener una conexión, en milisegundos.
+     */
+    public double getEsperaMediaMs() {
+        long n = prestamos.sum();
+        return n == 0 ? 0 : nanosEsperaTotal.sum() / (double) n / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return Mayor tiempo de espera registrado para obtener una conexión, en milisegundos.
+     */
+    public double getEsperaMaximaMs() {
+        return nanosEsperaMaxima.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return Tiempo medio que una conexión permanece prestada, en milisegundos.
+     */
+    public double getUsoMedioMs() {
+        long n = prestamos.sum();
+        return n == 0 ? 0 : milisUsoTotal.sum() / (double) n;
+    }
+
+    /**
+     * @return Mayor tiempo que una conexión ha permanecido prestada, en milisegundos.
+     */
+    public long getUsoMaximoMs() {
+        return milisUsoMaximo.get();
+    }
+
+    /**
+     * @return Peticiones que agotaron el connectionTimeout sin obtener conexión.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Devuelve un resumen legible de las métricas, útil para consola o diálogos.
+     * @return Texto con el estado actual del pool.
+     */
+    public String resumen() {
+        return String.format("Pool: %d activas, %d inactivas, %d totales, %d en espera%n"
+                + "Préstamos: %d, espera media %.2f ms, espera máxima %.2f ms, timeouts %d%n"
+                + "Uso medio %.1f ms, uso máximo %d ms",
+                getConexionesActivas(), getConexionesInactivas(), getConexionesTotales(), getHilosEsperando(),
+                getPrestamos(), getEsperaMediaMs(), getEsperaMaximaMs(), getTimeouts(),
+                getUsoMedioMs(), getUsoMaximoMs());
+    }
+}
@@ -0,0 +1,343 @@
+package Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Migraciones versionadas del esquema de la base de datos.
+ * Cada migración es un script "migraciones/V<versión>__<descripción>.sql" del classpath que se aplica
+ * una sola vez, en orden de versión; las aplicadas se anotan en la tabla VERSION_ESQUEMA junto con la
+ * suma de control del script, de modo que un script modificado después de aplicarse se detecta.
+ * Se ejecuta al iniciar sesión (antes de usar Hibernate) o desde la línea de comandos con
+ * "--migrar usuario contraseña".
+ * MariaDB confirma cada sentencia DDL por separado, así que una migración no se puede deshacer a medias:
+ * los scripts usan IF NOT EXISTS y comprobaciones previas para poder repetirse si fallan a mitad.
+ * Los scripts admiten la directiva DELIMITER para definir procedimientos y bloques compuestos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class MigradorEsquema {
+
+    /**
+     * Tabla con las versiones del esquema ya aplicadas.
+     */
+    public static final String TABLA_VERSIONES = "VERSION_ESQUEMA";
+
+    private static final String CARPETA = "migraciones/";
+
+    /**
+     * Scripts de migración, en orden de aplicación. Para añadir una migración se crea el script en
+     * src/main/resources/migraciones y se añade su nombre al final de la lista.
+     */
+    private static final String[] SCRIPTS = {
+        "V001__esquema_inicial.sql",
+        "V002__fechas_como_date.sql",
+        "V003__indices_consultas.sql",
+        "V004__procedimiento_estadisticas.sql",
+        "V005__capacidad_lista_espera.sql",
+        "V006__codigos_ancho_fijo.sql"
+    };
+
+    private static final Pattern NOMBRE_SCRIPT = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final Pattern DIRECTIVA_DELIMITER = Pattern.compile("(?i)DELIMITER\\s+(\\S+)\\s*");
+
+    private static final String SQL_CREAR_TABLA = "CREATE TABLE IF NOT EXISTS " + TABLA_VERSIONES + " ("
+            + "version INT NOT NULL PRIMARY KEY, descripcion VARCHAR(200) NOT NULL, "
+            + "sumaControl CHAR(64) NOT NULL, duracionMs BIGINT NOT NULL, "
+            + "aplicada TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final String SQL_APLICADAS = "SELECT version, sumaControl FROM " + TABLA_VERSIONES;
+    private static final String SQL_REGISTRAR = "INSERT INTO " + TABLA_VERSIONES
+            + " (version, descripcion, sumaControl, duracionMs) VALUES (?, ?, ?, ?)";
+    // Bloqueo con nombre para que dos clientes que arrancan a la vez no apliquen la misma migración
+    private static final String NOMBRE_BLOQUEO = "DDSI.migraciones";
+    private static final int ESPERA_BLOQUEO_S = 60;
+
+    /**
+     * Migración leída del classpath.
+     */
+    private static final class Migracion {
+        final int version;
+        final String descripcion;
+        final String texto;
+        final String sumaControl;
+
+        Migracion(int version, String descripcion, String texto) {
+            this.version = version;
+            this.descripcion = descripcion;
+            this.texto = texto;
+            this.sumaControl = sumaControl(texto);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("V%03d %s", version, descripcion);
+        }
+    }
+
+    /**
+     * Aplica las migraciones pendientes sobre una conexión.
+     * La conexión se usa en modo autocommit y se devuelve en ese modo.
+     *
+     * @param con Conexión con la base de datos del usuario.
+     * @return Migraciones aplicadas en esta llamada (vacía si el esquema ya estaba al día).
+     * @throws SQLException Si falla una migración o si un script aplicado ha cambiado.
+     */
+    public List<String> migrar(Connection con) throws SQLException {
+        List<Migracion> migraciones = cargarMigraciones();
+        boolean autocommit = con.getAutoCommit();
+        con.setAutoCommit(true);
+        try (Statement st = con.createStatement()) {
+            st.execute(SQL_CREAR_TABLA);
+            bloquear(con);
+            try {
+                Map<Integer, String> aplicadas = leerAplicadas(con);
+                List<String> resultado = new ArrayList<>();
+                for (Migracion m : migraciones) {
+                    String suma = aplicadas.get(m.version);
+                    if (suma != null) {
+                        if (!suma.equals(m.sumaControl)) {
+                            throw new SQLException("La migración " + m + " ha cambiado después de aplicarse: "
+                                    + "cree una migración nueva en lugar de modificar la existente.");
+                        }
+                        continue;
+                    }
+                    aplicar(con, m);
+                    resultado.add(m.toString());
+                }
+                return resultado;
+            } finally {
+                desbloquear(con);
+            }
+        } finally {
+            con.setAutoCommit(autocommit);
+        }
+    }
+
+    /**
+     * Devuelve la versión del esquema, es decir, la más alta registrada en VERSION_ESQUEMA.
+     *
+     * @param con Conexión con la base de datos del usuario.
+     * @return La versión actual, o 0 si no se ha aplicado ninguna migración.
+     * @throws SQLException Si falla la consulta.
+     */
+    public int versionActual(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(SQL_CREAR_TABLA);
+        }
+        return leerAplicadas(con).keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private void aplicar(Connection con, Migracion m) throws SQLException {
+        // Cada migración figura en la línea de tiempo del arranque con su duración real
+        PerfilArranque.Fase fase = PerfilArranque.empezar("Migración " + m);
+        try {
+            long inicio = System.nanoTime();
+            int n = 0;
+            try (Statement st = con.createStatement()) {
+                for (String sentencia : sentencias(m.texto)) {
+                    n++;
+                    st.execute(sentencia);
+                }
+            } catch (SQLException e) {
+                throw new SQLException("Error en la migración " + m + " (sentencia " + n + "): " + e.getMessage(),
+                        e.getSQLState(), e.getErrorCode(), e);
+            }
+            try (PreparedStatement ps = con.prepareStatement(SQL_REGISTRAR)) {
+                ps.setInt(1, m.version);
+                ps.setString(2, m.descripcion);
+                ps.setString(3, m.sumaControl);
+                ps.setLong(4, (System.nanoTime() - inicio) / 1_000_000);
+                ps.executeUpdate();
+            }
+        } finally {
+            fase.terminar();
+        }
+    }
+
+    private static Map<Integer, String> leerAplicadas(Connection con) throws SQLException {
+        Map<Integer, String> aplicadas = new HashMap<>();
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(SQL_APLICADAS)) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return aplicadas;
+    }
+
+    private static void bloquear(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            ps.setInt(2, ESPERA_BLOQUEO_S);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Otro cliente lleva más de " + ESPERA_BLOQUEO_S
+                            + " s actualizando el esquema de la base de datos.");
+                }
+            }
+        }
+    }
+
+    private static void desbloquear(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, NOMBRE_BLOQUEO);
+            ps.execute();
+        }
+    }
+
+    private static List<Migracion> cargarMigraciones() throws SQLException {
+        List<Migracion> migraciones = new ArrayList<>();
+        int anterior = 0;
+        for (String nombre : SCRIPTS) {
+            Matcher mt = NOMBRE_SCRIPT.matcher(nombre);
+            if (!mt.matches()) {
+                throw new IllegalStateException("Nombre de migración no válido: " + nombre);
+            }
+            int version = Integer.parseInt(mt.group(1));
+            if (version <= anterior) {
+                throw new IllegalStateException("Las migraciones deben estar en orden de versión: " + nombre);
+            }
+            anterior = version;
+            try (InputStream in = MigradorEsquema.class.getClassLoader().getResourceAsStream(CARPETA + nombre)) {
+                if (in == null) {
+                    throw new SQLException("No se encuentra la migración " + CARPETA + nombre);
+                }
+                String texto = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                migraciones.add(new Migracion(version, mt.group(2).replace('_', ' '), texto));
+            } catch (IOException e) {
+                throw new SQLException("No se puede leer la migración " + nombre, e);
+            }
+        }
+        return migraciones;
+    }
+
+    /**
+     * Divide un script en sentencias. El separador es ";" salvo que una línea "DELIMITER xx" lo cambie.
+     * No corta dentro de cadenas ni de comentarios, y descarta los comentarios de línea y las sentencias vacías.
+     *
+     * @param script Texto del script.
+     * @return Sentencias en orden, sin el separador.
+     */
+    static List<String> sentencias(String script) {
+        List<String> resultado = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        String delimitador = ";";
+        int i = 0;
+        int n = script.length();
+        while (i < n) {
+            // Directiva DELIMITER: solo al principio de una línea y fuera de una sentencia
+            if ((i == 0 || script.charAt(i - 1) == '\n') && actual.toString().isBlank()) {
+                int finLinea = script.indexOf('\n', i);
+                String linea = script.substring(i, finLinea < 0 ? n : finLinea).trim();
+                Matcher mt = DIRECTIVA_DELIMITER.matcher(linea);
+                if (mt.matches()) {
+                    delimitador = mt.group(1);
+                    actual.setLength(0);
+                    i = finLinea < 0 ? n : finLinea + 1;
+                    continue;
+                }
+            }
+            char c = script.charAt(i);
+            if (script.startsWith(delimitador, i)) {
+                cerrarSentencia(resultado, actual);
+                i += delimitador.length();
+            } else if (c == '\'' || c == '"' || c == '`') {
+                int fin = finCadena(script, i, c);
+                actual.append(script, i, fin);
+                i = fin;
+            } else if (script.startsWith("--", i) || c == '#') {
+                int finLinea = script.indexOf('\n', i);
+                i = finLinea < 0 ? n : finLinea;
+            } else if (script.startsWith("/*", i)) {
+                int fin = script.indexOf("*/", i + 2);
+                fin = fin < 0 ? n : fin + 2;
+                actual.append(script, i, fin);
+                i = fin;
+            } else {
+                actual.append(c);
+                i++;
+            }
+        }
+        cerrarSentencia(resultado, actual);
+        return resultado;
+    }
+
+    // Posición siguiente al cierre de la cadena que empieza en "inicio" (admite comillas dobladas y "\")
+    private static int finCadena(String script, int inicio, char comilla) {
+        int i = inicio + 1;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+            if (c == '\\' && comilla != '`') {
+                i += 2;
+            } else if (c == comilla) {
+                if (i + 1 < script.length() && script.charAt(i + 1) == comilla) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return script.length();
+    }
+
+    private static void cerrarSentencia(List<String> sentencias, StringBuilder actual) {
+        String sentencia = actual.toString().trim();
+        if (!sentencia.isEmpty()) {
+            sentencias.add(sentencia);
+        }
+        actual.setLength(0);
+    }
+
+    // SHA-256 del script con saltos de línea normalizados, para que no cambie según cómo se descargue el repositorio
+    private static String sumaControl(String texto) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(texto.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Aplica las migraciones pendientes desde la línea de comandos.
+     * Uso: {@code --migrar usuario contraseña} (la base de datos es la del usuario, como al iniciar sesión).
+     *
+     * @param args Usuario y contraseña.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Uso: --migrar <usuario> <contraseña>");
+            System.exit(2);
+        }
+        try (Connection con = DriverManager.getConnection(HibernateUtil.urlBaseDatos(args[0]), args[0], args[1])) {
+            MigradorEsquema migrador = new MigradorEsquema();
+            List<String> aplicadas = migrador.migrar(con);
+            for (String m : aplicadas) {
+                System.out.println("Aplicada " + m);
+            }
+            System.out.println(aplicadas.isEmpty() ? "El esquema ya estaba al día." : "Migraciones aplicadas: " + aplicadas.size());
+            System.out.println("Versión del esquema: " + migrador.versionActual(con));
+        } catch (SQLException e) {
+            System.err.println("Error al migrar el esquema: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
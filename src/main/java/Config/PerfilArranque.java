@@ -0,0 +1,108 @@
+package Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Línea de tiempo del arranque de la aplicación. Cada fase (conexión, migraciones, ventana principal,
+ * creación y primera carga de cada panel...) queda registrada con su inicio, medido desde el arranque,
+ * y su duración. Se consulta en la ventana de Diagnóstico.
+ * Las fases pueden empezar y terminar en hilos distintos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public final class PerfilArranque {
+
+    // Instante de referencia: la primera fase, que se registra al entrar en MAIN
+    private static final long ORIGEN = System.nanoTime();
+    private static final List<Fase> FASES = new CopyOnWriteArrayList<>();
+
+    private PerfilArranque() {
+    }
+
+    /**
+     * Fase del arranque. Mientras no se termina figura como "en curso".
+     */
+    public static final class Fase {
+        private final String nombre;
+        private final String hilo;
+        private final long inicioNs;
+        private volatile long finNs = -1;
+
+        private Fase(String nombre) {
+            this.nombre = nombre;
+            this.hilo = Thread.currentThread().getName();
+            this.inicioNs = System.nanoTime();
+        }
+
+        /**
+         * Marca el final de la fase. Las llamadas posteriores no la modifican.
+         */
+        public void terminar() {
+            if (finNs < 0) {
+                finNs = System.nanoTime();
+            }
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * @return Hilo en el que empezó la fase.
+         */
+        public String getHilo() {
+            return hilo;
+        }
+
+        /**
+         * @return Milisegundos desde el arranque hasta el inicio de la fase.
+         */
+        public double getInicioMs() {
+            return (inicioNs - ORIGEN) / 1_000_000.0;
+        }
+
+        /**
+         * @return Duración de la fase en milisegundos, o -1 si aún no ha terminado.
+         */
+        public double getDuracionMs() {
+            long fin = finNs;
+            return fin < 0 ? -1 : (fin - inicioNs) / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Registra el inicio de una fase.
+     *
+     * @param nombre Descripción de la fase.
+     * @return La fase, que se termina con {@link Fase#terminar()}.
+     */
+    public static Fase empezar(String nombre) {
+        Fase fase = new Fase(nombre);
+        FASES.add(fase);
+        return fase;
+    }
+
+    /**
+     * @return Las fases registradas, en el orden en que empezaron.
+     */
+    public static List<Fase> getFases() {
+        return new ArrayList<>(FASES);
+    }
+
+    /**
+     * Devuelve la línea de tiempo en texto, una fase por línea.
+     *
+     * @return Inicio, duración, nombre e hilo de cada fase.
+     */
+    public static String resumen() {
+        StringBuilder sb = new StringBuilder("Arranque (ms desde el inicio):");
+        for (Fase f : FASES) {
+            double duracion = f.getDuracionMs();
+            sb.append(String.format("%n  %9.1f  %12s  %-40s %s", f.getInicioMs(),
+                    duracion < 0 ? "en curso" : String.format("+%.1f", duracion), f.getNombre(), f.getHilo()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package Config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import javax.sql.DataSource;
+
+/**
+ * Pool de conexiones JDBC de la aplicación, basado en HikariCP.
+ * Sustituye al pool interno de Hibernate (DriverManager), que no está pensado para producción.
+ * Los parámetros del pool (tamaño mínimo/máximo, timeouts, detección de fugas...) se leen de
+ * las propiedades "hibernate.hikari.*" de hibernate.cfg.xml.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class PoolConexiones {
+
+    /**
+     * Prefijo de las propiedades del pool en hibernate.cfg.xml.
+     */
+    public static final String PREFIJO = "hibernate.hikari.";
+
+    private final HikariDataSource dataSource;
+    private final MetricasPool metricas;
+
+    private PoolConexiones(HikariDataSource dataSource, MetricasPool metricas) {
+        this.dataSource = dataSource;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Crea el pool y abre sus conexiones mínimas.
+     * La validación de conexiones usa Connection.isValid() (JDBC4), por lo que no es necesaria una consulta de prueba.
+     *
+     * @param ajustes Ajustes cargados de hibernate.cfg.xml.
+     * @param url URL JDBC de la base de datos.
+     * @param user Usuario de la base de datos.
+     * @param pass Contraseña del usuario.
+     * @return El pool inicializado.
+     * @throws com.zaxxer.hikari.pool.HikariPool.PoolInitializationException Si no se puede abrir la primera conexión.
+     */
+    public static PoolConexiones crear(Map<?, ?> ajustes, String url, String user, String pass) {
+        Properties props = new Properties();
+        for (Map.Entry<?, ?> e : ajustes.entrySet()) {
+            String clave = String.valueOf(e.getKey());
+            if (clave.startsWith(PREFIJO) && e.getValue() != null) {
+                props.setProperty(clave.substring(PREFIJO.length()), String.valueOf(e.getValue()));
+            }
+        }
+
+        HikariConfig config = new HikariConfig(props);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(pass);
+        Object driver = ajustes.get("hibernate.connection.driver_class");
+        if (driver != null) {
+            config.setDriverClassName(driver.toString());
+        }
+
+        MetricasPool metricas = new MetricasPool();
+        config.setMetricsTrackerFactory(metricas);
+
+        return new PoolConexiones(new HikariDataSource(config), metricas);
+    }
+
+    /**
+     * @return El DataSource que se entrega a Hibernate.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return Las métricas de uso del pool.
+     */
+    public MetricasPool getMetricas() {
+        return metricas;
+    }
+
+    /**
+     * @return Tamaño mínimo de conexiones inactivas configurado.
+     */
+    public int getMinimoConexiones() {
+        return dataSource.getMinimumIdle();
+    }
+
+    /**
+     * @return Tamaño máximo del pool configurado.
+     */
+    public int getMaximoConexiones() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * Abre de inmediato las conexiones mínimas del pool, sin esperar al rellenado en segundo plano de HikariCP.
+     * Se toman a la vez y se devuelven, de modo que quedan abiertas e inactivas para las primeras consultas.
+     *
+     * @throws SQLException Si no se puede abrir alguna conexión.
+     */
+    public void precalentar() throws SQLException {
+        List<Connection> conexiones = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMinimumIdle(); i++) {
+                conexiones.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection c : conexiones) {
+                c.close();
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las conexiones del pool.
+     */
+    public void cerrar() {
+        if (!dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+}
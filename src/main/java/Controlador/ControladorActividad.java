@@ -1,21 +1,38 @@
 package Controlador;
 
+import Config.EjecutorBD;
 import Modelo.Actividad;
 import Modelo.ActividadDAO;
+import Modelo.ActividadFila;
+import Modelo.CambioDatos;
+import Modelo.EstadisticaActividadDAO;
+import Modelo.GeneradorCodigos;
+import Modelo.HorarioMonitores;
+import Modelo.IndiceActividades;
+import Modelo.InscripcionDAO;
 import Modelo.Monitor;
 import Modelo.MonitorDAO;
+import Modelo.MonitorFila;
+import Modelo.RepositorioDatos;
 import Util.GestionTablasActividad;
+import Util.ModeloTablaEstadisticas;
+import Util.PeticionesBD;
 import Vista.VistaActividadDialog;
+import Vista.VistaEstadisticas;
 import Vista.VistaInicioActividades;
 import Vista.VistaMensajes;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.List;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 
 /**
  * Controlador para la gestión de Actividades.
@@ -23,20 +40,35 @@ import org.hibernate.Transaction;
  * gestionando la interacción entre la vista y el modelo.
  * * Implementa requisitos clave del checklist:
  * - Selección de hora mediante lista desplegable
- * - Validación de choque de monitores
- * - Validación de precio positivo
- * - Generación de estadísticas con procedimiento almacenado
+ * - Validación de choque de monitores, en altas y modificaciones, con el horario en memoria ({@link HorarioMonitores})
+ * - Validación de precio positivo y de aforo (opcional) mayor que cero
+ * - Búsqueda por nombre y descripción mientras se escribe, con un índice en memoria ({@link IndiceActividades})
+ * - Panel de estadísticas de todas las actividades (o de las seleccionadas), leídas de la tabla de estadísticas
+ * El horario y el índice se mantienen con los cambios de actividades que publica el repositorio compartido
+ * ({@link RepositorioDatos}), hechos desde este panel o desde cualquier otro.
  *
  * @author Manuel Martín Rodrigo
  */
 public class ControladorActividad implements ActionListener {
 
+    /**
+     * Pausa en la escritura del cuadro de búsqueda tras la que se busca.
+     */
+    private static final int RETARDO_BUSQUEDA_MS = 150;
+
     private final SessionFactory sessionFactory;
     private final VistaInicioActividades vInicioActividades;
     private final ActividadDAO actividadDAO;
     private final MonitorDAO monitorDAO;
+    private final EstadisticaActividadDAO estadisticaDAO;
+    private final InscripcionDAO inscripcionDAO;
+    private final GeneradorCodigos generadorCodigos;
+    private final HorarioMonitores horario;
+    private final IndiceActividades indice;
+    private final Timer temporizadorBusqueda;
     private final VistaMensajes vistaMensajes;
-    private Session sesion;
+    private final PeticionesBD peticiones;
+    private final RepositorioDatos repositorio;
 
     /**
      * Constructor del controlador.
@@ -44,13 +76,26 @@ public class ControladorActividad implements ActionListener {
      *
      * @param vInicioActividades Vista principal de gestión de actividades.
      * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param generadorCodigos Generador de los códigos de las altas.
+     * @param repositorio Repositorio compartido de socios, monitores y actividades.
      */
-    public ControladorActividad(VistaInicioActividades vInicioActividades, SessionFactory sessionFactory) {
+    public ControladorActividad(VistaInicioActividades vInicioActividades, SessionFactory sessionFactory,
+            GeneradorCodigos generadorCodigos, RepositorioDatos repositorio) {
         this.vInicioActividades = vInicioActividades;
         this.sessionFactory = sessionFactory;
-        this.actividadDAO = new ActividadDAO();
+        this.repositorio = repositorio;
+        this.actividadDAO = new ActividadDAO(repositorio);
         this.monitorDAO = new MonitorDAO();
+        this.estadisticaDAO = new EstadisticaActividadDAO();
+        this.inscripcionDAO = new InscripcionDAO(repositorio);
+        this.generadorCodigos = generadorCodigos;
+        this.horario = new HorarioMonitores();
+        this.indice = new IndiceActividades();
+        this.temporizadorBusqueda = new Timer(RETARDO_BUSQUEDA_MS, e -> buscarActividades());
+        this.temporizadorBusqueda.setRepeats(false);
         this.vistaMensajes = new VistaMensajes();
+        this.peticiones = new PeticionesBD(vInicioActividades);
+        repositorio.actividades().suscribir(this::aplicarCambioActividad);
         
         addListeners();
         dibujaRellenaTablaActividades();
@@ -74,35 +119,37 @@ public class ControladorActividad implements ActionListener {
         
         vInicioActividades.botonBuscar.addActionListener(this);
         vInicioActividades.botonBuscar.setActionCommand("BuscarActividad");
+        vInicioActividades.textoBuscar.addActionListener(this);
+        vInicioActividades.textoBuscar.setActionCommand("BuscarActividad");
+        vInicioActividades.textoBuscar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         
         vInicioActividades.botonEstadisticas.addActionListener(this);
         vInicioActividades.botonEstadisticas.setActionCommand("EstadisticasActividad");
     }
 
     /**
-     * Configura el modelo de la tabla y carga la lista de actividades desde la base de datos.
+     * Configura el modelo virtual de la tabla y carga las actividades desde la base de datos.
+     * Las actividades se cuentan en segundo plano y cada página se pide al mostrarse.
      */
     private void dibujaRellenaTablaActividades() {
-        GestionTablasActividad.inicializarTablaActividades(vInicioActividades);
+        GestionTablasActividad.inicializarTablaActividades(vInicioActividades, sessionFactory,
+                ex -> vistaMensajes.mostrarError("Error al recuperar las actividades: " + ex.getMessage()));
         GestionTablasActividad.dibujarTablaActividades(vInicioActividades);
-
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-
-            List<Actividad> listaActividades = actividadDAO.listaActividades(sesion);
-
-            GestionTablasActividad.vaciarTablaActividades();
-            GestionTablasActividad.rellenarTablaActividades(listaActividades);
-
-            tr.commit();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al recuperar las actividades: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        GestionTablasActividad.rellenarTablaActividades();
     }
 
     /**
@@ -133,23 +180,31 @@ public class ControladorActividad implements ActionListener {
         }
     }
 
+    /**
+     * Obtiene el siguiente ID del generador y abre el diálogo para crear una nueva actividad.
+     */
+    private void nuevaActividad() {
+        peticiones.lanzar(generadorCodigos.siguiente(GeneradorCodigos.Secuencia.ACTIVIDAD),
+                this::abrirDialogoNuevaActividad,
+                ex -> vistaMensajes.mostrarError("No se pudo asignar un ID de actividad: " + ex.getMessage()));
+    }
+
     /**
      * Abre el diálogo para crear una nueva actividad.
      * Carga las listas desplegables de días, horas y monitores.
+     * @param nuevoId ID asignado a la nueva actividad.
      */
-    private void nuevaActividad() {
+    private void abrirDialogoNuevaActividad(String nuevoId) {
         VistaActividadDialog dialog = new VistaActividadDialog();
         dialog.setTitle("Nueva Actividad");
 
-        // Generar ID automático
-        String nuevoId = calcularSiguienteCodigo();
         dialog.textoId.setText(nuevoId);
         dialog.textoId.setEditable(false);
 
         // Cargar Combos
         cargarDias(dialog);
         cargarHoras(dialog); // Carga las horas en el JComboBox
-        cargarMonitores(dialog);
+        cargarMonitores(dialog, null);
 
         dialog.botonAceptar.addActionListener(evt -> {
             if(validarDatos(dialog)) {
@@ -193,8 +248,20 @@ public class ControladorActividad implements ActionListener {
             return false;
         }
         
-        // 4. Validación de Monitor seleccionado
-        if (obtenerMonitorDelCombo(dialog) == null) {
+        // 4. Validación del aforo: vacío (sin límite) o un entero mayor que cero
+        try {
+            Integer capacidad = leerCapacidad(dialog);
+            if (capacidad != null && capacidad <= 0) {
+                vistaMensajes.mostrarError("El aforo debe ser mayor que cero (o vacío si no tiene límite).");
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            vistaMensajes.mostrarError("El aforo debe ser un número entero válido.");
+            return false;
+        }
+
+        // 5. Validación de Monitor seleccionado
+        if (codigoMonitorDelCombo(dialog) == null) {
             vistaMensajes.mostrarAdvertencia("Debe seleccionar un Monitor responsable.");
             return false;
         }
@@ -219,36 +286,38 @@ public class ControladorActividad implements ActionListener {
         
         try {
             a.setPrecioBaseMes(Integer.parseInt(dialog.textoPrecio.getText()));
+            a.setCapacidad(leerCapacidad(dialog));
         } catch(NumberFormatException e) { return; } // Ya validado antes
         
-        Monitor m = obtenerMonitorDelCombo(dialog);
-        a.setMonitorResponsable(m);
+        String codMonitor = codigoMonitorDelCombo(dialog);
 
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
+        dialog.botonAceptar.setEnabled(false);
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             //Choque de monitores
-            if(actividadDAO.existeChoqueMonitor(sesion, m.getCodMonitor(), a.getDia(), a.getHora())) {
-                vistaMensajes.mostrarError("El monitor ya tiene una actividad asignada el " + a.getDia() + " a las " + a.getHora() + "h.");
-                tr.rollback();
-                return;
+            if (horario.hayChoque(sesion, codMonitor, a.getDia(), a.getHora(), null)) {
+                return false;
             }
-
+            a.setMonitorResponsable(buscarMonitor(sesion, codMonitor));
             actividadDAO.insertarActividad(sesion, a);
-            tr.commit();
-
+            return true;
+        }), insertada -> {
+            if (!insertada) {
+                dialog.botonAceptar.setEnabled(true);
+                mostrarChoque(a);
+                return;
+            }
             vistaMensajes.mostrarInfo("Actividad creada correctamente");
             dialog.dispose();
-            dibujaRellenaTablaActividades();
-
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al insertar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
+            if (HorarioMonitores.esChoque(ex)) {
+                // Otro puesto ocupó la franja: el horario en memoria estaba desfasado
+                horario.invalidar();
+                mostrarChoque(a);
+            } else {
+                vistaMensajes.mostrarError("Error al insertar: " + ex.getMessage());
+            }
+        });
     }
 
     /**
@@ -266,26 +335,23 @@ public class ControladorActividad implements ActionListener {
             return;
         }
         
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
+        peticiones.lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             Actividad a = actividadDAO.buscarPorId(sesion, id);
             if (a != null) {
                 actividadDAO.borrarActividad(sesion, a);
-                tr.commit();
-                dibujaRellenaTablaActividades();
+                estadisticaDAO.eliminar(sesion, id);
             }
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al borrar (posiblemente tenga socios inscritos): " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+            return a != null;
+        }), borrada -> {
+            // Si otro puesto la había borrado ya, se quita la fila que quedaba
+            if (!borrada) {
+                GestionTablasActividad.modeloTablaActividades.quitarFila(id);
+            }
+        }, ex -> vistaMensajes.mostrarError("Error al borrar (posiblemente tenga socios inscritos): " + ex.getMessage()));
     }
 
     /**
-     * Prepara el formulario de actualización con los datos de la actividad seleccionada.
+     * Recupera en segundo plano la actividad seleccionada y abre su formulario de actualización.
      */
     private void actualizarActividad() {
         int fila = vInicioActividades.jTableActividades.getSelectedRow();
@@ -295,26 +361,30 @@ public class ControladorActividad implements ActionListener {
         }
         String id = (String) vInicioActividades.jTableActividades.getValueAt(fila, 0);
 
-        Transaction tr = null;
-        Actividad a = null;
-        try {
-            sesion = sessionFactory.openSession();
-            a = actividadDAO.buscarPorId(sesion, id);
-        } catch (Exception e) {
-            vistaMensajes.mostrarError("Error al recuperar actividad: " + e.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-
-        if (a == null) return;
+        peticiones.lanzar("actividadSeleccionada",
+                EjecutorBD.enLectura(sessionFactory, sesion -> actividadDAO.buscarPorIdConMonitor(sesion, id)),
+                a -> {
+                    if (a != null) abrirDialogoActualizarActividad(a);
+                },
+                ex -> vistaMensajes.mostrarError("Error al recuperar actividad: " + ex.getMessage()));
+    }
 
+    /**
+     * Prepara el formulario de actualización con los datos de la actividad.
+     * @param a Actividad a editar.
+     */
+    private void abrirDialogoActualizarActividad(Actividad a) {
         VistaActividadDialog dialog = new VistaActividadDialog();
         dialog.setTitle("Actualizar Actividad");
         
-        // Cargar listas
+        // Cargar listas (el monitor actual se selecciona al terminar de cargar su combo)
         cargarDias(dialog);
         cargarHoras(dialog);
-        cargarMonitores(dialog);
+        String monitorActual = null;
+        if (a.getMonitorResponsable() != null) {
+            monitorActual = a.getMonitorResponsable().getCodMonitor() + " - " + a.getMonitorResponsable().getNombre();
+        }
+        cargarMonitores(dialog, monitorActual);
 
         // Rellenar datos existentes
         dialog.textoId.setText(a.getIdActividad());
@@ -322,6 +392,7 @@ public class ControladorActividad implements ActionListener {
         dialog.textoNombre.setText(a.getNombre());
         dialog.textoPrecio.setText(String.valueOf(a.getPrecioBaseMes()));
         dialog.textoDescripcion.setText(a.getDescripcion());
+        dialog.textoCapacidad.setText(a.getCapacidad() == null ? "" : String.valueOf(a.getCapacidad()));
         
         // Seleccionar valores en los combos
         dialog.comboDia.setSelectedItem(a.getDia());
@@ -330,11 +401,6 @@ public class ControladorActividad implements ActionListener {
         String horaFormateada = String.format("%02d:00", a.getHora());
         dialog.comboHora.setSelectedItem(horaFormateada);
 
-        if (a.getMonitorResponsable() != null) {
-            String item = a.getMonitorResponsable().getCodMonitor() + " - " + a.getMonitorResponsable().getNombre();
-            dialog.comboMonitor.setSelectedItem(item);
-        }
-
         dialog.botonAceptar.setText("Actualizar");
         dialog.botonAceptar.addActionListener(evt -> {
             if(validarDatos(dialog)){
@@ -365,39 +431,94 @@ public class ControladorActividad implements ActionListener {
         try {
             a.setPrecioBaseMes(Integer.parseInt(dialog.textoPrecio.getText()));
         } catch(NumberFormatException e) {}
-        
-        Monitor monitorResponsable = obtenerMonitorDelCombo(dialog);
-        a.setMonitorResponsable(monitorResponsable);
-
-        Transaction tr = null;
+        // Un aforo ilegible no puede quedar en null: significaría plazas ilimitadas
         try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
-            // Nota: Se permite actualización directa. La validación de choque estricta
-            // requeriría excluir la propia actividad de la consulta SQL.
-            
-            actividadDAO.actualizarActividad(sesion, a);
-            tr.commit();
-
-            vistaMensajes.mostrarInfo("Actividad actualizada correctamente.");
+            a.setCapacidad(leerCapacidad(dialog));
+        } catch(NumberFormatException e) { return; } // Ya validado antes
+        
+        String codMonitor = codigoMonitorDelCombo(dialog);
+
+        dialog.botonAceptar.setEnabled(false);
+        // La actividad está versionada: si se inscribe alguien a la vez, se repite la actualización
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccionConReintentos(sessionFactory, sesion -> {
+            // Choque de monitores, sin contar la franja que ya ocupa la propia actividad
+            if (horario.hayChoque(sesion, codMonitor, a.getDia(), a.getHora(), a.getIdActividad())) {
+                return null;
+            }
+            a.setMonitorResponsable(buscarMonitor(sesion, codMonitor));
+            // Rechaza un aforo menor que las plazas ocupadas. Una inscripción simultánea incrementa la versión
+            // de la actividad, así que la comprobación se repite con el reintento
+            Actividad actual = actividadDAO.actualizarActividad(sesion, a);
+            // Los ingresos dependen del precio: se recalculan con los contadores por categoría
+            estadisticaDAO.actualizarPrecio(sesion, a.getIdActividad(), a.getPrecioBaseMes());
+            // Si se ha ampliado el aforo, las plazas nuevas pasan a la lista de espera
+            List<String> promovidos = inscripcionDAO.promover(sesion, actual);
+            if (!promovidos.isEmpty()) {
+                estadisticaDAO.reconstruir(sesion, List.of(a.getIdActividad()));
+            }
+            return promovidos;
+        }), promovidos -> {
+            if (promovidos == null) {
+                dialog.botonAceptar.setEnabled(true);
+                mostrarChoque(a);
+                return;
+            }
+            vistaMensajes.mostrarInfo(promovidos.isEmpty() ? "Actividad actualizada correctamente."
+                    : "Actividad actualizada correctamente.\nInscritos desde la lista de espera: " + String.join(", ", promovidos));
             dialog.dispose();
-            dibujaRellenaTablaActividades();
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
+            if (HorarioMonitores.esChoque(ex)) {
+                horario.invalidar();
+                mostrarChoque(a);
+            } else if (ex instanceof IllegalArgumentException) {
+                // Aforo menor que las plazas ocupadas o actividad borrada entretanto (ActividadDAO)
+                vistaMensajes.mostrarError(ex.getMessage());
+            } else {
+                vistaMensajes.mostrarError("Error al actualizar: " + ex.getMessage());
+            }
+        });
+    }
 
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al actualizar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+    /**
+     * Aplica a la tabla, al horario de monitores y al índice de búsqueda un alta, modificación o baja de
+     * actividad ya confirmada.
+     * @param cambio Cambio publicado por el repositorio.
+     */
+    private void aplicarCambioActividad(CambioDatos<ActividadFila> cambio) {
+        GestionTablasActividad.aplicarCambio(cambio);
+        if (cambio.esBaja()) {
+            horario.quitar(cambio.getClave());
+            indice.quitar(cambio.getClave());
+            return;
         }
+        ActividadFila a = cambio.getDatos();
+        horario.colocar(a.getIdActividad(), a.getCodMonitor(), a.getDia(), a.getHora());
+        indice.indexar(a.getIdActividad(), a.getNombre(), a.getDescripcion());
+    }
+
+    /**
+     * Lee el aforo del formulario.
+     * @return El aforo, o null si el campo está vacío (sin límite).
+     * @throws NumberFormatException Si no es un número entero.
+     */
+    private static Integer leerCapacidad(VistaActividadDialog dialog) {
+        String texto = dialog.textoCapacidad.getText().trim();
+        return texto.isEmpty() ? null : Integer.valueOf(texto);
+    }
+
+    /**
+     * Avisa de que el monitor elegido ya tiene otra actividad en la franja de la actividad.
+     */
+    private void mostrarChoque(Actividad a) {
+        vistaMensajes.mostrarError("El monitor ya tiene una actividad asignada el " + a.getDia() + " a las " + a.getHora() + "h.");
     }
 
     /**
      * Rellena el combo de días de la semana.
      */
     private void cargarDias(VistaActividadDialog dialog) {
-        String[] dias = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado", "Domingo"};
-        dialog.comboDia.setModel(new DefaultComboBoxModel<>(dias));
+        dialog.comboDia.setModel(new DefaultComboBoxModel<>(HorarioMonitores.DIAS));
     }
     
     /**
@@ -406,138 +527,129 @@ public class ControladorActividad implements ActionListener {
     private void cargarHoras(VistaActividadDialog dialog) {
         DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
         // Generamos horas de 8 a 22
-        for (int i = 8; i <= 22; i++) {
+        for (int i = HorarioMonitores.HORA_INICIO; i <= HorarioMonitores.HORA_FIN; i++) {
             model.addElement(String.format("%02d:00", i));
         }
         dialog.comboHora.setModel(model);
     }
 
     /**
-     * Rellena el combo de monitores con datos de la BD.
+     * Rellena el combo de monitores con la lista del repositorio compartido (se lee de la BD en
+     * segundo plano solo la primera vez).
+     * @param dialog Diálogo que contiene el combo.
+     * @param seleccionado Elemento a seleccionar al terminar ("código - nombre"), o null.
      */
-    private void cargarMonitores(VistaActividadDialog dialog) {
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            List<Monitor> monitores = monitorDAO.listaMonitores(sesion);
-
+    private void cargarMonitores(VistaActividadDialog dialog, String seleccionado) {
+        new PeticionesBD(dialog).lanzar(repositorio.monitores().listar(), monitores -> {
             DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
-            for (Monitor m : monitores) {
+            for (MonitorFila m : monitores) {
                 model.addElement(m.getCodMonitor() + " - " + m.getNombre());
             }
             dialog.comboMonitor.setModel(model);
-
-        } catch (Exception e) {
-            vistaMensajes.mostrarError("Error al cargar monitores");
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+            if (seleccionado != null) {
+                dialog.comboMonitor.setSelectedItem(seleccionado);
+            }
+        }, ex -> vistaMensajes.mostrarError("Error al cargar monitores"));
     }
 
     /**
-     * Recupera el objeto Monitor seleccionado en el combo.
+     * Devuelve el código del monitor seleccionado en el combo.
      */
-    private Monitor obtenerMonitorDelCombo(VistaActividadDialog dialog) {
+    private String codigoMonitorDelCombo(VistaActividadDialog dialog) {
         String seleccionado = (String) dialog.comboMonitor.getSelectedItem();
         if (seleccionado == null) return null;
 
-        String codigo = seleccionado.split(" - ")[0];
+        return seleccionado.split(" - ")[0];
+    }
 
-        Monitor m = null;
-        try {
-            sesion = sessionFactory.openSession();
-            m = monitorDAO.buscarPorCodMonitor(sesion, codigo);
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+    /**
+     * Recupera el monitor responsable elegido en el formulario.
+     * @throws Exception Si el monitor ya no existe.
+     */
+    private Monitor buscarMonitor(Session sesion, String codMonitor) throws Exception {
+        Monitor m = monitorDAO.buscarPorCodMonitor(sesion, codMonitor);
+        if (m == null) {
+            throw new Exception("El monitor " + codMonitor + " ya no existe.");
         }
         return m;
     }
 
     /**
-     * Filtra la tabla de actividades por nombre.
+     * Filtra la tabla de actividades con el texto del cuadro de búsqueda, ordenando por relevancia.
+     * La búsqueda se hace en memoria; solo la primera (o la primera tras caducar el índice) lo carga
+     * en segundo plano.
      */
     private void buscarActividades() {
+        temporizadorBusqueda.stop();
         String texto = vInicioActividades.textoBuscar.getText();
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            List<Actividad> listaResultados;
-
-            if (texto == null || texto.trim().isEmpty()) {
-                listaResultados = actividadDAO.listaActividades(sesion);
-            } else {
-                listaResultados = actividadDAO.buscarActividadesPorNombre(sesion, texto);
-            }
-            GestionTablasActividad.vaciarTablaActividades();
-            GestionTablasActividad.rellenarTablaActividades(listaResultados);
-            tr.commit();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al buscar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+        if (texto == null || texto.trim().isEmpty()) {
+            GestionTablasActividad.rellenarTablaActividades();
+        } else if (indice.estaCargado()) {
+            GestionTablasActividad.mostrarResultados(indice.buscar(texto));
+        } else {
+            peticiones.lanzar("indiceActividades", EjecutorBD.enLectura(sessionFactory, indice::cargar),
+                    n -> buscarActividades(),
+                    ex -> vistaMensajes.mostrarError("Error al preparar la búsqueda: " + ex.getMessage()));
         }
     }
 
     /**
-     * Muestra las estadísticas invocando al procedimiento almacenado.
+     * Abre el panel de estadísticas de las actividades seleccionadas en la tabla, o de todas si no hay selección.
      */
     private void mostrarEstadisticas() {
-        int fila = vInicioActividades.jTableActividades.getSelectedRow();
-        if (fila == -1) {
-            vistaMensajes.mostrarAdvertencia("Seleccione una actividad para ver sus estadísticas");
-            return;
+        List<String> ids = new ArrayList<>();
+        for (int fila : vInicioActividades.jTableActividades.getSelectedRows()) {
+            Object id = vInicioActividades.jTableActividades.getValueAt(fila, 0);
+            if (id != null) {
+                ids.add((String) id);
+            }
         }
 
-        String idActividad = (String) vInicioActividades.jTableActividades.getValueAt(fila, 0);
+        VistaEstadisticas vista = new VistaEstadisticas(SwingUtilities.getWindowAncestor(vInicioActividades));
+        ModeloTablaEstadisticas modelo = new ModeloTablaEstadisticas();
+        vista.tablaEstadisticas.setModel(modelo);
+        vista.tablaEstadisticas.getColumnModel().getColumn(1).setPreferredWidth(200);
+        vista.botonActualizar.addActionListener(e -> cargarEstadisticas(vista, modelo, ids));
+        vista.botonVerificar.addActionListener(e -> verificarEstadisticas(vista, modelo, ids));
+        vista.botonCerrar.addActionListener(e -> vista.dispose());
 
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
-            Object[] stats = actividadDAO.obtenerEstadisticas(sesion, idActividad);
-            tr.commit();
-
-            String mensaje = String.format("Estadísticas de la Actividad: %s\n\n"
-                    + "- Socios Inscritos: %s\n"
-                    + "- Edad Media: %s años\n"
-                    + "- Categoría Frecuente: %s\n"
-                    + "- Ingresos Totales: %s €",
-                    idActividad, stats[0], stats[1], stats[2], stats[3]);
-
-            JOptionPane.showMessageDialog(null, mensaje, "Estadísticas", JOptionPane.INFORMATION_MESSAGE);
-
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al calcular estadísticas: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        cargarEstadisticas(vista, modelo, ids);
+        vista.setVisible(true);
     }
-    
+
     /**
-     * Calcula el siguiente código de actividad disponible (ACT001, ACT002...).
+     * Compara en segundo plano las estadísticas guardadas con las calculadas desde las inscripciones,
+     * repara las que no coinciden y vuelve a cargar el panel.
      */
-    private String calcularSiguienteCodigo() {
-        Transaction tr = null;
-        String maxCod = null;
-        try {
-            sesion = sessionFactory.openSession();
-            maxCod = actividadDAO.obtenerUltimoCodigo(sesion);
-        } catch(Exception e) { } finally {
-            if(sesion != null && sesion.isOpen()) sesion.close();
-        }
-        
-        if (maxCod == null) return "ACT001";
-        
-        try {
-            String numPart = maxCod.substring(3); 
-            int num = Integer.parseInt(numPart) + 1;
-            return String.format("ACT%03d", num);
-        } catch(Exception e) {
-            return "ACT999";
-        }
+    private void verificarEstadisticas(VistaEstadisticas vista, ModeloTablaEstadisticas modelo, List<String> ids) {
+        vista.botonVerificar.setEnabled(false);
+        new PeticionesBD(vista).lanzar(EjecutorBD.enTransaccion(sessionFactory, estadisticaDAO::verificarYReparar),
+                reparadas -> {
+                    vista.botonVerificar.setEnabled(true);
+                    vistaMensajes.mostrarInfo(reparadas.isEmpty()
+                            ? "Las estadísticas están al día."
+                            : "Se han reparado las estadísticas de " + reparadas.size() + " actividades: "
+                            + String.join(", ", reparadas));
+                    cargarEstadisticas(vista, modelo, ids);
+                },
+                ex -> {
+                    vista.botonVerificar.setEnabled(true);
+                    vistaMensajes.mostrarError("Error al verificar estadísticas: " + ex.getMessage());
+                });
+    }
+
+    /**
+     * Lee en segundo plano las estadísticas y las muestra en el panel.
+     * @param ids IDs de las actividades, o lista vacía para todas.
+     */
+    private void cargarEstadisticas(VistaEstadisticas vista, ModeloTablaEstadisticas modelo, List<String> ids) {
+        new PeticionesBD(vista).lanzar(
+                EjecutorBD.enLectura(sessionFactory, sesion -> estadisticaDAO.obtenerEstadisticas(sesion, ids)),
+                estadisticas -> {
+                    modelo.setFilas(estadisticas);
+                    vista.etiquetaTotales.setText(String.format("%d actividades, %d inscripciones, %.2f € al mes",
+                            modelo.getRowCount(), modelo.getTotalSocios(), modelo.getTotalIngresos()));
+                },
+                ex -> vistaMensajes.mostrarError("Error al calcular estadísticas: " + ex.getMessage()));
     }
 }
@@ -1,11 +1,24 @@
 package Controlador;
 
+import Config.EjecutorBD;
 import Config.HibernateUtil;
+import Config.PerfilArranque;
+import Modelo.ActividadDAO;
+import Modelo.EstadisticaActividadDAO;
+import Modelo.MonitorDAO;
+import Modelo.SocioDAO;
 import Vista.VistaConexion;
 import Vista.VistaMensajes;
+import Vista.VistaProgreso;
 import org.hibernate.SessionFactory;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 /**
  * Controlador para la ventana de inicio de sesión.
@@ -16,6 +29,8 @@ import java.awt.event.ActionListener;
 public class ControladorConexion implements ActionListener {
     private VistaConexion vistaConexion;
     private VistaMensajes vistaMensajes;
+    private VistaProgreso vistaProgreso;
+    private ArranqueHibernate arranque;
     private SessionFactory sessionFactory;
     private String usuario;
     private String password;
@@ -24,6 +39,7 @@ public class ControladorConexion implements ActionListener {
      * Constructor del controlador. Inicializa la vista de conexión y sus listeners.
      */
     public ControladorConexion() {
+        PerfilArranque.Fase fase = PerfilArranque.empezar("Ventana de conexión");
         this.vistaConexion = new VistaConexion();
         this.vistaMensajes = new VistaMensajes();
         
@@ -33,6 +49,7 @@ public class ControladorConexion implements ActionListener {
         vistaConexion.setLocationRelativeTo(null);
         vistaConexion.setResizable(false);
         vistaConexion.setVisible(true);
+        fase.terminar();
     }
 
     /**
@@ -61,27 +78,153 @@ public class ControladorConexion implements ActionListener {
 
     /**
      * Intenta establecer la conexión con Hibernate usando las credenciales introducidas.
-     * Si es exitosa, abre el ControladorPrincipal.
+     * El arranque se ejecuta en segundo plano para no bloquear la ventana; si es exitoso, abre el ControladorPrincipal.
      */
     private void conectar() {
         usuario = vistaConexion.textoUser.getText().trim();
         password = new String(vistaConexion.textoPass.getPassword());
 
-        try {
-            sessionFactory = HibernateUtil.buildSessionFactory(usuario, password);
-            
-            if (sessionFactory == null || sessionFactory.isClosed()) {
-                vistaMensajes.mostrarError("Error al introducir las credenciales o conectar con el servidor.");
+        vistaConexion.botonEntrar.setEnabled(false);
+        vistaProgreso = new VistaProgreso(vistaConexion, "Conectando");
+        arranque = new ArranqueHibernate(usuario, password);
+
+        vistaProgreso.botonCancelar.addActionListener(evt -> cancelarConexion());
+        arranque.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                vistaProgreso.barraProgreso.setValue((Integer) evt.getNewValue());
+            }
+        });
+
+        vistaProgreso.setVisible(true);
+        arranque.execute();
+    }
+
+    /**
+     * Cancela el arranque en curso. El botón Entrar se reactiva cuando la tarea termina de liberar los recursos.
+     */
+    private void cancelarConexion() {
+        if (arranque != null && !arranque.isDone()) {
+            vistaProgreso.mostrarEstado("Cancelando...");
+            vistaProgreso.botonCancelar.setEnabled(false);
+            arranque.cancel(true);
+        }
+    }
+
+    /**
+     * Tarea en segundo plano que construye la SessionFactory y precalienta el acceso a datos:
+     * abre las conexiones mínimas del pool, aplica las migraciones de esquema pendientes y precompila
+     * las consultas HQL de los DAOs. Cada paso queda registrado en {@link PerfilArranque}.
+     */
+    private class ArranqueHibernate extends SwingWorker<SessionFactory, String> {
+
+        private final String user;
+        private final String pass;
+
+        ArranqueHibernate(String user, String pass) {
+            this.user = user;
+            this.pass = pass;
+        }
+
+        @Override
+        protected SessionFactory doInBackground() throws Exception {
+            publish("Conectando con el servidor...");
+            setProgress(10);
+            PerfilArranque.Fase fase = PerfilArranque.empezar("SessionFactory de Hibernate");
+            SessionFactory sf = HibernateUtil.buildSessionFactory(user, pass);
+            fase.terminar();
+            if (sf == null || isCancelled()) {
+                return null;
+            }
+
+            publish("Abriendo conexiones...");
+            setProgress(60);
+            fase = PerfilArranque.empezar("Conexiones del pool");
+            HibernateUtil.precalentarConexiones();
+            fase.terminar();
+            if (isCancelled()) {
+                return null;
+            }
+
+            publish("Actualizando el esquema de la base de datos...");
+            setProgress(70);
+            fase = PerfilArranque.empezar("Migraciones de esquema");
+            List<String> migraciones = HibernateUtil.migrarEsquema();
+            fase.terminar();
+            // MigradorEsquema registra cada migración aplicada, con su duración, en PerfilArranque
+            for (String migracion : migraciones) {
+                publish("Migración aplicada: " + migracion);
+            }
+            if (isCancelled()) {
+                return null;
+            }
+
+            publish("Preparando consultas...");
+            setProgress(80);
+            List<String> consultas = new ArrayList<>();
+            consultas.addAll(SocioDAO.CONSULTAS_HQL);
+            consultas.addAll(MonitorDAO.CONSULTAS_HQL);
+            consultas.addAll(ActividadDAO.CONSULTAS_HQL);
+            fase = PerfilArranque.empezar("Precompilación de consultas");
+            HibernateUtil.precompilarConsultas(consultas);
+            fase.terminar();
+            if (isCancelled()) {
+                return null;
+            }
+            publish("Preparando estadísticas...");
+            setProgress(90);
+            fase = PerfilArranque.empezar("Tabla de estadísticas");
+            prepararEstadisticas(sf);
+            fase.terminar();
+
+            setProgress(100);
+            return sf;
+        }
+
+        /**
+         * Rellena la tabla de estadísticas de actividades si está vacía.
+         * Un fallo aquí no impide entrar en la aplicación: solo afecta al panel de estadísticas.
+         */
+        private void prepararEstadisticas(SessionFactory sf) throws InterruptedException {
+            try {
+                EjecutorBD.enTransaccion(sf, sesion -> new EstadisticaActividadDAO().prepararTabla(sesion)).get();
+            } catch (ExecutionException e) {
+                System.err.println("No se pudo preparar la tabla de estadísticas: " + EjecutorBD.causa(e).getMessage());
+            }
+        }
+
+        @Override
+        protected void process(List<String> pasos) {
+            vistaProgreso.mostrarEstado(pasos.get(pasos.size() - 1));
+        }
+
+        @Override
+        protected void done() {
+            vistaProgreso.dispose();
+            if (isCancelled()) {
+                // La construcción de la factoría no se interrumpe: HibernateUtil.close() espera a que termine,
+                // así que se cierra fuera del hilo de eventos y después se reactiva el botón
+                CompletableFuture.runAsync(HibernateUtil::close)
+                        .whenCompleteAsync((r, error) -> vistaConexion.botonEntrar.setEnabled(true), SwingUtilities::invokeLater);
                 return;
             }
-            
-            vistaMensajes.mostrarInfo("Conexión correcta con Hibernate.\nAccediendo a la aplicación...");
-            vistaConexion.dispose();
-            new ControladorPrincipal(sessionFactory);
-            
-        } catch (Exception ex) {
-            HibernateUtil.close();
-            vistaMensajes.mostrarError("No se pudo conectar con la base de datos.\nDetalle: " + ex.getMessage());
+            try {
+                sessionFactory = get();
+                if (sessionFactory == null || sessionFactory.isClosed()) {
+                    vistaMensajes.mostrarError("Error al introducir las credenciales o conectar con el servidor.");
+                    vistaConexion.botonEntrar.setEnabled(true);
+                    return;
+                }
+
+                vistaMensajes.mostrarInfo("Conexión correcta con Hibernate.\nAccediendo a la aplicación...");
+                vistaConexion.dispose();
+                new ControladorPrincipal(sessionFactory);
+
+            } catch (InterruptedException | ExecutionException ex) {
+                HibernateUtil.close();
+                Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                vistaMensajes.mostrarError("No se pudo conectar con la base de datos.\nDetalle: " + causa.getMessage());
+                vistaConexion.botonEntrar.setEnabled(true);
+            }
         }
     }
 
@@ -0,0 +1,110 @@
+package Controlador;
+
+import Config.Diagnostico;
+import Config.EstadisticaOperacion;
+import Config.PerfilArranque;
+import Vista.VistaDiagnostico;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+import org.hibernate.SessionFactory;
+
+/**
+ * Controlador de la ventana de Diagnóstico.
+ * Presenta las medidas de las operaciones de los DAOs, los resúmenes de Hibernate, pool y caché y la
+ * línea de tiempo del arranque, refrescándolos periódicamente mientras la ventana está abierta.
+ * Los datos están en memoria, por lo que no se accede a la base de datos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class ControladorDiagnostico implements ActionListener {
+
+    private static final int PERIODO_REFRESCO_MS = 2000;
+    private static final String[] COLUMNAS = {"Operación", "Llamadas", "Errores", "Media (ms)", "p50 (ms)",
+        "p95 (ms)", "p99 (ms)", "Máx. (ms)", "Filas", "Entidades"};
+
+    private final VistaDiagnostico vista;
+    private final Diagnostico diagnostico;
+    private final DefaultTableModel modeloTabla;
+    private final Timer refresco;
+
+    /**
+     * Crea y muestra la ventana de diagnóstico.
+     * @param padre Ventana principal.
+     * @param sessionFactory SessionFactory activa.
+     */
+    public ControladorDiagnostico(Window padre, SessionFactory sessionFactory) {
+        this.vista = new VistaDiagnostico(padre);
+        this.diagnostico = new Diagnostico(sessionFactory);
+        this.modeloTabla = new DefaultTableModel(COLUMNAS, 0) {
+            @Override
+            public boolean isCellEditable(int fila, int columna) {
+                return false;
+            }
+        };
+        vista.tablaOperaciones.setModel(modeloTabla);
+        vista.tablaOperaciones.getColumnModel().getColumn(0).setPreferredWidth(260);
+
+        this.refresco = new Timer(PERIODO_REFRESCO_MS, e -> actualizar());
+        addListeners();
+        actualizar();
+        refresco.start();
+        vista.setVisible(true);
+    }
+
+    private void addListeners() {
+        vista.botonActualizar.addActionListener(this);
+        vista.botonActualizar.setActionCommand("Actualizar");
+        vista.botonReiniciar.addActionListener(this);
+        vista.botonReiniciar.setActionCommand("Reiniciar");
+        vista.botonCerrar.addActionListener(this);
+        vista.botonCerrar.setActionCommand("Cerrar");
+        vista.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refresco.stop();
+            }
+        });
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        switch (e.getActionCommand()) {
+            case "Actualizar":
+                actualizar();
+                break;
+            case "Reiniciar":
+                diagnostico.reiniciar();
+                actualizar();
+                break;
+            case "Cerrar":
+                vista.dispose();
+                break;
+        }
+    }
+
+    /**
+     * Vuelve a leer las medidas y los resúmenes.
+     */
+    private void actualizar() {
+        modeloTabla.setRowCount(0);
+        for (EstadisticaOperacion o : diagnostico.getOperaciones()) {
+            modeloTabla.addRow(new Object[]{o.getOperacion(), o.getLlamadas(), o.getErrores(),
+                ms(o.getMediaMs()), ms(o.getP50Ms()), ms(o.getP95Ms()), ms(o.getP99Ms()), ms(o.getMaximoMs()),
+                o.getFilas(), o.getEntidades()});
+        }
+        vista.textoResumen.setText(diagnostico.getResumenHibernate() + "\n\n"
+                + diagnostico.getResumenPool() + "\n\n"
+                + diagnostico.getResumenCache() + "\n\n"
+                + PerfilArranque.resumen());
+        vista.textoResumen.setCaretPosition(0);
+    }
+
+    private static String ms(double valor) {
+        return String.format("%.2f", valor);
+    }
+}
@@ -1,53 +1,97 @@
 package Controlador;
 
+import Config.EjecutorBD;
 import Modelo.Actividad;
 import Modelo.ActividadDAO;
+import Modelo.ActividadFila;
+import Modelo.CambioDatos;
+import Modelo.EstadisticaActividadDAO;
+import Modelo.InscripcionDAO;
+import Modelo.RepositorioDatos;
+import Modelo.ResultadoInscripcion;
 import Modelo.Socio;
 import Modelo.SocioDAO;
+import Modelo.SocioFila;
+import Util.PeticionesBD;
+import Vista.VistaInscripcionMasiva;
 import Vista.VistaInscripciones;
 import Vista.VistaMensajes;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.DefaultListModel;
+import javax.swing.SwingUtilities;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 
 /**
  * Controlador para la gestión de Inscripciones.
- * Permite inscribir y desinscribir socios de actividades de forma visual.
+ * Permite inscribir y desinscribir socios de actividades de forma visual, de uno en uno o
+ * a varios socios a la vez (inscripción masiva).
+ * Si la actividad está completa el socio pasa a su lista de espera, y al dar de baja a un socio se
+ * inscribe al primero que espera. Las operaciones de un socio se repiten si otro puesto ha cambiado
+ * la misma actividad a la vez.
  * Gestiona la interacción entre la ventana de inscripciones (Vista) y la base de datos (Modelo).
+ * Los socios y las actividades de los desplegables se toman del repositorio compartido ({@link RepositorioDatos}),
+ * y el desplegable de socios se corrige con cada alta, modificación o baja confirmada mientras la ventana
+ * está abierta, sin volver a leerlo entero.
  * @author Manuel Martín Rodrigo
  */
 public class ControladorInscripciones implements ActionListener {
 
+    /**
+     * Marca de las actividades de la lista de inscritas en las que el socio solo espera plaza.
+     */
+    private static final String SUFIJO_LISTA_ESPERA = " (lista de espera)";
+
     private final SessionFactory sessionFactory;
     private final VistaInscripciones vInscripciones;
     private final SocioDAO socioDAO;
     private final ActividadDAO actividadDAO;
+    private final EstadisticaActividadDAO estadisticaDAO;
+    private final InscripcionDAO inscripcionDAO;
     private final VistaMensajes vistaMensajes;
-    private Session sesion;
+    private final PeticionesBD peticiones;
+    private final RepositorioDatos repositorio;
+    private final Runnable cancelarSuscripcion;
+    private boolean sociosCargados;
 
     /**
      * Constructor de la clase.
      * Inicializa los recursos, conecta los listeners y carga la lista inicial de socios.
      * * @param vInscripciones Instancia de la vista (ventana) de inscripciones.
      * @param sessionFactory Fábrica de sesiones para conectar con Hibernate.
+     * @param repositorio Repositorio compartido de socios, monitores y actividades.
      */
-    public ControladorInscripciones(VistaInscripciones vInscripciones, SessionFactory sessionFactory) {
+    public ControladorInscripciones(VistaInscripciones vInscripciones, SessionFactory sessionFactory,
+            RepositorioDatos repositorio) {
         this.vInscripciones = vInscripciones;
         this.sessionFactory = sessionFactory;
+        this.repositorio = repositorio;
         this.socioDAO = new SocioDAO();
         this.actividadDAO = new ActividadDAO();
+        this.estadisticaDAO = new EstadisticaActividadDAO();
+        this.inscripcionDAO = new InscripcionDAO(repositorio);
         this.vistaMensajes = new VistaMensajes();
+        this.peticiones = new PeticionesBD(vInscripciones);
+        this.cancelarSuscripcion = repositorio.socios().suscribir(this::aplicarCambioSocio);
 
         addListeners();
         cargarSocios();
     }
 
+    /**
+     * Deja de recibir los cambios de socios del repositorio. Debe llamarse al cerrar la ventana.
+     */
+    public void cerrar() {
+        cancelarSuscripcion.run();
+    }
+
     /**
      * Asigna los manejadores de eventos (ActionListeners) a los botones y componentes.
      * Define qué métodos se ejecutan al pulsar Alta, Baja o cambiar de Socio.
@@ -58,44 +102,98 @@ public class ControladorInscripciones implements ActionListener {
         
         this.vInscripciones.botonBaja.addActionListener(this);
         this.vInscripciones.botonBaja.setActionCommand("Baja");
+
+        this.vInscripciones.botonMasiva.addActionListener(this);
+        this.vInscripciones.botonMasiva.setActionCommand("Masiva");
         
         // Listener especial: Al seleccionar otro socio en el desplegable, recargamos sus actividades
         this.vInscripciones.comboSocios.addActionListener(e -> cargarListasActividades());
     }
 
     /**
-     * Recupera todos los socios de la base de datos y los carga en el ComboBox (desplegable).
+     * Carga todos los socios del repositorio compartido en el ComboBox (desplegable), por orden de número.
      * Muestra el ID y Nombre para facilitar la selección.
      */
     private void cargarSocios() {
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            List<Socio> socios = socioDAO.listaSocios(sesion);
-            
+        peticiones.lanzar("socios", repositorio.socios().listar(), socios -> {
             DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
-            for (Socio s : socios) {
-                // Formato visual: "S001 - Juan Pérez"
-                model.addElement(s.getNumeroSocio() + " - " + s.getNombre());
+            for (SocioFila s : socios) {
+                model.addElement(textoSocio(s));
             }
             vInscripciones.comboSocios.setModel(model);
+            sociosCargados = true;
             
             // Si hay datos, seleccionamos el primero por defecto y actualizamos las listas
             if (model.getSize() > 0) {
                 vInscripciones.comboSocios.setSelectedIndex(0);
                 cargarListasActividades();
             }
-            
-        } catch (Exception e) {
-            vistaMensajes.mostrarError("Error al cargar socios: " + e.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+        }, ex -> vistaMensajes.mostrarError("Error al cargar socios: " + ex.getMessage()));
+    }
+
+    /**
+     * Corrige el desplegable de socios con un alta, modificación o baja confirmada: localiza la posición
+     * del socio por búsqueda binaria (el desplegable está ordenado por número) y toca solo ese elemento.
+     * @param cambio Cambio publicado por el repositorio.
+     */
+    private void aplicarCambioSocio(CambioDatos<SocioFila> cambio) {
+        if (!sociosCargados) {
+            // La carga en curso ya incluye el cambio
+            return;
+        }
+        DefaultComboBoxModel<String> modelo = (DefaultComboBoxModel<String>) vInscripciones.comboSocios.getModel();
+        int posicion = posicionSocio(modelo, cambio.getClave());
+        if (cambio.esBaja()) {
+            if (posicion >= 0) {
+                modelo.removeElementAt(posicion);
+            }
+            return;
+        }
+        String texto = textoSocio(cambio.getDatos());
+        if (posicion < 0) {
+            modelo.insertElementAt(texto, -posicion - 1);
+        } else if (!texto.equals(modelo.getElementAt(posicion))) {
+            boolean seleccionado = modelo.getElementAt(posicion).equals(modelo.getSelectedItem());
+            modelo.removeElementAt(posicion);
+            modelo.insertElementAt(texto, posicion);
+            if (seleccionado) {
+                modelo.setSelectedItem(texto);
+            }
+        }
+    }
+
+    /**
+     * Busca un socio en el desplegable, ordenado por número de socio.
+     * @return Su posición, o (-(posición de inserción) - 1) si no está.
+     */
+    private static int posicionSocio(ComboBoxModel<String> modelo, String numeroSocio) {
+        int bajo = 0;
+        int alto = modelo.getSize() - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int c = modelo.getElementAt(medio).split(" - ")[0].compareTo(numeroSocio);
+            if (c < 0) {
+                bajo = medio + 1;
+            } else if (c > 0) {
+                alto = medio - 1;
+            } else {
+                return medio;
+            }
         }
+        return -(bajo + 1);
+    }
+
+    /**
+     * @return Texto del socio en el desplegable (ej: "S001 - Juan Pérez").
+     */
+    private static String textoSocio(SocioFila s) {
+        return s.getNumeroSocio() + " - " + s.getNombre();
     }
 
     /**
      * Actualiza las dos listas visuales (Inscritas vs Disponibles) según el socio seleccionado.
-     * Separa las actividades en las que el socio ya está apuntado de las que no.
+     * Separa las actividades en las que el socio ya está apuntado de las que no, con una sola consulta.
+     * Si se cambia de socio antes de que terminen de cargarse, se descarta la carga anterior.
      */
     private void cargarListasActividades() {
         String seleccionado = (String) vInscripciones.comboSocios.getSelectedItem();
@@ -104,49 +202,30 @@ public class ControladorInscripciones implements ActionListener {
         // Extraemos el código del socio del texto del combo (ej: "S001")
         String codSocio = seleccionado.split(" - ")[0];
         
-        try {
-            sesion = sessionFactory.openSession();
-            
-            Socio socio = socioDAO.buscarPorNumeroSocio(sesion, codSocio);
-            List<Actividad> todas = actividadDAO.listaActividades(sesion);
-            
-            DefaultListModel<String> modelInscritas = new DefaultListModel<>();
-            DefaultListModel<String> modelDisponibles = new DefaultListModel<>();
-            
-            // Obtenemos el conjunto de actividades donde ya está inscrito
-            Set<Actividad> inscritas = socio.getActividadSet(); 
-            
-            // 1. Rellenar lista de actividades YA INSCRITAS (Derecha)
-            for (Actividad a : inscritas) {
-                modelInscritas.addElement(a.getIdActividad() + " - " + a.getNombre());
-            }
-            
-            // 2. Rellenar lista de actividades DISPONIBLES (Izquierda)
-            // Recorremos todas y añadimos solo las que NO estén en el set de inscritas
-            for (Actividad a : todas) {
-                boolean yaInscrito = false;
-                // Comparamos por ID para asegurar la igualdad
-                for(Actividad inscrita : inscritas) {
-                    if(inscrita.getIdActividad().equals(a.getIdActividad())) {
-                        yaInscrito = true;
-                        break;
+        peticiones.lanzar("listas",
+                EjecutorBD.enLectura(sessionFactory, sesion -> inscripcionDAO.listasInscripcion(sesion, codSocio)),
+                listas -> {
+                    // Derecha: actividades YA INSCRITAS (y las de lista de espera); izquierda: DISPONIBLES
+                    DefaultListModel<String> inscritas = modeloLista(listas.getInscritas());
+                    for (String[] a : listas.getEnEspera()) {
+                        inscritas.addElement(a[0] + " - " + a[1] + SUFIJO_LISTA_ESPERA);
                     }
-                }
-                
-                if (!yaInscrito) {
-                    modelDisponibles.addElement(a.getIdActividad() + " - " + a.getNombre());
-                }
-            }
-            
-            // Asignamos los modelos a las listas visuales
-            vInscripciones.listaActividadesInscritas.setModel(modelInscritas);
-            vInscripciones.listaActividadesNoInscritas.setModel(modelDisponibles);
-            
-        } catch (Exception e) {
-            vistaMensajes.mostrarError("Error al cargar listas: " + e.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+                    vInscripciones.listaActividadesInscritas.setModel(inscritas);
+                    vInscripciones.listaActividadesNoInscritas.setModel(modeloLista(listas.getDisponibles()));
+                }, ex -> vistaMensajes.mostrarError("Error al cargar listas: " + ex.getMessage()));
+    }
+
+    /**
+     * Crea el modelo de una lista visual con el formato "ACT001 - Nombre".
+     * @param actividades Pares (ID, nombre) de las actividades.
+     * @return Modelo para la JList.
+     */
+    private static DefaultListModel<String> modeloLista(List<String[]> actividades) {
+        DefaultListModel<String> modelo = new DefaultListModel<>();
+        for (String[] a : actividades) {
+            modelo.addElement(a[0] + " - " + a[1]);
         }
+        return modelo;
     }
 
     /**
@@ -159,9 +238,108 @@ public class ControladorInscripciones implements ActionListener {
             realizarInscripcion();
         } else if ("Baja".equals(e.getActionCommand())) {
             realizarDesinscripcion();
+        } else if ("Masiva".equals(e.getActionCommand())) {
+            abrirInscripcionMasiva();
         }
     }
 
+    /**
+     * Abre la ventana de inscripción masiva con los socios del desplegable y carga las actividades.
+     */
+    private void abrirInscripcionMasiva() {
+        VistaInscripcionMasiva dialog = new VistaInscripcionMasiva(SwingUtilities.getWindowAncestor(vInscripciones));
+        PeticionesBD peticionesDialogo = new PeticionesBD(dialog);
+
+        DefaultListModel<String> socios = new DefaultListModel<>();
+        ComboBoxModel<String> modeloCombo = vInscripciones.comboSocios.getModel();
+        for (int i = 0; i < modeloCombo.getSize(); i++) {
+            socios.addElement(modeloCombo.getElementAt(i));
+        }
+        dialog.listaSocios.setModel(socios);
+
+        peticionesDialogo.lanzar("actividades", repositorio.actividades().listar(),
+                actividades -> {
+                    DefaultComboBoxModel<String> modelo = new DefaultComboBoxModel<>();
+                    for (ActividadFila a : actividades) {
+                        modelo.addElement(a.getIdActividad() + " - " + a.getNombre());
+                    }
+                    dialog.comboActividades.setModel(modelo);
+                }, ex -> vistaMensajes.mostrarError("Error al cargar actividades: " + ex.getMessage()));
+
+        dialog.botonInscribir.addActionListener(evt -> inscripcionMasiva(dialog, peticionesDialogo, true));
+        dialog.botonBaja.addActionListener(evt -> inscripcionMasiva(dialog, peticionesDialogo, false));
+        dialog.botonCerrar.addActionListener(evt -> dialog.dispose());
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Inscribe (o da de baja) a todos los socios seleccionados en la actividad elegida, en una sola
+     * transacción, y muestra el resultado de cada socio.
+     * Las estadísticas de la actividad se recalculan en la misma transacción si ha habido cambios.
+     * @param dialog Ventana de inscripción masiva.
+     * @param peticionesDialogo Peticiones de la ventana.
+     * @param alta true para inscribir, false para dar de baja.
+     */
+    private void inscripcionMasiva(VistaInscripcionMasiva dialog, PeticionesBD peticionesDialogo, boolean alta) {
+        String actividad = (String) dialog.comboActividades.getSelectedItem();
+        List<String> seleccion = dialog.listaSocios.getSelectedValuesList();
+        if (actividad == null || seleccion.isEmpty()) {
+            vistaMensajes.mostrarAdvertencia("Seleccione una actividad y al menos un socio.");
+            return;
+        }
+        String codActividad = actividad.split(" - ")[0];
+        List<String> codSocios = new ArrayList<>(seleccion.size());
+        for (String s : seleccion) {
+            codSocios.add(s.split(" - ")[0]);
+        }
+
+        dialog.botonInscribir.setEnabled(false);
+        dialog.botonBaja.setEnabled(false);
+        peticionesDialogo.lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
+            Map<String, ResultadoInscripcion> resultado = alta
+                    ? inscripcionDAO.inscribir(sesion, codActividad, codSocios)
+                    : inscripcionDAO.darDeBaja(sesion, codActividad, codSocios);
+            for (ResultadoInscripcion r : resultado.values()) {
+                if (r.esCambio()) {
+                    estadisticaDAO.reconstruir(sesion, List.of(codActividad));
+                    break;
+                }
+            }
+            return resultado;
+        }), resultado -> {
+            dialog.botonInscribir.setEnabled(true);
+            dialog.botonBaja.setEnabled(true);
+            dialog.areaResultados.setText(informe(resultado));
+            dialog.areaResultados.setCaretPosition(0);
+            cargarListasActividades();
+        }, ex -> {
+            dialog.botonInscribir.setEnabled(true);
+            dialog.botonBaja.setEnabled(true);
+            vistaMensajes.mostrarError("Error en la inscripción masiva: " + ex.getMessage());
+        });
+    }
+
+    /**
+     * Resume el resultado de una operación masiva: totales por resultado y una línea por socio.
+     * @param resultado Resultado de cada socio.
+     * @return Texto para mostrar.
+     */
+    private static String informe(Map<String, ResultadoInscripcion> resultado) {
+        Map<ResultadoInscripcion, Integer> totales = new EnumMap<>(ResultadoInscripcion.class);
+        for (ResultadoInscripcion r : resultado.values()) {
+            totales.merge(r, 1, Integer::sum);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<ResultadoInscripcion, Integer> e : totales.entrySet()) {
+            sb.append(e.getKey().getDescripcion()).append(": ").append(e.getValue()).append('\n');
+        }
+        sb.append('\n');
+        for (Map.Entry<String, ResultadoInscripcion> e : resultado.entrySet()) {
+            sb.append(e.getKey()).append(" - ").append(e.getValue().getDescripcion()).append('\n');
+        }
+        return sb.toString();
+    }
+
     /**
      * Realiza la inscripción de un socio en una actividad.
      * Mueve la actividad de la lista de disponibles a la de inscritas y guarda en BD.
@@ -179,38 +357,32 @@ public class ControladorInscripciones implements ActionListener {
         String codSocio = socioSeleccionado.split(" - ")[0];
         String codActividad = actSeleccionada.split(" - ")[0];
         
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
+        // Si otro puesto ocupa una plaza de la actividad a la vez, se repite con el aforo actualizado
+        peticiones.lanzar(EjecutorBD.enTransaccionConReintentos(sessionFactory, sesion -> {
             Socio s = socioDAO.buscarPorNumeroSocio(sesion, codSocio);
             Actividad a = actividadDAO.buscarPorId(sesion, codActividad);
             
-            // Usamos el método helper de la entidad Actividad para mantener la consistencia
-            a.agregarSocio(s);
-            
-            // Actualizamos ambas entidades
-            sesion.update(a); 
-            sesion.update(s);
-            
-            tr.commit();
-            
-            vistaMensajes.mostrarInfo("Inscripción realizada correctamente.");
+            // Se escribe solo la fila de REALIZA, sin cargar los socios de la actividad
+            ResultadoInscripcion resultado = inscripcionDAO.inscribir(sesion, a, s);
+            if (resultado == ResultadoInscripcion.INSCRITO) {
+                estadisticaDAO.registrarInscripcion(sesion, a, s);
+            }
+            return resultado;
+        }), resultado -> {
+            if (resultado == ResultadoInscripcion.INSCRITO) {
+                vistaMensajes.mostrarInfo("Inscripción realizada correctamente.");
+            } else {
+                vistaMensajes.mostrarInfo(resultado.getDescripcion() + ".");
+            }
             // Refrescamos las listas para reflejar el cambio
             cargarListasActividades();
-            
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al inscribir: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        }, ex -> vistaMensajes.mostrarError("Error al inscribir: " + ex.getMessage()));
     }
 
     /**
-     * Da de baja a un socio de una actividad.
-     * Mueve la actividad de la lista de inscritas a la de disponibles y actualiza la BD.
+     * Da de baja a un socio de una actividad (o lo retira de su lista de espera).
+     * Mueve la actividad de la lista de inscritas a la de disponibles y actualiza la BD; la plaza
+     * que queda libre pasa al primero de la lista de espera.
      */
     private void realizarDesinscripcion() {
         String actSeleccionada = vInscripciones.listaActividadesInscritas.getSelectedValue();
@@ -225,30 +397,49 @@ public class ControladorInscripciones implements ActionListener {
         String codSocio = socioSeleccionado.split(" - ")[0];
         String codActividad = actSeleccionada.split(" - ")[0];
         
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
+        peticiones.lanzar(EjecutorBD.enTransaccionConReintentos(sessionFactory, sesion -> {
             Socio s = socioDAO.buscarPorNumeroSocio(sesion, codSocio);
             Actividad a = actividadDAO.buscarPorId(sesion, codActividad);
             
-            // Usamos el método helper para eliminar la relación
-            a.eliminarSocio(s);
-            
-            sesion.update(a);
-            sesion.update(s);
-            
-            tr.commit();
-            
-            vistaMensajes.mostrarInfo("Baja realizada correctamente.");
+            // Se borra solo la fila de REALIZA, sin cargar los socios de la actividad
+            Map<String, ResultadoInscripcion> resultado = inscripcionDAO.darDeBaja(sesion, a, s);
+            registrarCambios(sesion, a, s, resultado);
+            return resultado;
+        }), resultado -> {
+            ResultadoInscripcion propio = resultado.get(codSocio);
+            StringBuilder mensaje = new StringBuilder(propio == ResultadoInscripcion.DADO_DE_BAJA
+                    ? "Baja realizada correctamente." : propio.getDescripcion() + ".");
+            List<String> promovidos = sociosConResultado(resultado, ResultadoInscripcion.PROMOCIONADO);
+            if (!promovidos.isEmpty()) {
+                mensaje.append("\nInscritos desde la lista de espera: ").append(String.join(", ", promovidos));
+            }
+            vistaMensajes.mostrarInfo(mensaje.toString());
             cargarListasActividades();
-            
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al dar de baja: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
+        }, ex -> vistaMensajes.mostrarError("Error al dar de baja: " + ex.getMessage()));
+    }
+
+    /**
+     * Actualiza las estadísticas de la actividad con la baja del socio y los socios inscritos desde
+     * la lista de espera, en la misma transacción.
+     */
+    private void registrarCambios(Session sesion, Actividad a, Socio s, Map<String, ResultadoInscripcion> resultado)
+            throws Exception {
+        for (Map.Entry<String, ResultadoInscripcion> e : resultado.entrySet()) {
+            if (e.getValue() == ResultadoInscripcion.DADO_DE_BAJA) {
+                estadisticaDAO.registrarBaja(sesion, a, s);
+            } else if (e.getValue() == ResultadoInscripcion.PROMOCIONADO) {
+                estadisticaDAO.registrarInscripcion(sesion, a, socioDAO.buscarPorNumeroSocio(sesion, e.getKey()));
+            }
+        }
+    }
+
+    private static List<String> sociosConResultado(Map<String, ResultadoInscripcion> resultado, ResultadoInscripcion buscado) {
+        List<String> socios = new ArrayList<>();
+        for (Map.Entry<String, ResultadoInscripcion> e : resultado.entrySet()) {
+            if (e.getValue() == buscado) {
+                socios.add(e.getKey());
+            }
         }
+        return socios;
     }
-}
\ No newline at end of file
+}
@@ -1,20 +1,21 @@
 package Controlador;
 
+import Config.EjecutorBD;
+import Modelo.GeneradorCodigos;
 import Modelo.Monitor;
 import Modelo.MonitorDAO;
+import Modelo.RepositorioDatos;
+import Util.Fechas;
 import Util.GestionTablasMonitor;
+import Util.PeticionesBD;
 import Vista.VistaInicioMonitores;
 import Vista.VistaMensajes;
 import Vista.VistaMonitorDialog;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import javax.swing.JOptionPane;
-import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 
 /**
  * Controlador para la gestión de Monitores.
@@ -29,8 +30,9 @@ public class ControladorMonitor implements ActionListener {
     private final SessionFactory sessionFactory;
     private final VistaInicioMonitores vInicioMonitores;
     private final MonitorDAO monitorDAO;
+    private final GeneradorCodigos generadorCodigos;
     private final VistaMensajes vistaMensajes;
-    private Session sesion;
+    private final PeticionesBD peticiones;
 
     /**
      * Constructor del controlador.
@@ -38,12 +40,19 @@ public class ControladorMonitor implements ActionListener {
      *
      * @param vInicioMonitores Vista principal de gestión de monitores.
      * @param sessionFactory Fábrica de sesiones de Hibernate para la conexión a BD.
+     * @param generadorCodigos Generador de los códigos de las altas.
+     * @param repositorio Repositorio compartido en el que se publican los cambios de monitores.
      */
-    public ControladorMonitor(VistaInicioMonitores vInicioMonitores, SessionFactory sessionFactory) {
+    public ControladorMonitor(VistaInicioMonitores vInicioMonitores, SessionFactory sessionFactory,
+            GeneradorCodigos generadorCodigos, RepositorioDatos repositorio) {
         this.vInicioMonitores = vInicioMonitores;
         this.sessionFactory = sessionFactory;
-        this.monitorDAO = new MonitorDAO();
+        this.monitorDAO = new MonitorDAO(repositorio);
+        this.generadorCodigos = generadorCodigos;
         this.vistaMensajes = new VistaMensajes();
+        this.peticiones = new PeticionesBD(vInicioMonitores);
+        // Cada alta, modificación o baja confirmada toca solo su fila de la tabla
+        repositorio.monitores().suscribir(GestionTablasMonitor::aplicarCambio);
         
         addListeners();
         dibujaRellenaTablaMonitores();
@@ -64,30 +73,14 @@ public class ControladorMonitor implements ActionListener {
     }
 
     /**
-     * Configura el modelo de la tabla de monitores y refresca los datos desde la base de datos.
-     * Gestiona la sesión de Hibernate para realizar la consulta de listado.
+     * Configura el modelo virtual de la tabla de monitores y lo recarga desde la base de datos.
+     * Los monitores se cuentan en segundo plano y cada página se pide al mostrarse.
      */
     private void dibujaRellenaTablaMonitores() {
-        GestionTablasMonitor.inicializarTablaMonitores(vInicioMonitores);
+        GestionTablasMonitor.inicializarTablaMonitores(vInicioMonitores, sessionFactory,
+                ex -> vistaMensajes.mostrarError("Error al recuperar monitores: " + ex.getMessage()));
         GestionTablasMonitor.dibujarTablaMonitores(vInicioMonitores);
-        
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
-            List<Monitor> listaMonitores = monitorDAO.listaMonitores(sesion);
-            
-            GestionTablasMonitor.vaciarTablaMonitores();
-            GestionTablasMonitor.rellenarTablaMonitores(listaMonitores);
-            
-            tr.commit();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al recuperar monitores: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        GestionTablasMonitor.rellenarTablaMonitores();
     }
 
     /**
@@ -104,14 +97,22 @@ public class ControladorMonitor implements ActionListener {
     }
 
     /**
-     * Abre el diálogo para registrar un nuevo monitor.
-     * Calcula el siguiente código disponible y prepara el formulario.
+     * Obtiene el siguiente código de monitor del generador y abre el diálogo para registrar un nuevo monitor.
      */
     private void nuevoMonitor() {
+        peticiones.lanzar(generadorCodigos.siguiente(GeneradorCodigos.Secuencia.MONITOR),
+                this::abrirDialogoNuevoMonitor,
+                ex -> vistaMensajes.mostrarError("No se pudo asignar un código de monitor: " + ex.getMessage()));
+    }
+
+    /**
+     * Abre el diálogo para registrar un nuevo monitor y prepara el formulario.
+     * @param nuevoCodigo Código asignado al nuevo monitor.
+     */
+    private void abrirDialogoNuevoMonitor(String nuevoCodigo) {
         VistaMonitorDialog dialog = new VistaMonitorDialog();
         dialog.setTitle("Nuevo Monitor");
         
-        String nuevoCodigo = calcularSiguienteCodigo();
         dialog.textoCodigo.setText(nuevoCodigo);
         dialog.textoCodigo.setEditable(false);
         
@@ -178,7 +179,7 @@ public class ControladorMonitor implements ActionListener {
 
     /**
      * Inserta un nuevo monitor en la base de datos tras la validación exitosa.
-     * Convierte la fecha de JDateChooser a String para almacenarla.
+     * Convierte la fecha de JDateChooser a LocalDate para almacenarla.
      * @param dialog Diálogo con los datos del nuevo monitor.
      */
     private void insertarMonitorEnBD(VistaMonitorDialog dialog) {
@@ -190,26 +191,20 @@ public class ControladorMonitor implements ActionListener {
         m.setCorreo(dialog.textoCorreo.getText());
         m.setNick(dialog.textoNick.getText());
         
-        // Convertir Date -> String
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        m.setFechaEntrada(sdf.format(dialog.fechaEntradaChooser.getDate()));
+        // Convertir Date -> LocalDate
+        m.setFechaEntrada(Fechas.aLocalDate(dialog.fechaEntradaChooser.getDate()));
         
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
+        dialog.botonAceptar.setEnabled(false);
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             monitorDAO.insertarMonitor(sesion, m);
-            tr.commit();
-            
+            return null;
+        }), r -> {
             vistaMensajes.mostrarInfo("Monitor insertado correctamente");
             dialog.dispose();
-            dibujaRellenaTablaMonitores();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
             vistaMensajes.mostrarError("Error al insertar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        });
     }
 
     /**
@@ -227,27 +222,20 @@ public class ControladorMonitor implements ActionListener {
         int opt = JOptionPane.showConfirmDialog(null, "¿Seguro que quieres borrar al monitor " + codigo + "?");
         if (opt != JOptionPane.YES_OPTION) return;
 
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
+        peticiones.lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             Monitor m = monitorDAO.buscarPorCodMonitor(sesion, codigo);
             if (m != null) {
                 monitorDAO.borrarMonitor(sesion, m);
-                tr.commit();
-                dibujaRellenaTablaMonitores();
             }
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("No se puede borrar (posiblemente tenga actividades asignadas).");
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+            return m != null;
+        }), borrado -> {
+            // Si otro puesto lo había borrado ya, se quita la fila que quedaba
+            if (!borrado) GestionTablasMonitor.modeloTablaMonitores.quitarFila(codigo);
+        }, ex -> vistaMensajes.mostrarError("No se puede borrar (posiblemente tenga actividades asignadas)."));
     }
 
     /**
-     * Abre el diálogo de edición cargando los datos del monitor seleccionado.
-     * Rellena los campos de texto y el selector de fecha con la información actual.
+     * Recupera en segundo plano el monitor seleccionado y abre su diálogo de edición.
      */
     private void actualizarMonitor() {
         int fila = vInicioMonitores.jTableMonitores.getSelectedRow();
@@ -257,16 +245,20 @@ public class ControladorMonitor implements ActionListener {
         }
         String codigo = (String) vInicioMonitores.jTableMonitores.getValueAt(fila, 0);
         
-        Transaction tr = null;
-        Monitor m = null;
-        try {
-            sesion = sessionFactory.openSession();
-            m = monitorDAO.buscarPorCodMonitor(sesion, codigo);
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-        if (m == null) return;
+        peticiones.lanzar("monitorSeleccionado",
+                EjecutorBD.enLectura(sessionFactory, sesion -> monitorDAO.buscarPorCodMonitor(sesion, codigo)),
+                m -> {
+                    if (m != null) abrirDialogoActualizarMonitor(m);
+                },
+                ex -> vistaMensajes.mostrarError("Error al buscar monitor: " + ex.getMessage()));
+    }
 
+    /**
+     * Abre el diálogo de edición cargando los datos del monitor.
+     * Rellena los campos de texto y el selector de fecha con la información actual.
+     * @param m Monitor a editar.
+     */
+    private void abrirDialogoActualizarMonitor(Monitor m) {
         VistaMonitorDialog dialog = new VistaMonitorDialog();
         dialog.setTitle("Actualizar Monitor");
         
@@ -279,13 +271,7 @@ public class ControladorMonitor implements ActionListener {
         dialog.textoNick.setText(m.getNick());
         
         // Cargar fecha en el JDateChooser
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-            if(m.getFechaEntrada() != null) 
-                dialog.fechaEntradaChooser.setDate(sdf.parse(m.getFechaEntrada()));
-        } catch(Exception e) {
-            // Si hay error en el formato de fecha, se deja el campo vacío
-        }
+        dialog.fechaEntradaChooser.setDate(Fechas.aDate(m.getFechaEntrada()));
         
         dialog.botonAceptar.setText("Actualizar");
         dialog.botonAceptar.addActionListener(evt -> {
@@ -304,61 +290,26 @@ public class ControladorMonitor implements ActionListener {
      * @param dialog Diálogo con los datos actualizados.
      */
     private void actualizarMonitorEnBD(VistaMonitorDialog dialog) {
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
-            Monitor m = new Monitor();
-            m.setCodMonitor(dialog.textoCodigo.getText());
-            m.setNombre(dialog.textoNombre.getText());
-            m.setDni(dialog.textoDni.getText());
-            m.setTelefono(dialog.textoTelefono.getText());
-            m.setCorreo(dialog.textoCorreo.getText());
-            m.setNick(dialog.textoNick.getText());
-            
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-            m.setFechaEntrada(sdf.format(dialog.fechaEntradaChooser.getDate()));
-            
+        Monitor m = new Monitor();
+        m.setCodMonitor(dialog.textoCodigo.getText());
+        m.setNombre(dialog.textoNombre.getText());
+        m.setDni(dialog.textoDni.getText());
+        m.setTelefono(dialog.textoTelefono.getText());
+        m.setCorreo(dialog.textoCorreo.getText());
+        m.setNick(dialog.textoNick.getText());
+        
+        m.setFechaEntrada(Fechas.aLocalDate(dialog.fechaEntradaChooser.getDate()));
+        
+        dialog.botonAceptar.setEnabled(false);
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             monitorDAO.actualizarMonitor(sesion, m);
-            tr.commit();
-            
+            return null;
+        }), r -> {
             vistaMensajes.mostrarInfo("Monitor actualizado correctamente");
             dialog.dispose();
-            dibujaRellenaTablaMonitores();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
             vistaMensajes.mostrarError("Error al actualizar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-    }
-
-    /**
-     * Calcula el siguiente código de monitor disponible.
-     * Ejemplo: Si el último es M004, devuelve M005.
-     * @return String con el nuevo código.
-     */
-    private String calcularSiguienteCodigo() {
-        Transaction tr = null;
-        String maxCod = null;
-        try {
-            sesion = sessionFactory.openSession();
-            maxCod = monitorDAO.obtenerUltimoCodigo(sesion);
-        } catch(Exception e) { 
-            // Ignorar errores puntuales para el cálculo
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-        
-        if (maxCod == null || maxCod.isEmpty()) return "M001";
-        
-        try {
-            String numPart = maxCod.substring(1);
-            int num = Integer.parseInt(numPart) + 1;
-            return String.format("M%03d", num);
-        } catch (Exception e) { 
-            return "M999"; 
-        }
+        });
     }
 }
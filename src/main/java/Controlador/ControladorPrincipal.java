@@ -1,79 +1,179 @@
 package Controlador;
 
+import Config.HibernateUtil;
+import Config.PerfilArranque;
+import Modelo.GeneradorCodigos;
+import Modelo.RepositorioDatos;
+import Util.GestionTablasActividad;
+import Util.GestionTablasMonitor;
+import Util.GestionTablasSocio;
 import Vista.VistaInicio;
 import Vista.VistaInicioActividades;
 import Vista.VistaInicioMonitores;
 import Vista.VistaInicioSocios;
-import Vista.VistaInscripciones;
 import Vista.VistaMensajes;
 import Vista.VistaPrincipal;
 import org.hibernate.SessionFactory;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
 
 /**
  * Controlador de la ventana principal de la aplicación.
  * Gestiona la navegación a través del menú y la carga de los diferentes paneles (Socios, Monitores, Actividades).
+ * Crea el {@link RepositorioDatos} que comparten todos los controladores, de modo que un cambio hecho en
+ * un panel llega a los demás sin volver a consultar la base de datos.
+ * Al arrancar solo se construye el panel de inicio. Los demás paneles, con sus controladores, se crean la
+ * primera vez que se navega a ellos o, mientras tanto, uno a uno en segundo plano una vez visible la ventana.
+ * Cada paso queda registrado en {@link PerfilArranque}.
  *
  * @author Manuel Martín Rodrigo
  */
 public class ControladorPrincipal implements ActionListener {
 
+    /**
+     * Espera tras mostrar la ventana antes de precargar el primer panel, para que el inicio se pinte antes.
+     */
+    private static final int RETARDO_PRECARGA_MS = 300;
+
+    /**
+     * Espera entre la precarga de un panel y la del siguiente.
+     */
+    private static final int PAUSA_PRECARGA_MS = 100;
+
     private final SessionFactory sessionFactory;
+    private final RepositorioDatos repositorio;
+    // Compartido por los controladores para repartir los bloques de códigos
+    private final GeneradorCodigos generadorCodigos;
     private VistaPrincipal vistaPrincipal;
     private VistaMensajes vistaMensajes;
-    // Paneles
-    private VistaInicio vistaInicio;
-    private VistaInicioMonitores vistaMonitores;
-    private VistaInicioSocios vistaSocios;
-    private VistaInicioActividades vistaActividades;
-    private VistaInscripciones vistaInscripciones;
+    // Paneles ya creados y paneles pendientes de precargar, por su nombre en el CardLayout
+    private final Set<String> panelesCreados = new HashSet<>();
+    private final Deque<String> pendientesPrecarga = new ArrayDeque<>();
+    private Timer precarga;
 
     /**
-     * Constructor. Inicializa la ventana principal, los sub-controladores y configura el CardLayout.
+     * Constructor. Inicializa la ventana principal con el panel de inicio y programa la precarga de los demás.
      *
      * @param sessionFactory La fábrica de sesiones de Hibernate activa.
      */
     public ControladorPrincipal(SessionFactory sessionFactory) {
+        PerfilArranque.Fase fase = PerfilArranque.empezar("Ventana principal");
         this.sessionFactory = sessionFactory;
+        this.repositorio = new RepositorioDatos(sessionFactory, SwingUtilities::invokeLater);
+        this.generadorCodigos = new GeneradorCodigos(sessionFactory);
         this.vistaPrincipal = new VistaPrincipal();
         this.vistaMensajes = new VistaMensajes();
-        
-        // Inicialización de vistas
-        this.vistaInicio = new VistaInicio();
-        this.vistaMonitores = new VistaInicioMonitores();
-        this.vistaSocios = new VistaInicioSocios();
-        this.vistaActividades = new VistaInicioActividades();
-        this.vistaInscripciones = new VistaInscripciones();
-        
-        // Inicialización de controladores hijos
-        new ControladorMonitor(this.vistaMonitores, sessionFactory);
-        new ControladorSocio(this.vistaSocios, sessionFactory);
-        new ControladorActividad(this.vistaActividades, sessionFactory);
-        new ControladorInscripciones(this.vistaInscripciones, sessionFactory);
-        
-        // Configuración del panel contenedor
-        vistaPrincipal.panelContenedor.add(vistaInicio, "inicio");
-        vistaPrincipal.panelContenedor.add(vistaMonitores, "monitores");
-        vistaPrincipal.panelContenedor.add(vistaSocios, "socios");
-        vistaPrincipal.panelContenedor.add(vistaActividades, "actividades");
+
+        vistaPrincipal.panelContenedor.add(new VistaInicio(), "inicio");
+        panelesCreados.add("inicio");
         
         mostrarPanel("inicio");
         addListeners();
         
         vistaPrincipal.setLocationRelativeTo(null);
         vistaPrincipal.setVisible(true);
+        fase.terminar();
+
+        programarPrecarga();
+    }
+
+    /**
+     * Crea los paneles de gestión uno a uno en el hilo de eventos, con una pausa entre ellos para que
+     * la ventana siga respondiendo. Sus datos se cargan en segundo plano.
+     */
+    private void programarPrecarga() {
+        pendientesPrecarga.add("monitores");
+        pendientesPrecarga.add("socios");
+        pendientesPrecarga.add("actividades");
+        precarga = new Timer(PAUSA_PRECARGA_MS, e -> {
+            String nombre = pendientesPrecarga.poll();
+            if (nombre == null) {
+                precarga.stop();
+                return;
+            }
+            crearPanel(nombre);
+        });
+        precarga.setInitialDelay(RETARDO_PRECARGA_MS);
+        precarga.start();
     }
 
     /**
-     * Muestra el panel correspondiente en el CardLayout.
+     * Muestra el panel correspondiente en el CardLayout, creándolo antes si aún no existe.
      * @param nombre Nombre clave del panel a mostrar.
      */
     private void mostrarPanel(String nombre) {
+        crearPanel(nombre);
         java.awt.CardLayout layout = (java.awt.CardLayout) vistaPrincipal.panelContenedor.getLayout();
         layout.show(vistaPrincipal.panelContenedor, nombre);
     }
 
+    /**
+     * Crea un panel de gestión y su controlador si aún no existen y lo añade al CardLayout.
+     * Registra en {@link PerfilArranque} su creación y el tiempo hasta que su tabla recibe los primeros datos.
+     * @param nombre Nombre clave del panel.
+     */
+    private void crearPanel(String nombre) {
+        if (!panelesCreados.add(nombre)) {
+            return;
+        }
+        pendientesPrecarga.remove(nombre);
+        PerfilArranque.Fase fase = PerfilArranque.empezar("Panel de " + nombre);
+        PerfilArranque.Fase carga = PerfilArranque.empezar("Primera carga de " + nombre);
+        JPanel panel;
+        Supplier<TableModel> modelo;
+        switch (nombre) {
+            case "monitores": {
+                VistaInicioMonitores vista = new VistaInicioMonitores();
+                new ControladorMonitor(vista, sessionFactory, generadorCodigos, repositorio);
+                panel = vista;
+                modelo = () -> GestionTablasMonitor.modeloTablaMonitores;
+                break;
+            }
+            case "socios": {
+                VistaInicioSocios vista = new VistaInicioSocios();
+                new ControladorSocio(vista, sessionFactory, generadorCodigos, repositorio);
+                panel = vista;
+                modelo = () -> GestionTablasSocio.modeloTablaSocios;
+                break;
+            }
+            case "actividades": {
+                VistaInicioActividades vista = new VistaInicioActividades();
+                new ControladorActividad(vista, sessionFactory, generadorCodigos, repositorio);
+                panel = vista;
+                modelo = () -> GestionTablasActividad.modeloTablaActividades;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Panel desconocido: " + nombre);
+        }
+        vistaPrincipal.panelContenedor.add(panel, nombre);
+        fase.terminar();
+        terminarConPrimerCambio(modelo.get(), carga);
+    }
+
+    /**
+     * Termina la fase cuando el modelo avisa del primer cambio, es decir, cuando llega de la base de datos
+     * el número de filas de la tabla (o el error).
+     */
+    private static void terminarConPrimerCambio(TableModel modelo, PerfilArranque.Fase fase) {
+        TableModelListener[] oyente = new TableModelListener[1];
+        oyente[0] = e -> {
+            fase.terminar();
+            modelo.removeTableModelListener(oyente[0]);
+        };
+        modelo.addTableModelListener(oyente[0]);
+    }
+
     /**
      * Añade listeners a los elementos del menú.
      */
@@ -98,6 +198,10 @@ public class ControladorPrincipal implements ActionListener {
             vistaPrincipal.menuItemInscripciones.addActionListener(this);
             vistaPrincipal.menuItemInscripciones.setActionCommand("GestionInscripciones");
         }
+        if (vistaPrincipal.menuItemDiagnostico != null) {
+            vistaPrincipal.menuItemDiagnostico.addActionListener(this);
+            vistaPrincipal.menuItemDiagnostico.setActionCommand("Diagnostico");
+        }
         if (vistaPrincipal.menuItemSalir != null) {
             vistaPrincipal.menuItemSalir.addActionListener(this);
             vistaPrincipal.menuItemSalir.setActionCommand("Salir");
@@ -126,6 +230,9 @@ public class ControladorPrincipal implements ActionListener {
             case "GestionInscripciones":
                 abrirVentanaInscripciones();
                 break;
+            case "Diagnostico":
+                new ControladorDiagnostico(vistaPrincipal, sessionFactory);
+                break;
             case "Salir":
                 salir();
                 break;
@@ -133,16 +240,19 @@ public class ControladorPrincipal implements ActionListener {
     }
 
     /**
-     * Abre la ventana modal de gestión de inscripciones.
+     * Abre la ventana modal de gestión de inscripciones. Al cerrarla, su controlador deja de recibir
+     * los cambios del repositorio.
      */
     private void abrirVentanaInscripciones() {
         javax.swing.JDialog dialogInscripciones = new javax.swing.JDialog(vistaPrincipal, "Gestión de Inscripciones", true);
         Vista.VistaInscripciones panelInscripciones = new Vista.VistaInscripciones();
-        new ControladorInscripciones(panelInscripciones, sessionFactory);
+        ControladorInscripciones controlador = new ControladorInscripciones(panelInscripciones, sessionFactory, repositorio);
         dialogInscripciones.add(panelInscripciones);
         dialogInscripciones.pack();
         dialogInscripciones.setLocationRelativeTo(null);
         dialogInscripciones.setVisible(true);
+        controlador.cerrar();
+        dialogInscripciones.dispose();
     }
 
     /**
@@ -151,7 +261,7 @@ public class ControladorPrincipal implements ActionListener {
     private void salir() {
         vistaMensajes.mostrarInfo("¡Hasta pronto!");
         vistaPrincipal.dispose();
-        sessionFactory.close();
+        HibernateUtil.close();
         System.exit(0);
     }
 }
@@ -1,38 +1,56 @@
 package Controlador;
 
+import Modelo.EstadisticaActividadDAO;
+import Modelo.GeneradorCodigos;
+import Modelo.IndiceSocios;
+import Modelo.RepositorioDatos;
 import Modelo.Socio;
 import Modelo.SocioDAO;
+import Config.EjecutorBD;
+import Util.Fechas;
 import Util.GestionTablasSocio;
+import Util.PeticionesBD;
 import Vista.VistaInicioSocios;
 import Vista.VistaMensajes;
 import Vista.VistaSocioDialog;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JOptionPane;
-import org.hibernate.Session;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 
 /**
  * Controlador para la gestión de Socios.
  * Maneja las operaciones CRUD (Crear, Leer, Actualizar, Borrar) y las validaciones de negocio
  * como la comprobación de mayoría de edad, fechas lógicas y formatos de datos.
+ * La búsqueda por nombre, DNI, teléfono o correo se resuelve mientras se escribe con un índice
+ * en memoria ({@link IndiceSocios}), que se mantiene al día con los cambios confirmados que publica el
+ * repositorio compartido ({@link RepositorioDatos}).
  *
  * @author Manuel Martín Rodrigo
  */
 public class ControladorSocio implements ActionListener {
 
+    /**
+     * Pausa en la escritura del cuadro de búsqueda tras la que se busca.
+     */
+    private static final int RETARDO_BUSQUEDA_MS = 150;
+
     private final SessionFactory sessionFactory;
     private final VistaInicioSocios vInicioSocios;
     private final SocioDAO socioDAO;
+    private final EstadisticaActividadDAO estadisticaDAO;
+    private final GeneradorCodigos generadorCodigos;
     private final VistaMensajes vistaMensajes;
-    private Session sesion;
+    private final PeticionesBD peticiones;
+    private final IndiceSocios indice;
+    private final Timer temporizadorBusqueda;
+    private boolean cargandoIndice;
 
     /**
      * Constructor del controlador.
@@ -40,12 +58,24 @@ public class ControladorSocio implements ActionListener {
      *
      * @param vInicioSocios Vista principal de gestión de socios.
      * @param sessionFactory Fábrica de sesiones de Hibernate para la conexión a BD.
+     * @param generadorCodigos Generador de los códigos de las altas.
+     * @param repositorio Repositorio compartido en el que se publican los cambios de socios.
      */
-    public ControladorSocio(VistaInicioSocios vInicioSocios, SessionFactory sessionFactory) {
+    public ControladorSocio(VistaInicioSocios vInicioSocios, SessionFactory sessionFactory,
+            GeneradorCodigos generadorCodigos, RepositorioDatos repositorio) {
         this.vInicioSocios = vInicioSocios;
         this.sessionFactory = sessionFactory;
-        this.socioDAO = new SocioDAO();
+        this.indice = new IndiceSocios();
+        this.socioDAO = new SocioDAO(repositorio);
+        this.estadisticaDAO = new EstadisticaActividadDAO();
+        repositorio.socios().suscribir(indice::aplicarCambio);
+        // Cada alta, modificación o baja confirmada toca solo su fila de la tabla
+        repositorio.socios().suscribir(GestionTablasSocio::aplicarCambio);
+        this.generadorCodigos = generadorCodigos;
         this.vistaMensajes = new VistaMensajes();
+        this.peticiones = new PeticionesBD(vInicioSocios);
+        this.temporizadorBusqueda = new Timer(RETARDO_BUSQUEDA_MS, e -> buscarSocios());
+        this.temporizadorBusqueda.setRepeats(false);
 
         addListeners();
         dibujaRellenaTablaSocios();
@@ -63,33 +93,35 @@ public class ControladorSocio implements ActionListener {
         
         vInicioSocios.actualizarSocio.addActionListener(this);
         vInicioSocios.actualizarSocio.setActionCommand("ActualizarSocio");
+
+        vInicioSocios.textoBuscar.addActionListener(this);
+        vInicioSocios.textoBuscar.setActionCommand("BuscarSocio");
+        vInicioSocios.textoBuscar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                temporizadorBusqueda.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
     }
 
     /**
-     * Configura el modelo de la tabla de socios y refresca los datos desde la base de datos.
-     * Gestiona la sesión de Hibernate para realizar la consulta de listado.
+     * Configura el modelo virtual de la tabla de socios y lo recarga desde la base de datos.
+     * Los socios se cuentan en segundo plano y cada página se pide al mostrarse.
      */
     private void dibujaRellenaTablaSocios() {
-        GestionTablasSocio.inicializarTablaSocios(vInicioSocios);
+        GestionTablasSocio.inicializarTablaSocios(vInicioSocios, sessionFactory,
+                ex -> vistaMensajes.mostrarError("Error al recuperar los socios: " + ex.getMessage()));
         GestionTablasSocio.dibujarTablaSocios(vInicioSocios);
-        
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-            
-            List<Socio> listaSocios = socioDAO.listaSocios(sesion);
-            
-            GestionTablasSocio.vaciarTablaSocios();
-            GestionTablasSocio.rellenarTablaSocios(listaSocios);
-            
-            tr.commit();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("Error al recuperar los socios: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        GestionTablasSocio.rellenarTablaSocios();
     }
 
     /**
@@ -102,19 +134,62 @@ public class ControladorSocio implements ActionListener {
             case "NuevoSocio": nuevoSocio(); break;
             case "BajaSocio": bajaSocio(); break;
             case "ActualizarSocio": actualizarSocio(); break;
+            case "BuscarSocio": buscarSocios(); break;
+        }
+    }
+
+    /**
+     * Muestra en la tabla los socios que coinciden con el cuadro de búsqueda, o todos si está vacío.
+     * La búsqueda se hace en memoria; la primera vez el índice se carga en segundo plano y, si ha caducado,
+     * se responde con el actual mientras se recarga.
+     */
+    private void buscarSocios() {
+        temporizadorBusqueda.stop();
+        String texto = vInicioSocios.textoBuscar.getText();
+        if (texto == null || texto.trim().isEmpty()) {
+            GestionTablasSocio.rellenarTablaSocios();
+            return;
+        }
+        if (indice.estaCargado()) {
+            GestionTablasSocio.mostrarResultados(indice.buscar(texto, IndiceSocios.MAXIMO_RESULTADOS));
+        }
+        if (indice.estaCaducado()) {
+            cargarIndice();
         }
     }
 
     /**
-     * Abre el diálogo para registrar un nuevo socio.
-     * Calcula el siguiente código disponible y prepara el formulario.
+     * Recorre los socios en segundo plano para construir el índice de búsqueda y repite la búsqueda al terminar.
+     */
+    private void cargarIndice() {
+        if (cargandoIndice) return;
+        cargandoIndice = true;
+        peticiones.lanzar(EjecutorBD.sinEstado(sessionFactory, indice::cargar), n -> {
+            cargandoIndice = false;
+            buscarSocios();
+        }, ex -> {
+            cargandoIndice = false;
+            vistaMensajes.mostrarError("Error al preparar la búsqueda: " + ex.getMessage());
+        });
+    }
+
+    /**
+     * Obtiene el siguiente código de socio del generador y abre el diálogo para registrar un nuevo socio.
      */
     private void nuevoSocio() {
+        peticiones.lanzar(generadorCodigos.siguiente(GeneradorCodigos.Secuencia.SOCIO),
+                this::abrirDialogoNuevoSocio,
+                ex -> vistaMensajes.mostrarError("No se pudo asignar un número de socio: " + ex.getMessage()));
+    }
+
+    /**
+     * Abre el diálogo para registrar un nuevo socio y prepara el formulario.
+     * @param nuevoCodigo Código asignado al nuevo socio.
+     */
+    private void abrirDialogoNuevoSocio(String nuevoCodigo) {
         VistaSocioDialog dialog = new VistaSocioDialog();
         dialog.setTitle("Nuevo Socio");
 
-        // Cálculo automático del ID (S00X)
-        String nuevoCodigo = calcularSiguienteCodigo();
         dialog.textoNumeroSocio.setText(nuevoCodigo);
         dialog.textoNumeroSocio.setEditable(false);
 
@@ -150,8 +225,8 @@ public class ControladorSocio implements ActionListener {
         }
 
         // Lógica Fechas (Conversión a LocalDate para comparar)
-        LocalDate fEntrada = dialog.fechaEntradaChooser.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate fNac = dialog.fechaNacChooser.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate fEntrada = Fechas.aLocalDate(dialog.fechaEntradaChooser.getDate());
+        LocalDate fNac = Fechas.aLocalDate(dialog.fechaNacChooser.getDate());
         LocalDate hoy = LocalDate.now();
 
         // Validación: Fecha futura
@@ -194,7 +269,7 @@ public class ControladorSocio implements ActionListener {
 
     /**
      * Inserta un nuevo socio en la base de datos tras la validación exitosa.
-     * Convierte las fechas de JDateChooser a String para almacenarlas.
+     * Convierte las fechas de JDateChooser a LocalDate ({@link Fechas}) para almacenarlas.
      * @param dialog Diálogo con los datos del nuevo socio.
      */
     private void insertarSocioEnBD(VistaSocioDialog dialog) {
@@ -205,31 +280,25 @@ public class ControladorSocio implements ActionListener {
         s.setDni(dialog.textoDNI.getText());
         s.setTelefono(dialog.textoTelefono.getText());
 
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        s.setFechaEntrada(sdf.format(dialog.fechaEntradaChooser.getDate()));
-        s.setFechaNacimiento(sdf.format(dialog.fechaNacChooser.getDate()));
+        s.setFechaEntrada(Fechas.aLocalDate(dialog.fechaEntradaChooser.getDate()));
+        s.setFechaNacimiento(Fechas.aLocalDate(dialog.fechaNacChooser.getDate()));
 
         String cat = (String) dialog.comboCategoria.getSelectedItem();
         if (cat != null && !cat.isEmpty()) {
             s.setCategoria(cat.charAt(0));
         }
 
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
+        dialog.botonAceptar.setEnabled(false);
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             socioDAO.insertaSocio(sesion, s);
-            tr.commit();
-            
+            return null;
+        }), r -> {
             vistaMensajes.mostrarInfo("Socio creado correctamente.");
             dialog.dispose();
-            dibujaRellenaTablaSocios();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
             vistaMensajes.mostrarError("Error al insertar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        });
     }
 
     /**
@@ -246,27 +315,20 @@ public class ControladorSocio implements ActionListener {
         int opt = JOptionPane.showConfirmDialog(null, "¿Seguro que quiere borrar al socio " + codigo + "?");
         if (opt != JOptionPane.YES_OPTION) return;
 
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
+        peticiones.lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
             Socio s = socioDAO.buscarPorNumeroSocio(sesion, codigo);
             if (s != null) {
                 socioDAO.borrarSocio(sesion, s);
-                tr.commit();
-                dibujaRellenaTablaSocios();
             }
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
-            vistaMensajes.mostrarError("No se puede borrar al socio (puede tener datos asociados).");
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+            return s != null;
+        }), borrado -> {
+            // Si otro puesto lo había borrado ya, se quita la fila que quedaba
+            if (!borrado) GestionTablasSocio.modeloTablaSocios.quitarFila(codigo);
+        }, ex -> vistaMensajes.mostrarError("No se puede borrar al socio (puede tener datos asociados)."));
     }
 
     /**
-     * Abre el diálogo de edición cargando los datos del socio seleccionado.
-     * Rellena los campos de texto y los selectores de fecha con la información actual.
+     * Recupera en segundo plano el socio seleccionado y abre su diálogo de edición.
      */
     private void actualizarSocio() {
         int fila = vInicioSocios.jTableSocios.getSelectedRow();
@@ -276,19 +338,20 @@ public class ControladorSocio implements ActionListener {
         }
         String codigo = (String) vInicioSocios.jTableSocios.getValueAt(fila, 0);
 
-        Transaction tr = null;
-        Socio s = null;
-        try {
-            sesion = sessionFactory.openSession();
-            s = socioDAO.buscarPorNumeroSocio(sesion, codigo);
-        } catch (Exception e) {
-            vistaMensajes.mostrarError("Error al buscar socio: " + e.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-
-        if (s == null) return;
+        peticiones.lanzar("socioSeleccionado",
+                EjecutorBD.enLectura(sessionFactory, sesion -> socioDAO.buscarPorNumeroSocio(sesion, codigo)),
+                s -> {
+                    if (s != null) abrirDialogoActualizarSocio(s);
+                },
+                ex -> vistaMensajes.mostrarError("Error al buscar socio: " + ex.getMessage()));
+    }
 
+    /**
+     * Abre el diálogo de edición cargando los datos del socio.
+     * Rellena los campos de texto y los selectores de fecha con la información actual.
+     * @param s Socio a editar.
+     */
+    private void abrirDialogoActualizarSocio(Socio s) {
         VistaSocioDialog dialog = new VistaSocioDialog();
         dialog.setTitle("Actualizar Socio");
         cargarCategorias(dialog);
@@ -302,13 +365,8 @@ public class ControladorSocio implements ActionListener {
         dialog.textoTelefono.setText(s.getTelefono());
 
         // Cargar fechas en JDateChooser
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-            if(s.getFechaEntrada() != null) dialog.fechaEntradaChooser.setDate(sdf.parse(s.getFechaEntrada()));
-            if(s.getFechaNacimiento() != null) dialog.fechaNacChooser.setDate(sdf.parse(s.getFechaNacimiento()));
-        } catch(Exception e) {
-            // Si falla el parseo, se dejan vacías o con fecha actual
-        }
+        dialog.fechaEntradaChooser.setDate(Fechas.aDate(s.getFechaEntrada()));
+        dialog.fechaNacChooser.setDate(Fechas.aDate(s.getFechaNacimiento()));
 
         if (s.getCategoria() != null) {
             dialog.comboCategoria.setSelectedItem(String.valueOf(s.getCategoria()));
@@ -330,39 +388,35 @@ public class ControladorSocio implements ActionListener {
      * @param dialog Diálogo con los datos actualizados.
      */
     private void actualizarSocioEnBD(VistaSocioDialog dialog) {
-        Transaction tr = null;
-        try {
-            sesion = sessionFactory.openSession();
-            tr = sesion.beginTransaction();
-
-            Socio s = new Socio();
-            s.setNumeroSocio(dialog.textoNumeroSocio.getText());
-            s.setNombre(dialog.textoNombre.getText());
-            s.setDni(dialog.textoDNI.getText());
-            s.setTelefono(dialog.textoTelefono.getText());
-            s.setCorreo(dialog.textoCorreo.getText());
-            
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-            s.setFechaEntrada(sdf.format(dialog.fechaEntradaChooser.getDate()));
-            s.setFechaNacimiento(sdf.format(dialog.fechaNacChooser.getDate()));
-
-            String cat = (String) dialog.comboCategoria.getSelectedItem();
-            if (cat != null && !cat.isEmpty()) {
-                s.setCategoria(cat.charAt(0));
-            }
+        Socio s = new Socio();
+        s.setNumeroSocio(dialog.textoNumeroSocio.getText());
+        s.setNombre(dialog.textoNombre.getText());
+        s.setDni(dialog.textoDNI.getText());
+        s.setTelefono(dialog.textoTelefono.getText());
+        s.setCorreo(dialog.textoCorreo.getText());
 
-            socioDAO.actualizarSocio(sesion, s);
-            tr.commit();
+        s.setFechaEntrada(Fechas.aLocalDate(dialog.fechaEntradaChooser.getDate()));
+        s.setFechaNacimiento(Fechas.aLocalDate(dialog.fechaNacChooser.getDate()));
 
+        String cat = (String) dialog.comboCategoria.getSelectedItem();
+        if (cat != null && !cat.isEmpty()) {
+            s.setCategoria(cat.charAt(0));
+        }
+
+        dialog.botonAceptar.setEnabled(false);
+        new PeticionesBD(dialog).lanzar(EjecutorBD.enTransaccion(sessionFactory, sesion -> {
+            // Si cambia la categoría o la fecha de nacimiento, las estadísticas de sus actividades
+            // se corrigen en la misma transacción (antes de guardar: se comparan con los datos actuales)
+            estadisticaDAO.registrarCambioSocio(sesion, s);
+            socioDAO.actualizarSocio(sesion, s);
+            return null;
+        }), r -> {
             vistaMensajes.mostrarInfo("Socio actualizado correctamente");
             dialog.dispose();
-            dibujaRellenaTablaSocios();
-        } catch (Exception ex) {
-            if (tr != null) tr.rollback();
+        }, ex -> {
+            dialog.botonAceptar.setEnabled(true);
             vistaMensajes.mostrarError("Error al actualizar: " + ex.getMessage());
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
+        });
     }
 
     /**
@@ -372,32 +426,4 @@ public class ControladorSocio implements ActionListener {
         String[] categorias = {"A", "B", "C", "D", "E"};
         dialog.comboCategoria.setModel(new DefaultComboBoxModel<>(categorias));
     }
-
-    /**
-     * Calcula el siguiente código de socio disponible basándose en el último registrado.
-     * Ejemplo: Si el último es S004, devuelve S005.
-     * @return String con el nuevo código.
-     */
-    private String calcularSiguienteCodigo() {
-        Transaction tr = null;
-        String maxCod = null;
-        try {
-            sesion = sessionFactory.openSession();
-            maxCod = socioDAO.obtenerUltimoCodigo(sesion);
-        } catch (Exception e) { 
-            // Ignorar errores de conexión puntuales para este cálculo
-        } finally {
-            if (sesion != null && sesion.isOpen()) sesion.close();
-        }
-        
-        if (maxCod == null) return "S001";
-        
-        try {
-            String numPart = maxCod.substring(1);
-            int num = Integer.parseInt(numPart) + 1;
-            return String.format("S%03d", num);
-        } catch (Exception e) { 
-            return "S999"; 
-        }
-    }
 }
@@ -1,9 +1,12 @@
 package Modelo;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
@@ -11,19 +14,28 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad que representa una Actividad del gimnasio. Mapeada a la tabla
  * "ACTIVIDAD" de la base de datos. Incluye consultas (NamedQueries) para
  * búsquedas por atributos.
+ * Las actividades pueden tener un aforo máximo; el número de plazas ocupadas se guarda en la propia
+ * fila y se protege con control de concurrencia optimista ({@code @Version}), de modo que dos puestos
+ * que inscriben a la vez en la última plaza no pueden confirmar los dos (ver {@link InscripcionDAO}).
  *
  * @author Manuel Martín Rodrigo
  */
 @Entity
-@Table(name = "ACTIVIDAD")
+@Table(name = "ACTIVIDAD", indexes = {
+    @Index(name = "uq_actividad_monitor_horario", columnList = "monitorResponsable, dia, hora", unique = true)})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedQueries({
     @NamedQuery(name = "Actividad.findAll", query = "SELECT a FROM Actividad a"),
     @NamedQuery(name = "Actividad.findByIdActividad", query = "SELECT a FROM Actividad a WHERE a.idActividad = :idActividad"),
@@ -78,20 +90,45 @@ public class Actividad implements Serializable {
     @Column(name = "precioBaseMes")
     private int precioBaseMes;
 
+    /**
+     * Número máximo de socios inscritos, o null si la actividad no tiene límite.
+     */
+    @Column(name = "capacidad")
+    private Integer capacidad;
+
+    /**
+     * Número de socios inscritos (filas de REALIZA), mantenido por {@link InscripcionDAO}
+     * para no tener que contarlos al comprobar si queda sitio.
+     */
+    @Basic(optional = false)
+    @Column(name = "plazasOcupadas")
+    private int plazasOcupadas;
+
+    /**
+     * Versión de la fila para el control de concurrencia optimista: Hibernate la incrementa en cada
+     * actualización y falla si otra transacción la ha cambiado entretanto.
+     */
+    @Version
+    @Column(name = "version")
+    private int version;
+
     /**
      * Conjunto de socios inscritos en la actividad (Relación N:M).
      */
     @JoinTable(name = "REALIZA", joinColumns = {
         @JoinColumn(name = "idActividad", referencedColumnName = "idActividad")}, inverseJoinColumns = {
-        @JoinColumn(name = "numeroSocio", referencedColumnName = "numeroSocio")})
+        @JoinColumn(name = "numeroSocio", referencedColumnName = "numeroSocio")}, indexes = {
+        @Index(name = "idx_realiza_socio", columnList = "numeroSocio, idActividad")})
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Socio> socios = new HashSet<Socio>();
 
     /**
-     * Monitor responsable de impartir la actividad.
+     * Monitor responsable de impartir la actividad. Se carga solo cuando se accede a él
+     * (o con JOIN FETCH en las consultas que lo necesitan).
      */
     @JoinColumn(name = "monitorResponsable", referencedColumnName = "codMonitor")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Monitor monitorResponsable;
 
     /**
@@ -233,6 +270,65 @@ public class Actividad implements Serializable {
         this.precioBaseMes = precioBaseMes;
     }
 
+    /**
+     * @return El aforo máximo, o null si no tiene límite.
+     */
+    public Integer getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * @param capacidad Nuevo aforo máximo, o null para quitar el límite.
+     */
+    public void setCapacidad(Integer capacidad) {
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * @return El número de socios inscritos.
+     */
+    public int getPlazasOcupadas() {
+        return plazasOcupadas;
+    }
+
+    /**
+     * @param plazasOcupadas Nuevo número de socios inscritos.
+     */
+    public void setPlazasOcupadas(int plazasOcupadas) {
+        this.plazasOcupadas = plazasOcupadas;
+    }
+
+    /**
+     * @return Plazas que quedan libres (Integer.MAX_VALUE si la actividad no tiene límite).
+     */
+    public int getPlazasLibres() {
+        return capacidad == null ? Integer.MAX_VALUE : Math.max(0, capacidad - plazasOcupadas);
+    }
+
+    /**
+     * Indica si el aforo puede cambiar al valor indicado: no puede quedar por debajo de las plazas ya ocupadas.
+     * Un aforo que no cambia se admite siempre, para poder editar el resto de datos.
+     * @param nueva Nuevo aforo, o null para quitar el límite.
+     * @return true si el cambio de aforo es válido.
+     */
+    public boolean admiteCapacidad(Integer nueva) {
+        return nueva == null || nueva.equals(capacidad) || nueva >= plazasOcupadas;
+    }
+
+    /**
+     * @return true si la actividad tiene aforo y está completa.
+     */
+    public boolean estaCompleta() {
+        return getPlazasLibres() == 0;
+    }
+
+    /**
+     * @return La versión de la fila (control de concurrencia optimista).
+     */
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * @return El conjunto de socios inscritos.
      */
@@ -287,6 +383,7 @@ public class Actividad implements Serializable {
 
     /**
      * Añade un socio a la actividad y mantiene la coherencia bidireccional.
+     * Carga las dos colecciones completas; para inscribir sin cargarlas se usa {@link InscripcionDAO}.
      *
      * @param socio Socio a inscribir.
      */
@@ -297,6 +394,7 @@ public class Actividad implements Serializable {
 
     /**
      * Elimina un socio de la actividad y mantiene la coherencia bidireccional.
+     * Carga las dos colecciones completas; para dar de baja sin cargarlas se usa {@link InscripcionDAO}.
      *
      * @param socio Socio a dar de baja.
      */
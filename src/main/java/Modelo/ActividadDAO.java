@@ -1,19 +1,59 @@
 package Modelo;
 
+import Config.EstadisticasCache;
+import Config.MetricasConsultas;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
+import java.util.Collection;
 import java.util.List;
-import java.sql.CallableStatement;
-import java.sql.Types;
 
 /**
  * Clase Data Access Object (DAO) para la gestión de Actividades. 
- * Permite realizar operaciones CRUD, búsquedas avanzadas y cálculo de estadísticas.
+ * Permite realizar operaciones CRUD y búsquedas avanzadas; las estadísticas están en {@link EstadisticaActividadDAO}
+ * y la búsqueda por texto en {@link IndiceActividades}.
+ * Cada operación se mide con {@link Config.MetricasConsultas}.
+ * Si se crea con un {@link RepositorioDatos}, las altas, modificaciones y bajas se publican en él al
+ * confirmarse la transacción en la que se hacen.
  * @author Manuel Martín Rodrigo
  */
 public class ActividadDAO {
 
+    private static final String HQL_SOCIOS_INSCRITOS = "SELECT s FROM Socio s JOIN s.actividades a WHERE a.idActividad = :id";
+    private static final String HQL_LISTA = "from Actividad";
+    private static final String HQL_POR_ID_CON_MONITOR = "SELECT a FROM Actividad a LEFT JOIN FETCH a.monitorResponsable "
+            + "WHERE a.idActividad = :id";
+    private static final String COLUMNAS_FILA = "SELECT new Modelo.ActividadFila(a.idActividad, a.nombre, a.dia, a.hora, "
+            + "a.precioBaseMes, m.codMonitor, m.nombre, a.descripcion, a.capacidad, a.plazasOcupadas) ";
+    private static final String FROM_FILA = "FROM Actividad a LEFT JOIN a.monitorResponsable m ";
+    private static final String SELECT_FILA = COLUMNAS_FILA + FROM_FILA;
+    // Orden de cada columna de la tabla de actividades: ID, nombre, día, hora, precio, plazas, monitor y descripción
+    private static final String[] ORDEN_COLUMNAS = {"a.idActividad", "a.nombre", "a.dia", "a.hora", "a.precioBaseMes",
+        "a.plazasOcupadas", "m.nombre", "a.descripcion"};
+    private static final String HQL_PAGINA = SELECT_FILA + "WHERE a.idActividad > :despues ORDER BY a.idActividad";
+    private static final String HQL_FILAS_POR_ID = SELECT_FILA + "WHERE a.idActividad IN (:ids)";
+    private static final String HQL_CONTAR = "SELECT count(a) FROM Actividad a";
+    private static final String HQL_CLAVES = "SELECT a.idActividad FROM Actividad a ORDER BY a.idActividad";
+    private static final String HQL_TEXTOS = "SELECT a.idActividad, a.nombre, a.descripcion FROM Actividad a";
+    private static final String HQL_HORARIOS = "SELECT a.idActividad, m.codMonitor, a.dia, a.hora "
+            + "FROM Actividad a JOIN a.monitorResponsable m";
+
+    /**
+     * Consultas HQL del DAO, precompiladas al iniciar sesión para evitar el coste del primer uso.
+     */
+    public static final List<String> CONSULTAS_HQL = List.of(HQL_SOCIOS_INSCRITOS, HQL_LISTA,
+            HQL_HORARIOS, HQL_POR_ID_CON_MONITOR, HQL_PAGINA, HQL_FILAS_POR_ID, HQL_CONTAR, HQL_CLAVES, HQL_TEXTOS);
+
+    private final RepositorioDatos repositorio;
+
     public ActividadDAO() {
+        this(null);
+    }
+
+    /**
+     * @param repositorio Repositorio en el que se publica cada cambio confirmado (puede ser null).
+     */
+    public ActividadDAO(RepositorioDatos repositorio) {
+        this.repositorio = repositorio;
     }
 
     /**
@@ -23,12 +63,11 @@ public class ActividadDAO {
      * @return Lista de objetos Socio que realizan dicha actividad.
      */
     public List<Socio> obtenerSociosInscritos(Session session, String idActividad) throws Exception {
-        Query<Socio> query = session.createQuery(
-                "SELECT s FROM Socio s JOIN s.actividades a WHERE a.idActividad = :id",
-                Socio.class
-        );
-        query.setParameter("id", idActividad);
-        return query.getResultList();
+        return MetricasConsultas.medir("ActividadDAO.obtenerSociosInscritos", session, () -> {
+            Query<Socio> query = session.createQuery(HQL_SOCIOS_INSCRITOS, Socio.class);
+            query.setParameter("id", idActividad);
+            return query.getResultList();
+        });
     }
 
     /**
@@ -38,114 +77,219 @@ public class ActividadDAO {
      * @return Objeto Actividad o null.
      */
     public Actividad buscarPorId(Session session, String idActividad) throws Exception {
-        return session.find(Actividad.class, idActividad);
+        return MetricasConsultas.medir("ActividadDAO.buscarPorId", session, () -> session.find(Actividad.class, idActividad));
+    }
+
+    /**
+     * Busca una actividad por su ID cargando también su monitor responsable en la misma consulta,
+     * para poder usarlo después de cerrar la sesión.
+     * @param session Sesión activa.
+     * @param idActividad ID a buscar.
+     * @return Objeto Actividad con su monitor, o null.
+     */
+    public Actividad buscarPorIdConMonitor(Session session, String idActividad) throws Exception {
+        return MetricasConsultas.medir("ActividadDAO.buscarPorIdConMonitor", session, () -> {
+            Query<Actividad> query = session.createQuery(HQL_POR_ID_CON_MONITOR, Actividad.class);
+            query.setParameter("id", idActividad);
+            return query.uniqueResult();
+        });
     }
 
     /**
      * Obtiene el listado completo de actividades disponibles.
+     * El resultado se guarda en la caché de consultas; Hibernate lo invalida en cuanto
+     * se inserta, modifica o borra una actividad a través de una sesión.
      * @param session Sesión activa.
      * @return Lista de todas las actividades.
      */
     public List<Actividad> listaActividades(Session session) {
-        Query<Actividad> q = session.createQuery("from Actividad", Actividad.class);
-        return q.getResultList();
+        return MetricasConsultas.medir("ActividadDAO.listaActividades", session, () -> {
+            Query<Actividad> q = session.createQuery(HQL_LISTA, Actividad.class);
+            q.setCacheable(true);
+            q.setCacheRegion(EstadisticasCache.REGION_LISTADOS);
+            return q.getResultList();
+        });
     }
 
     /**
-     * Inserta una nueva actividad en la base de datos.
+     * Recupera una página de actividades por orden de ID (paginación por keyset).
+     * Cada fila trae los datos de la tabla y el nombre del monitor responsable en una sola sentencia SQL.
      * @param session Sesión activa.
-     * @param actividad Objeto a guardar.
+     * @param despuesDe Último ID ya visto ("" para la primera página).
+     * @param limite Número máximo de actividades.
+     * @return Filas de las actividades con ID mayor que {@code despuesDe}.
      */
-    public void insertarActividad(Session session, Actividad actividad) throws Exception {
-        session.save(actividad);
+    public List<ActividadFila> listaActividades(Session session, String despuesDe, int limite) {
+        return MetricasConsultas.medir("ActividadDAO.listaActividades(pagina)", session, () -> {
+            Query<ActividadFila> q = session.createQuery(HQL_PAGINA, ActividadFila.class);
+            q.setParameter("despues", despuesDe);
+            q.setMaxResults(limite);
+            return q.getResultList();
+        });
     }
 
     /**
-     * Elimina una actividad de la base de datos.
+     * Recupera una página de actividades ordenadas por una columna de la tabla (paginación por keyset sobre
+     * columna e ID).
      * @param session Sesión activa.
-     * @param actividad Objeto a borrar.
+     * @param columna Columna de la tabla por la que se ordena (las plazas, por las ocupadas; el monitor, por su nombre).
+     * @param descendente true para ordenar de mayor a menor.
+     * @param ids IDs a los que se limita (resultados de una búsqueda) o null para todas las actividades.
+     * @param despuesDe ID de la última fila ya vista ("" para la primera página).
+     * @param limite Número máximo de actividades.
+     * @return Filas de las actividades siguientes en ese orden.
      */
-    public void borrarActividad(Session session, Actividad actividad) throws Exception {
-        session.delete(actividad);
+    public List<ActividadFila> listaActividades(Session session, int columna, boolean descendente, Collection<String> ids,
+            String despuesDe, int limite) {
+        return MetricasConsultas.medir("ActividadDAO.listaActividades(ordenada)", session,
+                () -> ordenActividades(columna, descendente, ids).pagina(session, ActividadFila.class, despuesDe, limite));
     }
 
     /**
-     * Actualiza los datos de una actividad existente.
+     * Recupera las filas de tabla de unas actividades concretas (por ejemplo, una página de resultados de búsqueda).
      * @param session Sesión activa.
-     * @param actividad Objeto con nuevos datos.
+     * @param ids IDs de las actividades.
+     * @return Filas de las actividades que existen, sin un orden determinado.
      */
-    public void actualizarActividad(Session session, Actividad actividad) throws Exception {
-        session.update(actividad);
+    public List<ActividadFila> filasActividades(Session session, Collection<String> ids) {
+        return MetricasConsultas.medir("ActividadDAO.filasActividades", session, () -> {
+            if (ids.isEmpty()) {
+                return List.<ActividadFila>of();
+            }
+            Query<ActividadFila> q = session.createQuery(HQL_FILAS_POR_ID, ActividadFila.class);
+            q.setParameterList("ids", ids);
+            return q.getResultList();
+        });
     }
 
     /**
-     * Busca actividades cuyo nombre contenga el texto proporcionado.
+     * Cuenta las actividades.
      * @param session Sesión activa.
-     * @param parteNombre Texto a buscar.
-     * @return Lista de actividades coincidentes.
+     * @return Número de actividades.
      */
-    public List<Actividad> buscarActividadesPorNombre(Session session, String parteNombre) throws Exception {
-        String hql = "FROM Actividad a WHERE a.nombre LIKE :nombre";
-        Query<Actividad> query = session.createQuery(hql, Actividad.class);
-        query.setParameter("nombre", "%" + parteNombre + "%");
-        return query.getResultList();
+    public long contarActividades(Session session) {
+        return MetricasConsultas.medir("ActividadDAO.contarActividades", session,
+                () -> session.createQuery(HQL_CONTAR, Long.class).getSingleResult());
     }
 
     /**
-     * Obtiene el código (ID) más alto registrado en la tabla ACTIVIDAD.
-     * Necesario para el cálculo automático de claves (Item 30 del Checklist).
-     * @param s Sesión activa.
-     * @return El String con el último ID o null si la tabla está vacía.
+     * Obtiene el ID de la actividad que ocupa una posición en el orden por ID.
+     * @param session Sesión activa.
+     * @param posicion Posición (empezando en 0).
+     * @return El ID o null si no hay tantas actividades.
      */
-    public String obtenerUltimoCodigo(Session s) {
-        String hql = "SELECT max(a.idActividad) FROM Actividad a";
-        Query<String> q = s.createQuery(hql, String.class);
-        return q.uniqueResult();
+    public String idActividadEnPosicion(Session session, long posicion) {
+        return MetricasConsultas.medir("ActividadDAO.idActividadEnPosicion", session, () -> {
+            Query<String> q = session.createQuery(HQL_CLAVES, String.class);
+            q.setFirstResult((int) posicion);
+            q.setMaxResults(1);
+            return q.uniqueResult();
+        });
     }
 
     /**
-     * Verifica si un monitor ya tiene asignada una actividad ese mismo día y hora.
+     * Obtiene el ID de la actividad que ocupa una posición en el orden por una columna de la tabla.
      * @param session Sesión activa.
-     * @param codMonitor Código del monitor.
-     * @param dia Día de la semana.
-     * @param hora Hora de la actividad (int).
-     * @return true si ya está ocupado, false si está libre.
+     * @param columna Columna de la tabla por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param ids IDs a los que se limita o null para todas las actividades.
+     * @param posicion Posición (empezando en 0).
+     * @return El ID o null si no hay tantas actividades.
      */
-    public boolean existeChoqueMonitor(Session session, String codMonitor, String dia, int hora) {
-        String hql = "SELECT count(a) FROM Actividad a WHERE a.monitorResponsable.codMonitor = :m AND a.dia = :d AND a.hora = :h";
-        Query<Long> q = session.createQuery(hql, Long.class);
-        q.setParameter("m", codMonitor);
-        q.setParameter("d", dia);
-        q.setParameter("h", hora);
-        return q.uniqueResult() > 0;
+    public String idActividadEnPosicion(Session session, int columna, boolean descendente, Collection<String> ids,
+            long posicion) {
+        return MetricasConsultas.medir("ActividadDAO.idActividadEnPosicion(ordenada)", session,
+                () -> ordenActividades(columna, descendente, ids).claveEnPosicion(session, posicion));
+    }
+
+    private static PaginacionOrdenada ordenActividades(int columna, boolean descendente, Collection<String> ids) {
+        return new PaginacionOrdenada(COLUMNAS_FILA, FROM_FILA, "a.idActividad", ORDEN_COLUMNAS[columna], descendente, ids);
     }
 
     /**
-     * Llama al Procedimiento Almacenado 'sp_estadisticas_actividad'.
+     * Obtiene el nombre y la descripción de todas las actividades, para construir {@link IndiceActividades}.
+     * Cada fila contiene: id, nombre y descripción.
      * @param session Sesión activa.
-     * @param idActividad ID de la actividad.
-     * @return Array con las estadísticas.
-     */
-    public Object[] obtenerEstadisticas(org.hibernate.Session session, String idActividad) {
-        return session.doReturningWork(connection -> {
-            Object[] resultados = new Object[4];
-            String sql = "{call sp_estadisticas_actividad(?, ?, ?, ?, ?)}";
-
-            try (CallableStatement call = connection.prepareCall(sql)) {
-                call.setString(1, idActividad);
-                call.registerOutParameter(2, Types.INTEGER); // socios
-                call.registerOutParameter(3, Types.DOUBLE);  // edad
-                call.registerOutParameter(4, Types.CHAR);    // categoria
-                call.registerOutParameter(5, Types.DOUBLE);  // ingresos
-
-                call.execute();
-
-                resultados[0] = call.getInt(2);
-                resultados[1] = call.getDouble(3);
-                resultados[2] = call.getString(4);
-                resultados[3] = call.getDouble(5);
+     * @return Filas de todas las actividades.
+     */
+    public List<Object[]> textosActividades(Session session) {
+        return MetricasConsultas.medir("ActividadDAO.textosActividades", session,
+                () -> session.createQuery(HQL_TEXTOS, Object[].class).getResultList());
+    }
+
+    /**
+     * Inserta una nueva actividad en la base de datos.
+     * @param session Sesión activa.
+     * @param actividad Objeto a guardar.
+     */
+    public void insertarActividad(Session session, Actividad actividad) throws Exception {
+        MetricasConsultas.medir("ActividadDAO.insertarActividad", session, () -> {
+            session.save(actividad);
+            if (repositorio != null) {
+                repositorio.actividadGuardada(session, actividad, true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Elimina una actividad de la base de datos.
+     * @param session Sesión activa.
+     * @param actividad Objeto a borrar.
+     */
+    public void borrarActividad(Session session, Actividad actividad) throws Exception {
+        MetricasConsultas.medir("ActividadDAO.borrarActividad", session, () -> {
+            session.delete(actividad);
+            if (repositorio != null) {
+                repositorio.actividadBorrada(session, actividad.getIdActividad());
             }
-            return resultados;
+            return null;
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Actualiza los datos de una actividad existente: carga la actividad en la sesión y le copia los datos
+     * editables (nombre, día, hora, descripción, precio, monitor y aforo). Las plazas ocupadas, la versión
+     * y los socios inscritos no se tocan, y al confirmar se comprueba que nadie ha cambiado la actividad
+     * entretanto.
+     * @param session Sesión activa.
+     * @param actividad Objeto con nuevos datos.
+     * @return La actividad cargada en la sesión, ya modificada.
+     * @throws IllegalArgumentException Si la actividad no existe o si el nuevo aforo es menor que sus plazas ocupadas.
+     */
+    public Actividad actualizarActividad(Session session, Actividad actividad) throws Exception {
+        return MetricasConsultas.medir("ActividadDAO.actualizarActividad", session, () -> {
+            Actividad actual = session.find(Actividad.class, actividad.getIdActividad());
+            if (actual == null) {
+                throw new IllegalArgumentException("La actividad " + actividad.getIdActividad() + " no existe.");
+            }
+            if (!actual.admiteCapacidad(actividad.getCapacidad())) {
+                throw new IllegalArgumentException("El aforo de la actividad " + actividad.getIdActividad()
+                        + " no puede ser menor que sus " + actual.getPlazasOcupadas() + " plazas ocupadas.");
+            }
+            actual.setNombre(actividad.getNombre());
+            actual.setDia(actividad.getDia());
+            actual.setHora(actividad.getHora());
+            actual.setDescripcion(actividad.getDescripcion());
+            actual.setPrecioBaseMes(actividad.getPrecioBaseMes());
+            actual.setMonitorResponsable(actividad.getMonitorResponsable());
+            actual.setCapacidad(actividad.getCapacidad());
+            if (repositorio != null) {
+                repositorio.actividadGuardada(session, actual, false);
+            }
+            return actual;
+        });
+    }
+
+
+    /**
+     * Obtiene el horario de todas las actividades con monitor responsable, para cargar {@link HorarioMonitores}.
+     * Cada fila contiene: id de la actividad, código del monitor, día y hora.
+     * @param session Sesión activa.
+     * @return Filas del horario.
+     */
+    public List<Object[]> horariosMonitores(Session session) {
+        return MetricasConsultas.medir("ActividadDAO.horariosMonitores", session,
+                () -> session.createQuery(HQL_HORARIOS, Object[].class).getResultList());
+    }
+}
@@ -0,0 +1,145 @@
+package Modelo;
+
+/**
+ * Fila de la tabla de actividades: los datos de una actividad y el nombre de su monitor responsable.
+ * Se construye directamente en la consulta HQL (expresión "SELECT new"), con un JOIN a MONITOR,
+ * de modo que el listado se obtiene en una sola sentencia SQL y sin cargar entidades.
+ * Es también la instantánea de la actividad que guarda {@link RepositorioDatos} y que viaja en los
+ * avisos de cambio ({@link CambioDatos}).
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class ActividadFila {
+
+    private final String idActividad;
+    private final String nombre;
+    private final String dia;
+    private final int hora;
+    private final int precioBaseMes;
+    private final String codMonitor;
+    private final String nombreMonitor;
+    private final String descripcion;
+    private final Integer capacidad;
+    private final int plazasOcupadas;
+
+    /**
+     * Constructor usado por la consulta HQL.
+     *
+     * @param idActividad ID de la actividad.
+     * @param nombre Nombre.
+     * @param dia Día de la semana.
+     * @param hora Hora de inicio.
+     * @param precioBaseMes Precio mensual.
+     * @param codMonitor Código del monitor responsable, o null si no tiene.
+     * @param nombreMonitor Nombre del monitor responsable, o null si no tiene.
+     * @param descripcion Descripción.
+     * @param capacidad Aforo máximo, o null si no tiene límite.
+     * @param plazasOcupadas Número de socios inscritos.
+     */
+    public ActividadFila(String idActividad, String nombre, String dia, int hora, int precioBaseMes,
+            String codMonitor, String nombreMonitor, String descripcion, Integer capacidad, int plazasOcupadas) {
+        this.idActividad = idActividad;
+        this.nombre = nombre;
+        this.dia = dia;
+        this.hora = hora;
+        this.precioBaseMes = precioBaseMes;
+        this.codMonitor = codMonitor;
+        this.nombreMonitor = nombreMonitor;
+        this.descripcion = descripcion;
+        this.capacidad = capacidad;
+        this.plazasOcupadas = plazasOcupadas;
+    }
+
+    /**
+     * Copia los datos actuales de una actividad. Si tiene monitor, lo carga para leer su nombre,
+     * por lo que debe llamarse con la sesión de la actividad abierta.
+     *
+     * @param a Actividad.
+     * @return Fila con los datos de la actividad.
+     */
+    public static ActividadFila de(Actividad a) {
+        Monitor m = a.getMonitorResponsable();
+        return new ActividadFila(a.getIdActividad(), a.getNombre(), a.getDia(), a.getHora(), a.getPrecioBaseMes(),
+                m == null ? null : m.getCodMonitor(), m == null ? null : m.getNombre(), a.getDescripcion(),
+                a.getCapacidad(), a.getPlazasOcupadas());
+    }
+
+    /**
+     * @param nombre Nuevo nombre del monitor responsable.
+     * @return Copia de la fila con el nombre del monitor cambiado.
+     */
+    public ActividadFila conNombreMonitor(String nombre) {
+        return new ActividadFila(idActividad, this.nombre, dia, hora, precioBaseMes, codMonitor, nombre, descripcion,
+                capacidad, plazasOcupadas);
+    }
+
+    /**
+     * @return El ID de la actividad.
+     */
+    public String getIdActividad() {
+        return idActividad;
+    }
+
+    /**
+     * @return El nombre de la actividad.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return El día de la semana.
+     */
+    public String getDia() {
+        return dia;
+    }
+
+    /**
+     * @return La hora de inicio.
+     */
+    public int getHora() {
+        return hora;
+    }
+
+    /**
+     * @return El precio base mensual.
+     */
+    public int getPrecioBaseMes() {
+        return precioBaseMes;
+    }
+
+    /**
+     * @return El código del monitor responsable, o null si no tiene.
+     */
+    public String getCodMonitor() {
+        return codMonitor;
+    }
+
+    /**
+     * @return El nombre del monitor responsable, o null si no tiene.
+     */
+    public String getNombreMonitor() {
+        return nombreMonitor;
+    }
+
+    /**
+     * @return La descripción.
+     */
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * @return El aforo máximo, o null si no tiene límite.
+     */
+    public Integer getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * @return El número de socios inscritos.
+     */
+    public int getPlazasOcupadas() {
+        return plazasOcupadas;
+    }
+}
@@ -0,0 +1,83 @@
+package Modelo;
+
+/**
+ * Aviso de un cambio confirmado en la base de datos sobre un socio, monitor o actividad.
+ * Lo publica {@link RepositorioDatos} después de confirmarse la transacción, con la clave primaria y la
+ * instantánea de los datos nuevos, para que cada panel aplique solo ese cambio sin volver a consultar.
+ *
+ * @param <T> Tipo de la instantánea ({@link SocioFila}, {@link MonitorFila} o {@link ActividadFila}).
+ * @author Manuel Martín Rodrigo
+ */
+public final class CambioDatos<T> {
+
+    /**
+     * Tipo de cambio.
+     */
+    public enum Tipo {
+        ALTA, MODIFICACION, BAJA
+    }
+
+    private final Tipo tipo;
+    private final String clave;
+    private final T datos;
+
+    private CambioDatos(Tipo tipo, String clave, T datos) {
+        this.tipo = tipo;
+        this.clave = clave;
+        this.datos = datos;
+    }
+
+    /**
+     * @param clave Clave primaria del elemento creado.
+     * @param datos Datos del elemento.
+     * @return Aviso de alta.
+     */
+    public static <T> CambioDatos<T> alta(String clave, T datos) {
+        return new CambioDatos<>(Tipo.ALTA, clave, datos);
+    }
+
+    /**
+     * @param clave Clave primaria del elemento modificado.
+     * @param datos Datos nuevos del elemento.
+     * @return Aviso de modificación.
+     */
+    public static <T> CambioDatos<T> modificacion(String clave, T datos) {
+        return new CambioDatos<>(Tipo.MODIFICACION, clave, datos);
+    }
+
+    /**
+     * @param clave Clave primaria del elemento borrado.
+     * @return Aviso de baja (sin datos).
+     */
+    public static <T> CambioDatos<T> baja(String clave) {
+        return new CambioDatos<>(Tipo.BAJA, clave, null);
+    }
+
+    /**
+     * @return El tipo de cambio.
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return La clave primaria del elemento.
+     */
+    public String getClave() {
+        return clave;
+    }
+
+    /**
+     * @return Los datos nuevos del elemento, o null si es una baja.
+     */
+    public T getDatos() {
+        return datos;
+    }
+
+    /**
+     * @return true si el elemento se ha borrado.
+     */
+    public boolean esBaja() {
+        return tipo == Tipo.BAJA;
+    }
+}
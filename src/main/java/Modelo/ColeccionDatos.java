@@ -0,0 +1,192 @@
+package Modelo;
+
+import Config.EjecutorBD;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Copia en memoria de una tabla (socios, monitores o actividades) compartida por todos los paneles.
+ * Se carga entera la primera vez que alguien la pide, por páginas ordenadas por clave, y a partir de ahí
+ * se mantiene con los cambios confirmados que publican los DAOs ({@link RepositorioDatos}): cada cambio se
+ * aplica a la copia y se avisa a los suscriptores, que actualizan solo lo que ha cambiado.
+ * Los avisos se entregan con el ejecutor indicado (en la aplicación, el hilo de eventos de Swing) en el
+ * orden en que se confirmaron, tanto si la copia está cargada como si no.
+ *
+ * @param <T> Tipo de la instantánea de cada elemento.
+ * @author Manuel Martín Rodrigo
+ */
+public class ColeccionDatos<T> {
+
+    /**
+     * Lectura de una página de elementos por orden de clave (keyset).
+     * @param <T> Tipo de la instantánea.
+     */
+    @FunctionalInterface
+    public interface LectorPaginas<T> {
+        List<T> leer(Session session, String despuesDe, int limite);
+    }
+
+    private static final int TAMANO_PAGINA = 1000;
+
+    private final SessionFactory sessionFactory;
+    private final LectorPaginas<T> lector;
+    private final Function<T, String> clave;
+    private final Executor entrega;
+    private final List<Consumer<CambioDatos<T>>> suscriptores = new CopyOnWriteArrayList<>();
+
+    // null hasta que termina la primera carga
+    private NavigableMap<String, T> datos;
+    private CompletableFuture<Void> carga;
+    // Cambios confirmados mientras se lee la tabla: se repiten sobre la copia nueva al terminar la carga
+    private final List<CambioDatos<T>> cambiosDuranteCarga = new ArrayList<>();
+
+    /**
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param lector Lectura de una página de elementos.
+     * @param clave Clave primaria de cada elemento.
+     * @param entrega Ejecutor con el que se avisa a los suscriptores.
+     */
+    ColeccionDatos(SessionFactory sessionFactory, LectorPaginas<T> lector, Function<T, String> clave, Executor entrega) {
+        this.sessionFactory = sessionFactory;
+        this.lector = lector;
+        this.clave = clave;
+        this.entrega = entrega;
+    }
+
+    /**
+     * @return true si la copia en memoria ya está cargada.
+     */
+    public synchronized boolean estaCargada() {
+        return datos != null;
+    }
+
+    /**
+     * Devuelve todos los elementos por orden de clave. Si la copia no está cargada, la carga en segundo plano
+     * (una sola vez aunque la pidan varios paneles a la vez).
+     *
+     * @return Futuro con una copia de la lista de elementos.
+     */
+    public CompletableFuture<List<T>> listar() {
+        return cargar().thenApply(v -> valores());
+    }
+
+    /**
+     * @param clavePrimaria Clave del elemento.
+     * @return La instantánea del elemento, o null si no existe o la copia aún no está cargada.
+     */
+    public synchronized T buscar(String clavePrimaria) {
+        return datos == null ? null : datos.get(clavePrimaria);
+    }
+
+    /**
+     * Suscribe un receptor a los cambios confirmados.
+     *
+     * @param suscriptor Recibe cada cambio con el ejecutor de entrega.
+     * @return Acción que anula la suscripción.
+     */
+    public Runnable suscribir(Consumer<CambioDatos<T>> suscriptor) {
+        suscriptores.add(suscriptor);
+        return () -> suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Aplica un cambio confirmado a la copia y avisa a los suscriptores.
+     */
+    void publicar(CambioDatos<T> cambio) {
+        synchronized (this) {
+            if (datos != null) {
+                aplicar(datos, cambio);
+            } else if (carga != null) {
+                cambiosDuranteCarga.add(cambio);
+            }
+        }
+        entrega.execute(() -> {
+            for (Consumer<CambioDatos<T>> s : suscriptores) {
+                s.accept(cambio);
+            }
+        });
+    }
+
+    /**
+     * @return Los elementos cargados que cumplen la condición (vacío si la copia no está cargada).
+     */
+    synchronized List<T> filtrar(Predicate<T> condicion) {
+        List<T> encontrados = new ArrayList<>();
+        if (datos != null) {
+            for (T t : datos.values()) {
+                if (condicion.test(t)) {
+                    encontrados.add(t);
+                }
+            }
+        }
+        return encontrados;
+    }
+
+    private synchronized CompletableFuture<Void> cargar() {
+        if (datos != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (carga == null) {
+            cambiosDuranteCarga.clear();
+            CompletableFuture<Void> nueva = EjecutorBD.enLectura(sessionFactory, this::leerTodo).thenAccept(this::sustituir);
+            carga = nueva;
+            // Si falla, la siguiente petición vuelve a intentarlo
+            nueva.whenComplete((v, error) -> {
+                if (error != null) {
+                    synchronized (this) {
+                        if (carga == nueva) {
+                            carga = null;
+                        }
+                    }
+                }
+            });
+        }
+        return carga;
+    }
+
+    private NavigableMap<String, T> leerTodo(Session session) {
+        NavigableMap<String, T> leidos = new TreeMap<>();
+        String despuesDe = "";
+        List<T> pagina;
+        do {
+            pagina = lector.leer(session, despuesDe, TAMANO_PAGINA);
+            for (T t : pagina) {
+                leidos.put(clave.apply(t), t);
+            }
+            if (!pagina.isEmpty()) {
+                despuesDe = clave.apply(pagina.get(pagina.size() - 1));
+            }
+        } while (pagina.size() == TAMANO_PAGINA);
+        return leidos;
+    }
+
+    private synchronized void sustituir(NavigableMap<String, T> leidos) {
+        for (CambioDatos<T> cambio : cambiosDuranteCarga) {
+            aplicar(leidos, cambio);
+        }
+        cambiosDuranteCarga.clear();
+        datos = leidos;
+    }
+
+    private synchronized List<T> valores() {
+        return new ArrayList<>(datos.values());
+    }
+
+    private static <T> void aplicar(NavigableMap<String, T> mapa, CambioDatos<T> cambio) {
+        if (cambio.esBaja()) {
+            mapa.remove(cambio.getClave());
+        } else {
+            mapa.put(cambio.getClave(), cambio.getDatos());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Modelo;
+
+/**
+ * Estadísticas de una actividad: socios inscritos, edad media, categoría más frecuente e ingresos mensuales.
+ * Se leen de la tabla ESTADISTICA_ACTIVIDAD, que {@link EstadisticaActividadDAO} mantiene al día
+ * con cada inscripción, baja y cambio de precio.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class EstadisticaActividad {
+
+    /**
+     * Categoría frecuente de una actividad sin socios.
+     */
+    public static final char SIN_CATEGORIA = '-';
+
+    private final String idActividad;
+    private final String nombre;
+    private final int numSocios;
+    private final double edadMedia;
+    private final char categoriaFrecuente;
+    private final double ingresos;
+
+    /**
+     * Categorías de socio con descuento, por orden.
+     */
+    public static final char[] CATEGORIAS = {'A', 'B', 'C', 'D', 'E'};
+
+    /**
+     * @param idActividad ID de la actividad.
+     * @param nombre Nombre de la actividad.
+     * @param numSocios Número de socios inscritos.
+     * @param edadMedia Edad media de los socios, con decimales (0 si no hay).
+     * @param categoriaFrecuente Categoría más repetida entre los socios, o {@link #SIN_CATEGORIA}.
+     * @param ingresos Ingresos mensuales aplicando el descuento de cada categoría.
+     */
+    public EstadisticaActividad(String idActividad, String nombre, int numSocios, double edadMedia,
+            char categoriaFrecuente, double ingresos) {
+        this.idActividad = idActividad;
+        this.nombre = nombre;
+        this.numSocios = numSocios;
+        this.edadMedia = edadMedia;
+        this.categoriaFrecuente = categoriaFrecuente;
+        this.ingresos = ingresos;
+    }
+
+    /**
+     * @return El ID de la actividad.
+     */
+    public String getIdActividad() {
+        return idActividad;
+    }
+
+    /**
+     * @return El nombre de la actividad.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return El número de socios inscritos.
+     */
+    public int getNumSocios() {
+        return numSocios;
+    }
+
+    /**
+     * @return La edad media de los socios, o 0 si no hay.
+     */
+    public double getEdadMedia() {
+        return edadMedia;
+    }
+
+    /**
+     * @return La categoría más frecuente, o {@link #SIN_CATEGORIA} si no hay socios.
+     */
+    public char getCategoriaFrecuente() {
+        return categoriaFrecuente;
+    }
+
+    /**
+     * @return Los ingresos mensuales de la actividad.
+     */
+    public double getIngresos() {
+        return ingresos;
+    }
+
+    /**
+     * Parte del precio base que paga un socio según su categoría (A paga el precio completo, E el 60%).
+     * @param categoria Categoría del socio, o null.
+     * @return Factor entre 0 y 1; 1 para categorías desconocidas.
+     */
+    public static double factorCategoria(Character categoria) {
+        if (categoria == null) return 1.0;
+        switch (categoria) {
+            case 'B': return 0.9;
+            case 'C': return 0.8;
+            case 'D': return 0.7;
+            case 'E': return 0.6;
+            default: return 1.0;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package Modelo;
+
+import Config.MetricasConsultas;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.LocalDateType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Clase Data Access Object (DAO) de las estadísticas materializadas de actividades (tabla ESTADISTICA_ACTIVIDAD).
+ * Cada fila guarda los contadores de una actividad: socios, socios por categoría, suma de fechas de nacimiento
+ * e ingresos. Se actualizan con un incremento atómico en la misma transacción de cada inscripción, baja o
+ * cambio de precio, de modo que leer las estadísticas no recorre REALIZA ni SOCIO.
+ * Se guarda la suma de fechas de nacimiento (en días) y no de edades para que la media no envejezca:
+ * la edad media se calcula al leer respecto a la fecha actual.
+ * Editar la categoría o la fecha de nacimiento de un socio corrige las actividades en las que está inscrito
+ * ({@link #registrarCambioSocio}). Los cambios hechos fuera de la aplicación se corrigen con
+ * {@link #verificarYReparar(Session)}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class EstadisticaActividadDAO {
+
+    private static final String TABLA = "ESTADISTICA_ACTIVIDAD";
+
+    // Columnas de contadores, en el orden de los parámetros de incremento
+    private static final String[] CONTADORES = {"numSocios", "catA", "catB", "catC", "catD", "catE", "catOtra",
+        "sociosConFecha", "sumaDiasNacimiento", "ingresos"};
+
+    private static final String SQL_INCREMENTAR = "INSERT INTO " + TABLA + " (idActividad, " + String.join(", ", CONTADORES)
+            + ") VALUES (:id, :numSocios, :catA, :catB, :catC, :catD, :catE, :catOtra, :sociosConFecha, "
+            + ":sumaDiasNacimiento, :ingresos) ON DUPLICATE KEY UPDATE " + sumarValores();
+
+    private static final String SQL_PRECIO = "UPDATE " + TABLA + " SET ingresos = :precio * "
+            + factores("%s") + " WHERE idActividad = :id";
+    private static final String SQL_ELIMINAR = "DELETE FROM " + TABLA + " WHERE idActividad = :id";
+
+    // Resta lo que aportaban los datos guardados del socio (SOCIO aún sin modificar) y suma lo que aportan
+    // los nuevos, en todas sus actividades. Si ninguno de los dos campos cambia no se toca ninguna fila.
+    private static final String SQL_CAMBIO_SOCIO = "UPDATE " + TABLA + " e "
+            + "JOIN REALIZA r ON r.idActividad = e.idActividad "
+            + "JOIN SOCIO s ON s.numeroSocio = r.numeroSocio "
+            + "JOIN ACTIVIDAD a ON a.idActividad = e.idActividad SET " + restarSocioAnterior()
+            + "WHERE r.numeroSocio = :socio "
+            + "AND NOT (s.categoria <=> :categoria AND s.fechaNacimiento <=> :nacimiento)";
+
+    // Contadores calculados desde cero a partir de REALIZA y SOCIO, agrupados por actividad
+    private static final String SQL_CALCULO = "SELECT r.idActividad, COUNT(*) AS numSocios, "
+            + "SUM(s.categoria = 'A') AS catA, SUM(s.categoria = 'B') AS catB, SUM(s.categoria = 'C') AS catC, "
+            + "SUM(s.categoria = 'D') AS catD, SUM(s.categoria = 'E') AS catE, "
+            + "SUM(s.categoria IS NULL OR s.categoria NOT IN ('A', 'B', 'C', 'D', 'E')) AS catOtra, "
+            + "COUNT(s.fechaNacimiento) AS sociosConFecha, "
+            + "COALESCE(SUM(DATEDIFF(s.fechaNacimiento, '1970-01-01')), 0) AS sumaDiasNacimiento "
+            + "FROM REALIZA r JOIN SOCIO s ON s.numeroSocio = r.numeroSocio ";
+    private static final String AGRUPAR = "GROUP BY r.idActividad";
+
+    private static final String SQL_RECONSTRUIR = "INSERT INTO " + TABLA + " (idActividad, " + String.join(", ", CONTADORES)
+            + ") SELECT c.idActividad, c.numSocios, c.catA, c.catB, c.catC, c.catD, c.catE, c.catOtra, "
+            + "c.sociosConFecha, c.sumaDiasNacimiento, a.precioBaseMes * " + factores("c.%s") + " "
+            + "FROM ACTIVIDAD a JOIN (%s) c ON c.idActividad = a.idActividad";
+
+    private static final String SQL_VERIFICAR = "SELECT a.idActividad FROM ACTIVIDAD a "
+            + "LEFT JOIN (" + SQL_CALCULO + AGRUPAR + ") c ON c.idActividad = a.idActividad "
+            + "LEFT JOIN " + TABLA + " e ON e.idActividad = a.idActividad WHERE " + diferencias()
+            + " ORDER BY a.idActividad";
+
+    private static final String SQL_LEER = "SELECT a.idActividad, a.nombre, e.numSocios, e.catA, e.catB, e.catC, "
+            + "e.catD, e.catE, e.sociosConFecha, e.sumaDiasNacimiento, e.ingresos "
+            + "FROM ACTIVIDAD a LEFT JOIN " + TABLA + " e ON e.idActividad = a.idActividad ";
+
+    private static final String SQL_HAY_ESTADISTICAS = "SELECT EXISTS(SELECT 1 FROM " + TABLA + ")";
+    private static final String SQL_HAY_INSCRIPCIONES = "SELECT EXISTS(SELECT 1 FROM REALIZA)";
+
+    public EstadisticaActividadDAO() {
+    }
+
+    /**
+     * Rellena la tabla de estadísticas si está vacía pero ya hay inscripciones (la tabla la crea
+     * {@link Config.MigradorEsquema}).
+     * Se llama al iniciar sesión.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @return true si se ha tenido que reconstruir la tabla.
+     */
+    public boolean prepararTabla(Session session) {
+        return MetricasConsultas.medir("EstadisticaActividadDAO.prepararTabla", session, () -> {
+            if (existe(session, SQL_HAY_ESTADISTICAS) || !existe(session, SQL_HAY_INSCRIPCIONES)) {
+                return false;
+            }
+            reconstruir(session, null);
+            return true;
+        });
+    }
+
+    /**
+     * Suma un socio a las estadísticas de una actividad.
+     * Debe llamarse en la misma transacción que guarda la inscripción.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param actividad Actividad en la que se inscribe.
+     * @param socio Socio inscrito.
+     */
+    public void registrarInscripcion(Session session, Actividad actividad, Socio socio) {
+        MetricasConsultas.medir("EstadisticaActividadDAO.registrarInscripcion", session,
+                () -> incrementar(session, actividad, socio, 1));
+    }
+
+    /**
+     * Resta un socio de las estadísticas de una actividad.
+     * Debe llamarse en la misma transacción que borra la inscripción.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param actividad Actividad de la que se da de baja.
+     * @param socio Socio dado de baja.
+     */
+    public void registrarBaja(Session session, Actividad actividad, Socio socio) {
+        MetricasConsultas.medir("EstadisticaActividadDAO.registrarBaja", session,
+                () -> incrementar(session, actividad, socio, -1));
+    }
+
+    /**
+     * Recalcula los ingresos de una actividad con su nuevo precio a partir de los contadores por categoría.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param idActividad ID de la actividad.
+     * @param precioBaseMes Nuevo precio mensual.
+     */
+    public void actualizarPrecio(Session session, String idActividad, int precioBaseMes) {
+        MetricasConsultas.medir("EstadisticaActividadDAO.actualizarPrecio", session, () -> session
+                .createNativeQuery(SQL_PRECIO)
+                .addSynchronizedQuerySpace(TABLA)
+                .setParameter("precio", precioBaseMes)
+                .setParameter("id", idActividad)
+                .executeUpdate());
+    }
+
+    /**
+     * Elimina las estadísticas de una actividad borrada.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param idActividad ID de la actividad.
+     */
+    public void eliminar(Session session, String idActividad) {
+        MetricasConsultas.medir("EstadisticaActividadDAO.eliminar", session, () -> session
+                .createNativeQuery(SQL_ELIMINAR)
+                .addSynchronizedQuerySpace(TABLA)
+                .setParameter("id", idActividad)
+                .executeUpdate());
+    }
+
+    /**
+     * Traslada a las estadísticas de las actividades del socio el cambio de su categoría o de su fecha de
+     * nacimiento, con una sola sentencia. Debe llamarse en la misma transacción que guarda el socio y
+     * antes de guardarlo, porque los datos anteriores se leen de la tabla SOCIO.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param socio Socio con los datos nuevos.
+     * @return Número de actividades corregidas (0 si no cambia ninguno de los dos campos).
+     */
+    public int registrarCambioSocio(Session session, Socio socio) {
+        return MetricasConsultas.medir("EstadisticaActividadDAO.registrarCambioSocio", session, () -> {
+            NativeQuery<?> q = session.createNativeQuery(SQL_CAMBIO_SOCIO).addSynchronizedQuerySpace(TABLA);
+            Character categoria = socio.getCategoria();
+            int otra = 1;
+            for (char c : EstadisticaActividad.CATEGORIAS) {
+                boolean es = categoria != null && categoria == c;
+                q.setParameter("cat" + c, es ? 1 : 0);
+                if (es) otra = 0;
+            }
+            q.setParameter("catOtra", otra);
+            LocalDate nacimiento = socio.getFechaNacimiento();
+            q.setParameter("sociosConFecha", nacimiento == null ? 0 : 1);
+            q.setParameter("sumaDiasNacimiento", nacimiento == null ? 0L : nacimiento.toEpochDay());
+            q.setParameter("factor", EstadisticaActividad.factorCategoria(categoria));
+            q.setParameter("socio", socio.getNumeroSocio());
+            q.setParameter("categoria", categoria == null ? null : categoria.toString(), StandardBasicTypes.STRING);
+            q.setParameter("nacimiento", nacimiento, LocalDateType.INSTANCE);
+            return q.executeUpdate();
+        });
+    }
+
+    /**
+     * Lee las estadísticas de varias actividades (o de todas) sin recalcularlas.
+     * Las actividades sin socios aparecen con sus contadores a cero.
+     * @param session Sesión activa.
+     * @param idsActividad IDs de las actividades, o null/vacío para todas.
+     * @return Estadísticas por orden de ID de actividad.
+     */
+    public List<EstadisticaActividad> obtenerEstadisticas(Session session, Collection<String> idsActividad) {
+        return MetricasConsultas.medir("EstadisticaActividadDAO.obtenerEstadisticas", session, () -> {
+            boolean todas = idsActividad == null || idsActividad.isEmpty();
+            @SuppressWarnings("unchecked")
+            NativeQuery<Object[]> q = session.createNativeQuery(SQL_LEER
+                    + (todas ? "" : "WHERE a.idActividad IN (:ids) ") + "ORDER BY a.idActividad");
+            if (!todas) {
+                q.setParameterList("ids", idsActividad);
+            }
+            long hoy = LocalDate.now().toEpochDay();
+            List<EstadisticaActividad> resultado = new ArrayList<>();
+            for (Object[] f : q.getResultList()) {
+                resultado.add(aEstadistica(f, hoy));
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Compara las estadísticas guardadas con las calculadas desde REALIZA y SOCIO.
+     * @param session Sesión activa.
+     * @return IDs de las actividades cuyas estadísticas no coinciden.
+     */
+    public List<String> verificar(Session session) {
+        return MetricasConsultas.medir("EstadisticaActividadDAO.verificar", session, () -> {
+            @SuppressWarnings("unchecked")
+            NativeQuery<String> q = session.createNativeQuery(SQL_VERIFICAR);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recalcula desde cero las estadísticas de las actividades indicadas, o de todas.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param idsActividad IDs de las actividades, o null/vacío para todas.
+     */
+    public void reconstruir(Session session, Collection<String> idsActividad) {
+        MetricasConsultas.medir("EstadisticaActividadDAO.reconstruir", session, () -> {
+            boolean todas = idsActividad == null || idsActividad.isEmpty();
+            NativeQuery<?> borrar = session.createNativeQuery("DELETE FROM " + TABLA
+                    + (todas ? "" : " WHERE idActividad IN (:ids)")).addSynchronizedQuerySpace(TABLA);
+            NativeQuery<?> insertar = session.createNativeQuery(String.format(SQL_RECONSTRUIR,
+                    SQL_CALCULO + (todas ? "" : "WHERE r.idActividad IN (:ids) ") + AGRUPAR))
+                    .addSynchronizedQuerySpace(TABLA);
+            if (!todas) {
+                borrar.setParameterList("ids", idsActividad);
+                insertar.setParameterList("ids", idsActividad);
+            }
+            borrar.executeUpdate();
+            return insertar.executeUpdate();
+        });
+    }
+
+    /**
+     * Verifica las estadísticas guardadas y reconstruye las que se hayan desviado.
+     * @param session Sesión de Hibernate con transacción activa.
+     * @return IDs de las actividades reparadas.
+     */
+    public List<String> verificarYReparar(Session session) {
+        List<String> desviadas = verificar(session);
+        if (!desviadas.isEmpty()) {
+            reconstruir(session, desviadas);
+        }
+        return desviadas;
+    }
+
+    private int incrementar(Session session, Actividad actividad, Socio socio, int signo) {
+        NativeQuery<?> q = session.createNativeQuery(SQL_INCREMENTAR).addSynchronizedQuerySpace(TABLA);
+        q.setParameter("id", actividad.getIdActividad());
+        q.setParameter("numSocios", signo);
+        Character categoria = socio.getCategoria();
+        int otra = signo;
+        for (char c : EstadisticaActividad.CATEGORIAS) {
+            boolean es = categoria != null && categoria == c;
+            q.setParameter("cat" + c, es ? signo : 0);
+            if (es) otra = 0;
+        }
+        q.setParameter("catOtra", otra);
+        LocalDate nacimiento = socio.getFechaNacimiento();
+        q.setParameter("sociosConFecha", nacimiento == null ? 0 : signo);
+        q.setParameter("sumaDiasNacimiento", nacimiento == null ? 0L : signo * nacimiento.toEpochDay());
+        q.setParameter("ingresos", signo * actividad.getPrecioBaseMes() * EstadisticaActividad.factorCategoria(categoria));
+        return q.executeUpdate();
+    }
+
+    // Fila: id, nombre, socios, A, B, C, D, E, socios con fecha, suma de días de nacimiento, ingresos
+    private static EstadisticaActividad aEstadistica(Object[] f, long hoy) {
+        int socios = entero(f[2]);
+        char frecuente = EstadisticaActividad.SIN_CATEGORIA;
+        int maximo = 0;
+        for (int i = 0; i < EstadisticaActividad.CATEGORIAS.length; i++) {
+            int n = entero(f[3 + i]);
+            if (n > maximo) {
+                maximo = n;
+                frecuente = EstadisticaActividad.CATEGORIAS[i];
+            }
+        }
+        long conFecha = entero(f[8]);
+        double edadMedia = conFecha == 0 ? 0 : (hoy - ((Number) f[9]).doubleValue() / conFecha) / 365.2425;
+        double ingresos = f[10] == null ? 0 : ((Number) f[10]).doubleValue();
+        return new EstadisticaActividad((String) f[0], (String) f[1], socios, edadMedia, frecuente, ingresos);
+    }
+
+    private static int entero(Object valor) {
+        return valor == null ? 0 : ((Number) valor).intValue();
+    }
+
+    private static boolean existe(Session session, String sql) {
+        return ((Number) session.createNativeQuery(sql).getSingleResult()).intValue() == 1;
+    }
+
+    private static String sumarValores() {
+        StringBuilder sb = new StringBuilder();
+        for (String c : CONTADORES) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(c).append(" = ").append(c).append(" + VALUES(").append(c).append(')');
+        }
+        return sb.toString();
+    }
+
+    private static String diferencias() {
+        StringBuilder sb = new StringBuilder();
+        for (String c : CONTADORES) {
+            if (c.equals("ingresos")) continue;
+            sb.append("COALESCE(c.").append(c).append(", 0) <> COALESCE(e.").append(c).append(", 0) OR ");
+        }
+        sb.append("ABS(COALESCE(e.ingresos, 0) - a.precioBaseMes * ").append(factores("COALESCE(c.%s, 0)"))
+                .append(") > 0.005");
+        return sb.toString();
+    }
+
+    /**
+     * Asignaciones SET de {@link #SQL_CAMBIO_SOCIO}: cada contador suma el parámetro con el valor nuevo y
+     * resta el que aportaba la fila de SOCIO (s) con los mismos criterios que {@link #SQL_CALCULO}.
+     */
+    private static String restarSocioAnterior() {
+        StringBuilder sb = new StringBuilder();
+        for (char c : EstadisticaActividad.CATEGORIAS) {
+            sb.append("e.cat").append(c).append(" = e.cat").append(c).append(" + :cat").append(c)
+                    .append(" - (s.categoria <=> '").append(c).append("'), ");
+        }
+        StringBuilder factor = new StringBuilder("CASE s.categoria");
+        for (char c : EstadisticaActividad.CATEGORIAS) {
+            factor.append(" WHEN '").append(c).append("' THEN ").append(EstadisticaActividad.factorCategoria(c));
+        }
+        factor.append(" ELSE ").append(EstadisticaActividad.factorCategoria(null)).append(" END");
+        return sb.append("e.catOtra = e.catOtra + :catOtra - (s.categoria IS NULL OR s.categoria NOT IN ('A', 'B', 'C', 'D', 'E')), ")
+                .append("e.sociosConFecha = e.sociosConFecha + :sociosConFecha - (s.fechaNacimiento IS NOT NULL), ")
+                .append("e.sumaDiasNacimiento = e.sumaDiasNacimiento + :sumaDiasNacimiento ")
+                .append("- COALESCE(DATEDIFF(s.fechaNacimiento, '1970-01-01'), 0), ")
+                .append("e.ingresos = e.ingresos + a.precioBaseMes * (:factor - ").append(factor).append(") ")
+                .toString();
+    }
+
+    /**
+     * Expresión SQL de la suma de socios por categoría ponderada con el descuento de cada una.
+     * @param formatoColumna Formato de cada columna de contador (por ejemplo "c.%s").
+     */
+    private static String factores(String formatoColumna) {
+        StringBuilder sb = new StringBuilder("(");
+        for (char c : EstadisticaActividad.CATEGORIAS) {
+            sb.append(EstadisticaActividad.factorCategoria(c)).append(" * ")
+                    .append(String.format(formatoColumna, "cat" + c)).append(" + ");
+        }
+        return sb.append(String.format(formatoColumna, "catOtra")).append(')').toString();
+    }
+}
@@ -0,0 +1,227 @@
+package Modelo;
+
+import Config.EjecutorBD;
+import Config.MetricasConsultas;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hibernate.SessionFactory;
+
+/**
+ * Generador de códigos de socio, monitor y actividad por bloques (hi/lo).
+ * Cada cliente reserva en la tabla SECUENCIA un bloque de números consecutivos con una única sentencia
+ * y los reparte después en memoria sin bloqueos, de modo que dos puestos que abren a la vez el alta
+ * nunca reciben el mismo código. Los números de un bloque que no se llegan a usar (por ejemplo, al cancelar
+ * el diálogo o al cerrar la aplicación) se pierden: puede haber huecos, pero nunca repeticiones.
+ * La primera vez que se usa una secuencia se inicializa con el mayor número existente en su tabla.
+ * La tabla SECUENCIA la crea la migración de esquema inicial ({@link Config.MigradorEsquema}).
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class GeneradorCodigos {
+
+    /**
+     * Secuencias de códigos de la aplicación: prefijo, tabla y columna de la clave.
+     * El número se escribe siempre con {@link #CIFRAS} cifras (S000001, S001000...), de modo que el orden
+     * alfabético de los códigos, que usan las tablas paginadas, es también el numérico.
+     */
+    public enum Secuencia {
+        SOCIO("S", "SOCIO", "numeroSocio"),
+        MONITOR("M", "MONITOR", "codMonitor"),
+        ACTIVIDAD("ACT", "ACTIVIDAD", "idActividad");
+
+        private final String prefijo;
+        private final String tabla;
+        private final String columna;
+
+        Secuencia(String prefijo, String tabla, String columna) {
+            this.prefijo = prefijo;
+            this.tabla = tabla;
+            this.columna = columna;
+        }
+
+        /**
+         * @param numero Número de la secuencia.
+         * @return El código con el prefijo de la secuencia (ej: S000005).
+         * @throws IllegalStateException Si el número no cabe en {@link #CIFRAS} cifras.
+         */
+        public String formatear(long numero) {
+            if (numero > MAXIMO) {
+                throw new IllegalStateException("La secuencia " + name() + " ha superado " + MAXIMO + " códigos.");
+            }
+            return prefijo + String.format("%0" + CIFRAS + "d", numero);
+        }
+    }
+
+    /**
+     * Cifras del número de los códigos. Con el prefijo más largo (ACT) el código ocupa 9 de los
+     * 10 caracteres de la clave.
+     */
+    public static final int CIFRAS = 6;
+
+    private static final long MAXIMO = 999_999;
+
+    /**
+     * Códigos reservados por cada acceso a la tabla SECUENCIA si no se indica otro tamaño.
+     */
+    public static final int TAMANO_BLOQUE_DEFECTO = 20;
+
+    // LAST_INSERT_ID(expr) devuelve el nuevo valor en el mismo paquete de respuesta del UPDATE
+    private static final String SQL_RESERVAR = "UPDATE SECUENCIA SET siguiente = LAST_INSERT_ID(siguiente + ?) "
+            + "WHERE nombre = ?";
+    private static final String SQL_ULTIMO_ID = "SELECT LAST_INSERT_ID()";
+    private static final String SQL_INICIALIZAR = "INSERT IGNORE INTO SECUENCIA (nombre, siguiente) "
+            + "SELECT ?, COALESCE(MAX(CAST(SUBSTRING(%s, %d) AS UNSIGNED)), 0) + 1 FROM %s";
+
+    private final SessionFactory sessionFactory;
+    private final int tamanoBloque;
+    private final Map<Secuencia, Estado> estados = new EnumMap<>(Secuencia.class);
+
+    /**
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     */
+    public GeneradorCodigos(SessionFactory sessionFactory) {
+        this(sessionFactory, TAMANO_BLOQUE_DEFECTO);
+    }
+
+    /**
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param tamanoBloque Códigos reservados en cada acceso a la base de datos.
+     */
+    public GeneradorCodigos(SessionFactory sessionFactory, int tamanoBloque) {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + tamanoBloque);
+        }
+        this.sessionFactory = sessionFactory;
+        this.tamanoBloque = tamanoBloque;
+        for (Secuencia s : Secuencia.values()) {
+            estados.put(s, new Estado());
+        }
+    }
+
+    /**
+     * Obtiene el siguiente código de una secuencia. Si quedan números en el bloque reservado el futuro
+     * ya está completado; si no, se reserva un bloque nuevo en segundo plano.
+     *
+     * @param secuencia Secuencia de la que se quiere el código.
+     * @return Futuro con el código, nunca repetido entre clientes.
+     */
+    public CompletableFuture<String> siguiente(Secuencia secuencia) {
+        Estado estado = estados.get(secuencia);
+        long numero = estado.bloque.get().tomar();
+        if (numero >= 0) {
+            return CompletableFuture.completedFuture(secuencia.formatear(numero));
+        }
+        return recargar(secuencia, estado).thenCompose(v -> siguiente(secuencia));
+    }
+
+    // Solo un hilo reserva a la vez por secuencia; el resto espera a la misma recarga
+    private CompletableFuture<Void> recargar(Secuencia secuencia, Estado estado) {
+        CompletableFuture<Void> nueva = new CompletableFuture<>();
+        CompletableFuture<Void> enCurso = estado.recarga.compareAndExchange(null, nueva);
+        if (enCurso != null) {
+            return enCurso;
+        }
+        if (estado.bloque.get().quedan()) {
+            estado.recarga.set(null);
+            nueva.complete(null);
+            return nueva;
+        }
+        reservarBloque(secuencia)
+                .whenComplete((fin, error) -> {
+                    if (error == null) {
+                        estado.bloque.set(new Bloque(fin - tamanoBloque, fin));
+                    }
+                    estado.recarga.set(null);
+                    if (error == null) {
+                        nueva.complete(null);
+                    } else {
+                        nueva.completeExceptionally(error);
+                    }
+                });
+        return nueva;
+    }
+
+    /**
+     * Reserva en la base de datos, en segundo plano, un bloque de números de la secuencia.
+     * Se ejecuta en una transacción propia que se confirma enseguida, independiente del alta
+     * que vaya a usar el código.
+     *
+     * @return Futuro con el fin (exclusivo) del bloque: los números reservados son los
+     *         tamanoBloque anteriores.
+     */
+    CompletableFuture<Long> reservarBloque(Secuencia secuencia) {
+        return EjecutorBD.enTransaccion(sessionFactory, session -> MetricasConsultas.medir(
+                "GeneradorCodigos.reservarBloque", session,
+                () -> session.doReturningWork(con -> reservarBloque(con, secuencia))));
+    }
+
+    private long reservarBloque(Connection con, Secuencia secuencia) throws SQLException {
+        long fin = reservar(con, secuencia);
+        if (fin < 0) {
+            try (PreparedStatement ps = con.prepareStatement(String.format(SQL_INICIALIZAR,
+                    secuencia.columna, secuencia.prefijo.length() + 1, secuencia.tabla))) {
+                ps.setString(1, secuencia.name());
+                ps.executeUpdate();
+            }
+            fin = reservar(con, secuencia);
+        }
+        return fin;
+    }
+
+    /**
+     * @return El nuevo valor de "siguiente" (fin exclusivo del bloque reservado), o -1 si la secuencia no existe.
+     */
+    private long reservar(Connection con, Secuencia secuencia) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SQL_RESERVAR, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, tamanoBloque);
+            ps.setString(2, secuencia.name());
+            if (ps.executeUpdate() == 0) {
+                return -1;
+            }
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next() && rs.getLong(1) > 0) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(SQL_ULTIMO_ID)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static final class Estado {
+        final AtomicReference<Bloque> bloque = new AtomicReference<>(new Bloque(0, 0));
+        final AtomicReference<CompletableFuture<Void>> recarga = new AtomicReference<>();
+    }
+
+    /**
+     * Rango [siguiente, fin) de números reservados.
+     */
+    private static final class Bloque {
+        private final AtomicLong siguiente;
+        private final long fin;
+
+        Bloque(long inicio, long fin) {
+            this.siguiente = new AtomicLong(inicio);
+            this.fin = fin;
+        }
+
+        long tomar() {
+            long n = siguiente.getAndIncrement();
+            return n < fin ? n : -1;
+        }
+
+        boolean quedan() {
+            return siguiente.get() < fin;
+        }
+    }
+}
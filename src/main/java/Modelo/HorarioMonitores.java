@@ -0,0 +1,171 @@
+package Modelo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+
+/**
+ * Ocupación semanal de los monitores en memoria, para comprobar choques de horario sin consultar la base de datos.
+ * Cada monitor tiene un mapa de bits de 7 días × 15 franjas (de 08:00 a 22:00) guardado en dos long, y de cada
+ * actividad se recuerda su franja, de modo que al editar una actividad se puede excluir la suya.
+ * Se carga con una sola consulta la primera vez que se necesita y se actualiza tras cada alta, modificación
+ * o baja confirmada.
+ * La comprobación es una validación previa: frente a los cambios de otros puestos, la garantía es el índice
+ * único {@value #RESTRICCION} de la base de datos. Si salta, {@link #invalidar()} fuerza a recargar el horario.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class HorarioMonitores {
+
+    /**
+     * Días de la semana, en el orden de las franjas.
+     */
+    public static final String[] DIAS = {"Lunes", "Martes", "Miércoles", "Jueves", "Viernes", "Sábado", "Domingo"};
+
+    /**
+     * Primera y última hora en que puede empezar una actividad.
+     */
+    public static final int HORA_INICIO = 8;
+    public static final int HORA_FIN = 22;
+
+    /**
+     * Índice único (monitorResponsable, dia, hora) de la tabla ACTIVIDAD.
+     */
+    public static final String RESTRICCION = "uq_actividad_monitor_horario";
+
+    private static final int FRANJAS_DIA = HORA_FIN - HORA_INICIO + 1;
+    private static final int PALABRAS = (DIAS.length * FRANJAS_DIA + Long.SIZE - 1) / Long.SIZE;
+
+    /**
+     * Franja ocupada por una actividad.
+     */
+    private static final class Ubicacion {
+        final String codMonitor;
+        final int franja;
+
+        Ubicacion(String codMonitor, int franja) {
+            this.codMonitor = codMonitor;
+            this.franja = franja;
+        }
+    }
+
+    private final ActividadDAO actividadDAO = new ActividadDAO();
+    private final Map<String, long[]> ocupacion = new HashMap<>();
+    private final Map<String, Ubicacion> ubicaciones = new HashMap<>();
+    private boolean cargado;
+
+    /**
+     * Comprueba si el monitor ya tiene otra actividad ese día a esa hora.
+     * La primera llamada carga el horario con la sesión recibida.
+     *
+     * @param session Sesión activa (solo se usa si el horario no está cargado).
+     * @param codMonitor Código del monitor.
+     * @param dia Día de la semana.
+     * @param hora Hora de la actividad.
+     * @param idExcluida Actividad que se está editando, cuya franja no cuenta como choque (null en un alta).
+     * @return true si la franja está ocupada por otra actividad.
+     */
+    public synchronized boolean hayChoque(Session session, String codMonitor, String dia, int hora, String idExcluida) {
+        if (!cargado) {
+            cargar(session);
+        }
+        int franja = franja(dia, hora);
+        long[] bits = codMonitor == null ? null : ocupacion.get(codMonitor);
+        if (franja < 0 || bits == null || (bits[franja / Long.SIZE] & bit(franja)) == 0) {
+            return false;
+        }
+        Ubicacion propia = idExcluida == null ? null : ubicaciones.get(idExcluida);
+        return propia == null || propia.franja != franja || !propia.codMonitor.equals(codMonitor);
+    }
+
+    /**
+     * Anota la franja de una actividad dada de alta o modificada, liberando la que tuviera antes.
+     * Debe llamarse después de confirmar la transacción.
+     *
+     * @param idActividad ID de la actividad.
+     * @param codMonitor Código del monitor responsable (null si no tiene).
+     * @param dia Día de la semana.
+     * @param hora Hora de la actividad.
+     */
+    public synchronized void colocar(String idActividad, String codMonitor, String dia, int hora) {
+        if (!cargado) {
+            return;
+        }
+        liberar(idActividad);
+        int franja = franja(dia, hora);
+        if (codMonitor != null && franja >= 0) {
+            ocupacion.computeIfAbsent(codMonitor, c -> new long[PALABRAS])[franja / Long.SIZE] |= bit(franja);
+            ubicaciones.put(idActividad, new Ubicacion(codMonitor, franja));
+        }
+    }
+
+    /**
+     * Libera la franja de una actividad borrada. Debe llamarse después de confirmar la transacción.
+     * @param idActividad ID de la actividad.
+     */
+    public synchronized void quitar(String idActividad) {
+        if (cargado) {
+            liberar(idActividad);
+        }
+    }
+
+    /**
+     * Descarta el horario en memoria para que se vuelva a cargar en la siguiente comprobación.
+     */
+    public synchronized void invalidar() {
+        cargado = false;
+        ocupacion.clear();
+        ubicaciones.clear();
+    }
+
+    /**
+     * Indica si un error de la base de datos se debe al índice único de horario de monitores,
+     * es decir, a un choque que el horario en memoria no conocía (cambio hecho desde otro puesto).
+     * @param error Error recibido.
+     * @return true si alguna causa del error menciona el índice único.
+     */
+    public static boolean esChoque(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(RESTRICCION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cargar(Session session) {
+        List<Object[]> filas = actividadDAO.horariosMonitores(session);
+        cargado = true;
+        for (Object[] f : filas) {
+            colocar((String) f[0], (String) f[1], (String) f[2], ((Number) f[3]).intValue());
+        }
+    }
+
+    private void liberar(String idActividad) {
+        Ubicacion u = ubicaciones.remove(idActividad);
+        if (u != null) {
+            long[] bits = ocupacion.get(u.codMonitor);
+            bits[u.franja / Long.SIZE] &= ~bit(u.franja);
+        }
+    }
+
+    private static long bit(int franja) {
+        return 1L << (franja % Long.SIZE);
+    }
+
+    /**
+     * @return El índice de la franja (día × 15 + hora), o -1 si el día o la hora no están en el horario.
+     */
+    private static int franja(String dia, int hora) {
+        if (hora < HORA_INICIO || hora > HORA_FIN) {
+            return -1;
+        }
+        for (int d = 0; d < DIAS.length; d++) {
+            if (DIAS[d].equals(dia)) {
+                return d * FRANJAS_DIA + hora - HORA_INICIO;
+            }
+        }
+        return -1;
+    }
+}
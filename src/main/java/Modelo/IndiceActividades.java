@@ -0,0 +1,225 @@
+package Modelo;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import org.hibernate.Session;
+
+/**
+ * Índice invertido en memoria sobre el nombre y la descripción de las actividades, para la búsqueda
+ * por texto de la tabla de actividades sin recorrer ACTIVIDAD con LIKE '%texto%'.
+ * Los textos se dividen en términos sin mayúsculas ni tildes, sin palabras vacías del español
+ * ("de", "la", "para"...) y sin la "s"/"es" final del plural, de modo que "Clases de Natación"
+ * se encuentra buscando "natacion clase". El último término de la búsqueda se trata como prefijo
+ * para poder buscar mientras se escribe.
+ * Los resultados deben contener todos los términos y se ordenan por relevancia: cada término
+ * puntúa según lo raro que es entre las actividades (idf) y vale el triple si está en el nombre.
+ * Se carga con una sola consulta y se mantiene al día con cada alta, modificación y baja de la
+ * aplicación; pasado {@link #CADUCIDAD_MS} se vuelve a cargar para recoger los cambios de otros puestos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class IndiceActividades {
+
+    /**
+     * Tiempo tras el que el índice se considera desfasado y se vuelve a cargar.
+     */
+    public static final long CADUCIDAD_MS = 5 * 60 * 1000;
+
+    private static final int PESO_NOMBRE = 3;
+    private static final int PESO_DESCRIPCION = 1;
+    private static final int LONGITUD_MINIMA_RAIZ = 4;
+    private static final Locale ESPANOL = Locale.forLanguageTag("es");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por",
+            "sin", "su", "sus", "un", "una", "unas", "unos", "y");
+
+    private final ActividadDAO actividadDAO = new ActividadDAO();
+    // Término -> (actividad -> peso del término en la actividad), ordenado para buscar por prefijo
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    // Actividad -> términos indexados, para poder quitarla o reindexarla
+    private final Map<String, Set<String>> terminosPorActividad = new HashMap<>();
+    private long cargadoEn = -1;
+
+    /**
+     * @return true si el índice está cargado y no ha caducado.
+     */
+    public synchronized boolean estaCargado() {
+        return cargadoEn >= 0 && System.currentTimeMillis() - cargadoEn < CADUCIDAD_MS;
+    }
+
+    /**
+     * Construye el índice desde cero con el nombre y la descripción de todas las actividades.
+     * @param session Sesión activa.
+     * @return Número de actividades indexadas.
+     */
+    public synchronized int cargar(Session session) {
+        List<Object[]> filas = actividadDAO.textosActividades(session);
+        postings.clear();
+        terminosPorActividad.clear();
+        for (Object[] f : filas) {
+            anadir((String) f[0], (String) f[1], (String) f[2]);
+        }
+        cargadoEn = System.currentTimeMillis();
+        return filas.size();
+    }
+
+    /**
+     * Indexa una actividad dada de alta o modificada, sustituyendo sus términos anteriores.
+     * Debe llamarse después de confirmar la transacción.
+     * @param idActividad ID de la actividad.
+     * @param nombre Nombre.
+     * @param descripcion Descripción (puede ser null).
+     */
+    public synchronized void indexar(String idActividad, String nombre, String descripcion) {
+        if (cargadoEn >= 0) {
+            quitarTerminos(idActividad);
+            anadir(idActividad, nombre, descripcion);
+        }
+    }
+
+    /**
+     * Quita del índice una actividad borrada. Debe llamarse después de confirmar la transacción.
+     * @param idActividad ID de la actividad.
+     */
+    public synchronized void quitar(String idActividad) {
+        if (cargadoEn >= 0) {
+            quitarTerminos(idActividad);
+        }
+    }
+
+    /**
+     * Busca las actividades que contienen todos los términos del texto, en nombre o descripción.
+     * @param texto Texto de búsqueda.
+     * @return IDs de las actividades encontradas, de más a menos relevante (a igual relevancia, por ID).
+     */
+    public synchronized List<String> buscar(String texto) {
+        List<String> terminos = terminos(texto);
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+        boolean ultimoEsPrefijo = !Character.isWhitespace(texto.charAt(texto.length() - 1));
+        int total = Math.max(terminosPorActividad.size(), 1);
+
+        Map<String, Double> puntuaciones = null;
+        for (int i = 0; i < terminos.size(); i++) {
+            String termino = terminos.get(i);
+            Map<String, Integer> coincidencias = (i == terminos.size() - 1 && ultimoEsPrefijo)
+                    ? postingsConPrefijo(termino)
+                    : postings.getOrDefault(termino, Map.of());
+            // idf: un término presente en pocas actividades discrimina más
+            double idf = Math.log(1 + (double) total / Math.max(coincidencias.size(), 1));
+
+            Map<String, Double> siguientes = new HashMap<>();
+            for (Map.Entry<String, Integer> e : coincidencias.entrySet()) {
+                Double previa = puntuaciones == null ? Double.valueOf(0) : puntuaciones.get(e.getKey());
+                if (previa != null) {
+                    siguientes.put(e.getKey(), previa + idf * e.getValue());
+                }
+            }
+            puntuaciones = siguientes;
+            if (puntuaciones.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<String, Double>> orden = new ArrayList<>(puntuaciones.entrySet());
+        orden.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<String> ids = new ArrayList<>(orden.size());
+        for (Map.Entry<String, Double> e : orden) {
+            ids.add(e.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Divide un texto en términos de búsqueda: minúsculas, sin tildes, sin palabras vacías y sin plural.
+     * @param texto Texto a dividir (puede ser null).
+     * @return Términos en el orden del texto.
+     */
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        for (String palabra : SEPARADORES.split(normalizar(texto))) {
+            if (!palabra.isEmpty() && !PALABRAS_VACIAS.contains(palabra)) {
+                terminos.add(raiz(palabra));
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Pasa un texto a minúsculas y le quita las tildes y demás marcas diacríticas ("Martín" -> "martin").
+     * @param texto Texto a normalizar.
+     * @return Texto normalizado.
+     */
+    static String normalizar(String texto) {
+        return MARCAS.matcher(Normalizer.normalize(texto.toLowerCase(ESPANOL), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    // Quita la "s" y después la "e" finales (clases, clase -> clas) en palabras de cierta longitud
+    private static String raiz(String palabra) {
+        String r = palabra;
+        if (r.length() > LONGITUD_MINIMA_RAIZ && r.endsWith("s")) {
+            r = r.substring(0, r.length() - 1);
+        }
+        if (r.length() > LONGITUD_MINIMA_RAIZ && r.endsWith("e")) {
+            r = r.substring(0, r.length() - 1);
+        }
+        return r;
+    }
+
+    // Une las listas de todos los términos que empiezan por el prefijo, con el mayor peso de cada actividad
+    private Map<String, Integer> postingsConPrefijo(String prefijo) {
+        Map<String, Integer> union = new HashMap<>();
+        for (Map<String, Integer> lista : postings.subMap(prefijo, true, prefijo + Character.MAX_VALUE, true).values()) {
+            for (Map.Entry<String, Integer> e : lista.entrySet()) {
+                union.merge(e.getKey(), e.getValue(), Math::max);
+            }
+        }
+        return union;
+    }
+
+    private void anadir(String idActividad, String nombre, String descripcion) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String t : terminos(nombre)) {
+            pesos.merge(t, PESO_NOMBRE, Integer::sum);
+        }
+        for (String t : terminos(descripcion)) {
+            pesos.merge(t, PESO_DESCRIPCION, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> e : pesos.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), t -> new HashMap<>()).put(idActividad, e.getValue());
+        }
+        terminosPorActividad.put(idActividad, pesos.keySet());
+    }
+
+    private void quitarTerminos(String idActividad) {
+        Set<String> anteriores = terminosPorActividad.remove(idActividad);
+        if (anteriores == null) {
+            return;
+        }
+        for (String t : anteriores) {
+            Map<String, Integer> lista = postings.get(t);
+            if (lista != null) {
+                lista.remove(idActividad);
+                if (lista.isEmpty()) {
+                    postings.remove(t);
+                }
+            }
+        }
+    }
+}
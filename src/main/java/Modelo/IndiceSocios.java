@@ -0,0 +1,339 @@
+package Modelo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.hibernate.StatelessSession;
+
+/**
+ * Índice en memoria para buscar socios mientras se escribe por el principio de su nombre, DNI, teléfono
+ * o correo, sin recorrer SOCIO con LIKE.
+ * Cada socio aporta varias claves sin mayúsculas ni tildes: cada palabra del nombre, el DNI, el teléfono
+ * y el correo. Las claves se guardan en dos arrays paralelos (clave y número de socio) ordenados por clave,
+ * de modo que todas las que empiezan por un prefijo forman un tramo contiguo que se localiza con dos
+ * búsquedas binarias. Si la búsqueda tiene varias palabras se recorre el tramo más corto y se exige que
+ * el socio tenga alguna clave que empiece por cada una de las demás ("garcia 600" encuentra a los
+ * García cuyo teléfono empieza por 600).
+ * Se carga con un único recorrido en streaming de SOCIO y se mantiene al día con los cambios confirmados
+ * que publica {@link RepositorioDatos} (ver {@link #aplicarCambio}). Pasado {@link #CADUCIDAD_MS} se considera desfasado
+ * (por los cambios de otros puestos) y conviene recargarlo, pero se puede seguir usando mientras tanto.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class IndiceSocios {
+
+    /**
+     * Número máximo de socios que devuelve una búsqueda.
+     */
+    public static final int MAXIMO_RESULTADOS = 50;
+
+    /**
+     * Tiempo tras el que el índice se considera desfasado y conviene volver a cargarlo.
+     */
+    public static final long CADUCIDAD_MS = 5 * 60 * 1000;
+
+    private static final int BLOQUE_CARGA = 1000;
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+    private static final Pattern SEPARADORES_NOMBRE = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final SocioDAO socioDAO = new SocioDAO();
+    // Claves ordenadas (a igual clave, por número de socio) y el socio de cada una; solo las primeras "tamano" son válidas
+    private String[] claves = new String[0];
+    private String[] socios = new String[0];
+    private int tamano;
+    // Socio -> sus claves, para comprobar las demás palabras de una búsqueda y para quitarlo del índice
+    private final Map<String, String[]> clavesPorSocio = new HashMap<>();
+    private long cargadoEn = -1;
+    private boolean cargando;
+    // Cambios confirmados mientras se recorre SOCIO: se repiten sobre el índice nuevo al terminar la carga
+    private final List<Runnable> cambiosDuranteCarga = new ArrayList<>();
+
+    /**
+     * @return true si el índice se ha cargado al menos una vez.
+     */
+    public synchronized boolean estaCargado() {
+        return cargadoEn >= 0;
+    }
+
+    /**
+     * @return true si el índice no está cargado o ha caducado.
+     */
+    public synchronized boolean estaCaducado() {
+        return cargadoEn < 0 || System.currentTimeMillis() - cargadoEn >= CADUCIDAD_MS;
+    }
+
+    /**
+     * Construye el índice desde cero recorriendo todos los socios. El recorrido y la ordenación se hacen
+     * sin bloquear el índice, que sigue respondiendo búsquedas con los datos anteriores hasta que se sustituye.
+     * @param session Sesión sin estado.
+     * @return Número de socios indexados.
+     */
+    public int cargar(StatelessSession session) {
+        synchronized (this) {
+            cargando = true;
+            cambiosDuranteCarga.clear();
+        }
+        try {
+            Map<String, String[]> nuevasClaves = new HashMap<>();
+            List<Entrada> entradas = new ArrayList<>();
+            socioDAO.recorrerSocios(session, BLOQUE_CARGA, bloque -> {
+                for (Object[] f : bloque) {
+                    String numero = (String) f[0];
+                    String[] c = clavesDe((String) f[1], (String) f[2], (String) f[4], (String) f[5]);
+                    nuevasClaves.put(numero, c);
+                    for (String clave : c) {
+                        entradas.add(new Entrada(clave, numero));
+                    }
+                }
+            });
+            entradas.sort(Comparator.comparing((Entrada e) -> e.clave).thenComparing(e -> e.socio));
+
+            int n = entradas.size();
+            String[] nuevas = new String[Math.max(n, CAPACIDAD_INICIAL)];
+            String[] nuevosSocios = new String[nuevas.length];
+            for (int i = 0; i < n; i++) {
+                nuevas[i] = entradas.get(i).clave;
+                nuevosSocios[i] = entradas.get(i).socio;
+            }
+
+            synchronized (this) {
+                claves = nuevas;
+                socios = nuevosSocios;
+                tamano = n;
+                clavesPorSocio.clear();
+                clavesPorSocio.putAll(nuevasClaves);
+                for (Runnable cambio : cambiosDuranteCarga) {
+                    cambio.run();
+                }
+                cargadoEn = System.currentTimeMillis();
+            }
+            return nuevasClaves.size();
+        } finally {
+            synchronized (this) {
+                cargando = false;
+                cambiosDuranteCarga.clear();
+            }
+        }
+    }
+
+    /**
+     * Aplica al índice un alta, modificación o baja de socio ya confirmada.
+     * @param cambio Cambio publicado por el repositorio.
+     */
+    public synchronized void aplicarCambio(CambioDatos<SocioFila> cambio) {
+        if (cambio.esBaja()) {
+            quitar(cambio.getClave());
+        } else {
+            indexar(cambio.getDatos());
+        }
+    }
+
+    /**
+     * Indexa un socio dado de alta o modificado, sustituyendo sus claves anteriores.
+     * Debe llamarse después de confirmar la transacción.
+     * @param socio Datos actuales del socio.
+     */
+    public synchronized void indexar(SocioFila socio) {
+        String numero = socio.getNumeroSocio();
+        String[] c = clavesDe(socio.getNombre(), socio.getDni(), socio.getTelefono(), socio.getCorreo());
+        aplicar(() -> {
+            quitarClaves(numero);
+            anadir(numero, c);
+        });
+    }
+
+    /**
+     * Quita del índice un socio borrado. Debe llamarse después de confirmar la transacción.
+     * @param numeroSocio Número del socio.
+     */
+    public synchronized void quitar(String numeroSocio) {
+        aplicar(() -> quitarClaves(numeroSocio));
+    }
+
+    /**
+     * Busca los socios que tienen, para cada palabra del texto, una clave que empieza por ella.
+     * @param texto Texto de búsqueda.
+     * @param limite Número máximo de socios devueltos.
+     * @return Números de los socios encontrados, por orden de la clave que coincide.
+     */
+    public synchronized List<String> buscar(String texto, int limite) {
+        List<String> terminos = terminos(texto);
+        if (terminos.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        // Se recorre el tramo más corto; las demás palabras se comprueban sobre las claves del socio
+        int desde = 0;
+        int hasta = Integer.MAX_VALUE;
+        for (String t : terminos) {
+            int inicio = primeraMayorOIgual(t);
+            int fin = primeraMayorOIgual(t + Character.MAX_VALUE);
+            if (inicio == fin) {
+                return List.of();
+            }
+            if (fin - inicio < hasta - desde) {
+                desde = inicio;
+                hasta = fin;
+            }
+        }
+
+        Set<String> encontrados = new LinkedHashSet<>();
+        for (int i = desde; i < hasta && encontrados.size() < limite; i++) {
+            String numero = socios[i];
+            if (!encontrados.contains(numero) && empiezaPorTodos(clavesPorSocio.get(numero), terminos)) {
+                encontrados.add(numero);
+            }
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    /**
+     * Divide un texto de búsqueda en palabras normalizadas. Solo se separa por espacios, para que
+     * un correo o un DNI escritos enteros sigan siendo un único prefijo.
+     * @param texto Texto a dividir (puede ser null).
+     * @return Palabras en el orden del texto.
+     */
+    static List<String> terminos(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null) {
+            return terminos;
+        }
+        for (String palabra : ESPACIOS.split(IndiceActividades.normalizar(texto))) {
+            if (!palabra.isEmpty()) {
+                terminos.add(palabra);
+            }
+        }
+        return terminos;
+    }
+
+    // Claves de un socio, sin repetidas: cada palabra del nombre, DNI, teléfono y correo
+    private static String[] clavesDe(String nombre, String dni, String telefono, String correo) {
+        Set<String> c = new LinkedHashSet<>();
+        if (nombre != null) {
+            for (String palabra : SEPARADORES_NOMBRE.split(IndiceActividades.normalizar(nombre))) {
+                if (!palabra.isEmpty()) {
+                    c.add(palabra);
+                }
+            }
+        }
+        for (String campo : new String[]{dni, telefono, correo}) {
+            if (campo != null && !campo.isBlank()) {
+                c.add(IndiceActividades.normalizar(campo.trim()));
+            }
+        }
+        return c.toArray(new String[0]);
+    }
+
+    private static boolean empiezaPorTodos(String[] clavesSocio, List<String> terminos) {
+        if (clavesSocio == null) {
+            return false;
+        }
+        for (String t : terminos) {
+            boolean alguna = false;
+            for (String c : clavesSocio) {
+                if (c.startsWith(t)) {
+                    alguna = true;
+                    break;
+                }
+            }
+            if (!alguna) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Aplica un cambio al índice actual y, si hay una carga en curso, también al que la sustituirá
+    private void aplicar(Runnable cambio) {
+        if (cargadoEn >= 0) {
+            cambio.run();
+        }
+        if (cargando) {
+            cambiosDuranteCarga.add(cambio);
+        }
+    }
+
+    private void anadir(String numero, String[] c) {
+        clavesPorSocio.put(numero, c);
+        for (String clave : c) {
+            int i = posicion(clave, numero);
+            if (tamano == claves.length) {
+                int capacidad = Math.max(CAPACIDAD_INICIAL, tamano + (tamano >> 1));
+                claves = Arrays.copyOf(claves, capacidad);
+                socios = Arrays.copyOf(socios, capacidad);
+            }
+            System.arraycopy(claves, i, claves, i + 1, tamano - i);
+            System.arraycopy(socios, i, socios, i + 1, tamano - i);
+            claves[i] = clave;
+            socios[i] = numero;
+            tamano++;
+        }
+    }
+
+    private void quitarClaves(String numero) {
+        String[] anteriores = clavesPorSocio.remove(numero);
+        if (anteriores == null) {
+            return;
+        }
+        for (String clave : anteriores) {
+            int i = posicion(clave, numero);
+            if (i < tamano && claves[i].equals(clave) && socios[i].equals(numero)) {
+                System.arraycopy(claves, i + 1, claves, i, tamano - i - 1);
+                System.arraycopy(socios, i + 1, socios, i, tamano - i - 1);
+                tamano--;
+                claves[tamano] = null;
+                socios[tamano] = null;
+            }
+        }
+    }
+
+    // Primera posición cuya clave es mayor o igual que la dada
+    private int primeraMayorOIgual(String clave) {
+        int bajo = 0;
+        int alto = tamano;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (claves[medio].compareTo(clave) < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    // Posición que ocupa (o debe ocupar) el par clave-socio en el orden del índice
+    private int posicion(String clave, String numero) {
+        int bajo = 0;
+        int alto = tamano;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int cmp = claves[medio].compareTo(clave);
+            if (cmp == 0) {
+                cmp = socios[medio].compareTo(numero);
+            }
+            if (cmp < 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final String socio;
+
+        private Entrada(String clave, String socio) {
+            this.clave = clave;
+            this.socio = socio;
+        }
+    }
+}
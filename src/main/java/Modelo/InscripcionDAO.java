@@ -0,0 +1,508 @@
+package Modelo;
+
+import Config.MetricasConsultas;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import org.hibernate.Hibernate;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Clase Data Access Object (DAO) de las inscripciones de socios en actividades (tabla REALIZA)
+ * y de sus listas de espera (tabla LISTA_ESPERA).
+ * Trabaja directamente con las filas de la tabla de unión, sin cargar las colecciones
+ * {@code Actividad.socios} ni {@code Socio.actividades}: inscribir o dar de baja a un socio cuesta
+ * lo mismo sea cual sea el tamaño de la actividad. Las colecciones solo se actualizan en memoria
+ * si ya estaban cargadas.
+ * Cada inscripción y baja mantiene el contador de plazas ocupadas de la actividad. Si la actividad
+ * está completa, el socio pasa a la lista de espera, y al quedar una plaza libre se inscribe al primero
+ * de la lista en la misma transacción.
+ * Las operaciones de un socio se protegen con la versión de la actividad (concurrencia optimista):
+ * si dos puestos ocupan a la vez la misma plaza, el segundo falla al confirmar y debe repetirse
+ * (ver {@link Config.EjecutorBD#enTransaccionConReintentos}). Las masivas bloquean la fila de la actividad
+ * e incrementan también su versión.
+ * Las inscripciones y bajas masivas escriben todas las filas con una sola sentencia y devuelven
+ * el resultado de cada socio ({@link ResultadoInscripcion}).
+ * Si se crea con un {@link RepositorioDatos}, cada cambio en las plazas ocupadas de una actividad se publica
+ * en él al confirmarse la transacción.
+ * Cada operación se mide con {@link Config.MetricasConsultas}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class InscripcionDAO {
+
+    private static final String TABLA = "REALIZA";
+    private static final String TABLA_ESPERA = "LISTA_ESPERA";
+
+    // El LEFT JOIN busca por la clave primaria (idActividad, numeroSocio): una lectura de índice por actividad
+    private static final String SQL_LISTAS = "SELECT a.idActividad, a.nombre, r.numeroSocio IS NOT NULL AS inscrita, "
+            + "e.id IS NOT NULL AS enEspera "
+            + "FROM ACTIVIDAD a LEFT JOIN " + TABLA + " r ON r.idActividad = a.idActividad AND r.numeroSocio = :socio "
+            + "LEFT JOIN " + TABLA_ESPERA + " e ON e.idActividad = a.idActividad AND e.numeroSocio = :socio "
+            + "ORDER BY a.idActividad";
+
+    // Bloquea la actividad: las operaciones masivas sobre una misma actividad se hacen de una en una
+    private static final String SQL_BLOQUEAR_ACTIVIDAD = "SELECT capacidad, plazasOcupadas FROM ACTIVIDAD "
+            + "WHERE idActividad = :id FOR UPDATE";
+    // La versión se incrementa para que las operaciones de un socio leídas antes fallen al confirmar
+    private static final String SQL_SUMAR_PLAZAS = "UPDATE ACTIVIDAD SET plazasOcupadas = plazasOcupadas + :cambio, "
+            + "version = version + 1 WHERE idActividad = :id";
+    // Socios que existen, si ya están inscritos en la actividad y si están en su lista de espera
+    private static final String SQL_ESTADO_SOCIOS = "SELECT s.numeroSocio, r.numeroSocio IS NOT NULL AS inscrito, "
+            + "e.id IS NOT NULL AS enEspera "
+            + "FROM SOCIO s LEFT JOIN " + TABLA + " r ON r.idActividad = :id AND r.numeroSocio = s.numeroSocio "
+            + "LEFT JOIN " + TABLA_ESPERA + " e ON e.idActividad = :id AND e.numeroSocio = s.numeroSocio "
+            + "WHERE s.numeroSocio IN (:socios)";
+    // IGNORE: si otra sesión ha insertado la misma fila entretanto, no es un error
+    private static final String SQL_INSERTAR = "INSERT IGNORE INTO " + TABLA + " (idActividad, numeroSocio) "
+            + "SELECT :id, s.numeroSocio FROM SOCIO s WHERE s.numeroSocio IN (:socios)";
+    private static final String SQL_BORRAR = "DELETE FROM " + TABLA + " WHERE idActividad = :id AND numeroSocio IN (:socios)";
+    private static final String SQL_INSERTAR_UNA = "INSERT IGNORE INTO " + TABLA + " (idActividad, numeroSocio) "
+            + "VALUES (:id, :socio)";
+    private static final String SQL_BORRAR_UNA = "DELETE FROM " + TABLA + " WHERE idActividad = :id AND numeroSocio = :socio";
+    private static final String SQL_ESTA_INSCRITO = "SELECT EXISTS(SELECT 1 FROM " + TABLA
+            + " WHERE idActividad = :id AND numeroSocio = :socio) AS inscrito";
+
+    // El orden de llegada lo da el id autoincremental de la lista de espera
+    private static final String SQL_ESPERAR = "INSERT IGNORE INTO " + TABLA_ESPERA + " (idActividad, numeroSocio) "
+            + "SELECT :id, s.numeroSocio FROM SOCIO s WHERE s.numeroSocio IN (:socios) ORDER BY s.numeroSocio";
+    private static final String SQL_SALIR_ESPERA = "DELETE FROM " + TABLA_ESPERA
+            + " WHERE idActividad = :id AND numeroSocio IN (:socios)";
+    private static final String SQL_PRIMEROS_ESPERA = "SELECT numeroSocio FROM " + TABLA_ESPERA
+            + " WHERE idActividad = :id ORDER BY id";
+
+    private final RepositorioDatos repositorio;
+
+    public InscripcionDAO() {
+        this(null);
+    }
+
+    /**
+     * @param repositorio Repositorio en el que se publican las plazas ocupadas de cada actividad cambiada
+     * (puede ser null).
+     */
+    public InscripcionDAO(RepositorioDatos repositorio) {
+        this.repositorio = repositorio;
+    }
+
+    /**
+     * Recupera todas las actividades separadas en las que el socio realiza, en las que espera plaza y
+     * las que no, con una sola sentencia SQL y sin crear entidades.
+     *
+     * @param session Sesión de Hibernate activa.
+     * @param numeroSocio Número del socio.
+     * @return Actividades inscritas, en espera y disponibles, por orden de ID.
+     */
+    public ListasInscripcion listasInscripcion(Session session, String numeroSocio) {
+        return MetricasConsultas.medir("InscripcionDAO.listasInscripcion", session, () -> {
+            @SuppressWarnings("unchecked")
+            NativeQuery<Object[]> q = session.createNativeQuery(SQL_LISTAS);
+            q.addScalar("idActividad", StandardBasicTypes.STRING);
+            q.addScalar("nombre", StandardBasicTypes.STRING);
+            q.addScalar("inscrita", StandardBasicTypes.BOOLEAN);
+            q.addScalar("enEspera", StandardBasicTypes.BOOLEAN);
+            q.addSynchronizedQuerySpace(TABLA);
+            q.addSynchronizedQuerySpace(TABLA_ESPERA);
+            q.addSynchronizedQuerySpace("ACTIVIDAD");
+            q.setParameter("socio", numeroSocio);
+
+            List<String[]> inscritas = new ArrayList<>();
+            List<String[]> enEspera = new ArrayList<>();
+            List<String[]> disponibles = new ArrayList<>();
+            for (Object[] fila : q.getResultList()) {
+                String[] actividad = {(String) fila[0], (String) fila[1]};
+                if ((Boolean) fila[2]) {
+                    inscritas.add(actividad);
+                } else if ((Boolean) fila[3]) {
+                    enEspera.add(actividad);
+                } else {
+                    disponibles.add(actividad);
+                }
+            }
+            return new ListasInscripcion(inscritas, enEspera, disponibles);
+        });
+    }
+
+    /**
+     * Inscribe a un socio en una actividad escribiendo solo su fila de REALIZA, o lo pone en la lista de
+     * espera si la actividad está completa.
+     * Si la colección de socios de la actividad ya está cargada en esta sesión, la fila la escribe Hibernate
+     * al vaciar la sesión a partir del cambio en la colección (solo la fila nueva); si no, se inserta directamente.
+     * La actividad debe estar cargada en esta sesión: al confirmar se comprueba que su versión no ha cambiado,
+     * y si otro puesto ha ocupado una plaza entretanto la transacción falla y debe repetirse.
+     * No actualiza las estadísticas: el llamador debe hacerlo en la misma transacción.
+     *
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param actividad Actividad, cargada en la sesión.
+     * @param socio Socio a inscribir.
+     * @return INSCRITO, YA_INSCRITO, EN_LISTA_ESPERA o YA_EN_LISTA_ESPERA.
+     */
+    public ResultadoInscripcion inscribir(Session session, Actividad actividad, Socio socio) {
+        return MetricasConsultas.medir("InscripcionDAO.inscribir(socio)", session, () -> {
+            if (actividad.estaCompleta()) {
+                if (estaInscrito(session, actividad, socio)) {
+                    return ResultadoInscripcion.YA_INSCRITO;
+                }
+                int nuevas = session.createNativeQuery(SQL_ESPERAR)
+                        .addSynchronizedQuerySpace(TABLA_ESPERA)
+                        .setParameter("id", actividad.getIdActividad())
+                        .setParameterList("socios", List.of(socio.getNumeroSocio()))
+                        .executeUpdate();
+                // La lista de espera depende de que la actividad siga completa: se valida también su versión
+                session.lock(actividad, LockMode.OPTIMISTIC);
+                return nuevas > 0 ? ResultadoInscripcion.EN_LISTA_ESPERA : ResultadoInscripcion.YA_EN_LISTA_ESPERA;
+            }
+            if (!escribirFila(session, actividad, socio)) {
+                return ResultadoInscripcion.YA_INSCRITO;
+            }
+            // Cambiar el contador hace que Hibernate compruebe e incremente la versión al confirmar
+            actividad.setPlazasOcupadas(actividad.getPlazasOcupadas() + 1);
+            publicarPlazas(session, actividad);
+            return ResultadoInscripcion.INSCRITO;
+        });
+    }
+
+    /**
+     * Da de baja a un socio de una actividad borrando solo su fila de REALIZA, e inscribe en la plaza libre
+     * al primero de la lista de espera. Si el socio no estaba inscrito pero sí en la lista de espera,
+     * lo retira de ella.
+     * Igual que {@link #inscribir(Session, Actividad, Socio)}, usa la colección de la actividad si ya está
+     * cargada en esta sesión y si no borra la fila directamente, y se protege con la versión de la actividad.
+     * No actualiza las estadísticas: el llamador debe hacerlo en la misma transacción.
+     *
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param actividad Actividad, cargada en la sesión.
+     * @param socio Socio a dar de baja.
+     * @return Resultado del socio (DADO_DE_BAJA, SALE_DE_LISTA_ESPERA o NO_INSCRITO) seguido, si los hay,
+     * de los socios inscritos desde la lista de espera (PROMOCIONADO).
+     */
+    public Map<String, ResultadoInscripcion> darDeBaja(Session session, Actividad actividad, Socio socio) {
+        return MetricasConsultas.medir("InscripcionDAO.darDeBaja(socio)", session, () -> {
+            Map<String, ResultadoInscripcion> resultado = new LinkedHashMap<>();
+            if (!borrarFila(session, actividad, socio)) {
+                boolean enEspera = salirDeEspera(session, actividad.getIdActividad(), List.of(socio.getNumeroSocio())) > 0;
+                resultado.put(socio.getNumeroSocio(),
+                        enEspera ? ResultadoInscripcion.SALE_DE_LISTA_ESPERA : ResultadoInscripcion.NO_INSCRITO);
+                return resultado;
+            }
+            resultado.put(socio.getNumeroSocio(), ResultadoInscripcion.DADO_DE_BAJA);
+            actividad.setPlazasOcupadas(actividad.getPlazasOcupadas() - 1);
+            publicarPlazas(session, actividad);
+            for (String promovido : promover(session, actividad)) {
+                resultado.put(promovido, ResultadoInscripcion.PROMOCIONADO);
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Inscribe a los primeros socios de la lista de espera en las plazas libres de la actividad
+     * (tras una baja o al ampliar su aforo) y los retira de la lista.
+     * La actividad debe estar cargada en esta sesión; su versión se incrementa al confirmar aunque el
+     * contador de plazas quede igual, para que otro puesto no pueda dar la misma plaza a la vez.
+     * No actualiza las estadísticas: el llamador debe hacerlo en la misma transacción.
+     *
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param actividad Actividad, cargada en la sesión.
+     * @return Números de los socios inscritos, por orden de llegada a la lista.
+     */
+    public List<String> promover(Session session, Actividad actividad) {
+        return MetricasConsultas.medir("InscripcionDAO.promover", session, () -> {
+            int libres = actividad.getPlazasLibres();
+            if (libres == 0) {
+                return List.of();
+            }
+            List<String> primeros = primerosEnEspera(session, actividad.getIdActividad(), libres);
+            if (primeros.isEmpty()) {
+                return primeros;
+            }
+            List<String> promovidos = new ArrayList<>(primeros.size());
+            for (String numero : primeros) {
+                Socio s = session.find(Socio.class, numero);
+                if (s != null && escribirFila(session, actividad, s)) {
+                    promovidos.add(numero);
+                }
+            }
+            salirDeEspera(session, actividad.getIdActividad(), primeros);
+            actividad.setPlazasOcupadas(actividad.getPlazasOcupadas() + promovidos.size());
+            session.lock(actividad, LockMode.OPTIMISTIC_FORCE_INCREMENT);
+            if (!promovidos.isEmpty()) {
+                publicarPlazas(session, actividad);
+            }
+            return promovidos;
+        });
+    }
+
+    /**
+     * Inscribe varios socios en una actividad con un único INSERT. Si no hay plaza para todos, se inscriben
+     * por orden hasta completar el aforo y el resto pasa a la lista de espera. Los que ya estaban inscritos
+     * o no existen se omiten y se indica en el resultado.
+     * No actualiza las estadísticas: el llamador debe hacerlo en la misma transacción.
+     *
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param idActividad ID de la actividad.
+     * @param numerosSocio Números de los socios (los repetidos se tratan una vez).
+     * @return Resultado de cada socio, en el orden recibido.
+     * @throws IllegalArgumentException Si la actividad no existe.
+     */
+    public Map<String, ResultadoInscripcion> inscribir(Session session, String idActividad, Collection<String> numerosSocio) {
+        return MetricasConsultas.medir("InscripcionDAO.inscribir", session, () -> {
+            int libres = bloquearActividad(session, idActividad);
+            Map<String, ResultadoInscripcion> resultado = estadoSocios(session, idActividad, numerosSocio,
+                    (inscrito, enEspera) -> inscrito ? ResultadoInscripcion.YA_INSCRITO
+                            : enEspera ? ResultadoInscripcion.YA_EN_LISTA_ESPERA : ResultadoInscripcion.INSCRITO);
+
+            List<String> nuevos = new ArrayList<>();
+            List<String> enEspera = new ArrayList<>();
+            for (Map.Entry<String, ResultadoInscripcion> e : resultado.entrySet()) {
+                if (e.getValue() != ResultadoInscripcion.INSCRITO) {
+                    continue;
+                }
+                if (nuevos.size() < libres) {
+                    nuevos.add(e.getKey());
+                } else {
+                    e.setValue(ResultadoInscripcion.EN_LISTA_ESPERA);
+                    enEspera.add(e.getKey());
+                }
+            }
+            if (!nuevos.isEmpty()) {
+                session.createNativeQuery(SQL_INSERTAR)
+                        .addSynchronizedQuerySpace(TABLA)
+                        .setParameter("id", idActividad)
+                        .setParameterList("socios", nuevos)
+                        .executeUpdate();
+                sumarPlazas(session, idActividad, nuevos.size());
+            }
+            if (!enEspera.isEmpty()) {
+                session.createNativeQuery(SQL_ESPERAR)
+                        .addSynchronizedQuerySpace(TABLA_ESPERA)
+                        .setParameter("id", idActividad)
+                        .setParameterList("socios", enEspera)
+                        .executeUpdate();
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Da de baja a varios socios de una actividad con un único DELETE e inscribe en las plazas que quedan
+     * libres a los primeros de la lista de espera. Los socios que solo estaban en la lista de espera se
+     * retiran de ella; los que no estaban inscritos o no existen se indican en el resultado.
+     * No actualiza las estadísticas: el llamador debe hacerlo en la misma transacción.
+     *
+     * @param session Sesión de Hibernate con transacción activa.
+     * @param idActividad ID de la actividad.
+     * @param numerosSocio Números de los socios (los repetidos se tratan una vez).
+     * @return Resultado de cada socio, en el orden recibido, seguido de los inscritos desde la lista de espera.
+     * @throws IllegalArgumentException Si la actividad no existe.
+     */
+    public Map<String, ResultadoInscripcion> darDeBaja(Session session, String idActividad, Collection<String> numerosSocio) {
+        return MetricasConsultas.medir("InscripcionDAO.darDeBaja", session, () -> {
+            int libres = bloquearActividad(session, idActividad);
+            Map<String, ResultadoInscripcion> resultado = estadoSocios(session, idActividad, numerosSocio,
+                    (inscrito, enEspera) -> inscrito ? ResultadoInscripcion.DADO_DE_BAJA
+                            : enEspera ? ResultadoInscripcion.SALE_DE_LISTA_ESPERA : ResultadoInscripcion.NO_INSCRITO);
+            List<String> inscritos = conResultado(resultado, ResultadoInscripcion.DADO_DE_BAJA);
+            List<String> enEspera = conResultado(resultado, ResultadoInscripcion.SALE_DE_LISTA_ESPERA);
+            if (!enEspera.isEmpty()) {
+                salirDeEspera(session, idActividad, enEspera);
+            }
+            if (inscritos.isEmpty()) {
+                return resultado;
+            }
+            session.createNativeQuery(SQL_BORRAR)
+                    .addSynchronizedQuerySpace(TABLA)
+                    .setParameter("id", idActividad)
+                    .setParameterList("socios", inscritos)
+                    .executeUpdate();
+
+            libres = libres == Integer.MAX_VALUE ? libres : libres + inscritos.size();
+            List<String> promovidos = primerosEnEspera(session, idActividad, libres);
+            if (!promovidos.isEmpty()) {
+                session.createNativeQuery(SQL_INSERTAR)
+                        .addSynchronizedQuerySpace(TABLA)
+                        .setParameter("id", idActividad)
+                        .setParameterList("socios", promovidos)
+                        .executeUpdate();
+                salirDeEspera(session, idActividad, promovidos);
+                for (String numero : promovidos) {
+                    resultado.put(numero, ResultadoInscripcion.PROMOCIONADO);
+                }
+            }
+            sumarPlazas(session, idActividad, promovidos.size() - inscritos.size());
+            return resultado;
+        });
+    }
+
+    /**
+     * Escribe la fila de REALIZA de un socio, por la colección de la actividad si está cargada en la sesión
+     * o con un INSERT directo si no. Mantiene las colecciones que ya estaban cargadas.
+     */
+    private boolean escribirFila(Session session, Actividad actividad, Socio socio) {
+        boolean nueva;
+        if (session.contains(actividad) && Hibernate.isInitialized(actividad.getSocioSet())) {
+            nueva = actividad.getSocioSet().add(socio);
+        } else {
+            nueva = session.createNativeQuery(SQL_INSERTAR_UNA)
+                    .addSynchronizedQuerySpace(TABLA)
+                    .setParameter("id", actividad.getIdActividad())
+                    .setParameter("socio", socio.getNumeroSocio())
+                    .executeUpdate() > 0;
+            if (nueva && Hibernate.isInitialized(actividad.getSocioSet())) {
+                actividad.getSocioSet().add(socio);
+            }
+        }
+        // Socio.actividades es el lado inverso: cambiarlo no escribe nada en la base de datos
+        if (nueva && Hibernate.isInitialized(socio.getActividadSet())) {
+            socio.getActividadSet().add(actividad);
+        }
+        return nueva;
+    }
+
+    /**
+     * Borra la fila de REALIZA de un socio, igual que {@link #escribirFila}.
+     */
+    private boolean borrarFila(Session session, Actividad actividad, Socio socio) {
+        boolean borrada;
+        if (session.contains(actividad) && Hibernate.isInitialized(actividad.getSocioSet())) {
+            borrada = actividad.getSocioSet().remove(socio);
+        } else {
+            borrada = session.createNativeQuery(SQL_BORRAR_UNA)
+                    .addSynchronizedQuerySpace(TABLA)
+                    .setParameter("id", actividad.getIdActividad())
+                    .setParameter("socio", socio.getNumeroSocio())
+                    .executeUpdate() > 0;
+            if (borrada && Hibernate.isInitialized(actividad.getSocioSet())) {
+                actividad.getSocioSet().remove(socio);
+            }
+        }
+        if (borrada && Hibernate.isInitialized(socio.getActividadSet())) {
+            socio.getActividadSet().remove(actividad);
+        }
+        return borrada;
+    }
+
+    private boolean estaInscrito(Session session, Actividad actividad, Socio socio) {
+        if (Hibernate.isInitialized(actividad.getSocioSet())) {
+            return actividad.getSocioSet().contains(socio);
+        }
+        @SuppressWarnings("unchecked")
+        NativeQuery<Boolean> q = session.createNativeQuery(SQL_ESTA_INSCRITO);
+        q.addScalar("inscrito", StandardBasicTypes.BOOLEAN);
+        q.addSynchronizedQuerySpace(TABLA);
+        q.setParameter("id", actividad.getIdActividad());
+        q.setParameter("socio", socio.getNumeroSocio());
+        return q.getSingleResult();
+    }
+
+    private int salirDeEspera(Session session, String idActividad, Collection<String> numerosSocio) {
+        return session.createNativeQuery(SQL_SALIR_ESPERA)
+                .addSynchronizedQuerySpace(TABLA_ESPERA)
+                .setParameter("id", idActividad)
+                .setParameterList("socios", numerosSocio)
+                .executeUpdate();
+    }
+
+    private List<String> primerosEnEspera(Session session, String idActividad, int maximo) {
+        if (maximo <= 0) {
+            return new ArrayList<>();
+        }
+        @SuppressWarnings("unchecked")
+        NativeQuery<String> q = session.createNativeQuery(SQL_PRIMEROS_ESPERA);
+        q.addScalar("numeroSocio", StandardBasicTypes.STRING);
+        q.addSynchronizedQuerySpace(TABLA_ESPERA);
+        q.setParameter("id", idActividad);
+        if (maximo != Integer.MAX_VALUE) {
+            q.setMaxResults(maximo);
+        }
+        return q.getResultList();
+    }
+
+    private void sumarPlazas(Session session, String idActividad, int cambio) {
+        session.createNativeQuery(SQL_SUMAR_PLAZAS)
+                .addSynchronizedQuerySpace("ACTIVIDAD")
+                .setParameter("cambio", cambio)
+                .setParameter("id", idActividad)
+                .executeUpdate();
+        if (repositorio != null) {
+            // La sentencia no pasa por la entidad: se publica la fila tal como queda en la base de datos
+            List<ActividadFila> filas = new ActividadDAO().filasActividades(session, List.of(idActividad));
+            if (!filas.isEmpty()) {
+                repositorio.actividadGuardada(session, filas.get(0), false);
+            }
+        }
+    }
+
+    private void publicarPlazas(Session session, Actividad actividad) {
+        if (repositorio != null) {
+            repositorio.actividadGuardada(session, actividad, false);
+        }
+    }
+
+    /**
+     * Bloquea la fila de la actividad hasta el final de la transacción y devuelve sus plazas libres
+     * (Integer.MAX_VALUE si no tiene aforo).
+     */
+    private int bloquearActividad(Session session, String idActividad) {
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> q = session.createNativeQuery(SQL_BLOQUEAR_ACTIVIDAD);
+        q.addScalar("capacidad", StandardBasicTypes.INTEGER);
+        q.addScalar("plazasOcupadas", StandardBasicTypes.INTEGER);
+        q.addSynchronizedQuerySpace("ACTIVIDAD");
+        q.setParameter("id", idActividad);
+        List<Object[]> filas = q.getResultList();
+        if (filas.isEmpty()) {
+            throw new IllegalArgumentException("La actividad " + idActividad + " no existe.");
+        }
+        Integer capacidad = (Integer) filas.get(0)[0];
+        int ocupadas = (Integer) filas.get(0)[1];
+        return capacidad == null ? Integer.MAX_VALUE : Math.max(0, capacidad - ocupadas);
+    }
+
+    /**
+     * Clasifica los socios según existan, estén ya inscritos o estén en la lista de espera, con una sola consulta.
+     */
+    private Map<String, ResultadoInscripcion> estadoSocios(Session session, String idActividad,
+            Collection<String> numerosSocio, BiFunction<Boolean, Boolean, ResultadoInscripcion> clasificar) {
+        Set<String> socios = new LinkedHashSet<>(numerosSocio);
+        Map<String, ResultadoInscripcion> resultado = new LinkedHashMap<>();
+        for (String numero : socios) {
+            resultado.put(numero, ResultadoInscripcion.SOCIO_INEXISTENTE);
+        }
+        if (socios.isEmpty()) {
+            return resultado;
+        }
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> q = session.createNativeQuery(SQL_ESTADO_SOCIOS);
+        q.addScalar("numeroSocio", StandardBasicTypes.STRING);
+        q.addScalar("inscrito", StandardBasicTypes.BOOLEAN);
+        q.addScalar("enEspera", StandardBasicTypes.BOOLEAN);
+        q.addSynchronizedQuerySpace(TABLA);
+        q.addSynchronizedQuerySpace(TABLA_ESPERA);
+        q.addSynchronizedQuerySpace("SOCIO");
+        q.setParameter("id", idActividad);
+        q.setParameterList("socios", socios);
+        for (Object[] fila : q.getResultList()) {
+            resultado.put((String) fila[0], clasificar.apply((Boolean) fila[1], (Boolean) fila[2]));
+        }
+        return resultado;
+    }
+
+    private static List<String> conResultado(Map<String, ResultadoInscripcion> resultado, ResultadoInscripcion buscado) {
+        List<String> socios = new ArrayList<>();
+        for (Map.Entry<String, ResultadoInscripcion> e : resultado.entrySet()) {
+            if (e.getValue() == buscado) {
+                socios.add(e.getKey());
+            }
+        }
+        return socios;
+    }
+}
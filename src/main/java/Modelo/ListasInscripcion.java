@@ -0,0 +1,49 @@
+package Modelo;
+
+import java.util.List;
+
+/**
+ * Actividades de la pantalla de inscripciones para un socio, separadas en las que ya realiza, aquellas
+ * en cuya lista de espera está y las que tiene disponibles. Cada elemento es el par (ID, nombre) de una
+ * actividad, por orden de ID.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class ListasInscripcion {
+
+    private final List<String[]> inscritas;
+    private final List<String[]> enEspera;
+    private final List<String[]> disponibles;
+
+    /**
+     * @param inscritas Actividades en las que el socio está inscrito.
+     * @param enEspera Actividades completas en cuya lista de espera está el socio.
+     * @param disponibles Actividades en las que no está inscrito ni esperando.
+     */
+    public ListasInscripcion(List<String[]> inscritas, List<String[]> enEspera, List<String[]> disponibles) {
+        this.inscritas = inscritas;
+        this.enEspera = enEspera;
+        this.disponibles = disponibles;
+    }
+
+    /**
+     * @return Pares (ID, nombre) de las actividades en las que el socio está inscrito.
+     */
+    public List<String[]> getInscritas() {
+        return inscritas;
+    }
+
+    /**
+     * @return Pares (ID, nombre) de las actividades en cuya lista de espera está el socio.
+     */
+    public List<String[]> getEnEspera() {
+        return enEspera;
+    }
+
+    /**
+     * @return Pares (ID, nombre) de las actividades en las que el socio no está inscrito ni esperando.
+     */
+    public List<String[]> getDisponibles() {
+        return disponibles;
+    }
+}
@@ -1,16 +1,21 @@
 package Modelo;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad que representa a un Monitor del gimnasio. Mapeada a la tabla
@@ -20,7 +25,11 @@ import java.util.Set;
  * * @author Manuel Martín Rodrigo
  */
 @Entity
-@Table(name = "MONITOR")
+@Table(name = "MONITOR", indexes = {
+    @Index(name = "uq_monitor_dni", columnList = "dni", unique = true),
+    @Index(name = "idx_monitor_fecha_entrada", columnList = "fechaEntrada")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedQueries({
     @NamedQuery(name = "Monitor.findAll", query = "SELECT m FROM Monitor m"),
     @NamedQuery(name = "Monitor.findByCodMonitor", query = "SELECT m FROM Monitor m WHERE m.codMonitor = :codMonitor"),
@@ -73,7 +82,7 @@ public class Monitor implements Serializable {
      */
     @Basic(optional = false)
     @Column(name = "fechaEntrada")
-    private String fechaEntrada;
+    private LocalDate fechaEntrada;
 
     /**
      * Apodo o nick del monitor.
@@ -110,7 +119,7 @@ public class Monitor implements Serializable {
      * @param dni DNI.
      * @param fechaEntrada Fecha de entrada.
      */
-    public Monitor(String codMonitor, String nombre, String dni, String fechaEntrada) {
+    public Monitor(String codMonitor, String nombre, String dni, LocalDate fechaEntrada) {
         this.codMonitor = codMonitor;
         this.nombre = nombre;
         this.dni = dni;
@@ -128,7 +137,7 @@ public class Monitor implements Serializable {
      * @param fechaEntrada Fecha de entrada.
      * @param nick Nick.
      */
-    public Monitor(String codMonitor, String nombre, String dni, String telefono, String correo, String fechaEntrada, String nick) {
+    public Monitor(String codMonitor, String nombre, String dni, String telefono, String correo, LocalDate fechaEntrada, String nick) {
         this.codMonitor = codMonitor;
         this.nombre = nombre;
         this.dni = dni;
@@ -212,14 +221,14 @@ public class Monitor implements Serializable {
     /**
      * @return La fecha de entrada.
      */
-    public String getFechaEntrada() {
+    public LocalDate getFechaEntrada() {
         return fechaEntrada;
     }
 
     /**
      * @param fechaEntrada Nueva fecha.
      */
-    public void setFechaEntrada(String fechaEntrada) {
+    public void setFechaEntrada(LocalDate fechaEntrada) {
         this.fechaEntrada = fechaEntrada;
     }
 
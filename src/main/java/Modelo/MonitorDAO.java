@@ -1,22 +1,61 @@
 package Modelo;
 
+import Config.EstadisticasCache;
+import Config.MetricasConsultas;
 import org.hibernate.Session;
 import org.hibernate.query.Query;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Clase Data Access Object (DAO) para la gestión de la entidad Monitor.
  * Se encarga de todas las operaciones de persistencia (CRUD) y consultas
  * contra la tabla MONITOR de la base de datos.
+ * Cada operación se mide con {@link Config.MetricasConsultas}.
+ * Si se crea con un {@link RepositorioDatos}, las altas, modificaciones y bajas se publican en él al
+ * confirmarse la transacción en la que se hacen.
  *
  * @author Manuel Martín Rodrigo
  */
 public class MonitorDAO {
 
+    private static final String HQL_ACTIVIDADES_POR_DNI = "FROM Actividad a WHERE a.monitorResponsable.dni = :dni";
+    private static final String HQL_POR_DNI = "FROM Monitor m WHERE m.dni = :dni";
+    private static final String HQL_LISTA = "from Monitor";
+    private static final String COLUMNAS_FILA = "SELECT m.codMonitor, m.nombre, m.dni, m.telefono, m.correo, m.fechaEntrada, m.nick ";
+    private static final String FROM_FILA = "FROM Monitor m ";
+    private static final String HQL_PAGINA = COLUMNAS_FILA + FROM_FILA + "WHERE m.codMonitor > :despues ORDER BY m.codMonitor";
+    // Columnas de la fila por las que se puede ordenar la tabla, en el mismo orden
+    private static final String[] ORDEN_COLUMNAS = {"m.codMonitor", "m.nombre", "m.dni", "m.telefono", "m.correo",
+        "m.fechaEntrada", "m.nick"};
+    private static final String HQL_PAGINA_FILAS = "SELECT new Modelo.MonitorFila(m.codMonitor, m.nombre, m.dni, "
+            + "m.telefono, m.correo, m.fechaEntrada, m.nick) FROM Monitor m WHERE m.codMonitor > :despues ORDER BY m.codMonitor";
+    private static final String HQL_CONTAR = "SELECT count(m) FROM Monitor m";
+    private static final String HQL_CLAVES = "SELECT m.codMonitor FROM Monitor m ORDER BY m.codMonitor";
+    // Compara la columna DATE sin funciones para que MariaDB use su índice
+    private static final String HQL_INCORPORADOS_ANTES = "FROM Monitor m WHERE m.fechaEntrada < :fecha ORDER BY m.fechaEntrada";
+
+    /**
+     * Consultas HQL del DAO, precompiladas al iniciar sesión para evitar el coste del primer uso.
+     */
+    public static final List<String> CONSULTAS_HQL = List.of(HQL_ACTIVIDADES_POR_DNI, HQL_POR_DNI, HQL_LISTA,
+            HQL_PAGINA, HQL_PAGINA_FILAS, HQL_CONTAR, HQL_CLAVES, HQL_INCORPORADOS_ANTES);
+
+    private final RepositorioDatos repositorio;
+
     /**
      * Constructor por defecto.
      */
     public MonitorDAO() {
+        this(null);
+    }
+
+    /**
+     * @param repositorio Repositorio en el que se publica cada cambio confirmado (puede ser null).
+     */
+    public MonitorDAO(RepositorioDatos repositorio) {
+        this.repositorio = repositorio;
     }
     
     /**
@@ -27,12 +66,11 @@ public class MonitorDAO {
      * @throws Exception Si ocurre un error en la consulta HQL.
      */
     public List<Actividad> obtenerActividadesPorMonitor(Session session, String dniMonitor) throws Exception {
-        Query<Actividad> query = session.createQuery(
-            "FROM Actividad a WHERE a.monitorResponsable.dni = :dni", 
-            Actividad.class
-        );
-        query.setParameter("dni", dniMonitor);
-        return query.getResultList();
+        return MetricasConsultas.medir("MonitorDAO.obtenerActividadesPorMonitor", session, () -> {
+            Query<Actividad> query = session.createQuery(HQL_ACTIVIDADES_POR_DNI, Actividad.class);
+            query.setParameter("dni", dniMonitor);
+            return query.getResultList();
+        });
     }
     
     /**
@@ -43,22 +81,141 @@ public class MonitorDAO {
      * @throws Exception Si ocurre un error durante la búsqueda.
      */
     public Monitor buscarPorDni(Session session, String dni) throws Exception {
-        Query<Monitor> query = session.createQuery(
-            "FROM Monitor m WHERE m.dni = :dni", 
-            Monitor.class
-        );
-        query.setParameter("dni", dni);
-        return query.uniqueResult();
+        return MetricasConsultas.medir("MonitorDAO.buscarPorDni", session, () -> {
+            Query<Monitor> query = session.createQuery(HQL_POR_DNI, Monitor.class);
+            query.setParameter("dni", dni);
+            return query.uniqueResult();
+        });
     }
 
     /**
      * Obtiene el listado completo de todos los monitores registrados.
+     * El resultado se guarda en la caché de consultas; Hibernate lo invalida en cuanto
+     * se inserta, modifica o borra un monitor a través de una sesión.
      * * @param session Sesión de Hibernate activa.
      * @return Lista de objetos Monitor.
      */
     public List<Monitor> listaMonitores(Session session) {
-        Query<Monitor> q = session.createQuery("from Monitor", Monitor.class);
-        return q.getResultList();
+        return MetricasConsultas.medir("MonitorDAO.listaMonitores", session, () -> {
+            Query<Monitor> q = session.createQuery(HQL_LISTA, Monitor.class);
+            q.setCacheable(true);
+            q.setCacheRegion(EstadisticasCache.REGION_LISTADOS);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera una página de monitores por orden de código (paginación por keyset).
+     * Cada fila contiene: código, nombre, DNI, teléfono, correo, fecha de incorporación y nick.
+     * * @param session Sesión de Hibernate activa.
+     * @param despuesDe Último código ya visto ("" para la primera página).
+     * @param limite Número máximo de monitores.
+     * @return Filas de los monitores con código mayor que {@code despuesDe}.
+     */
+    public List<Object[]> listaMonitores(Session session, String despuesDe, int limite) {
+        return MetricasConsultas.medir("MonitorDAO.listaMonitores(pagina)", session, () -> {
+            Query<Object[]> q = session.createQuery(HQL_PAGINA, Object[].class);
+            q.setParameter("despues", despuesDe);
+            q.setMaxResults(limite);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera una página de monitores ordenados por una columna de la fila (paginación por keyset sobre
+     * columna y código).
+     * * @param session Sesión de Hibernate activa.
+     * @param columna Columna de la fila por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param despuesDe Código de la última fila ya vista ("" para la primera página).
+     * @param limite Número máximo de monitores.
+     * @return Filas de los monitores siguientes en ese orden.
+     */
+    public List<Object[]> listaMonitores(Session session, int columna, boolean descendente, String despuesDe, int limite) {
+        return MetricasConsultas.medir("MonitorDAO.listaMonitores(ordenada)", session,
+                () -> ordenMonitores(columna, descendente).pagina(session, Object[].class, despuesDe, limite));
+    }
+
+    /**
+     * Recupera una página de monitores como instantáneas {@link MonitorFila}, por orden de código.
+     * * @param session Sesión de Hibernate activa.
+     * @param despuesDe Último código ya visto ("" para la primera página).
+     * @param limite Número máximo de monitores.
+     * @return Monitores con código mayor que {@code despuesDe}.
+     */
+    public List<MonitorFila> listaFilasMonitores(Session session, String despuesDe, int limite) {
+        return MetricasConsultas.medir("MonitorDAO.listaFilasMonitores", session, () -> {
+            Query<MonitorFila> q = session.createQuery(HQL_PAGINA_FILAS, MonitorFila.class);
+            q.setParameter("despues", despuesDe);
+            q.setMaxResults(limite);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Cuenta los monitores registrados.
+     * * @param session Sesión de Hibernate activa.
+     * @return Número de monitores.
+     */
+    public long contarMonitores(Session session) {
+        return MetricasConsultas.medir("MonitorDAO.contarMonitores", session,
+                () -> session.createQuery(HQL_CONTAR, Long.class).getSingleResult());
+    }
+
+    /**
+     * Obtiene el código del monitor que ocupa una posición en el orden por código.
+     * * @param session Sesión de Hibernate activa.
+     * @param posicion Posición (empezando en 0).
+     * @return El código o null si no hay tantos monitores.
+     */
+    public String codMonitorEnPosicion(Session session, long posicion) {
+        return MetricasConsultas.medir("MonitorDAO.codMonitorEnPosicion", session, () -> {
+            Query<String> q = session.createQuery(HQL_CLAVES, String.class);
+            q.setFirstResult((int) posicion);
+            q.setMaxResults(1);
+            return q.uniqueResult();
+        });
+    }
+
+    /**
+     * Obtiene el código del monitor que ocupa una posición en el orden por una columna de la fila.
+     * * @param session Sesión de Hibernate activa.
+     * @param columna Columna de la fila por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param posicion Posición (empezando en 0).
+     * @return El código o null si no hay tantos monitores.
+     */
+    public String codMonitorEnPosicion(Session session, int columna, boolean descendente, long posicion) {
+        return MetricasConsultas.medir("MonitorDAO.codMonitorEnPosicion(ordenada)", session,
+                () -> ordenMonitores(columna, descendente).claveEnPosicion(session, posicion));
+    }
+
+    private static PaginacionOrdenada ordenMonitores(int columna, boolean descendente) {
+        return new PaginacionOrdenada(COLUMNAS_FILA, FROM_FILA, "m.codMonitor", ORDEN_COLUMNAS[columna], descendente, null);
+    }
+
+    /**
+     * Recupera los monitores incorporados antes de una fecha, por orden de incorporación.
+     * * @param session Sesión de Hibernate activa.
+     * @param fecha Fecha límite (no incluida).
+     * @return Monitores con fecha de entrada anterior a {@code fecha}.
+     */
+    public List<Monitor> monitoresIncorporadosAntesDe(Session session, LocalDate fecha) {
+        return MetricasConsultas.medir("MonitorDAO.monitoresIncorporadosAntesDe", session, () -> {
+            Query<Monitor> q = session.createQuery(HQL_INCORPORADOS_ANTES, Monitor.class);
+            q.setParameter("fecha", fecha);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera los monitores con al menos una antigüedad en años, por orden de incorporación.
+     * * @param session Sesión de Hibernate activa.
+     * @param anios Antigüedad mínima en años.
+     * @return Monitores incorporados hace {@code anios} años o más.
+     */
+    public List<Monitor> monitoresConAntiguedad(Session session, int anios) {
+        return monitoresIncorporadosAntesDe(session, LocalDate.now().minusYears(anios).plusDays(1));
     }
 
     /**
@@ -68,7 +225,7 @@ public class MonitorDAO {
      * @return El objeto Monitor correspondiente o null.
      */
     public Monitor buscarPorCodMonitor(Session session, String codMonitor) {
-        return session.get(Monitor.class, codMonitor);
+        return MetricasConsultas.medir("MonitorDAO.buscarPorCodMonitor", session, () -> session.get(Monitor.class, codMonitor));
     }
 
     /**
@@ -78,7 +235,13 @@ public class MonitorDAO {
      * @throws Exception Si falla el guardado (ej: clave duplicada).
      */
     public void insertarMonitor(Session session, Monitor monitor) throws Exception {
-        session.save(monitor);
+        MetricasConsultas.medir("MonitorDAO.insertarMonitor", session, () -> {
+            session.save(monitor);
+            if (repositorio != null) {
+                repositorio.monitorGuardado(session, monitor, true);
+            }
+            return null;
+        });
     }
 
     /**
@@ -88,7 +251,13 @@ public class MonitorDAO {
      * @throws Exception Si falla el borrado (ej: violación de integridad referencial si tiene actividades).
      */
     public void borrarMonitor(Session session, Monitor monitor) throws Exception {
-        session.delete(monitor);
+        MetricasConsultas.medir("MonitorDAO.borrarMonitor", session, () -> {
+            session.delete(monitor);
+            if (repositorio != null) {
+                repositorio.monitorBorrado(session, monitor.getCodMonitor());
+            }
+            return null;
+        });
     }
 
     /**
@@ -98,17 +267,13 @@ public class MonitorDAO {
      * @throws Exception Si ocurre un error al actualizar.
      */
     public void actualizarMonitor(Session session, Monitor monitor) throws Exception {
-        session.update(monitor);
+        MetricasConsultas.medir("MonitorDAO.actualizarMonitor", session, () -> {
+            session.update(monitor);
+            if (repositorio != null) {
+                repositorio.monitorGuardado(session, monitor, false);
+            }
+            return null;
+        });
     }
 
-    /**
-     * Obtiene el código de monitor más alto registrado actualmente (ej: "M015").
-     * Utilizado para calcular automáticamente el siguiente código disponible.
-     * * @param session Sesión de Hibernate activa.
-     * @return El String con el último código o null si la tabla está vacía.
-     */
-    public String obtenerUltimoCodigo(Session session) {
-        Query<String> q = session.createQuery("SELECT max(m.codMonitor) FROM Monitor m", String.class);
-        return q.getSingleResult();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package Modelo;
+
+import java.time.LocalDate;
+
+/**
+ * Copia inmutable de los datos de un monitor, sin sus actividades.
+ * Es la instantánea que guarda {@link RepositorioDatos} y que viaja en los avisos de cambio
+ * ({@link CambioDatos}); se construye en la consulta HQL (expresión "SELECT new") o a partir de la entidad.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class MonitorFila {
+
+    private final String codMonitor;
+    private final String nombre;
+    private final String dni;
+    private final String telefono;
+    private final String correo;
+    private final LocalDate fechaEntrada;
+    private final String nick;
+
+    /**
+     * Constructor usado por la consulta HQL.
+     *
+     * @param codMonitor Código del monitor.
+     * @param nombre Nombre.
+     * @param dni DNI.
+     * @param telefono Teléfono.
+     * @param correo Correo electrónico.
+     * @param fechaEntrada Fecha de incorporación.
+     * @param nick Nick.
+     */
+    public MonitorFila(String codMonitor, String nombre, String dni, String telefono, String correo,
+            LocalDate fechaEntrada, String nick) {
+        this.codMonitor = codMonitor;
+        this.nombre = nombre;
+        this.dni = dni;
+        this.telefono = telefono;
+        this.correo = correo;
+        this.fechaEntrada = fechaEntrada;
+        this.nick = nick;
+    }
+
+    /**
+     * @param m Monitor.
+     * @return Copia de los datos actuales del monitor.
+     */
+    public static MonitorFila de(Monitor m) {
+        return new MonitorFila(m.getCodMonitor(), m.getNombre(), m.getDni(), m.getTelefono(), m.getCorreo(),
+                m.getFechaEntrada(), m.getNick());
+    }
+
+    /**
+     * @return El código del monitor.
+     */
+    public String getCodMonitor() {
+        return codMonitor;
+    }
+
+    /**
+     * @return El nombre.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return El DNI.
+     */
+    public String getDni() {
+        return dni;
+    }
+
+    /**
+     * @return El teléfono.
+     */
+    public String getTelefono() {
+        return telefono;
+    }
+
+    /**
+     * @return El correo electrónico.
+     */
+    public String getCorreo() {
+        return correo;
+    }
+
+    /**
+     * @return La fecha de incorporación.
+     */
+    public LocalDate getFechaEntrada() {
+        return fechaEntrada;
+    }
+
+    /**
+     * @return El nick.
+     */
+    public String getNick() {
+        return nick;
+    }
+}
@@ -0,0 +1,109 @@
+package Modelo;
+
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+/**
+ * Paginación por keyset de una tabla ordenada por una columna cualquiera, común a los DAOs.
+ * El orden es (columna, clave): la clave desempata las filas con el mismo valor, de modo que cada fila
+ * tiene una posición única y cada página empieza justo detrás de la última fila vista, sin OFFSET.
+ * Los nulos van delante en orden ascendente y detrás en descendente, igual que los ordena MariaDB.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+final class PaginacionOrdenada {
+
+    private final String hqlValor;
+    private final String hqlPrimera;
+    private final String hqlTrasValor;
+    private final String hqlTrasNulo;
+    private final String hqlClaves;
+    private final Collection<String> claves;
+
+    /**
+     * @param select Columnas de la fila ("SELECT ...", sin FROM).
+     * @param from Cláusula FROM con el alias y los JOIN de las columnas.
+     * @param clave Expresión de la clave primaria.
+     * @param columna Expresión de la columna de orden.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param claves Claves a las que se limitan las filas (resultados de una búsqueda) o null para todas.
+     */
+    PaginacionOrdenada(String select, String from, String clave, String columna, boolean descendente,
+            Collection<String> claves) {
+        String sentido = descendente ? " DESC" : " ASC";
+        String orden = " ORDER BY " + columna + sentido + ", " + clave + sentido;
+        String filtro = claves == null ? "WHERE " : "WHERE " + clave + " IN (:claves) AND ";
+        String tras = descendente ? " < " : " > ";
+        // Filas detrás de la fila (:valor, :despues) en el orden (columna, clave)
+        String trasValor = "(" + columna + tras + ":valor OR (" + columna + " = :valor AND " + clave + tras + ":despues)"
+                + (descendente ? " OR " + columna + " IS NULL)" : ")");
+        String trasNulo = descendente ? "(" + columna + " IS NULL AND " + clave + " < :despues)"
+                : "(" + columna + " IS NOT NULL OR " + clave + " > :despues)";
+
+        this.hqlValor = "SELECT " + columna + " " + from + "WHERE " + clave + " = :despues";
+        this.hqlPrimera = select + from + (claves == null ? "" : "WHERE " + clave + " IN (:claves)") + orden;
+        this.hqlTrasValor = select + from + filtro + trasValor + orden;
+        this.hqlTrasNulo = select + from + filtro + trasNulo + orden;
+        this.hqlClaves = "SELECT " + clave + " " + from + (claves == null ? "" : "WHERE " + clave + " IN (:claves)") + orden;
+        this.claves = claves;
+    }
+
+    /**
+     * Recupera las filas siguientes a una, en el orden (columna, clave).
+     * @param session Sesión activa.
+     * @param tipo Tipo de cada fila.
+     * @param despuesDe Clave de la última fila ya vista ("" para la primera página).
+     * @param limite Número máximo de filas.
+     * @return Filas siguientes; vacía si la fila de partida ya no existe.
+     */
+    <T> List<T> pagina(Session session, Class<T> tipo, String despuesDe, int limite) {
+        if (claves != null && claves.isEmpty()) {
+            return List.of();
+        }
+        Query<T> q;
+        if (despuesDe.isEmpty()) {
+            q = session.createQuery(hqlPrimera, tipo);
+        } else {
+            // El valor de la columna en la fila de partida completa el keyset (columna, clave)
+            List<Object> valor = session.createQuery(hqlValor, Object.class)
+                    .setParameter("despues", despuesDe)
+                    .getResultList();
+            if (valor.isEmpty()) {
+                return List.of();
+            }
+            if (valor.get(0) == null) {
+                q = session.createQuery(hqlTrasNulo, tipo);
+            } else {
+                q = session.createQuery(hqlTrasValor, tipo);
+                q.setParameter("valor", valor.get(0));
+            }
+            q.setParameter("despues", despuesDe);
+        }
+        if (claves != null) {
+            q.setParameterList("claves", claves);
+        }
+        q.setMaxResults(limite);
+        return q.getResultList();
+    }
+
+    /**
+     * Obtiene la clave de la fila que ocupa una posición en el orden (columna, clave).
+     * @param session Sesión activa.
+     * @param posicion Posición (empezando en 0).
+     * @return La clave o null si no hay tantas filas.
+     */
+    String claveEnPosicion(Session session, long posicion) {
+        if (claves != null && claves.isEmpty()) {
+            return null;
+        }
+        Query<String> q = session.createQuery(hqlClaves, String.class);
+        if (claves != null) {
+            q.setParameterList("claves", claves);
+        }
+        q.setFirstResult((int) posicion);
+        q.setMaxResults(1);
+        return q.uniqueResult();
+    }
+}
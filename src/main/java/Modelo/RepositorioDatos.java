@@ -0,0 +1,123 @@
+package Modelo;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Datos compartidos por todos los paneles: una {@link ColeccionDatos} de socios, otra de monitores y otra
+ * de actividades. Se crea una sola vez por sesión de usuario y se pasa a los controladores.
+ * Los DAOs creados con el repositorio publican sus altas, modificaciones y bajas al confirmarse la
+ * transacción en la que se hacen (si se deshace, no se publica nada), de modo que cada panel se entera de
+ * los cambios hechos desde cualquier otro sin volver a consultar la base de datos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class RepositorioDatos {
+
+    private final ColeccionDatos<SocioFila> socios;
+    private final ColeccionDatos<MonitorFila> monitores;
+    private final ColeccionDatos<ActividadFila> actividades;
+
+    /**
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param entrega Ejecutor con el que se avisa a los suscriptores (en la aplicación, el hilo de eventos de Swing).
+     */
+    public RepositorioDatos(SessionFactory sessionFactory, Executor entrega) {
+        SocioDAO socioDAO = new SocioDAO();
+        MonitorDAO monitorDAO = new MonitorDAO();
+        ActividadDAO actividadDAO = new ActividadDAO();
+        socios = new ColeccionDatos<>(sessionFactory, socioDAO::listaFilasSocios, SocioFila::getNumeroSocio, entrega);
+        monitores = new ColeccionDatos<>(sessionFactory, monitorDAO::listaFilasMonitores, MonitorFila::getCodMonitor, entrega);
+        actividades = new ColeccionDatos<>(sessionFactory, actividadDAO::listaActividades, ActividadFila::getIdActividad, entrega);
+    }
+
+    /**
+     * @return Los socios.
+     */
+    public ColeccionDatos<SocioFila> socios() {
+        return socios;
+    }
+
+    /**
+     * @return Los monitores.
+     */
+    public ColeccionDatos<MonitorFila> monitores() {
+        return monitores;
+    }
+
+    /**
+     * @return Las actividades.
+     */
+    public ColeccionDatos<ActividadFila> actividades() {
+        return actividades;
+    }
+
+    void socioGuardado(Session session, Socio socio, boolean alta) {
+        SocioFila fila = SocioFila.de(socio);
+        alConfirmar(session, () -> socios.publicar(alta
+                ? CambioDatos.alta(fila.getNumeroSocio(), fila)
+                : CambioDatos.modificacion(fila.getNumeroSocio(), fila)));
+    }
+
+    void socioBorrado(Session session, String numeroSocio) {
+        alConfirmar(session, () -> socios.publicar(CambioDatos.baja(numeroSocio)));
+    }
+
+    void monitorGuardado(Session session, Monitor monitor, boolean alta) {
+        MonitorFila fila = MonitorFila.de(monitor);
+        alConfirmar(session, () -> {
+            if (alta) {
+                monitores.publicar(CambioDatos.alta(fila.getCodMonitor(), fila));
+                return;
+            }
+            monitores.publicar(CambioDatos.modificacion(fila.getCodMonitor(), fila));
+            // Las actividades muestran el nombre del monitor: se actualizan las que ya estén en memoria
+            for (ActividadFila a : actividades.filtrar(a -> fila.getCodMonitor().equals(a.getCodMonitor())
+                    && !Objects.equals(fila.getNombre(), a.getNombreMonitor()))) {
+                actividades.publicar(CambioDatos.modificacion(a.getIdActividad(), a.conNombreMonitor(fila.getNombre())));
+            }
+        });
+    }
+
+    void monitorBorrado(Session session, String codMonitor) {
+        alConfirmar(session, () -> monitores.publicar(CambioDatos.baja(codMonitor)));
+    }
+
+    /**
+     * La instantánea se toma al llamar al método; si la actividad vuelve a cambiar en la misma transacción,
+     * se llama de nuevo y el último cambio publicado es el que queda.
+     */
+    void actividadGuardada(Session session, Actividad actividad, boolean alta) {
+        actividadGuardada(session, ActividadFila.de(actividad), alta);
+    }
+
+    void actividadGuardada(Session session, ActividadFila fila, boolean alta) {
+        alConfirmar(session, () -> actividades.publicar(alta
+                ? CambioDatos.alta(fila.getIdActividad(), fila)
+                : CambioDatos.modificacion(fila.getIdActividad(), fila)));
+    }
+
+    void actividadBorrada(Session session, String idActividad) {
+        alConfirmar(session, () -> actividades.publicar(CambioDatos.baja(idActividad)));
+    }
+
+    // Ejecuta la publicación cuando se confirme la transacción actual de la sesión
+    private static void alConfirmar(Session session, Runnable publicacion) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == Status.STATUS_COMMITTED) {
+                    publicacion.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package Modelo;
+
+/**
+ * Resultado de una inscripción o baja para un socio concreto.
+ * Si la actividad está completa, el socio pasa a su lista de espera y entra cuando otro se da de baja.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public enum ResultadoInscripcion {
+    INSCRITO("Inscrito"),
+    YA_INSCRITO("Ya estaba inscrito"),
+    DADO_DE_BAJA("Dado de baja"),
+    NO_INSCRITO("No estaba inscrito"),
+    SOCIO_INEXISTENTE("El socio no existe"),
+    EN_LISTA_ESPERA("Actividad completa: en lista de espera"),
+    YA_EN_LISTA_ESPERA("Ya estaba en la lista de espera"),
+    SALE_DE_LISTA_ESPERA("Retirado de la lista de espera"),
+    PROMOCIONADO("Inscrito desde la lista de espera");
+
+    private final String descripcion;
+
+    ResultadoInscripcion(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * @return Texto para mostrar al usuario.
+     */
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * @return true si la operación ha cambiado REALIZA para este socio.
+     */
+    public boolean esCambio() {
+        return this == INSCRITO || this == DADO_DE_BAJA || this == PROMOCIONADO;
+    }
+}
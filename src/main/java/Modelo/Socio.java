@@ -1,16 +1,21 @@
 package Modelo;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import java.io.Serializable;
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Clase entidad que representa un Socio del gimnasio. Mapeada a la tabla
@@ -20,7 +25,12 @@ import java.util.Set;
  * * @author Manuel Martín Rodrigo
  */
 @Entity
-@Table(name = "SOCIO")
+@Table(name = "SOCIO", indexes = {
+    @Index(name = "uq_socio_dni", columnList = "dni", unique = true),
+    @Index(name = "idx_socio_fecha_nacimiento", columnList = "fechaNacimiento"),
+    @Index(name = "idx_socio_fecha_entrada", columnList = "fechaEntrada")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedQueries({
     @NamedQuery(name = "Socio.findAll", query = "SELECT s FROM Socio s"),
     @NamedQuery(name = "Socio.findByNumeroSocio", query = "SELECT s FROM Socio s WHERE s.numeroSocio = :numeroSocio"),
@@ -61,7 +71,7 @@ public class Socio implements Serializable {
      * Fecha de nacimiento del socio.
      */
     @Column(name = "fechaNacimiento")
-    private String fechaNacimiento;
+    private LocalDate fechaNacimiento;
 
     /**
      * Teléfono de contacto.
@@ -80,7 +90,7 @@ public class Socio implements Serializable {
      */
     @Basic(optional = false)
     @Column(name = "fechaEntrada")
-    private String fechaEntrada;
+    private LocalDate fechaEntrada;
 
     /**
      * Categoría del socio (A, B, C, D, E).
@@ -119,7 +129,7 @@ public class Socio implements Serializable {
      * @param fechaEntrada Fecha de alta.
      * @param categoria Categoría asignada.
      */
-    public Socio(String numeroSocio, String nombre, String dni, String fechaEntrada, Character categoria) {
+    public Socio(String numeroSocio, String nombre, String dni, LocalDate fechaEntrada, Character categoria) {
         this.numeroSocio = numeroSocio;
         this.nombre = nombre;
         this.dni = dni;
@@ -139,7 +149,7 @@ public class Socio implements Serializable {
      * @param fechaEntrada Fecha de alta.
      * @param categoria Categoría.
      */
-    public Socio(String numeroSocio, String nombre, String dni, String fechaNacimiento, String telefono, String correo, String fechaEntrada, Character categoria) {
+    public Socio(String numeroSocio, String nombre, String dni, LocalDate fechaNacimiento, String telefono, String correo, LocalDate fechaEntrada, Character categoria) {
         this.numeroSocio = numeroSocio;
         this.nombre = nombre;
         this.dni = dni;
@@ -195,14 +205,14 @@ public class Socio implements Serializable {
     /**
      * @return La fecha de nacimiento.
      */
-    public String getFechaNacimiento() {
+    public LocalDate getFechaNacimiento() {
         return fechaNacimiento;
     }
 
     /**
      * @param fechaNacimiento Nueva fecha de nacimiento.
      */
-    public void setFechaNacimiento(String fechaNacimiento) {
+    public void setFechaNacimiento(LocalDate fechaNacimiento) {
         this.fechaNacimiento = fechaNacimiento;
     }
 
@@ -237,14 +247,14 @@ public class Socio implements Serializable {
     /**
      * @return La fecha de entrada.
      */
-    public String getFechaEntrada() {
+    public LocalDate getFechaEntrada() {
         return fechaEntrada;
     }
 
     /**
      * @param fechaEntrada Nueva fecha de entrada.
      */
-    public void setFechaEntrada(String fechaEntrada) {
+    public void setFechaEntrada(LocalDate fechaEntrada) {
         this.fechaEntrada = fechaEntrada;
     }
 
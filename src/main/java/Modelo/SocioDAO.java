@@ -1,17 +1,75 @@
 package Modelo;
 
+import Config.MetricasConsultas;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.query.Query;
 
 /**
  * Clase Data Access Object (DAO) para la gestión de Socios. Maneja todas las
  * operaciones CRUD y consultas relacionadas con la tabla SOCIO.
+ * Cada operación se mide con {@link Config.MetricasConsultas}.
+ * Si se crea con un {@link RepositorioDatos}, las altas, modificaciones y bajas se publican en él al
+ * confirmarse la transacción en la que se hacen (si se deshace, no se publica nada).
  * @author Manuel Martín Rodrigo
  */
 public class SocioDAO {
 
+    /**
+     * Tamaño de lote JDBC de {@link #insertaSocios} si no está configurado "hibernate.jdbc.batch_size".
+     */
+    private static final int LOTE_JDBC_DEFECTO = 50;
+
+    private static final String HQL_POR_DNI = "FROM Socio s WHERE s.dni = :dni";
+    private static final String HQL_EXISTE = "SELECT COUNT(s) FROM Socio s WHERE s.numeroSocio = :numero OR s.dni = :dni";
+    private static final String HQL_LISTA = "from Socio";
+    private static final String COLUMNAS_FILA = "SELECT s.numeroSocio, s.nombre, s.dni, s.fechaNacimiento, s.telefono, "
+            + "s.correo, s.fechaEntrada, s.categoria ";
+    private static final String FROM_FILA = "FROM Socio s ";
+    private static final String SELECT_FILA = COLUMNAS_FILA + FROM_FILA;
+    // Columnas de la fila por las que se puede ordenar la tabla, en el mismo orden
+    private static final String[] ORDEN_COLUMNAS = {"s.numeroSocio", "s.nombre", "s.dni", "s.fechaNacimiento",
+        "s.telefono", "s.correo", "s.fechaEntrada", "s.categoria"};
+    private static final String HQL_FILAS = SELECT_FILA + "ORDER BY s.numeroSocio";
+    private static final String HQL_PAGINA = SELECT_FILA + "WHERE s.numeroSocio > :despues ORDER BY s.numeroSocio";
+    private static final String HQL_FILAS_POR_NUMERO = SELECT_FILA + "WHERE s.numeroSocio IN (:numeros)";
+    private static final String HQL_PAGINA_FILAS = "SELECT new Modelo.SocioFila(s.numeroSocio, s.nombre, s.dni, "
+            + "s.fechaNacimiento, s.telefono, s.correo, s.fechaEntrada, s.categoria) FROM Socio s "
+            + "WHERE s.numeroSocio > :despues ORDER BY s.numeroSocio";
+    private static final String HQL_CONTAR = "SELECT count(s) FROM Socio s";
+    private static final String HQL_CLAVES = "SELECT s.numeroSocio FROM Socio s ORDER BY s.numeroSocio";
+    // Las condiciones comparan la columna DATE sin funciones para que MariaDB use su índice
+    private static final String HQL_NACIDOS_ENTRE = "FROM Socio s WHERE s.fechaNacimiento BETWEEN :desde AND :hasta "
+            + "ORDER BY s.fechaNacimiento";
+    private static final String HQL_ALTA_ANTES = "FROM Socio s WHERE s.fechaEntrada < :fecha ORDER BY s.fechaEntrada";
+
+    /**
+     * Consultas HQL del DAO, precompiladas al iniciar sesión para evitar el coste del primer uso.
+     */
+    public static final List<String> CONSULTAS_HQL = List.of(HQL_POR_DNI, HQL_EXISTE, HQL_LISTA,
+            HQL_FILAS, HQL_PAGINA, HQL_FILAS_POR_NUMERO, HQL_PAGINA_FILAS, HQL_CONTAR, HQL_CLAVES, HQL_NACIDOS_ENTRE, HQL_ALTA_ANTES);
+
+    private final RepositorioDatos repositorio;
+
     public SocioDAO() {
+        this(null);
+    }
+
+    /**
+     * @param repositorio Repositorio en el que se publica cada cambio confirmado (puede ser null).
+     */
+    public SocioDAO(RepositorioDatos repositorio) {
+        this.repositorio = repositorio;
     }
 
     /**
@@ -22,7 +80,88 @@ public class SocioDAO {
      * @throws Exception Si ocurre un error durante la inserción.
      */
     public void insertaSocio(Session session, Socio socio) throws Exception {
-        session.persist(socio);
+        MetricasConsultas.medir("SocioDAO.insertaSocio", session, () -> {
+            session.persist(socio);
+            if (repositorio != null) {
+                repositorio.socioGuardado(session, socio, true);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Inserta los socios en bloque usando lotes JDBC, con una transacción por cada {@code tamanoBloque} socios.
+     * La sesión no debe tener una transacción activa: el método las abre y confirma. Dentro de cada bloque
+     * la sesión se vacía y se limpia cada vez que se completa un lote JDBC, para que la memoria ocupada no
+     * crezca con el número de socios.
+     *
+     * @param session Sesión de Hibernate sin transacción activa.
+     * @param socios Colección de socios a insertar.
+     * @param tamanoBloque Número de socios confirmados por transacción.
+     * @return Número de socios insertados.
+     * @throws Exception Si falla un bloque: se deshace solo ese bloque, los anteriores quedan confirmados
+     * y el mensaje indica cuántos socios se confirmaron.
+     */
+    public int insertaSocios(Session session, Collection<Socio> socios, int tamanoBloque) throws Exception {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + tamanoBloque);
+        }
+        return MetricasConsultas.medir("SocioDAO.insertaSocios", session, () -> {
+            int loteJdbc = session.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                    .getSessionFactoryOptions().getJdbcBatchSize();
+            if (loteJdbc <= 0) {
+                loteJdbc = LOTE_JDBC_DEFECTO;
+            }
+
+            // Las altas masivas no deben desplazar de la caché de segundo nivel los datos de consulta habitual
+            CacheMode modoAnterior = session.getCacheMode();
+            session.setCacheMode(CacheMode.IGNORE);
+
+            int confirmados = 0;
+            int enBloque = 0;
+            Transaction tr = null;
+            try {
+                for (Socio socio : socios) {
+                    if (tr == null) {
+                        tr = session.beginTransaction();
+                    }
+                    session.persist(socio);
+                    if (repositorio != null) {
+                        repositorio.socioGuardado(session, socio, true);
+                    }
+                    enBloque++;
+
+                    if (enBloque % loteJdbc == 0) {
+                        session.flush();
+                        session.clear();
+                    }
+                    if (enBloque == tamanoBloque) {
+                        session.flush();
+                        session.clear();
+                        tr.commit();
+                        tr = null;
+                        confirmados += enBloque;
+                        enBloque = 0;
+                    }
+                }
+                if (tr != null) {
+                    session.flush();
+                    session.clear();
+                    tr.commit();
+                    confirmados += enBloque;
+                }
+                return confirmados;
+            } catch (RuntimeException ex) {
+                if (tr != null && tr.isActive()) {
+                    tr.rollback();
+                }
+                session.clear();
+                throw new Exception("Error en la inserción por lotes tras " + confirmados
+                        + " socios confirmados: " + ex.getMessage(), ex);
+            } finally {
+                session.setCacheMode(modoAnterior);
+            }
+        });
     }
 
     /**
@@ -34,7 +173,8 @@ public class SocioDAO {
      * @throws Exception Si ocurre un error en la consulta.
      */
     public Socio buscarPorNumeroSocio(Session session, String numeroSocio) throws Exception {
-        return session.find(Socio.class, numeroSocio);
+        return MetricasConsultas.medir("SocioDAO.buscarPorNumeroSocio", session,
+                () -> session.find(Socio.class, numeroSocio));
     }
 
     /**
@@ -46,12 +186,11 @@ public class SocioDAO {
      * @throws Exception Si hay error en la consulta.
      */
     public Socio buscarPorDni(Session session, String dni) throws Exception {
-        Query<Socio> query = session.createQuery(
-                "FROM Socio s WHERE s.dni = :dni",
-                Socio.class
-        );
-        query.setParameter("dni", dni);
-        return query.uniqueResult();
+        return MetricasConsultas.medir("SocioDAO.buscarPorDni", session, () -> {
+            Query<Socio> query = session.createQuery(HQL_POR_DNI, Socio.class);
+            query.setParameter("dni", dni);
+            return query.uniqueResult();
+        });
     }
 
     /**
@@ -65,13 +204,12 @@ public class SocioDAO {
      * @throws Exception Si ocurre un error en la consulta.
      */
     public boolean existeSocio(Session session, String numeroSocio, String dni) throws Exception {
-        Query<Long> query = session.createQuery(
-                "SELECT COUNT(s) FROM Socio s WHERE s.numeroSocio = :numero OR s.dni = :dni",
-                Long.class
-        );
-        query.setParameter("numero", numeroSocio);
-        query.setParameter("dni", dni);
-        return query.getSingleResult() > 0;
+        return MetricasConsultas.medir("SocioDAO.existeSocio", session, () -> {
+            Query<Long> query = session.createQuery(HQL_EXISTE, Long.class);
+            query.setParameter("numero", numeroSocio);
+            query.setParameter("dni", dni);
+            return query.getSingleResult() > 0;
+        });
     }
 
     /**
@@ -81,8 +219,214 @@ public class SocioDAO {
      * @return Lista de objetos Socio.
      */
     public List<Socio> listaSocios(Session session) {
-        Query<Socio> q = session.createQuery("from Socio", Socio.class);
-        return q.getResultList();
+        return MetricasConsultas.medir("SocioDAO.listaSocios", session, () -> {
+            Query<Socio> q = session.createQuery(HQL_LISTA, Socio.class);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera una página de socios por orden de número de socio (paginación por keyset).
+     * Cada fila contiene: número, nombre, DNI, fecha de nacimiento, teléfono, correo, fecha de alta y categoría.
+     *
+     * @param session Sesión de Hibernate.
+     * @param despuesDe Último número de socio ya visto ("" para la primera página).
+     * @param limite Número máximo de socios.
+     * @return Filas de los socios con número mayor que {@code despuesDe}.
+     */
+    public List<Object[]> listaSocios(Session session, String despuesDe, int limite) {
+        return MetricasConsultas.medir("SocioDAO.listaSocios(pagina)", session, () -> {
+            Query<Object[]> q = session.createQuery(HQL_PAGINA, Object[].class);
+            q.setParameter("despues", despuesDe);
+            q.setMaxResults(limite);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera una página de socios ordenados por una columna de la fila (paginación por keyset sobre
+     * columna y número de socio).
+     *
+     * @param session Sesión de Hibernate.
+     * @param columna Columna de la fila por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param numeros Números a los que se limita (resultados de una búsqueda) o null para todos los socios.
+     * @param despuesDe Número de socio de la última fila ya vista ("" para la primera página).
+     * @param limite Número máximo de socios.
+     * @return Filas de los socios siguientes en ese orden.
+     */
+    public List<Object[]> listaSocios(Session session, int columna, boolean descendente, Collection<String> numeros,
+            String despuesDe, int limite) {
+        return MetricasConsultas.medir("SocioDAO.listaSocios(ordenada)", session,
+                () -> ordenSocios(columna, descendente, numeros).pagina(session, Object[].class, despuesDe, limite));
+    }
+
+    /**
+     * Recupera una página de socios como instantáneas {@link SocioFila}, por orden de número de socio.
+     *
+     * @param session Sesión de Hibernate.
+     * @param despuesDe Último número de socio ya visto ("" para la primera página).
+     * @param limite Número máximo de socios.
+     * @return Socios con número mayor que {@code despuesDe}.
+     */
+    public List<SocioFila> listaFilasSocios(Session session, String despuesDe, int limite) {
+        return MetricasConsultas.medir("SocioDAO.listaFilasSocios", session, () -> {
+            Query<SocioFila> q = session.createQuery(HQL_PAGINA_FILAS, SocioFila.class);
+            q.setParameter("despues", despuesDe);
+            q.setMaxResults(limite);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera las filas de tabla de unos socios concretos (por ejemplo, una página de resultados de búsqueda).
+     * Cada fila contiene: número, nombre, DNI, fecha de nacimiento, teléfono, correo, fecha de alta y categoría.
+     *
+     * @param session Sesión de Hibernate.
+     * @param numeros Números de los socios.
+     * @return Filas de los socios que existen, sin un orden determinado.
+     */
+    public List<Object[]> filasSocios(Session session, Collection<String> numeros) {
+        return MetricasConsultas.medir("SocioDAO.filasSocios", session, () -> {
+            if (numeros.isEmpty()) {
+                return List.<Object[]>of();
+            }
+            Query<Object[]> q = session.createQuery(HQL_FILAS_POR_NUMERO, Object[].class);
+            q.setParameterList("numeros", numeros);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Cuenta los socios registrados.
+     *
+     * @param session Sesión de Hibernate.
+     * @return Número de socios.
+     */
+    public long contarSocios(Session session) {
+        return MetricasConsultas.medir("SocioDAO.contarSocios", session,
+                () -> session.createQuery(HQL_CONTAR, Long.class).getSingleResult());
+    }
+
+    /**
+     * Obtiene el número del socio que ocupa una posición en el orden por número de socio.
+     *
+     * @param session Sesión de Hibernate.
+     * @param posicion Posición (empezando en 0).
+     * @return El número de socio o null si no hay tantos socios.
+     */
+    public String numeroSocioEnPosicion(Session session, long posicion) {
+        return MetricasConsultas.medir("SocioDAO.numeroSocioEnPosicion", session, () -> {
+            Query<String> q = session.createQuery(HQL_CLAVES, String.class);
+            q.setFirstResult((int) posicion);
+            q.setMaxResults(1);
+            return q.uniqueResult();
+        });
+    }
+
+    /**
+     * Obtiene el número del socio que ocupa una posición en el orden por una columna de la fila.
+     *
+     * @param session Sesión de Hibernate.
+     * @param columna Columna de la fila por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param numeros Números a los que se limita o null para todos los socios.
+     * @param posicion Posición (empezando en 0).
+     * @return El número de socio o null si no hay tantos socios.
+     */
+    public String numeroSocioEnPosicion(Session session, int columna, boolean descendente, Collection<String> numeros,
+            long posicion) {
+        return MetricasConsultas.medir("SocioDAO.numeroSocioEnPosicion(ordenada)", session,
+                () -> ordenSocios(columna, descendente, numeros).claveEnPosicion(session, posicion));
+    }
+
+    private static PaginacionOrdenada ordenSocios(int columna, boolean descendente, Collection<String> numeros) {
+        return new PaginacionOrdenada(COLUMNAS_FILA, FROM_FILA, "s.numeroSocio", ORDEN_COLUMNAS[columna], descendente, numeros);
+    }
+
+    /**
+     * Recupera los socios nacidos entre dos fechas (ambas incluidas), por orden de fecha de nacimiento.
+     *
+     * @param session Sesión de Hibernate.
+     * @param desde Primera fecha de nacimiento incluida.
+     * @param hasta Última fecha de nacimiento incluida.
+     * @return Socios nacidos en el intervalo.
+     */
+    public List<Socio> sociosNacidosEntre(Session session, LocalDate desde, LocalDate hasta) {
+        return MetricasConsultas.medir("SocioDAO.sociosNacidosEntre", session, () -> {
+            Query<Socio> q = session.createQuery(HQL_NACIDOS_ENTRE, Socio.class);
+            q.setParameter("desde", desde);
+            q.setParameter("hasta", hasta);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recupera los socios cuya edad actual está entre dos valores (ambos incluidos).
+     * La edad se traduce a un intervalo de fechas de nacimiento, de modo que la consulta usa el índice.
+     *
+     * @param session Sesión de Hibernate.
+     * @param edadMinima Edad mínima en años.
+     * @param edadMaxima Edad máxima en años.
+     * @return Socios con edad en el intervalo, por orden de fecha de nacimiento.
+     */
+    public List<Socio> sociosConEdadEntre(Session session, int edadMinima, int edadMaxima) {
+        LocalDate hoy = LocalDate.now();
+        // Tiene edadMaxima años quien nació después del día en que cumpliría edadMaxima + 1
+        LocalDate desde = hoy.minusYears(edadMaxima + 1L).plusDays(1);
+        LocalDate hasta = hoy.minusYears(edadMinima);
+        return sociosNacidosEntre(session, desde, hasta);
+    }
+
+    /**
+     * Recupera los socios dados de alta antes de una fecha, por orden de fecha de alta.
+     *
+     * @param session Sesión de Hibernate.
+     * @param fecha Fecha límite (no incluida).
+     * @return Socios con fecha de alta anterior a {@code fecha}.
+     */
+    public List<Socio> sociosDadosDeAltaAntesDe(Session session, LocalDate fecha) {
+        return MetricasConsultas.medir("SocioDAO.sociosDadosDeAltaAntesDe", session, () -> {
+            Query<Socio> q = session.createQuery(HQL_ALTA_ANTES, Socio.class);
+            q.setParameter("fecha", fecha);
+            return q.getResultList();
+        });
+    }
+
+    /**
+     * Recorre todos los socios en streaming y entrega sus datos por bloques, sin crear entidades.
+     * Usa un cursor de solo avance con tamaño de fetch, de modo que el driver va leyendo del servidor
+     * por tramos y nunca se tiene en memoria la lista completa.
+     * Cada fila contiene: número, nombre, DNI, fecha de nacimiento, teléfono, correo, fecha de alta y categoría.
+     *
+     * @param session Sesión sin estado (sin contexto de persistencia).
+     * @param tamanoBloque Filas por bloque entregado y tamaño de fetch del cursor.
+     * @param receptor Recibe cada bloque de filas, en orden de número de socio.
+     * @return Número de socios recorridos.
+     */
+    public long recorrerSocios(StatelessSession session, int tamanoBloque, Consumer<List<Object[]>> receptor) {
+        return MetricasConsultas.medir("SocioDAO.recorrerSocios", session, () -> {
+            Query<Object[]> q = session.createQuery(HQL_FILAS, Object[].class);
+            q.setFetchSize(tamanoBloque);
+            q.setReadOnly(true);
+
+            long total = 0;
+            try (ScrollableResults rs = q.scroll(ScrollMode.FORWARD_ONLY)) {
+                List<Object[]> bloque = new ArrayList<>(tamanoBloque);
+                while (rs.next()) {
+                    bloque.add(rs.get());
+                    total++;
+                    if (bloque.size() == tamanoBloque) {
+                        receptor.accept(bloque);
+                        bloque = new ArrayList<>(tamanoBloque);
+                    }
+                }
+                if (!bloque.isEmpty()) {
+                    receptor.accept(bloque);
+                }
+            }
+            return total;
+        });
     }
 
     /**
@@ -93,7 +437,13 @@ public class SocioDAO {
      * @throws Exception Si ocurre un error al borrar.
      */
     public void borrarSocio(Session session, Socio socio) throws Exception {
-        session.delete(socio);
+        MetricasConsultas.medir("SocioDAO.borrarSocio", session, () -> {
+            session.delete(socio);
+            if (repositorio != null) {
+                repositorio.socioBorrado(session, socio.getNumeroSocio());
+            }
+            return null;
+        });
     }
 
     /**
@@ -104,18 +454,13 @@ public class SocioDAO {
      * @throws Exception Si ocurre un error al actualizar.
      */
     public void actualizarSocio(Session session, Socio socio) throws Exception {
-        session.update(socio);
+        MetricasConsultas.medir("SocioDAO.actualizarSocio", session, () -> {
+            session.update(socio);
+            if (repositorio != null) {
+                repositorio.socioGuardado(session, socio, false);
+            }
+            return null;
+        });
     }
 
-    /**
-     * Obtiene el último código de socio registrado (ej: S015) para calcular el
-     * siguiente.
-     *
-     * * @param session Sesión de Hibernate.
-     * @return El código más alto encontrado en la tabla.
-     */
-    public String obtenerUltimoCodigo(Session session) {
-        Query<String> q = session.createQuery("SELECT max(s.numeroSocio) FROM Socio s", String.class);
-        return q.getSingleResult();
-    }
 }
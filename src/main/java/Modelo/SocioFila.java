@@ -0,0 +1,111 @@
+package Modelo;
+
+import java.time.LocalDate;
+
+/**
+ * Copia inmutable de los datos de un socio, sin su relación con las actividades.
+ * Es la instantánea que guarda {@link RepositorioDatos} y que viaja en los avisos de cambio
+ * ({@link CambioDatos}); se construye en la consulta HQL (expresión "SELECT new") o a partir de la entidad.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class SocioFila {
+
+    private final String numeroSocio;
+    private final String nombre;
+    private final String dni;
+    private final LocalDate fechaNacimiento;
+    private final String telefono;
+    private final String correo;
+    private final LocalDate fechaEntrada;
+    private final Character categoria;
+
+    /**
+     * Constructor usado por la consulta HQL.
+     *
+     * @param numeroSocio Número del socio.
+     * @param nombre Nombre.
+     * @param dni DNI.
+     * @param fechaNacimiento Fecha de nacimiento, o null si no consta.
+     * @param telefono Teléfono.
+     * @param correo Correo electrónico.
+     * @param fechaEntrada Fecha de alta.
+     * @param categoria Categoría (A-E).
+     */
+    public SocioFila(String numeroSocio, String nombre, String dni, LocalDate fechaNacimiento, String telefono,
+            String correo, LocalDate fechaEntrada, Character categoria) {
+        this.numeroSocio = numeroSocio;
+        this.nombre = nombre;
+        this.dni = dni;
+        this.fechaNacimiento = fechaNacimiento;
+        this.telefono = telefono;
+        this.correo = correo;
+        this.fechaEntrada = fechaEntrada;
+        this.categoria = categoria;
+    }
+
+    /**
+     * @param s Socio.
+     * @return Copia de los datos actuales del socio.
+     */
+    public static SocioFila de(Socio s) {
+        return new SocioFila(s.getNumeroSocio(), s.getNombre(), s.getDni(), s.getFechaNacimiento(), s.getTelefono(),
+                s.getCorreo(), s.getFechaEntrada(), s.getCategoria());
+    }
+
+    /**
+     * @return El número de socio.
+     */
+    public String getNumeroSocio() {
+        return numeroSocio;
+    }
+
+    /**
+     * @return El nombre.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * @return El DNI.
+     */
+    public String getDni() {
+        return dni;
+    }
+
+    /**
+     * @return La fecha de nacimiento, o null si no consta.
+     */
+    public LocalDate getFechaNacimiento() {
+        return fechaNacimiento;
+    }
+
+    /**
+     * @return El teléfono.
+     */
+    public String getTelefono() {
+        return telefono;
+    }
+
+    /**
+     * @return El correo electrónico.
+     */
+    public String getCorreo() {
+        return correo;
+    }
+
+    /**
+     * @return La fecha de alta.
+     */
+    public LocalDate getFechaEntrada() {
+        return fechaEntrada;
+    }
+
+    /**
+     * @return La categoría.
+     */
+    public Character getCategoria() {
+        return categoria;
+    }
+}
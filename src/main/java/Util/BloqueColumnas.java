@@ -0,0 +1,197 @@
+package Util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bloque de filas de una tabla guardado por columnas: cada columna es un array del tipo de sus datos
+ * ({@link TipoColumna}), de modo que los números, caracteres y fechas no se envuelven en objetos y no hay
+ * un Object[] por fila. Los textos repetidos se toman de una reserva compartida y cada valor distinto
+ * existe una sola vez en memoria.
+ * Las filas se añaden en bloque al leer una página y se pueden insertar, sustituir o quitar por posición.
+ * La clave de cada fila es el texto de la columna 0.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+final class BloqueColumnas {
+
+    // Marcas de valor nulo en las columnas sin objetos
+    private static final int SIN_ENTERO = Integer.MIN_VALUE;
+    private static final int SIN_FECHA = Integer.MIN_VALUE;
+    private static final char SIN_CARACTER = '\0';
+
+    private final TipoColumna[] tipos;
+    private final Map<String, String> reserva;
+    // Un String[], int[] o char[] por columna
+    private final Object[] columnas;
+    private int tamano;
+
+    /**
+     * @param tipos Tipo de cada columna.
+     * @param reserva Textos ya guardados, compartida por los bloques de la misma tabla.
+     * @param capacidad Número de filas previsto.
+     */
+    BloqueColumnas(TipoColumna[] tipos, Map<String, String> reserva, int capacidad) {
+        this.tipos = tipos;
+        this.reserva = reserva;
+        this.columnas = new Object[tipos.length];
+        for (int c = 0; c < tipos.length; c++) {
+            columnas[c] = crear(tipos[c], capacidad);
+        }
+    }
+
+    int size() {
+        return tamano;
+    }
+
+    boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    String clave(int fila) {
+        return ((String[]) columnas[0])[fila];
+    }
+
+    /**
+     * @return El valor de una celda, con el tipo de objeto que se recibió al guardarla.
+     */
+    Object valor(int fila, int columna) {
+        Object col = columnas[columna];
+        switch (tipos[columna]) {
+            case ENTERO: {
+                int v = ((int[]) col)[fila];
+                return v == SIN_ENTERO ? null : v;
+            }
+            case CARACTER: {
+                char v = ((char[]) col)[fila];
+                return v == SIN_CARACTER ? null : v;
+            }
+            case FECHA: {
+                int v = ((int[]) col)[fila];
+                return v == SIN_FECHA ? null : LocalDate.ofEpochDay(v);
+            }
+            default:
+                return ((String[]) col)[fila];
+        }
+    }
+
+    /**
+     * @return Una fila como Object[], para pasarla a otro bloque.
+     */
+    Object[] fila(int fila) {
+        Object[] valores = new Object[tipos.length];
+        for (int c = 0; c < tipos.length; c++) {
+            valores[c] = valor(fila, c);
+        }
+        return valores;
+    }
+
+    /**
+     * Añade todas las filas al final, ampliando las columnas una sola vez.
+     */
+    void anadirTodas(List<Object[]> filas) {
+        asegurarCapacidad(tamano + filas.size());
+        for (Object[] f : filas) {
+            escribir(tamano++, f);
+        }
+    }
+
+    void anadir(Object[] fila) {
+        insertar(tamano, fila);
+    }
+
+    void insertar(int posicion, Object[] fila) {
+        asegurarCapacidad(tamano + 1);
+        for (Object col : columnas) {
+            System.arraycopy(col, posicion, col, posicion + 1, tamano - posicion);
+        }
+        escribir(posicion, fila);
+        tamano++;
+    }
+
+    void sustituir(int posicion, Object[] fila) {
+        escribir(posicion, fila);
+    }
+
+    /**
+     * @return La fila quitada.
+     */
+    Object[] quitar(int posicion) {
+        Object[] quitada = fila(posicion);
+        for (Object col : columnas) {
+            System.arraycopy(col, posicion + 1, col, posicion, tamano - posicion - 1);
+        }
+        tamano--;
+        // Los textos de la última posición ya no se usan
+        for (int c = 0; c < tipos.length; c++) {
+            if (columnas[c] instanceof String[]) {
+                ((String[]) columnas[c])[tamano] = null;
+            }
+        }
+        return quitada;
+    }
+
+    private void escribir(int fila, Object[] valores) {
+        for (int c = 0; c < tipos.length; c++) {
+            Object v = valores[c];
+            Object col = columnas[c];
+            switch (tipos[c]) {
+                case ENTERO:
+                    ((int[]) col)[fila] = v == null ? SIN_ENTERO : ((Number) v).intValue();
+                    break;
+                case CARACTER:
+                    ((char[]) col)[fila] = v == null ? SIN_CARACTER : (Character) v;
+                    break;
+                case FECHA:
+                    ((int[]) col)[fila] = v == null ? SIN_FECHA : (int) ((LocalDate) v).toEpochDay();
+                    break;
+                case TEXTO_REPETIDO:
+                    ((String[]) col)[fila] = v == null ? null : reserva.computeIfAbsent((String) v, t -> t);
+                    break;
+                default:
+                    ((String[]) col)[fila] = (String) v;
+            }
+        }
+    }
+
+    private void asegurarCapacidad(int capacidad) {
+        if (capacidad <= Array.longitud(columnas[0])) {
+            return;
+        }
+        int nueva = Math.max(capacidad, tamano + (tamano >> 1));
+        for (int c = 0; c < columnas.length; c++) {
+            columnas[c] = Array.copiar(columnas[c], nueva);
+        }
+    }
+
+    private static Object crear(TipoColumna tipo, int capacidad) {
+        switch (tipo) {
+            case ENTERO:
+            case FECHA:
+                return new int[capacidad];
+            case CARACTER:
+                return new char[capacidad];
+            default:
+                return new String[capacidad];
+        }
+    }
+
+    // Operaciones comunes a los tres tipos de array de columna
+    private static final class Array {
+        static int longitud(Object col) {
+            return java.lang.reflect.Array.getLength(col);
+        }
+
+        static Object copiar(Object col, int capacidad) {
+            if (col instanceof int[]) {
+                return Arrays.copyOf((int[]) col, capacidad);
+            }
+            if (col instanceof char[]) {
+                return Arrays.copyOf((char[]) col, capacidad);
+            }
+            return Arrays.copyOf((String[]) col, capacidad);
+        }
+    }
+}
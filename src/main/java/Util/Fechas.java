@@ -0,0 +1,65 @@
+package Util;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * Conversión y formato de las fechas de socios y monitores.
+ * Las entidades guardan LocalDate (columnas DATE); los JDateChooser de los formularios trabajan con
+ * java.util.Date y las tablas muestran las fechas como dd/MM/yyyy.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class Fechas {
+
+    /**
+     * Formato con el que se muestran las fechas (inmutable, se puede compartir entre hilos).
+     */
+    public static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private Fechas() {
+    }
+
+    /**
+     * Convierte la fecha de un JDateChooser a LocalDate en la zona horaria del sistema.
+     * @param fecha Fecha seleccionada (puede ser null).
+     * @return La fecha sin hora, o null.
+     */
+    public static LocalDate aLocalDate(Date fecha) {
+        return fecha == null ? null : fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Convierte una LocalDate a Date (inicio del día en la zona del sistema) para un JDateChooser.
+     * @param fecha Fecha a convertir (puede ser null).
+     * @return La fecha equivalente, o null.
+     */
+    public static Date aDate(LocalDate fecha) {
+        return fecha == null ? null : Date.from(fecha.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Formatea una fecha como dd/MM/yyyy.
+     * @param fecha Fecha a formatear (puede ser null).
+     * @return El texto de la fecha, o una cadena vacía si es null.
+     */
+    public static String formatear(LocalDate fecha) {
+        return fecha == null ? "" : FORMATO.format(fecha);
+    }
+
+    /**
+     * Crea un renderizador de celdas que muestra las LocalDate como dd/MM/yyyy.
+     * @return El renderizador.
+     */
+    public static DefaultTableCellRenderer renderizador() {
+        return new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object valor) {
+                setText(valor instanceof LocalDate ? formatear((LocalDate) valor) : valor == null ? "" : valor.toString());
+            }
+        };
+    }
+}
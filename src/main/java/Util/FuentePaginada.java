@@ -0,0 +1,49 @@
+package Util;
+
+import java.util.List;
+import org.hibernate.Session;
+
+/**
+ * Origen de datos de una tabla virtual ({@link ModeloTablaVirtual}).
+ * Las filas se recorren por orden de clave primaria y se piden por páginas mediante keyset
+ * (filas con clave mayor que la última vista), de modo que el coste de cada página no depende
+ * de su posición en la tabla. La clave de cada fila está en la columna 0.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public interface FuentePaginada {
+
+    /**
+     * @param session Sesión de Hibernate activa.
+     * @return Número total de filas.
+     */
+    long contar(Session session);
+
+    /**
+     * Devuelve las filas siguientes a una clave, por orden de clave.
+     * @param session Sesión de Hibernate activa.
+     * @param despuesDe Última clave ya vista ("" para empezar desde el principio).
+     * @param limite Número máximo de filas.
+     * @return Filas en el orden de columnas de la tabla.
+     */
+    List<Object[]> pagina(Session session, String despuesDe, int limite);
+
+    /**
+     * Devuelve la clave de la fila que ocupa una posición. Solo se usa al saltar a una página
+     * cuya anterior no se ha cargado todavía, para obtener el punto de partida del keyset.
+     * @param session Sesión de Hibernate activa.
+     * @param posicion Posición de la fila (empezando en 0).
+     * @return La clave o null si no hay tantas filas.
+     */
+    String claveEnPosicion(Session session, long posicion);
+
+    /**
+     * Indica si las filas van por orden de clave. Si es así, una fila nueva se coloca en la tabla en la
+     * posición que le corresponde por su clave; si no (resultados de una búsqueda), las filas nuevas no
+     * forman parte de la tabla.
+     * @return true si las filas están ordenadas por clave.
+     */
+    default boolean ordenadaPorClave() {
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package Util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+
+/**
+ * Origen paginado de los resultados de una búsqueda hecha en memoria: las filas de unas claves
+ * concretas, en el orden en que las devolvió la búsqueda.
+ * El keyset es la posición de la clave en la lista; cada página se lee de la base de datos por clave.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class FuenteResultados implements FuentePaginada {
+
+    /**
+     * Lee de la base de datos las filas de unas claves, en cualquier orden y con la clave en la columna 0.
+     */
+    @FunctionalInterface
+    public interface LectorFilas {
+        List<Object[]> leer(Session session, List<String> claves);
+    }
+
+    private final List<String> claves;
+    private final Map<String, Integer> posiciones = new HashMap<>();
+    private final LectorFilas lector;
+
+    /**
+     * @param claves Claves de las filas en el orden en que se muestran.
+     * @param lector Lectura de las filas de una página.
+     */
+    public FuenteResultados(List<String> claves, LectorFilas lector) {
+        this.claves = List.copyOf(claves);
+        this.lector = lector;
+        for (int i = 0; i < this.claves.size(); i++) {
+            posiciones.put(this.claves.get(i), i);
+        }
+    }
+
+    @Override
+    public long contar(Session session) {
+        return claves.size();
+    }
+
+    @Override
+    public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+        int desde = despuesDe.isEmpty() ? 0 : posiciones.getOrDefault(despuesDe, claves.size()) + 1;
+        List<String> clavesPagina = claves.subList(Math.min(desde, claves.size()), Math.min(desde + limite, claves.size()));
+        Map<String, Object[]> leidas = new HashMap<>();
+        for (Object[] fila : lector.leer(session, clavesPagina)) {
+            leidas.put((String) fila[0], fila);
+        }
+        // Se conserva el orden de la búsqueda; las filas borradas entretanto se omiten
+        List<Object[]> filas = new ArrayList<>(clavesPagina.size());
+        for (String clave : clavesPagina) {
+            Object[] fila = leidas.get(clave);
+            if (fila != null) {
+                filas.add(fila);
+            }
+        }
+        return filas;
+    }
+
+    @Override
+    public String claveEnPosicion(Session session, long posicion) {
+        return posicion < claves.size() ? claves.get((int) posicion) : null;
+    }
+
+    @Override
+    public boolean ordenadaPorClave() {
+        return false;
+    }
+}
@@ -1,12 +1,17 @@
 package Util;
 
-import Modelo.Actividad;
+import Modelo.ActividadDAO;
+import Modelo.ActividadFila;
+import Modelo.CambioDatos;
 import Vista.VistaInicioActividades;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 
 /**
  * Clase de utilidad para la gestión visual de la tabla de Actividades.
@@ -20,42 +25,141 @@ public class GestionTablasActividad {
     /**
      * Modelo de datos para la JTable de Actividades.
      */
-    public static DefaultTableModel modeloTablaActividades;
+    public static ModeloTablaVirtual modeloTablaActividades;
+
+    private static final String[] COLUMNAS = {"Código", "Nombre", "Día", "Hora", "Precio", "Plazas", "Monitor Resp.", "Descripción"};
+    // Día, plazas y monitor toman pocos valores distintos: se guardan una vez y las filas los comparten
+    private static final TipoColumna[] TIPOS = {TipoColumna.TEXTO, TipoColumna.TEXTO, TipoColumna.TEXTO_REPETIDO,
+        TipoColumna.ENTERO, TipoColumna.ENTERO, TipoColumna.TEXTO_REPETIDO, TipoColumna.TEXTO_REPETIDO, TipoColumna.TEXTO};
+
+    private static OrdenCabecera orden;
+    // IDs de la búsqueda que se muestra, o null si se muestran todas las actividades
+    private static List<String> resultados;
 
     /**
-     * Inicializa el modelo de la tabla y lo asigna a la vista.
-     * Configura la tabla para que las celdas no sean editables por el usuario.
+     * Inicializa el modelo virtual de la tabla y lo asigna a la vista.
+     * Las celdas no son editables y las actividades se cargan por páginas a medida que se muestran.
      *
      * @param vInicio Vista principal de actividades que contiene la JTable.
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param avisoError Recibe los errores de carga.
+     */
+    public static void inicializarTablaActividades(VistaInicioActividades vInicio, SessionFactory sessionFactory,
+            Consumer<Exception> avisoError) {
+        modeloTablaActividades = new ModeloTablaVirtual(sessionFactory, COLUMNAS, TIPOS, fuenteActividades(), avisoError);
+        resultados = null;
+        // Un RowSorter leería todas las filas: el orden de la cabecera lo aplica la consulta de cada página
+        vInicio.jTableActividades.setAutoCreateRowSorter(false);
+        vInicio.jTableActividades.setRowSorter(null);
+        vInicio.jTableActividades.setModel(modeloTablaActividades);
+        orden = new OrdenCabecera(vInicio.jTableActividades, () -> modeloTablaActividades.setFuente(fuente()));
+    }
+
+    /**
+     * Origen paginado de las filas: las actividades por orden de código.
+     */
+    private static FuentePaginada fuenteActividades() {
+        ActividadDAO actividadDAO = new ActividadDAO();
+        return new FuentePaginada() {
+            @Override
+            public long contar(Session session) {
+                return actividadDAO.contarActividades(session);
+            }
+
+            @Override
+            public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+                List<Object[]> filas = new ArrayList<>(limite);
+                for (ActividadFila a : actividadDAO.listaActividades(session, despuesDe, limite)) {
+                    filas.add(filaActividad(a));
+                }
+                return filas;
+            }
+
+            @Override
+            public String claveEnPosicion(Session session, long posicion) {
+                return actividadDAO.idActividadEnPosicion(session, posicion);
+            }
+        };
+    }
+
+    /**
+     * Origen paginado de los resultados de una búsqueda: las actividades indicadas, en su orden.
+     * @param ids IDs de las actividades en el orden en que se muestran.
      */
-    public static void inicializarTablaActividades(VistaInicioActividades vInicio) {
-        modeloTablaActividades = new DefaultTableModel() {
+    private static FuentePaginada fuenteResultados(List<String> ids) {
+        ActividadDAO actividadDAO = new ActividadDAO();
+        return new FuenteResultados(ids, (session, idsPagina) -> {
+            List<Object[]> filas = new ArrayList<>(idsPagina.size());
+            for (ActividadFila a : actividadDAO.filasActividades(session, idsPagina)) {
+                filas.add(filaActividad(a));
+            }
+            return filas;
+        });
+    }
+
+    /**
+     * Origen paginado de las actividades ordenadas por una columna (keyset sobre la columna y el ID).
+     * Las plazas se ordenan por las ocupadas y el monitor por su nombre.
+     * Sus filas no van por orden de clave: una fila nueva no se puede colocar sin volver a consultar.
+     * @param columna Columna por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param ids IDs a los que se limita (resultados de una búsqueda) o null para todas las actividades.
+     */
+    private static FuentePaginada fuenteOrdenada(int columna, boolean descendente, List<String> ids) {
+        ActividadDAO actividadDAO = new ActividadDAO();
+        return new FuentePaginada() {
             @Override
-            public boolean isCellEditable(int row, int column) {
+            public long contar(Session session) {
+                return ids == null ? actividadDAO.contarActividades(session) : ids.size();
+            }
+
+            @Override
+            public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+                List<Object[]> filas = new ArrayList<>(limite);
+                for (ActividadFila a : actividadDAO.listaActividades(session, columna, descendente, ids, despuesDe, limite)) {
+                    filas.add(filaActividad(a));
+                }
+                return filas;
+            }
+
+            @Override
+            public String claveEnPosicion(Session session, long posicion) {
+                return actividadDAO.idActividadEnPosicion(session, columna, descendente, ids, posicion);
+            }
+
+            @Override
+            public boolean ordenadaPorClave() {
                 return false;
             }
         };
-        vInicio.jTableActividades.setModel(modeloTablaActividades);
     }
 
     /**
-     * Define la estructura visual de la tabla: nombres de columnas, anchos y propiedades.
-     * Establece cabeceras como "Código", "Nombre", "Día", etc., y ajusta el tamaño de cada columna.
+     * Origen de las filas según la búsqueda y el orden elegidos en la cabecera.
+     */
+    private static FuentePaginada fuente() {
+        if (resultados == null) {
+            return orden.isDistintoDeClave() ? fuenteOrdenada(orden.getColumna(), orden.isDescendente(), null) : fuenteActividades();
+        }
+        // Sin orden elegido, los resultados van de más a menos relevante
+        return orden.getColumna() == OrdenCabecera.SIN_ORDEN ? fuenteResultados(resultados)
+                : fuenteOrdenada(orden.getColumna(), orden.isDescendente(), resultados);
+    }
+
+    /**
+     * Define la estructura visual de la tabla: anchos y propiedades.
+     * Ajusta el tamaño de cada columna.
      *
      * @param vInicio Vista principal de actividades.
      */
     public static void dibujarTablaActividades(VistaInicioActividades vInicio) {
-        String[] columnas = {"Código", "Nombre", "Día", "Hora", "Precio", "Monitor Resp.", "Descripción"};
-        modeloTablaActividades.setColumnIdentifiers(columnas);
-
         JTable t = vInicio.jTableActividades;
         t.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         t.getTableHeader().setResizingAllowed(false);
         t.getTableHeader().setReorderingAllowed(false);
-        t.setAutoCreateRowSorter(true);
 
         // Definición de anchos específicos para mejorar la visualización
-        int[] anchuras = {60, 150, 80, 50, 50, 200,400};
+        int[] anchuras = {60, 150, 80, 50, 50, 60, 200,400};
         TableColumnModel modeloColumna = t.getColumnModel();
 
         for (int i = 0; i < anchuras.length; i++) {
@@ -66,36 +170,89 @@ public class GestionTablasActividad {
     }
 
     /**
-     * Rellena la tabla con la lista de actividades proporcionada.
-     * Convierte cada objeto Actividad en una fila de la tabla.
+     * Rellena la tabla con todas las actividades.
+     * Se cuentan en segundo plano y las páginas se piden a medida que la tabla las muestra, en el orden
+     * elegido en la cabecera;
+     * las actividades sin monitor asignado muestran "Sin Asignar".
+     */
+    public static void rellenarTablaActividades() {
+        resultados = null;
+        modeloTablaActividades.setFuente(fuente());
+    }
+
+    /**
+     * Muestra en la tabla los resultados de una búsqueda, en el orden recibido o, si se ha elegido uno
+     * en la cabecera, en ese orden.
      *
-     * @param actividades Lista de actividades a mostrar en la tabla.
+     * @param ids IDs de las actividades encontradas, de más a menos relevante.
      */
-    public static void rellenarTablaActividades(List<Actividad> actividades) {
-        Object[] fila = new Object[7];
-        for (Actividad a : actividades) {
-            fila[0] = a.getIdActividad();
-            fila[1] = a.getNombre();
-            fila[2] = a.getDia();
-            fila[3] = a.getHora();
-            fila[4] = a.getPrecioBaseMes();
-            
-            // Verificamos si hay monitor asignado para evitar NullPointerException
-            if (a.getMonitorResponsable() != null) {
-                fila[5] = a.getMonitorResponsable().getNombre();
-            } else {
-                fila[5] = "Sin Asignar";
-            }
-            fila[6]=a.getDescripcion();
-            modeloTablaActividades.addRow(fila);
+    public static void mostrarResultados(List<String> ids) {
+        resultados = List.copyOf(ids);
+        modeloTablaActividades.setFuente(fuente());
+    }
+
+    /**
+     * Aplica a la tabla un alta, modificación o baja confirmada, tocando solo la fila de la actividad
+     * (se conservan la selección y el desplazamiento). Si la tabla está ordenada por una columna distinta de la
+     * clave, se recarga.
+     * @param cambio Cambio publicado por el repositorio.
+     */
+    public static void aplicarCambio(CambioDatos<ActividadFila> cambio) {
+        if (modeloTablaActividades == null) {
+            return;
+        }
+        // Ordenada por otra columna no se sabe en qué posición cae la fila nueva o cambiada, y las páginas
+        // parten de la última fila de la anterior: se vuelven a pedir las filas
+        // (un alta no forma parte de unos resultados de búsqueda)
+        if (orden.isDistintoDeClave()
+                && (resultados == null || cambio.getTipo() != CambioDatos.Tipo.ALTA)) {
+            modeloTablaActividades.recargar();
+            return;
+        }
+        switch (cambio.getTipo()) {
+            case ALTA:
+                modeloTablaActividades.insertarFila(filaActividad(cambio.getDatos()));
+                break;
+            case MODIFICACION:
+                modeloTablaActividades.actualizarFila(filaActividad(cambio.getDatos()));
+                break;
+            case BAJA:
+                modeloTablaActividades.quitarFila(cambio.getClave());
+                break;
+        }
+    }
+
+    /**
+     * Convierte una actividad en una fila de la tabla.
+     *
+     * @param a Datos de la actividad.
+     * @return Fila con las columnas de la tabla.
+     */
+    private static Object[] filaActividad(ActividadFila a) {
+        Object[] fila = new Object[8];
+        fila[0] = a.getIdActividad();
+        fila[1] = a.getNombre();
+        fila[2] = a.getDia();
+        fila[3] = a.getHora();
+        fila[4] = a.getPrecioBaseMes();
+        // Ocupadas/aforo, o solo las ocupadas si la actividad no tiene límite
+        fila[5] = a.getCapacidad() == null ? String.valueOf(a.getPlazasOcupadas())
+                : a.getPlazasOcupadas() + "/" + a.getCapacidad();
+
+        // Verificamos si hay monitor asignado
+        if (a.getNombreMonitor() != null) {
+            fila[6] = a.getNombreMonitor();
+        } else {
+            fila[6] = "Sin Asignar";
         }
+        fila[7] = a.getDescripcion();
+        return fila;
     }
 
     /**
      * Elimina todas las filas de la tabla para dejarla vacía.
-     * Útil antes de refrescar los datos tras una búsqueda o actualización.
      */
     public static void vaciarTablaActividades() {
-        modeloTablaActividades.setRowCount(0);
+        modeloTablaActividades.vaciar();
     }
 }
\ No newline at end of file
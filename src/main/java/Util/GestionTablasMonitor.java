@@ -1,12 +1,16 @@
 package Util;
 
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import java.util.List;
-import Modelo.Monitor;
-import Vista.VistaInicioMonitores; 
+import java.util.function.Consumer;
+import Modelo.CambioDatos;
+import Modelo.MonitorDAO;
+import Modelo.MonitorFila;
+import Vista.VistaInicioMonitores;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 
 /**
  * Clase de utilidad para la gestión y diseño de la tabla de Monitores.
@@ -20,41 +24,104 @@ public class GestionTablasMonitor {
     /**
      * Modelo de datos subyacente para la JTable de Monitores.
      */
-    public static DefaultTableModel modeloTablaMonitores;
+    public static ModeloTablaVirtual modeloTablaMonitores;
+
+    private static final String[] COLUMNAS = {"Código", "Nombre", "DNI", "Teléfono", "Correo", "Fecha Incorporación", "Nick"};
+    private static final TipoColumna[] TIPOS = {TipoColumna.TEXTO, TipoColumna.TEXTO, TipoColumna.TEXTO,
+        TipoColumna.TEXTO, TipoColumna.TEXTO, TipoColumna.FECHA, TipoColumna.TEXTO};
+
+    private static OrdenCabecera orden;
 
     /**
-     * Inicializa el modelo de la tabla y lo asigna a la vista.
-     * Configura la tabla para que las celdas no sean editables por el usuario.
-     *
-     * @param vInicio Vista principal de monitores que contiene la JTable.
+     * Origen paginado de las filas: los monitores por orden de código.
+     */
+    private static final FuentePaginada FUENTE_MONITORES = new FuentePaginada() {
+        private final MonitorDAO monitorDAO = new MonitorDAO();
+
+        @Override
+        public long contar(Session session) {
+            return monitorDAO.contarMonitores(session);
+        }
+
+        @Override
+        public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+            return monitorDAO.listaMonitores(session, despuesDe, limite);
+        }
+
+        @Override
+        public String claveEnPosicion(Session session, long posicion) {
+            return monitorDAO.codMonitorEnPosicion(session, posicion);
+        }
+    };
+
+    /**
+     * Origen paginado de los monitores ordenados por una columna (keyset sobre la columna y el código).
+     * Sus filas no van por orden de clave: una fila nueva no se puede colocar sin volver a consultar.
+     * @param columna Columna por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
      */
-    public static void inicializarTablaMonitores(VistaInicioMonitores vInicio) {
-        modeloTablaMonitores = new DefaultTableModel() {
+    private static FuentePaginada fuenteOrdenada(int columna, boolean descendente) {
+        MonitorDAO monitorDAO = new MonitorDAO();
+        return new FuentePaginada() {
+            @Override
+            public long contar(Session session) {
+                return monitorDAO.contarMonitores(session);
+            }
+
+            @Override
+            public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+                return monitorDAO.listaMonitores(session, columna, descendente, despuesDe, limite);
+            }
+
+            @Override
+            public String claveEnPosicion(Session session, long posicion) {
+                return monitorDAO.codMonitorEnPosicion(session, columna, descendente, posicion);
+            }
+
             @Override
-            public boolean isCellEditable(int row, int column) {
+            public boolean ordenadaPorClave() {
                 return false;
             }
         };
+    }
+
+    /**
+     * Origen de las filas según el orden elegido en la cabecera.
+     */
+    private static FuentePaginada fuente() {
+        return orden.isDistintoDeClave() ? fuenteOrdenada(orden.getColumna(), orden.isDescendente()) : FUENTE_MONITORES;
+    }
+
+    /**
+     * Inicializa el modelo virtual de la tabla y lo asigna a la vista.
+     * Las celdas no son editables y los monitores se cargan por páginas a medida que se muestran.
+     *
+     * @param vInicio Vista principal de monitores que contiene la JTable.
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param avisoError Recibe los errores de carga.
+     */
+    public static void inicializarTablaMonitores(VistaInicioMonitores vInicio, SessionFactory sessionFactory,
+            Consumer<Exception> avisoError) {
+        modeloTablaMonitores = new ModeloTablaVirtual(sessionFactory, COLUMNAS, TIPOS, FUENTE_MONITORES, avisoError);
+        // Un RowSorter leería todas las filas: el orden de la cabecera lo aplica la consulta de cada página
+        vInicio.jTableMonitores.setAutoCreateRowSorter(false);
+        vInicio.jTableMonitores.setRowSorter(null);
         vInicio.jTableMonitores.setModel(modeloTablaMonitores);
+        orden = new OrdenCabecera(vInicio.jTableMonitores, () -> modeloTablaMonitores.setFuente(fuente()));
     }
     
     /**
      * Define la estructura visual de la tabla: cabeceras y ancho de columnas.
-     * Establece los identificadores de columna ("Código", "Nombre", "DNI", etc.)
-     * y configura propiedades como el reordenamiento y el auto-ajuste.
+     * Configura propiedades como el reordenamiento y el auto-ajuste.
      *
      * @param vInicio Vista principal de monitores.
      */
     public static void dibujarTablaMonitores(VistaInicioMonitores vInicio) {
-        String[] columnas = {"Código", "Nombre", "DNI", "Teléfono", "Correo", "Fecha Incorporación", "Nick"};
-        modeloTablaMonitores.setColumnIdentifiers(columnas);
-
         JTable t = vInicio.jTableMonitores;
         
         t.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         t.getTableHeader().setResizingAllowed(false);
         t.getTableHeader().setReorderingAllowed(false);
-        t.setAutoCreateRowSorter(true); 
 
         // Configuración de anchos específicos para cada columna
         int[] anchuras = {60, 300, 100, 100, 250, 150, 100};
@@ -65,33 +132,61 @@ public class GestionTablasMonitor {
             columna.setMinWidth(anchuras[i]);
             columna.setPreferredWidth(anchuras[i]);
         }
+        // La fecha de incorporación llega como LocalDate
+        modeloColumna.getColumn(5).setCellRenderer(Fechas.renderizador());
     }
 
     /**
-     * Rellena la tabla con la lista de monitores proporcionada.
-     * Convierte cada objeto Monitor en una fila de la tabla.
-     *
-     * @param monitores Lista de monitores recuperados de la base de datos.
+     * Rellena la tabla: cuenta los monitores en segundo plano y las páginas se piden
+     * a la base de datos a medida que la tabla las muestra, en el orden elegido en la cabecera.
+     */
+    public static void rellenarTablaMonitores() {
+        modeloTablaMonitores.recargar();
+    }
+
+    /**
+     * Aplica a la tabla un alta, modificación o baja confirmada, tocando solo la fila del monitor
+     * (se conservan la selección y el desplazamiento). Si la tabla está ordenada por una columna distinta de la
+     * clave, se recarga.
+     * @param cambio Cambio publicado por el repositorio.
      */
-    public static void rellenarTablaMonitores(List<Monitor> monitores) {
-        Object[] fila = new Object[7];
-        for (Monitor monitor : monitores) {
-            fila[0] = monitor.getCodMonitor();
-            fila[1] = monitor.getNombre();
-            fila[2] = monitor.getDni();
-            fila[3] = monitor.getTelefono();
-            fila[4] = monitor.getCorreo();
-            fila[5] = monitor.getFechaEntrada();
-            fila[6] = monitor.getNick();
-            modeloTablaMonitores.addRow(fila);
+    public static void aplicarCambio(CambioDatos<MonitorFila> cambio) {
+        if (modeloTablaMonitores == null) {
+            return;
+        }
+        // Ordenada por otra columna no se sabe en qué posición cae la fila nueva o cambiada, y las páginas
+        // parten de la última fila de la anterior: se vuelven a pedir las filas
+        if (orden.isDistintoDeClave()) {
+            modeloTablaMonitores.recargar();
+            return;
         }
+        switch (cambio.getTipo()) {
+            case ALTA:
+                modeloTablaMonitores.insertarFila(filaMonitor(cambio.getDatos()));
+                break;
+            case MODIFICACION:
+                modeloTablaMonitores.actualizarFila(filaMonitor(cambio.getDatos()));
+                break;
+            case BAJA:
+                modeloTablaMonitores.quitarFila(cambio.getClave());
+                break;
+        }
+    }
+
+    /**
+     * Convierte un monitor en una fila de la tabla, en el mismo orden de columnas que las páginas leídas.
+     * @param m Datos del monitor.
+     * @return Fila con las columnas de la tabla.
+     */
+    private static Object[] filaMonitor(MonitorFila m) {
+        return new Object[]{m.getCodMonitor(), m.getNombre(), m.getDni(), m.getTelefono(), m.getCorreo(),
+            m.getFechaEntrada(), m.getNick()};
     }
 
     /**
      * Elimina todas las filas de la tabla.
-     * Se debe llamar antes de rellenar la tabla para evitar duplicados.
      */
     public static void vaciarTablaMonitores() {
-        modeloTablaMonitores.setRowCount(0);
+        modeloTablaMonitores.vaciar();
     }
 }
\ No newline at end of file
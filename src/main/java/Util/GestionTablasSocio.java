@@ -1,12 +1,16 @@
 package Util;
 
-import Modelo.Socio;
+import Modelo.CambioDatos;
+import Modelo.SocioDAO;
+import Modelo.SocioFila;
 import Vista.VistaInicioSocios;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 
 /**
  * Clase de utilidad para gestionar el modelo y diseño de la JTable de Socios.
@@ -14,20 +18,107 @@ import javax.swing.table.TableColumnModel;
  */
 public class GestionTablasSocio {
 
-    public static DefaultTableModel modeloTablaSocios;
+    public static ModeloTablaVirtual modeloTablaSocios;
+
+    private static final String[] COLUMNAS = {"Socio", "Nombre", "DNI", "Fecha Nac.", "Teléfono", "Correo", "Fecha Alta", "Cat."};
+    private static final TipoColumna[] TIPOS = {TipoColumna.TEXTO, TipoColumna.TEXTO, TipoColumna.TEXTO,
+        TipoColumna.FECHA, TipoColumna.TEXTO, TipoColumna.TEXTO, TipoColumna.FECHA, TipoColumna.CARACTER};
+
+    private static OrdenCabecera orden;
+    // Números de la búsqueda que se muestra, o null si se muestran todos los socios
+    private static List<String> resultados;
 
     /**
-     * Inicializa el modelo de la tabla, haciéndola no editable.
-     * @param vInicio Vista que contiene la tabla.
+     * Origen paginado de las filas: los socios por orden de número de socio.
      */
-    public static void inicializarTablaSocios(VistaInicioSocios vInicio) {
-        modeloTablaSocios = new DefaultTableModel() {
+    private static final FuentePaginada FUENTE_SOCIOS = new FuentePaginada() {
+        private final SocioDAO socioDAO = new SocioDAO();
+
+        @Override
+        public long contar(Session session) {
+            return socioDAO.contarSocios(session);
+        }
+
+        @Override
+        public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+            return socioDAO.listaSocios(session, despuesDe, limite);
+        }
+
+        @Override
+        public String claveEnPosicion(Session session, long posicion) {
+            return socioDAO.numeroSocioEnPosicion(session, posicion);
+        }
+    };
+
+    /**
+     * Origen paginado de los resultados de una búsqueda: los socios indicados, en su orden.
+     * @param numeros Números de los socios en el orden en que se muestran.
+     */
+    private static FuentePaginada fuenteResultados(List<String> numeros) {
+        SocioDAO socioDAO = new SocioDAO();
+        return new FuenteResultados(numeros, socioDAO::filasSocios);
+    }
+
+    /**
+     * Origen paginado de los socios ordenados por una columna (keyset sobre la columna y el número de socio).
+     * Sus filas no van por orden de clave: una fila nueva no se puede colocar sin volver a consultar.
+     * @param columna Columna por la que se ordena.
+     * @param descendente true para ordenar de mayor a menor.
+     * @param numeros Números a los que se limita (resultados de una búsqueda) o null para todos los socios.
+     */
+    private static FuentePaginada fuenteOrdenada(int columna, boolean descendente, List<String> numeros) {
+        SocioDAO socioDAO = new SocioDAO();
+        return new FuentePaginada() {
+            @Override
+            public long contar(Session session) {
+                return numeros == null ? socioDAO.contarSocios(session) : numeros.size();
+            }
+
+            @Override
+            public List<Object[]> pagina(Session session, String despuesDe, int limite) {
+                return socioDAO.listaSocios(session, columna, descendente, numeros, despuesDe, limite);
+            }
+
+            @Override
+            public String claveEnPosicion(Session session, long posicion) {
+                return socioDAO.numeroSocioEnPosicion(session, columna, descendente, numeros, posicion);
+            }
+
             @Override
-            public boolean isCellEditable(int row, int column) {
+            public boolean ordenadaPorClave() {
                 return false;
             }
         };
+    }
+
+    /**
+     * Origen de las filas según la búsqueda y el orden elegidos en la cabecera.
+     */
+    private static FuentePaginada fuente() {
+        if (resultados == null) {
+            return orden.isDistintoDeClave() ? fuenteOrdenada(orden.getColumna(), orden.isDescendente(), null) : FUENTE_SOCIOS;
+        }
+        // Sin orden elegido, los resultados van en el orden de la búsqueda
+        return orden.getColumna() == OrdenCabecera.SIN_ORDEN ? fuenteResultados(resultados)
+                : fuenteOrdenada(orden.getColumna(), orden.isDescendente(), resultados);
+    }
+
+    /**
+     * Inicializa el modelo virtual de la tabla (no editable), que carga los socios por páginas
+     * a medida que se muestran.
+     * @param vInicio Vista que contiene la tabla.
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param avisoError Recibe los errores de carga.
+     */
+    public static void inicializarTablaSocios(VistaInicioSocios vInicio, SessionFactory sessionFactory,
+            Consumer<Exception> avisoError) {
+        modeloTablaSocios = new ModeloTablaVirtual(sessionFactory, COLUMNAS, TIPOS, FUENTE_SOCIOS, avisoError);
+        resultados = null;
+        // Un RowSorter leería todas las filas: el orden de la cabecera lo aplica la consulta de cada página
+        vInicio.jTableSocios.setAutoCreateRowSorter(false);
+        vInicio.jTableSocios.setRowSorter(null);
         vInicio.jTableSocios.setModel(modeloTablaSocios);
+        orden = new OrdenCabecera(vInicio.jTableSocios, () -> modeloTablaSocios.setFuente(fuente()));
     }
 
     /**
@@ -35,14 +126,10 @@ public class GestionTablasSocio {
      * @param vInicio Vista que contiene la tabla.
      */
     public static void dibujarTablaSocios(VistaInicioSocios vInicio) {
-        String[] columnas = {"Socio", "Nombre", "DNI", "Fecha Nac.", "Teléfono", "Correo", "Fecha Alta", "Cat."};
-        modeloTablaSocios.setColumnIdentifiers(columnas);
-
         JTable t = vInicio.jTableSocios;
         t.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         t.getTableHeader().setResizingAllowed(false);
         t.getTableHeader().setReorderingAllowed(false);
-        t.setAutoCreateRowSorter(true);
 
         int[] anchuras = {50, 200, 90, 100, 90, 200, 100, 40};
         TableColumnModel modeloColumna = t.getColumnModel();
@@ -52,31 +139,75 @@ public class GestionTablasSocio {
             columna.setMinWidth(anchuras[i]);
             columna.setPreferredWidth(anchuras[i]);
         }
+        // Fecha de nacimiento y fecha de alta llegan como LocalDate
+        modeloColumna.getColumn(3).setCellRenderer(Fechas.renderizador());
+        modeloColumna.getColumn(6).setCellRenderer(Fechas.renderizador());
     }
 
     /**
-     * Rellena la tabla con la lista de socios proporcionada.
-     * @param socios Lista de socios a mostrar.
+     * Rellena la tabla: cuenta los socios en segundo plano y las páginas se piden al mostrarse,
+     * en el orden elegido en la cabecera.
      */
-    public static void rellenarTablaSocios(List<Socio> socios) {
-        Object[] fila = new Object[8];
-        for (Socio s : socios) {
-            fila[0] = s.getNumeroSocio();
-            fila[1] = s.getNombre();
-            fila[2] = s.getDni();
-            fila[3] = s.getFechaNacimiento();
-            fila[4] = s.getTelefono();
-            fila[5] = s.getCorreo();
-            fila[6] = s.getFechaEntrada();
-            fila[7] = s.getCategoria();
-            modeloTablaSocios.addRow(fila);
+    public static void rellenarTablaSocios() {
+        resultados = null;
+        modeloTablaSocios.setFuente(fuente());
+    }
+
+    /**
+     * Muestra en la tabla los resultados de una búsqueda, en el orden recibido o, si se ha elegido uno
+     * en la cabecera, en ese orden.
+     * @param numeros Números de los socios encontrados.
+     */
+    public static void mostrarResultados(List<String> numeros) {
+        resultados = List.copyOf(numeros);
+        modeloTablaSocios.setFuente(fuente());
+    }
+
+    /**
+     * Aplica a la tabla un alta, modificación o baja confirmada, tocando solo la fila del socio
+     * (se conservan la selección y el desplazamiento). Si la tabla está ordenada por una columna distinta de la
+     * clave, se recarga.
+     * @param cambio Cambio publicado por el repositorio.
+     */
+    public static void aplicarCambio(CambioDatos<SocioFila> cambio) {
+        if (modeloTablaSocios == null) {
+            return;
         }
+        // Ordenada por otra columna no se sabe en qué posición cae la fila nueva o cambiada, y las páginas
+        // parten de la última fila de la anterior: se vuelven a pedir las filas
+        // (un alta no forma parte de unos resultados de búsqueda)
+        if (orden.isDistintoDeClave()
+                && (resultados == null || cambio.getTipo() != CambioDatos.Tipo.ALTA)) {
+            modeloTablaSocios.recargar();
+            return;
+        }
+        switch (cambio.getTipo()) {
+            case ALTA:
+                modeloTablaSocios.insertarFila(filaSocio(cambio.getDatos()));
+                break;
+            case MODIFICACION:
+                modeloTablaSocios.actualizarFila(filaSocio(cambio.getDatos()));
+                break;
+            case BAJA:
+                modeloTablaSocios.quitarFila(cambio.getClave());
+                break;
+        }
+    }
+
+    /**
+     * Convierte un socio en una fila de la tabla, en el mismo orden de columnas que las páginas leídas.
+     * @param s Datos del socio.
+     * @return Fila con las columnas de la tabla.
+     */
+    private static Object[] filaSocio(SocioFila s) {
+        return new Object[]{s.getNumeroSocio(), s.getNombre(), s.getDni(), s.getFechaNacimiento(), s.getTelefono(),
+            s.getCorreo(), s.getFechaEntrada(), s.getCategoria()};
     }
 
     /**
      * Limpia todas las filas de la tabla.
      */
     public static void vaciarTablaSocios() {
-        modeloTablaSocios.setRowCount(0);
+        modeloTablaSocios.vaciar();
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package Util;
+
+import Modelo.EstadisticaActividad;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de la tabla del panel de estadísticas: una fila por actividad.
+ * Declara el tipo de cada columna para que la tabla ordene los números como números.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class ModeloTablaEstadisticas extends AbstractTableModel {
+
+    private static final String[] COLUMNAS = {"Código", "Nombre", "Socios", "Edad Media", "Cat. Frecuente", "Ingresos (€)"};
+    private static final Class<?>[] TIPOS = {String.class, String.class, Integer.class, Double.class, Character.class,
+        Double.class};
+
+    private List<EstadisticaActividad> filas = new ArrayList<>();
+
+    /**
+     * Sustituye las filas mostradas.
+     * @param estadisticas Estadísticas por actividad.
+     */
+    public void setFilas(List<EstadisticaActividad> estadisticas) {
+        this.filas = new ArrayList<>(estadisticas);
+        fireTableDataChanged();
+    }
+
+    /**
+     * @return Suma de socios inscritos de todas las filas.
+     */
+    public int getTotalSocios() {
+        return filas.stream().mapToInt(EstadisticaActividad::getNumSocios).sum();
+    }
+
+    /**
+     * @return Suma de ingresos mensuales de todas las filas.
+     */
+    public double getTotalIngresos() {
+        return filas.stream().mapToDouble(EstadisticaActividad::getIngresos).sum();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return TIPOS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        EstadisticaActividad e = filas.get(fila);
+        switch (columna) {
+            case 0: return e.getIdActividad();
+            case 1: return e.getNombre();
+            case 2: return e.getNumSocios();
+            case 3: return Math.round(e.getEdadMedia() * 10) / 10.0;
+            case 4: return e.getCategoriaFrecuente();
+            case 5: return Math.round(e.getIngresos() * 100) / 100.0;
+            default: return null;
+        }
+    }
+}
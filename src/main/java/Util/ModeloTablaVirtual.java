@@ -0,0 +1,423 @@
+package Util;
+
+import Config.EjecutorBD;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import org.hibernate.SessionFactory;
+
+/**
+ * Modelo de tabla virtual: solo conoce el número total de filas y va pidiendo a la base de datos
+ * las páginas que la tabla necesita pintar a medida que el usuario se desplaza.
+ * Las páginas se cargan en segundo plano ({@link EjecutorBD}) y se guardan en una caché limitada (LRU); mientras una
+ * página no ha llegado sus celdas se muestran vacías.
+ * Cada página en memoria se guarda por columnas ({@link BloqueColumnas}) según el {@link TipoColumna} de cada una:
+ * números, caracteres y fechas en arrays primitivos y los textos repetidos compartidos, sin un Object[] por fila.
+ * Tras un alta, modificación o baja no hace falta recargar: {@link #insertarFila}, {@link #actualizarFila} y
+ * {@link #quitarFila} localizan la fila por su clave (columna 0) con un índice clave -> fila de las páginas
+ * en memoria y emiten un único evento de fila, de modo que la tabla conserva la selección y el desplazamiento.
+ * Todo el estado se consulta y modifica en el hilo de eventos de Swing.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class ModeloTablaVirtual extends AbstractTableModel {
+
+    /**
+     * Filas que se piden a la base de datos en cada página.
+     */
+    public static final int TAMANO_PAGINA = 100;
+
+    /**
+     * Páginas que se mantienen en memoria como máximo.
+     */
+    public static final int MAXIMO_PAGINAS = 50;
+
+    private final SessionFactory sessionFactory;
+    private final String[] columnas;
+    private final TipoColumna[] tipos;
+    // Textos de las columnas TEXTO_REPETIDO, compartidos por todas las páginas
+    private final Map<String, String> textos = new HashMap<>();
+    private final Consumer<Exception> avisoError;
+    private FuentePaginada fuente;
+
+    private int filas;
+    private int generacion;
+    // Cambia con cada alta o baja: las páginas pedidas antes ya no encajan en su posición
+    private int estructura;
+    // Clave -> posición de las filas de las páginas en memoria
+    private final Map<String, Integer> filaPorClave = new HashMap<>();
+    private final Map<Integer, BloqueColumnas> paginas = new LinkedHashMap<Integer, BloqueColumnas>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BloqueColumnas> mayor) {
+            if (size() <= MAXIMO_PAGINAS) {
+                return false;
+            }
+            BloqueColumnas pagina = mayor.getValue();
+            for (int i = 0; i < pagina.size(); i++) {
+                filaPorClave.remove(pagina.clave(i));
+            }
+            return true;
+        }
+    };
+    // Página -> última clave de la página anterior (punto de partida del keyset)
+    private final Map<Integer, String> anclas = new HashMap<>();
+    private final Set<Integer> pendientes = new HashSet<>();
+    private final Set<Integer> fallidas = new HashSet<>();
+
+    /**
+     * Crea un modelo vacío. Los datos se cargan con {@link #recargar()}.
+     * @param sessionFactory Fábrica de sesiones de Hibernate.
+     * @param columnas Nombres de las columnas.
+     * @param tipos Tipo de los datos de cada columna; la columna 0 (clave) es de texto.
+     * @param fuente Origen de las filas.
+     * @param avisoError Recibe los errores de carga (se invoca en el hilo de eventos).
+     */
+    public ModeloTablaVirtual(SessionFactory sessionFactory, String[] columnas, TipoColumna[] tipos,
+            FuentePaginada fuente, Consumer<Exception> avisoError) {
+        if (tipos.length != columnas.length || tipos[0] != TipoColumna.TEXTO) {
+            throw new IllegalArgumentException("Tipos de columna no válidos para " + Arrays.toString(columnas));
+        }
+        this.sessionFactory = sessionFactory;
+        this.columnas = columnas;
+        this.tipos = tipos;
+        this.fuente = fuente;
+        this.avisoError = avisoError;
+    }
+
+    /**
+     * Cambia el origen de las filas (por ejemplo, al aplicar un filtro de búsqueda) y recarga la tabla.
+     * @param fuente Nuevo origen de las filas.
+     */
+    public void setFuente(FuentePaginada fuente) {
+        this.fuente = fuente;
+        recargar();
+    }
+
+    /**
+     * Descarta las páginas en memoria y vuelve a contar las filas. Las páginas visibles se piden
+     * de nuevo cuando la tabla se repinta.
+     */
+    public void recargar() {
+        vaciar();
+        final int gen = generacion;
+        EjecutorBD.enLectura(sessionFactory, fuente::contar).whenCompleteAsync((total, error) -> {
+            if (gen != generacion) return;
+            if (error != null) {
+                avisoError.accept(EjecutorBD.causa(error));
+                return;
+            }
+            filas = (int) Math.min(total, Integer.MAX_VALUE);
+            fireTableDataChanged();
+        }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Deja la tabla sin filas. Las cargas en curso se descartan al terminar.
+     */
+    public void vaciar() {
+        generacion++;
+        filas = 0;
+        paginas.clear();
+        filaPorClave.clear();
+        textos.clear();
+        anclas.clear();
+        pendientes.clear();
+        fallidas.clear();
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        int numPagina = fila / TAMANO_PAGINA;
+        BloqueColumnas pagina = paginas.get(numPagina);
+        if (pagina == null) {
+            solicitarPagina(numPagina);
+            return null;
+        }
+        int indice = fila % TAMANO_PAGINA;
+        return indice < pagina.size() ? pagina.valor(indice, columna) : null;
+    }
+
+    /**
+     * Sustituye la fila que tiene la misma clave, si está en memoria. Si no lo está no hace nada:
+     * se leerá ya cambiada cuando se muestre.
+     * @param fila Fila con los datos actuales, con la clave en la columna 0.
+     */
+    public void actualizarFila(Object[] fila) {
+        Integer posicion = filaPorClave.get(clave(fila));
+        if (posicion == null) {
+            return;
+        }
+        paginas.get(posicion / TAMANO_PAGINA).sustituir(posicion % TAMANO_PAGINA, fila);
+        fireTableRowsUpdated(posicion, posicion);
+    }
+
+    /**
+     * Inserta una fila nueva en la posición que le corresponde por su clave. Las filas siguientes que
+     * están en memoria se desplazan una posición; si la posición exacta no se conoce (cae entre páginas
+     * no cargadas), se descartan las páginas que quedan detrás y se vuelven a pedir al mostrarse.
+     * Si la tabla muestra los resultados de una búsqueda, la fila no forma parte de ellos y no se inserta.
+     * @param fila Fila nueva, con la clave en la columna 0.
+     */
+    public void insertarFila(Object[] fila) {
+        String clave = clave(fila);
+        if (filaPorClave.containsKey(clave)) {
+            // La página se leyó después del alta y ya la incluye
+            actualizarFila(fila);
+            return;
+        }
+        if (!fuente.ordenadaPorClave()) {
+            return;
+        }
+        estructura++;
+        int posicion = posicionPorClave(clave);
+        if (posicion < 0) {
+            int primeraDetras = paginaAnterior(clave) + 1;
+            descartarDesde(primeraDetras);
+            filas++;
+            reindexar();
+            // La posición real está en alguna página descartada: basta con avisar a partir de la primera
+            int aviso = Math.min(primeraDetras * TAMANO_PAGINA, filas - 1);
+            fireTableRowsInserted(aviso, aviso);
+            return;
+        }
+
+        int numPagina = posicion / TAMANO_PAGINA;
+        BloqueColumnas pagina = paginas.get(numPagina);
+        if (pagina == null) {
+            // Solo ocurre al añadir detrás de la última fila con la última página completa
+            pagina = nuevaPagina(TAMANO_PAGINA);
+            paginas.put(numPagina, pagina);
+        }
+        pagina.insertar(posicion % TAMANO_PAGINA, fila);
+        // La fila que ya no cabe pasa a la página siguiente, mientras esté en memoria
+        while (pagina.size() > TAMANO_PAGINA) {
+            Object[] sobrante = pagina.quitar(TAMANO_PAGINA);
+            BloqueColumnas siguiente = paginas.get(numPagina + 1);
+            if (siguiente == null) {
+                break;
+            }
+            siguiente.insertar(0, sobrante);
+            numPagina++;
+            pagina = siguiente;
+        }
+        filas++;
+        descartarDesde(numPagina + 1);
+        reindexar();
+        fireTableRowsInserted(posicion, posicion);
+    }
+
+    /**
+     * Quita la fila con la clave indicada. Las filas siguientes que están en memoria adelantan una posición;
+     * si la fila no está en memoria se descartan las páginas que quedan detrás de su clave.
+     * @param clave Clave de la fila.
+     */
+    public void quitarFila(String clave) {
+        Integer posicion = filaPorClave.get(clave);
+        if (posicion == null) {
+            // En unos resultados de búsqueda no se sabe si la fila estaba entre ellos
+            if (!fuente.ordenadaPorClave() || filas == 0) {
+                return;
+            }
+            estructura++;
+            int primeraDetras = paginaAnterior(clave) + 1;
+            descartarDesde(primeraDetras);
+            int aviso = Math.min(primeraDetras * TAMANO_PAGINA, filas - 1);
+            filas--;
+            reindexar();
+            fireTableRowsDeleted(aviso, aviso);
+            return;
+        }
+
+        estructura++;
+        int numPagina = posicion / TAMANO_PAGINA;
+        BloqueColumnas pagina = paginas.get(numPagina);
+        pagina.quitar(posicion % TAMANO_PAGINA);
+        // Cada página siguiente en memoria cede su primera fila a la anterior
+        BloqueColumnas siguiente;
+        while ((siguiente = paginas.get(numPagina + 1)) != null && !siguiente.isEmpty()) {
+            pagina.anadir(siguiente.quitar(0));
+            numPagina++;
+            pagina = siguiente;
+        }
+        filas--;
+        // A la última página desplazada le falta una fila que no está en memoria: se vuelve a pedir entera
+        boolean incompleta = pagina.size() < TAMANO_PAGINA && (long) numPagina * TAMANO_PAGINA + pagina.size() < filas;
+        descartarDesde(incompleta ? numPagina : numPagina + 1);
+        reindexar();
+        fireTableRowsDeleted(posicion, posicion);
+    }
+
+    /**
+     * Posición que corresponde a una clave que no está en la tabla, deducida de las páginas en memoria.
+     * @return La posición, o -1 si cae entre páginas no cargadas.
+     */
+    private int posicionPorClave(String clave) {
+        if (filas == 0) {
+            return 0;
+        }
+        TreeMap<Integer, BloqueColumnas> cargadas = new TreeMap<>(paginas);
+        for (Map.Entry<Integer, BloqueColumnas> e : cargadas.entrySet()) {
+            BloqueColumnas pagina = e.getValue();
+            if (pagina.isEmpty()) {
+                continue;
+            }
+            int inicio = e.getKey() * TAMANO_PAGINA;
+            if (clave.compareTo(pagina.clave(0)) < 0) {
+                // Antes de la página: es su primera posición si no hay filas anteriores sin cargar
+                return e.getKey() == 0 || cargadas.containsKey(e.getKey() - 1) ? inicio : -1;
+            }
+            if (clave.compareTo(pagina.clave(pagina.size() - 1)) < 0) {
+                return inicio + primeraMayor(pagina, clave);
+            }
+            if (inicio + pagina.size() >= filas) {
+                return filas;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return La última página en memoria cuyas filas van todas antes de la clave, o -1 si no hay ninguna.
+     */
+    private int paginaAnterior(String clave) {
+        int anterior = -1;
+        for (Map.Entry<Integer, BloqueColumnas> e : paginas.entrySet()) {
+            BloqueColumnas pagina = e.getValue();
+            if (!pagina.isEmpty() && pagina.clave(pagina.size() - 1).compareTo(clave) < 0) {
+                anterior = Math.max(anterior, e.getKey());
+            }
+        }
+        return anterior;
+    }
+
+    // Primera fila de la página con clave mayor que la indicada (búsqueda binaria)
+    private static int primeraMayor(BloqueColumnas pagina, String clave) {
+        int bajo = 0;
+        int alto = pagina.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (pagina.clave(medio).compareTo(clave) <= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Descarta las páginas a partir de una (sus filas ya no están en su posición) y los puntos de partida
+     * del keyset que dependen de ellas. Se vuelven a pedir cuando la tabla las muestra.
+     */
+    private void descartarDesde(int numPagina) {
+        paginas.keySet().removeIf(p -> p >= numPagina);
+        fallidas.removeIf(p -> p >= numPagina);
+        anclas.keySet().removeIf(p -> p > numPagina);
+        BloqueColumnas anterior = paginas.get(numPagina - 1);
+        if (anterior != null && anterior.size() == TAMANO_PAGINA) {
+            anclas.put(numPagina, anterior.clave(TAMANO_PAGINA - 1));
+        } else if (numPagina > 0) {
+            anclas.remove(numPagina);
+        }
+    }
+
+    // Vuelve a calcular la posición de cada fila en memoria tras un desplazamiento
+    private void reindexar() {
+        filaPorClave.clear();
+        for (Map.Entry<Integer, BloqueColumnas> e : paginas.entrySet()) {
+            int inicio = e.getKey() * TAMANO_PAGINA;
+            BloqueColumnas pagina = e.getValue();
+            for (int i = 0; i < pagina.size(); i++) {
+                filaPorClave.put(pagina.clave(i), inicio + i);
+            }
+        }
+    }
+
+    private BloqueColumnas nuevaPagina(int capacidad) {
+        return new BloqueColumnas(tipos, textos, capacidad);
+    }
+
+    private static String clave(Object[] fila) {
+        return (String) fila[0];
+    }
+
+    /**
+     * Pide una página en segundo plano si no está ya pedida. Si se conoce la última clave de la página
+     * anterior se usa directamente; si no (salto con la barra de desplazamiento), se busca primero.
+     */
+    private void solicitarPagina(int numPagina) {
+        if (pendientes.contains(numPagina) || fallidas.contains(numPagina)) return;
+        pendientes.add(numPagina);
+
+        final int gen = generacion;
+        final int est = estructura;
+        final FuentePaginada f = fuente;
+        final String ancla = numPagina == 0 ? "" : anclas.get(numPagina);
+        EjecutorBD.enLectura(sessionFactory, s -> {
+            String despuesDe = ancla;
+            if (despuesDe == null) {
+                despuesDe = f.claveEnPosicion(s, (long) numPagina * TAMANO_PAGINA - 1);
+                if (despuesDe == null) return List.<Object[]>of();
+            }
+            return f.pagina(s, despuesDe, TAMANO_PAGINA);
+        }).whenCompleteAsync((pagina, error) -> {
+            if (gen != generacion) return;
+            pendientes.remove(numPagina);
+            int primera = numPagina * TAMANO_PAGINA;
+            int ultima = Math.min(filas, primera + TAMANO_PAGINA) - 1;
+            if (est != estructura) {
+                // Se ha insertado o borrado una fila entretanto: se descarta y se vuelve a pedir al repintar
+                if (ultima >= primera) {
+                    fireTableRowsUpdated(primera, ultima);
+                }
+                return;
+            }
+            if (error != null) {
+                fallidas.add(numPagina);
+                avisoError.accept(EjecutorBD.causa(error));
+                return;
+            }
+            BloqueColumnas filasPagina = nuevaPagina(pagina.size());
+            filasPagina.anadirTodas(pagina);
+            paginas.put(numPagina, filasPagina);
+            for (int i = 0; i < filasPagina.size(); i++) {
+                filaPorClave.put(filasPagina.clave(i), primera + i);
+            }
+            if (!filasPagina.isEmpty()) {
+                anclas.put(numPagina + 1, filasPagina.clave(filasPagina.size() - 1));
+            }
+            if (ultima >= primera) {
+                fireTableRowsUpdated(primera, ultima);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+}
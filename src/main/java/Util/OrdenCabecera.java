@@ -0,0 +1,96 @@
+package Util;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+
+/**
+ * Orden por columnas de una tabla virtual ({@link ModeloTablaVirtual}) al pulsar en su cabecera.
+ * La tabla no tiene todas las filas en memoria y no puede ordenarlas ella misma (un RowSorter las leería todas):
+ * cada pulsación solo cambia la columna o el sentido y avisa para que se pidan a la base de datos ya ordenadas.
+ * Pulsar una columna la ordena de menor a mayor, la segunda vez de mayor a menor y la tercera quita el orden;
+ * la cabecera de la columna ordenada lleva ▲ o ▼.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class OrdenCabecera {
+
+    /**
+     * Columna cuando la tabla está en su orden por defecto.
+     */
+    public static final int SIN_ORDEN = -1;
+
+    private final JTable tabla;
+    private final Runnable alCambiar;
+    private int columna = SIN_ORDEN;
+    private boolean descendente;
+
+    /**
+     * Escucha las pulsaciones en la cabecera de la tabla.
+     * @param tabla Tabla con el modelo ya asignado.
+     * @param alCambiar Se invoca (en el hilo de eventos) cada vez que cambia el orden.
+     */
+    public OrdenCabecera(JTable tabla, Runnable alCambiar) {
+        this.tabla = tabla;
+        this.alCambiar = alCambiar;
+        tabla.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int vista = tabla.columnAtPoint(e.getPoint());
+                if (SwingUtilities.isLeftMouseButton(e) && vista >= 0) {
+                    pulsar(tabla.convertColumnIndexToModel(vista));
+                }
+            }
+        });
+    }
+
+    /**
+     * @return Columna del modelo por la que se ordena, o {@link #SIN_ORDEN}.
+     */
+    public int getColumna() {
+        return columna;
+    }
+
+    /**
+     * @return true si el orden es de mayor a menor.
+     */
+    public boolean isDescendente() {
+        return descendente;
+    }
+
+    /**
+     * Indica si se ha elegido un orden distinto del de la clave (columna 0 de menor a mayor), que es
+     * el que tienen las tablas por defecto.
+     * @return true si las filas deben pedirse ordenadas por otra columna o de mayor a menor.
+     */
+    public boolean isDistintoDeClave() {
+        return columna != SIN_ORDEN && (columna != 0 || descendente);
+    }
+
+    private void pulsar(int pulsada) {
+        if (pulsada != columna) {
+            columna = pulsada;
+            descendente = false;
+        } else if (!descendente) {
+            descendente = true;
+        } else {
+            columna = SIN_ORDEN;
+            descendente = false;
+        }
+        marcarCabecera();
+        alCambiar.run();
+    }
+
+    private void marcarCabecera() {
+        TableColumnModel columnas = tabla.getColumnModel();
+        for (int i = 0; i < columnas.getColumnCount(); i++) {
+            TableColumn c = columnas.getColumn(i);
+            String nombre = tabla.getModel().getColumnName(c.getModelIndex());
+            c.setHeaderValue(c.getModelIndex() == columna ? nombre + (descendente ? " ▼" : " ▲") : nombre);
+        }
+        tabla.getTableHeader().repaint();
+    }
+}
@@ -0,0 +1,83 @@
+package Util;
+
+import Config.EjecutorBD;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Peticiones a la base de datos lanzadas desde una vista.
+ * Entrega el resultado de cada operación en el hilo de eventos de Swing, descarta las peticiones
+ * que han quedado obsoletas (una nueva petición con la misma clave sustituye a la anterior) y muestra
+ * el cursor de espera sobre la vista mientras queda alguna en curso.
+ * Debe usarse siempre desde el hilo de eventos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public class PeticionesBD {
+
+    private final Component vista;
+    private final Map<String, CompletableFuture<?>> enCurso = new HashMap<>();
+    private int pendientes;
+
+    /**
+     * @param vista Componente sobre el que se muestra el cursor de espera.
+     */
+    public PeticionesBD(Component vista) {
+        this.vista = vista;
+    }
+
+    /**
+     * Espera el resultado de una operación sin sustituir a ninguna otra (altas, bajas, modificaciones).
+     *
+     * @param futuro Operación en curso, normalmente de {@link EjecutorBD}.
+     * @param alTerminar Recibe el resultado en el hilo de eventos.
+     * @param alFallar Recibe la causa del error en el hilo de eventos.
+     */
+    public <T> void lanzar(CompletableFuture<T> futuro, Consumer<? super T> alTerminar, Consumer<Exception> alFallar) {
+        lanzar(null, futuro, alTerminar, alFallar);
+    }
+
+    /**
+     * Espera el resultado de una operación de lectura. Si ya había otra en curso con la misma clave se
+     * cancela y su resultado se descarta, de modo que solo se aplica el de la última petición.
+     * No se debe usar para escrituras: la cancelación no detiene una transacción ya lanzada.
+     *
+     * @param clave Identifica las peticiones que se sustituyen entre sí (por ejemplo, "listas").
+     * @param futuro Operación en curso, normalmente de {@link EjecutorBD}.
+     * @param alTerminar Recibe el resultado en el hilo de eventos.
+     * @param alFallar Recibe la causa del error en el hilo de eventos.
+     */
+    public <T> void lanzar(String clave, CompletableFuture<T> futuro, Consumer<? super T> alTerminar,
+            Consumer<Exception> alFallar) {
+        if (clave != null) {
+            CompletableFuture<?> anterior = enCurso.put(clave, futuro);
+            if (anterior != null) {
+                anterior.cancel(false);
+            }
+        }
+        cambiarPendientes(1);
+
+        futuro.whenCompleteAsync((resultado, error) -> {
+            cambiarPendientes(-1);
+            if (clave != null) {
+                enCurso.remove(clave, futuro);
+            }
+            if (futuro.isCancelled()) return;
+            if (error == null) {
+                alTerminar.accept(resultado);
+            } else {
+                alFallar.accept(EjecutorBD.causa(error));
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    private void cambiarPendientes(int delta) {
+        pendientes += delta;
+        vista.setCursor(pendientes > 0 ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
+}
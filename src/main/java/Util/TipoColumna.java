@@ -0,0 +1,30 @@
+package Util;
+
+/**
+ * Tipo de los datos de una columna de {@link ModeloTablaVirtual}, que decide cómo se guarda en memoria.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+public enum TipoColumna {
+    /**
+     * Texto distinto en cada fila (nombres, DNI, correos...).
+     */
+    TEXTO,
+    /**
+     * Texto con pocos valores distintos que se repiten mucho (días, nombres de monitor...):
+     * cada valor se guarda una sola vez y las filas lo comparten.
+     */
+    TEXTO_REPETIDO,
+    /**
+     * Número entero, guardado sin envolver en un int[].
+     */
+    ENTERO,
+    /**
+     * Carácter, guardado sin envolver en un char[].
+     */
+    CARACTER,
+    /**
+     * Fecha (LocalDate), guardada como número de día en un int[].
+     */
+    FECHA
+}
@@ -0,0 +1,67 @@
+package Vista;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.Window;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.WindowConstants;
+
+/**
+ * Ventana de diagnóstico de rendimiento.
+ * Muestra una tabla con las medidas de cada operación de los DAOs y un resumen de las estadísticas
+ * de Hibernate, del pool de conexiones y de la caché de segundo nivel.
+ * @author Manuel Martín Rodrigo
+ */
+public class VistaDiagnostico extends JDialog {
+
+    public JTable tablaOperaciones;
+    public JTextArea textoResumen;
+    public JButton botonActualizar;
+    public JButton botonReiniciar;
+    public JButton botonCerrar;
+
+    /**
+     * Crea la ventana de diagnóstico (no modal) centrada sobre su ventana padre.
+     * @param padre Ventana sobre la que se muestra.
+     */
+    public VistaDiagnostico(Window padre) {
+        super(padre, "Diagnóstico", ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        tablaOperaciones = new JTable();
+        tablaOperaciones.setFillsViewportHeight(true);
+        textoResumen = new JTextArea(10, 80);
+        textoResumen.setEditable(false);
+        textoResumen.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        botonActualizar = new JButton("Actualizar");
+        botonReiniciar = new JButton("Reiniciar");
+        botonCerrar = new JButton("Cerrar");
+
+        JSplitPane division = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                new JScrollPane(tablaOperaciones), new JScrollPane(textoResumen));
+        division.setResizeWeight(0.6);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(division, BorderLayout.CENTER);
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        botones.add(botonActualizar);
+        botones.add(botonReiniciar);
+        botones.add(botonCerrar);
+        panel.add(botones, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setPreferredSize(new Dimension(900, 600));
+        pack();
+        setLocationRelativeTo(padre);
+    }
+}
@@ -0,0 +1,64 @@
+package Vista;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.WindowConstants;
+
+/**
+ * Panel de estadísticas de actividades.
+ * Muestra una tabla ordenable con los socios, la edad media, la categoría más frecuente y los ingresos
+ * de cada actividad, y los totales debajo.
+ * @author Manuel Martín Rodrigo
+ */
+public class VistaEstadisticas extends JDialog {
+
+    public JTable tablaEstadisticas;
+    public JLabel etiquetaTotales;
+    public JButton botonActualizar;
+    public JButton botonVerificar;
+    public JButton botonCerrar;
+
+    /**
+     * Crea el panel (no modal) centrado sobre su ventana padre.
+     * @param padre Ventana sobre la que se muestra.
+     */
+    public VistaEstadisticas(Window padre) {
+        super(padre, "Estadísticas de Actividades", ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        tablaEstadisticas = new JTable();
+        tablaEstadisticas.setAutoCreateRowSorter(true);
+        tablaEstadisticas.setFillsViewportHeight(true);
+        etiquetaTotales = new JLabel(" ");
+        botonActualizar = new JButton("Actualizar");
+        botonVerificar = new JButton("Verificar");
+        botonVerificar.setToolTipText("Compara con las inscripciones y repara las diferencias");
+        botonCerrar = new JButton("Cerrar");
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(new JScrollPane(tablaEstadisticas), BorderLayout.CENTER);
+        JPanel pie = new JPanel(new BorderLayout());
+        pie.add(etiquetaTotales, BorderLayout.WEST);
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        botones.add(botonActualizar);
+        botones.add(botonVerificar);
+        botones.add(botonCerrar);
+        pie.add(botones, BorderLayout.EAST);
+        panel.add(pie, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setPreferredSize(new Dimension(750, 450));
+        pack();
+        setLocationRelativeTo(padre);
+    }
+}
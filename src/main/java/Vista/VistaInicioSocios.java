@@ -28,6 +28,8 @@ public class VistaInicioSocios extends javax.swing.JPanel {
         nuevoSocio = new javax.swing.JButton();
         bajaSocio = new javax.swing.JButton();
         actualizarSocio = new javax.swing.JButton();
+        jLabel1 = new javax.swing.JLabel();
+        textoBuscar = new javax.swing.JTextField();
 
         jTableSocios.setModel(new javax.swing.table.DefaultTableModel(
             new Object [][] {
@@ -53,6 +55,10 @@ public class VistaInicioSocios extends javax.swing.JPanel {
 
         actualizarSocio.setText("Actualización de Socio");
 
+        jLabel1.setText("Buscar Socio");
+
+        textoBuscar.setToolTipText("Nombre, DNI, teléfono o correo");
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
         this.setLayout(layout);
         layout.setHorizontalGroup(
@@ -66,10 +72,21 @@ public class VistaInicioSocios extends javax.swing.JPanel {
                 .addGap(98, 98, 98)
                 .addComponent(actualizarSocio)
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+            .addGroup(layout.createSequentialGroup()
+                .addGap(19, 19, 19)
+                .addComponent(jLabel1)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(textoBuscar, javax.swing.GroupLayout.PREFERRED_SIZE, 220, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
         layout.setVerticalGroup(
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel1)
+                    .addComponent(textoBuscar, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jScrollPane2, javax.swing.GroupLayout.PREFERRED_SIZE, 279, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
@@ -87,8 +104,10 @@ public class VistaInicioSocios extends javax.swing.JPanel {
     // Variables declaration - do not modify//GEN-BEGIN:variables
     public javax.swing.JButton actualizarSocio;
     public javax.swing.JButton bajaSocio;
+    private javax.swing.JLabel jLabel1;
     private javax.swing.JScrollPane jScrollPane2;
     public javax.swing.JTable jTableSocios;
     public javax.swing.JButton nuevoSocio;
+    public javax.swing.JTextField textoBuscar;
     // End of variables declaration//GEN-END:variables
 }
@@ -0,0 +1,81 @@
+package Vista;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+import java.awt.Window;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.WindowConstants;
+
+/**
+ * Ventana de inscripción masiva: inscribe o da de baja de una actividad a todos los socios
+ * seleccionados a la vez, y muestra el resultado de cada uno.
+ * @author Manuel Martín Rodrigo
+ */
+public class VistaInscripcionMasiva extends JDialog {
+
+    public JComboBox<String> comboActividades;
+    public JList<String> listaSocios;
+    public JTextArea areaResultados;
+    public JButton botonInscribir;
+    public JButton botonBaja;
+    public JButton botonCerrar;
+
+    /**
+     * Crea la ventana (no modal) centrada sobre su ventana padre.
+     * @param padre Ventana sobre la que se muestra.
+     */
+    public VistaInscripcionMasiva(Window padre) {
+        super(padre, "Inscripción masiva", ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        comboActividades = new JComboBox<>();
+        listaSocios = new JList<>();
+        listaSocios.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        areaResultados = new JTextArea();
+        areaResultados.setEditable(false);
+        botonInscribir = new JButton("Inscribir seleccionados");
+        botonBaja = new JButton("Dar de baja seleccionados");
+        botonCerrar = new JButton("Cerrar");
+
+        JPanel cabecera = new JPanel(new BorderLayout(10, 0));
+        cabecera.add(new JLabel("Actividad"), BorderLayout.WEST);
+        cabecera.add(comboActividades, BorderLayout.CENTER);
+
+        JPanel centro = new JPanel(new GridLayout(1, 2, 10, 0));
+        JPanel socios = new JPanel(new BorderLayout(0, 5));
+        socios.add(new JLabel("Socios (Ctrl/Mayús para seleccionar varios)"), BorderLayout.NORTH);
+        socios.add(new JScrollPane(listaSocios), BorderLayout.CENTER);
+        JPanel resultados = new JPanel(new BorderLayout(0, 5));
+        resultados.add(new JLabel("Resultado"), BorderLayout.NORTH);
+        resultados.add(new JScrollPane(areaResultados), BorderLayout.CENTER);
+        centro.add(socios);
+        centro.add(resultados);
+
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        botones.add(botonInscribir);
+        botones.add(botonBaja);
+        botones.add(botonCerrar);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(cabecera, BorderLayout.NORTH);
+        panel.add(centro, BorderLayout.CENTER);
+        panel.add(botones, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setPreferredSize(new Dimension(700, 450));
+        pack();
+        setLocationRelativeTo(padre);
+    }
+}
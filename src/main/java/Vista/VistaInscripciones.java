@@ -29,6 +29,7 @@ public class VistaInscripciones extends javax.swing.JPanel {
         jLabel3 = new javax.swing.JLabel();
         botonAlta = new javax.swing.JButton();
         botonBaja = new javax.swing.JButton();
+        botonMasiva = new javax.swing.JButton();
         jScrollPane1 = new javax.swing.JScrollPane();
         listaActividadesNoInscritas = new javax.swing.JList<>();
         jScrollPane2 = new javax.swing.JScrollPane();
@@ -46,6 +47,8 @@ public class VistaInscripciones extends javax.swing.JPanel {
 
         botonBaja.setText("Dar de Baja");
 
+        botonMasiva.setText("Inscripción masiva");
+
         listaActividadesNoInscritas.setModel(new javax.swing.AbstractListModel<String>() {
             String[] strings = { "Item 1", "Item 2", "Item 3", "Item 4", "Item 5" };
             public int getSize() { return strings.length; }
@@ -78,7 +81,8 @@ public class VistaInscripciones extends javax.swing.JPanel {
                         .addGap(178, 178, 178)
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(botonAlta)
-                            .addComponent(botonBaja, javax.swing.GroupLayout.Alignment.TRAILING))
+                            .addComponent(botonBaja, javax.swing.GroupLayout.Alignment.TRAILING)
+                            .addComponent(botonMasiva))
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, 12, Short.MAX_VALUE)
                         .addComponent(jScrollPane1, javax.swing.GroupLayout.PREFERRED_SIZE, 140, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addContainerGap())
@@ -103,7 +107,9 @@ public class VistaInscripciones extends javax.swing.JPanel {
                 .addComponent(botonAlta)
                 .addGap(18, 18, 18)
                 .addComponent(botonBaja)
-                .addGap(78, 78, 78))
+                .addGap(18, 18, 18)
+                .addComponent(botonMasiva)
+                .addGap(37, 37, 37))
             .addGroup(javax.swing.GroupLayout.Alignment.TRAILING, layout.createSequentialGroup()
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addComponent(jScrollPane1, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
@@ -120,6 +126,7 @@ public class VistaInscripciones extends javax.swing.JPanel {
     // Variables declaration - do not modify//GEN-BEGIN:variables
     public javax.swing.JButton botonAlta;
     public javax.swing.JButton botonBaja;
+    public javax.swing.JButton botonMasiva;
     public javax.swing.JComboBox<String> comboSocios;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
@@ -41,6 +41,8 @@ public class VistaPrincipal extends javax.swing.JFrame {
         menuItemGestionActividades = new javax.swing.JMenuItem();
         menuInscripciones = new javax.swing.JMenu();
         menuItemInscripciones = new javax.swing.JMenuItem();
+        menuDiagnostico = new javax.swing.JMenu();
+        menuItemDiagnostico = new javax.swing.JMenuItem();
         menuSalir = new javax.swing.JMenu();
         menuItemSalir = new javax.swing.JMenuItem();
 
@@ -105,6 +107,13 @@ public class VistaPrincipal extends javax.swing.JFrame {
 
         menuBar.add(menuInscripciones);
 
+        menuDiagnostico.setText("Diagnóstico");
+
+        menuItemDiagnostico.setText("Rendimiento de consultas");
+        menuDiagnostico.add(menuItemDiagnostico);
+
+        menuBar.add(menuDiagnostico);
+
         menuSalir.setText("Salir");
 
         menuItemSalir.setText("Salir");
@@ -144,9 +153,11 @@ public class VistaPrincipal extends javax.swing.JFrame {
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JMenu jMenu1;
     public javax.swing.JMenu menuActividades;
+    public javax.swing.JMenu menuDiagnostico;
     public javax.swing.JMenuBar menuBar;
     public javax.swing.JMenu menuInicio;
     public javax.swing.JMenu menuInscripciones;
+    public javax.swing.JMenuItem menuItemDiagnostico;
     public javax.swing.JMenuItem menuItemGestionActividades;
     public javax.swing.JMenuItem menuItemGestionMonitores;
     public javax.swing.JMenuItem menuItemGestionSocios;
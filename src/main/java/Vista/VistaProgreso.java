@@ -0,0 +1,60 @@
+package Vista;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.WindowConstants;
+
+/**
+ * Ventana de progreso para tareas largas que se ejecutan en segundo plano.
+ * Muestra el paso actual, una barra de progreso y un botón para cancelar la tarea.
+ * @author Manuel Martín Rodrigo
+ */
+public class VistaProgreso extends JDialog {
+
+    public JLabel etiquetaEstado;
+    public JProgressBar barraProgreso;
+    public JButton botonCancelar;
+
+    /**
+     * Crea la ventana de progreso (no modal) centrada sobre su ventana padre.
+     * @param padre Ventana sobre la que se muestra.
+     * @param titulo Título de la ventana.
+     */
+    public VistaProgreso(Window padre, String titulo) {
+        super(padre, titulo, ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        etiquetaEstado = new JLabel(" ");
+        barraProgreso = new JProgressBar(0, 100);
+        barraProgreso.setStringPainted(true);
+        botonCancelar = new JButton("Cancelar");
+
+        JPanel panel = new JPanel(new BorderLayout(0, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        panel.add(etiquetaEstado, BorderLayout.NORTH);
+        panel.add(barraProgreso, BorderLayout.CENTER);
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        botones.add(botonCancelar);
+        panel.add(botones, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setSize(380, 140);
+        setResizable(false);
+        setLocationRelativeTo(padre);
+    }
+
+    /**
+     * Actualiza el texto del paso en curso.
+     * @param texto Descripción del paso.
+     */
+    public void mostrarEstado(String texto) {
+        etiquetaEstado.setText(texto);
+    }
+}
@@ -0,0 +1,65 @@
+-- Tablas de la aplicación. Se crean solo si no existen, de modo que el script se puede aplicar
+-- tanto a una base de datos vacía como a una creada a mano antes de existir las migraciones.
+
+CREATE TABLE IF NOT EXISTS MONITOR (
+    codMonitor VARCHAR(10) NOT NULL PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    dni VARCHAR(9) NOT NULL,
+    telefono VARCHAR(9),
+    correo VARCHAR(50),
+    fechaEntrada DATE NOT NULL,
+    nick VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS SOCIO (
+    numeroSocio VARCHAR(10) NOT NULL PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    dni VARCHAR(9) NOT NULL,
+    fechaNacimiento DATE,
+    telefono VARCHAR(9),
+    correo VARCHAR(50),
+    fechaEntrada DATE NOT NULL,
+    categoria CHAR(1) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ACTIVIDAD (
+    idActividad VARCHAR(10) NOT NULL PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    dia VARCHAR(10) NOT NULL,
+    hora INT NOT NULL,
+    descripcion VARCHAR(200),
+    precioBaseMes INT NOT NULL,
+    monitorResponsable VARCHAR(10),
+    CONSTRAINT fk_actividad_monitor FOREIGN KEY (monitorResponsable) REFERENCES MONITOR (codMonitor)
+);
+
+CREATE TABLE IF NOT EXISTS REALIZA (
+    idActividad VARCHAR(10) NOT NULL,
+    numeroSocio VARCHAR(10) NOT NULL,
+    PRIMARY KEY (idActividad, numeroSocio),
+    CONSTRAINT fk_realiza_actividad FOREIGN KEY (idActividad) REFERENCES ACTIVIDAD (idActividad),
+    CONSTRAINT fk_realiza_socio FOREIGN KEY (numeroSocio) REFERENCES SOCIO (numeroSocio)
+);
+
+-- Secuencias de códigos (S, M, ACT) repartidas por bloques por GeneradorCodigos.
+-- "siguiente" es el primer número aún no reservado por ningún cliente.
+CREATE TABLE IF NOT EXISTS SECUENCIA (
+    nombre VARCHAR(20) NOT NULL PRIMARY KEY,
+    siguiente BIGINT NOT NULL
+);
+
+-- Estadísticas materializadas por actividad, mantenidas por EstadisticaActividadDAO en cada
+-- inscripción, baja y cambio de precio (se rellena sola al iniciar sesión si está vacía).
+CREATE TABLE IF NOT EXISTS ESTADISTICA_ACTIVIDAD (
+    idActividad VARCHAR(10) NOT NULL PRIMARY KEY,
+    numSocios INT NOT NULL DEFAULT 0,
+    catA INT NOT NULL DEFAULT 0,
+    catB INT NOT NULL DEFAULT 0,
+    catC INT NOT NULL DEFAULT 0,
+    catD INT NOT NULL DEFAULT 0,
+    catE INT NOT NULL DEFAULT 0,
+    catOtra INT NOT NULL DEFAULT 0,
+    sociosConFecha INT NOT NULL DEFAULT 0,
+    sumaDiasNacimiento BIGINT NOT NULL DEFAULT 0,
+    ingresos DECIMAL(14,2) NOT NULL DEFAULT 0
+);
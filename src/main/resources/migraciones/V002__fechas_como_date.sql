@@ -0,0 +1,32 @@
+-- Convierte las fechas de SOCIO y MONITOR guardadas como texto "dd/MM/yyyy" a columnas DATE.
+-- Solo actúa sobre las columnas que aún no son DATE, así que no hace nada en una base de datos
+-- creada con V001. Cada valor se reescribe antes en formato ISO (yyyy-mm-dd), que MariaDB convierte
+-- a DATE al cambiar el tipo sin mover la columna. Un texto que no sea una fecha válida deja la
+-- fecha de nacimiento a NULL; en las fechas de alta (obligatorias) hace fallar la migración.
+
+DELIMITER //
+
+BEGIN NOT ATOMIC
+    IF (SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = 'SOCIO' AND COLUMN_NAME = 'fechaNacimiento') <> 'date' THEN
+        UPDATE SOCIO
+        SET fechaNacimiento = DATE_FORMAT(STR_TO_DATE(NULLIF(TRIM(fechaNacimiento), ''), '%d/%m/%Y'), '%Y-%m-%d');
+        ALTER TABLE SOCIO MODIFY fechaNacimiento DATE NULL;
+    END IF;
+
+    IF (SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = 'SOCIO' AND COLUMN_NAME = 'fechaEntrada') <> 'date' THEN
+        UPDATE SOCIO
+        SET fechaEntrada = DATE_FORMAT(STR_TO_DATE(TRIM(fechaEntrada), '%d/%m/%Y'), '%Y-%m-%d');
+        ALTER TABLE SOCIO MODIFY fechaEntrada DATE NOT NULL;
+    END IF;
+
+    IF (SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()
+            AND TABLE_NAME = 'MONITOR' AND COLUMN_NAME = 'fechaEntrada') <> 'date' THEN
+        UPDATE MONITOR
+        SET fechaEntrada = DATE_FORMAT(STR_TO_DATE(TRIM(fechaEntrada), '%d/%m/%Y'), '%Y-%m-%d');
+        ALTER TABLE MONITOR MODIFY fechaEntrada DATE NOT NULL;
+    END IF;
+END//
+
+DELIMITER ;
@@ -0,0 +1,21 @@
+-- Restricciones únicas e índices de las búsquedas frecuentes de los DAOs.
+-- IF NOT EXISTS permite aplicarlo sobre bases de datos en las que ya se crearon algunos a mano.
+-- Si hay datos duplicados, la creación del índice único falla y la migración queda pendiente.
+
+-- SocioDAO.buscarPorDni / existeSocio y MonitorDAO.buscarPorDni: un DNI por persona.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_socio_dni ON SOCIO (dni);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_monitor_dni ON MONITOR (dni);
+
+-- Un monitor no puede dar dos actividades el mismo día a la misma hora. HorarioMonitores comprueba los
+-- choques en memoria y reconoce por su nombre (HorarioMonitores.RESTRICCION) el error de este índice cuando
+-- otro puesto ocupa la franja a la vez. Sirve también a la clave foránea del monitor.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_actividad_monitor_horario ON ACTIVIDAD (monitorResponsable, dia, hora);
+
+-- Actividades de un socio: la clave primaria de REALIZA empieza por idActividad y no sirve para
+-- buscar por numeroSocio. Con las dos columnas el índice cubre la consulta.
+CREATE INDEX IF NOT EXISTS idx_realiza_socio ON REALIZA (numeroSocio, idActividad);
+
+-- Consultas por intervalo de fechas de SocioDAO y MonitorDAO (edad, alta y antigüedad).
+CREATE INDEX IF NOT EXISTS idx_socio_fecha_nacimiento ON SOCIO (fechaNacimiento);
+CREATE INDEX IF NOT EXISTS idx_socio_fecha_entrada ON SOCIO (fechaEntrada);
+CREATE INDEX IF NOT EXISTS idx_monitor_fecha_entrada ON MONITOR (fechaEntrada);
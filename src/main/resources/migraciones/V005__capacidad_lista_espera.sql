@@ -0,0 +1,25 @@
+-- Aforo de las actividades y lista de espera.
+-- capacidad: plazas de la actividad (NULL = sin límite).
+-- plazasOcupadas: número de filas de REALIZA de la actividad, mantenido por InscripcionDAO en cada
+-- inscripción y baja para no contar REALIZA al comprobar si queda sitio.
+-- version: control de concurrencia optimista (@Version de Actividad); cada inscripción o baja la incrementa.
+ALTER TABLE ACTIVIDAD
+    ADD COLUMN IF NOT EXISTS capacidad INT NULL,
+    ADD COLUMN IF NOT EXISTS plazasOcupadas INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
+
+UPDATE ACTIVIDAD a
+SET a.plazasOcupadas = (SELECT COUNT(*) FROM REALIZA r WHERE r.idActividad = a.idActividad);
+
+-- Socios en espera de plaza. El orden de llegada lo da el id autoincremental: al quedar una plaza libre
+-- se inscribe al de id más bajo. Si se borra la actividad o el socio, su espera deja de tener sentido.
+CREATE TABLE IF NOT EXISTS LISTA_ESPERA (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    idActividad VARCHAR(10) NOT NULL,
+    numeroSocio VARCHAR(10) NOT NULL,
+    fecha DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_lista_espera_socio UNIQUE (idActividad, numeroSocio),
+    CONSTRAINT fk_lista_espera_actividad FOREIGN KEY (idActividad) REFERENCES ACTIVIDAD (idActividad) ON DELETE CASCADE,
+    CONSTRAINT fk_lista_espera_socio FOREIGN KEY (numeroSocio) REFERENCES SOCIO (numeroSocio) ON DELETE CASCADE,
+    INDEX idx_lista_espera_orden (idActividad, id)
+);
@@ -0,0 +1,37 @@
+-- Códigos con el número de ancho fijo (S000042, M000007, ACT000013), como los genera GeneradorCodigos.
+-- Las tablas se paginan por orden alfabético de la clave; con un mínimo de tres cifras S1000 quedaba
+-- entre S100 y S101. Se rellenan con ceros los códigos existentes.
+
+-- Las claves foráneas pasan a actualizarse en cascada, de modo que basta cambiar la clave en la tabla principal.
+ALTER TABLE REALIZA
+    DROP FOREIGN KEY IF EXISTS fk_realiza_actividad,
+    DROP FOREIGN KEY IF EXISTS fk_realiza_socio;
+ALTER TABLE REALIZA
+    ADD CONSTRAINT fk_realiza_actividad FOREIGN KEY (idActividad) REFERENCES ACTIVIDAD (idActividad) ON UPDATE CASCADE,
+    ADD CONSTRAINT fk_realiza_socio FOREIGN KEY (numeroSocio) REFERENCES SOCIO (numeroSocio) ON UPDATE CASCADE;
+
+ALTER TABLE LISTA_ESPERA
+    DROP FOREIGN KEY IF EXISTS fk_lista_espera_actividad,
+    DROP FOREIGN KEY IF EXISTS fk_lista_espera_socio;
+ALTER TABLE LISTA_ESPERA
+    ADD CONSTRAINT fk_lista_espera_actividad FOREIGN KEY (idActividad) REFERENCES ACTIVIDAD (idActividad)
+        ON DELETE CASCADE ON UPDATE CASCADE,
+    ADD CONSTRAINT fk_lista_espera_socio FOREIGN KEY (numeroSocio) REFERENCES SOCIO (numeroSocio)
+        ON DELETE CASCADE ON UPDATE CASCADE;
+
+ALTER TABLE ACTIVIDAD DROP FOREIGN KEY IF EXISTS fk_actividad_monitor;
+ALTER TABLE ACTIVIDAD
+    ADD CONSTRAINT fk_actividad_monitor FOREIGN KEY (monitorResponsable) REFERENCES MONITOR (codMonitor) ON UPDATE CASCADE;
+
+UPDATE SOCIO SET numeroSocio = CONCAT('S', LPAD(SUBSTRING(numeroSocio, 2), 6, '0'))
+WHERE numeroSocio REGEXP '^S[0-9]{1,5}$';
+
+UPDATE MONITOR SET codMonitor = CONCAT('M', LPAD(SUBSTRING(codMonitor, 2), 6, '0'))
+WHERE codMonitor REGEXP '^M[0-9]{1,5}$';
+
+-- ESTADISTICA_ACTIVIDAD no tiene clave foránea: se actualiza aparte
+UPDATE ESTADISTICA_ACTIVIDAD SET idActividad = CONCAT('ACT', LPAD(SUBSTRING(idActividad, 4), 6, '0'))
+WHERE idActividad REGEXP '^ACT[0-9]{1,5}$';
+
+UPDATE ACTIVIDAD SET idActividad = CONCAT('ACT', LPAD(SUBSTRING(idActividad, 4), 6, '0'))
+WHERE idActividad REGEXP '^ACT[0-9]{1,5}$';
@@ -0,0 +1,83 @@
+package Config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la división en sentencias de los scripts de {@link MigradorEsquema}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class MigradorEsquemaTest {
+
+    @Test
+    void separaPorPuntoYComaYDescartaLasVacias() {
+        assertEquals(List.of("CREATE TABLE A (x INT)", "INSERT INTO A VALUES (1)"),
+                MigradorEsquema.sentencias("CREATE TABLE A (x INT);\n;\n  INSERT INTO A VALUES (1);\n\n"));
+    }
+
+    @Test
+    void laUltimaSentenciaNoNecesitaSeparador() {
+        assertEquals(List.of("SELECT 1", "SELECT 2"), MigradorEsquema.sentencias("SELECT 1;\nSELECT 2"));
+    }
+
+    @Test
+    void noCortaDentroDeCadenas() {
+        String script = "INSERT INTO A VALUES ('a;b', \"c;d\", 'it''s;', 'x\\';y');\nSELECT `a;b` FROM A;";
+        assertEquals(List.of("INSERT INTO A VALUES ('a;b', \"c;d\", 'it''s;', 'x\\';y')", "SELECT `a;b` FROM A"),
+                MigradorEsquema.sentencias(script));
+    }
+
+    @Test
+    void descartaLosComentariosDeLineaYConservaLosDeBloque() {
+        String script = "-- Tabla; de prueba\nCREATE TABLE A (x INT); # otro; comentario\n"
+                + "CREATE /* sin; cortar */ TABLE B (y INT);";
+        assertEquals(List.of("CREATE TABLE A (x INT)", "CREATE /* sin; cortar */ TABLE B (y INT)"),
+                MigradorEsquema.sentencias(script));
+    }
+
+    @Test
+    void delimiterCambiaElSeparadorHastaQueSeRestaura() {
+        String script = "SELECT 0;\n"
+                + "DELIMITER //\n"
+                + "CREATE PROCEDURE p()\nBEGIN\n    SELECT 1;\n    SELECT 2;\nEND//\n"
+                + "delimiter ;\n"
+                + "SELECT 3;";
+        assertEquals(List.of("SELECT 0", "CREATE PROCEDURE p()\nBEGIN\n    SELECT 1;\n    SELECT 2;\nEND", "SELECT 3"),
+                MigradorEsquema.sentencias(script));
+    }
+
+    @Test
+    void delimiterSoloCuentaAlPrincipioDeUnaLinea() {
+        assertEquals(List.of("SELECT 'DELIMITER //'", "SELECT 1"),
+                MigradorEsquema.sentencias("SELECT 'DELIMITER //';\nSELECT 1;"));
+    }
+
+    @Test
+    void admiteSaltosDeLineaDeWindows() {
+        String script = "DELIMITER $$\r\nCREATE PROCEDURE p()\r\nBEGIN\r\n    SELECT 1;\r\nEND$$\r\nDELIMITER ;\r\nSELECT 2;\r\n";
+        assertEquals(List.of("CREATE PROCEDURE p()\r\nBEGIN\r\n    SELECT 1;\r\nEND", "SELECT 2"),
+                MigradorEsquema.sentencias(script));
+    }
+
+    @Test
+    void elProcedimientoDeEstadisticasEsUnaSolaSentencia() throws IOException {
+        List<String> sentencias = MigradorEsquema.sentencias(leer("V004__procedimiento_estadisticas.sql"));
+        assertEquals(2, sentencias.size());
+        assertEquals("DROP PROCEDURE IF EXISTS sp_estadisticas_actividad", sentencias.get(0));
+        assertTrue(sentencias.get(1).startsWith("CREATE PROCEDURE sp_estadisticas_actividad("));
+        assertTrue(sentencias.get(1).replace("\r\n", "\n").endsWith("END IF;\nEND"));
+    }
+
+    private static String leer(String script) throws IOException {
+        try (InputStream in = MigradorEsquema.class.getClassLoader().getResourceAsStream("migraciones/" + script)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
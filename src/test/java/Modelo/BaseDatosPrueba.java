@@ -0,0 +1,38 @@
+package Modelo;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+/**
+ * SessionFactory de pruebas sobre una base de datos H2 en memoria, con el esquema generado
+ * a partir de las entidades. Cada llamada crea una base de datos vacía con su propio nombre.
+ * H2 se abre en modo MariaDB para que acepte el SQL nativo de los DAOs (INSERT IGNORE...).
+ *
+ * @author Manuel Martín Rodrigo
+ */
+final class BaseDatosPrueba {
+
+    private static int contador;
+
+    private BaseDatosPrueba() {
+    }
+
+    /**
+     * @param loteJdbc Valor de "hibernate.jdbc.batch_size".
+     * @return Una SessionFactory sobre una base de datos nueva.
+     */
+    static synchronized SessionFactory crear(int loteJdbc) {
+        return new Configuration()
+                .addAnnotatedClass(Monitor.class)
+                .addAnnotatedClass(Actividad.class)
+                .addAnnotatedClass(Socio.class)
+                .setProperty("hibernate.connection.driver_class", "org.h2.Driver")
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:prueba" + (++contador) + ";MODE=MariaDB;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(loteJdbc))
+                .setProperty("hibernate.cache.use_second_level_cache", "false")
+                .setProperty("hibernate.cache.use_query_cache", "false")
+                .buildSessionFactory();
+    }
+}
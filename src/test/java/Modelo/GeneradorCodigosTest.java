@@ -0,0 +1,118 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del reparto por bloques de {@link GeneradorCodigos}. La tabla SECUENCIA se sustituye
+ * por un contador en memoria con la misma semántica que el UPDATE de la reserva.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class GeneradorCodigosTest {
+
+    /**
+     * Generador cuya reserva suma el tamaño de bloque a un contador compartido, como haría
+     * la tabla SECUENCIA entre varios puestos.
+     */
+    private static final class GeneradorEnMemoria extends GeneradorCodigos {
+        private final AtomicLong siguiente;
+        private final int tamanoBloque;
+        final AtomicInteger reservas = new AtomicInteger();
+        volatile boolean fallar;
+
+        GeneradorEnMemoria(AtomicLong siguiente, int tamanoBloque) {
+            super(null, tamanoBloque);
+            this.siguiente = siguiente;
+            this.tamanoBloque = tamanoBloque;
+        }
+
+        @Override
+        CompletableFuture<Long> reservarBloque(Secuencia secuencia) {
+            reservas.incrementAndGet();
+            if (fallar) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Sin conexión"));
+            }
+            return CompletableFuture.supplyAsync(() -> siguiente.addAndGet(tamanoBloque));
+        }
+    }
+
+    @Test
+    void reparteLosNumerosDeCadaBloqueEnOrden() {
+        GeneradorEnMemoria generador = new GeneradorEnMemoria(new AtomicLong(1), 3);
+        List<String> codigos = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            codigos.add(generador.siguiente(GeneradorCodigos.Secuencia.SOCIO).join());
+        }
+        assertEquals(List.of("S000001", "S000002", "S000003", "S000004", "S000005", "S000006", "S000007"), codigos);
+        assertEquals(3, generador.reservas.get());
+    }
+
+    @Test
+    void cadaSecuenciaTieneSuPropioBloque() {
+        GeneradorEnMemoria generador = new GeneradorEnMemoria(new AtomicLong(1), 5);
+        assertEquals("S000001", generador.siguiente(GeneradorCodigos.Secuencia.SOCIO).join());
+        assertEquals("M000006", generador.siguiente(GeneradorCodigos.Secuencia.MONITOR).join());
+        assertEquals("S000002", generador.siguiente(GeneradorCodigos.Secuencia.SOCIO).join());
+        assertEquals(2, generador.reservas.get());
+    }
+
+    @Test
+    void dosPuestosNuncaRecibenElMismoCodigo() throws Exception {
+        AtomicLong secuencia = new AtomicLong(1);
+        GeneradorEnMemoria puesto1 = new GeneradorEnMemoria(secuencia, 4);
+        GeneradorEnMemoria puesto2 = new GeneradorEnMemoria(secuencia, 4);
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> pedidos = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                GeneradorEnMemoria puesto = i % 2 == 0 ? puesto1 : puesto2;
+                pedidos.add(hilos.submit(() -> puesto.siguiente(GeneradorCodigos.Secuencia.ACTIVIDAD).join()));
+            }
+            Set<String> codigos = new HashSet<>();
+            for (Future<String> pedido : pedidos) {
+                assertTrue(codigos.add(pedido.get()), "Código repetido");
+            }
+        } finally {
+            hilos.shutdown();
+        }
+        // Cada puesto pide 200 códigos: 50 bloques de 4, y una recarga no se solapa con otra
+        assertEquals(50, puesto1.reservas.get());
+        assertEquals(50, puesto2.reservas.get());
+    }
+
+    @Test
+    void unaReservaFallidaSeReintentaEnLaSiguientePeticion() {
+        GeneradorEnMemoria generador = new GeneradorEnMemoria(new AtomicLong(1), 2);
+        generador.fallar = true;
+        assertThrows(CompletionException.class, () -> generador.siguiente(GeneradorCodigos.Secuencia.SOCIO).join());
+        generador.fallar = false;
+        assertEquals("S000001", generador.siguiente(GeneradorCodigos.Secuencia.SOCIO).join());
+    }
+
+    @Test
+    void formateaConCifrasFijas() {
+        assertEquals("ACT000042", GeneradorCodigos.Secuencia.ACTIVIDAD.formatear(42));
+        assertEquals("M999999", GeneradorCodigos.Secuencia.MONITOR.formatear(999_999));
+        assertThrows(IllegalStateException.class, () -> GeneradorCodigos.Secuencia.MONITOR.formatear(1_000_000));
+    }
+
+    @Test
+    void rechazaUnTamanoDeBloqueNoPositivo() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorCodigos(null, 0));
+    }
+}
@@ -0,0 +1,120 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del mapa de bits de ocupación de {@link HorarioMonitores}.
+ * El horario se carga de una base de datos con M1 dando ACT1 el lunes a las 10 y ACT2 el domingo a las 22.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class HorarioMonitoresTest {
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private final HorarioMonitores horario = new HorarioMonitores();
+
+    @BeforeEach
+    void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+        session = sessionFactory.openSession();
+        Transaction tx = session.beginTransaction();
+        Monitor m1 = new Monitor("M1", "Monitor 1", "00000001A", LocalDate.of(2024, 1, 1));
+        session.persist(m1);
+        session.persist(new Monitor("M2", "Monitor 2", "00000002B", LocalDate.of(2024, 1, 1)));
+        session.persist(new Actividad("ACT1", "Pilates", "Lunes", 10, null, 20, m1));
+        session.persist(new Actividad("ACT2", "Yoga", "Domingo", 22, null, 20, m1));
+        tx.commit();
+        session.clear();
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void cargaElHorarioYDetectaLosChoques() {
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, null));
+        assertTrue(horario.hayChoque(session, "M1", "Domingo", 22, null));
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 11, null));
+        assertFalse(horario.hayChoque(session, "M1", "Martes", 10, null));
+        assertFalse(horario.hayChoque(session, "M2", "Lunes", 10, null));
+        assertFalse(horario.hayChoque(session, null, "Lunes", 10, null));
+    }
+
+    @Test
+    void laActividadEditadaNoChocaConSuPropiaFranja() {
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 10, "ACT1"));
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, "ACT2"));
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, "ACT9"));
+    }
+
+    @Test
+    void lasFranjasAAmbosLadosDelPrimerLongSonIndependientes() {
+        horario.hayChoque(session, "M2", "Lunes", 8, null);
+        // Viernes a las 11 es la franja 63 (último bit del primer long) y a las 12 la 64 (primer bit del segundo)
+        horario.colocar("ACT3", "M2", "Viernes", 11);
+        assertTrue(horario.hayChoque(session, "M2", "Viernes", 11, null));
+        assertFalse(horario.hayChoque(session, "M2", "Viernes", 12, null));
+        horario.quitar("ACT3");
+        horario.colocar("ACT3", "M2", "Viernes", 12);
+        assertFalse(horario.hayChoque(session, "M2", "Viernes", 11, null));
+        assertTrue(horario.hayChoque(session, "M2", "Viernes", 12, null));
+    }
+
+    @Test
+    void colocarMueveLaActividadYQuitarLaLibera() {
+        horario.hayChoque(session, "M1", "Lunes", 10, null);
+        horario.colocar("ACT1", "M2", "Martes", 9);
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 10, null));
+        assertTrue(horario.hayChoque(session, "M2", "Martes", 9, null));
+
+        horario.quitar("ACT1");
+        assertFalse(horario.hayChoque(session, "M2", "Martes", 9, null));
+        assertTrue(horario.hayChoque(session, "M1", "Domingo", 22, null));
+    }
+
+    @Test
+    void fueraDelHorarioNoHayChoques() {
+        horario.hayChoque(session, "M1", "Lunes", 10, null);
+        horario.colocar("ACT3", "M1", "Lunes", 23);
+        horario.colocar("ACT4", "M1", "Festivo", 10);
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 23, null));
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 7, null));
+        assertFalse(horario.hayChoque(session, "M1", "Festivo", 10, null));
+        // La franja de las 10 del lunes sigue siendo de ACT1
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, null));
+    }
+
+    @Test
+    void sinCargarSeIgnoranLosCambiosYTrasInvalidarSeRecarga() {
+        horario.colocar("ACT1", "M2", "Martes", 9);
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, null));
+        assertFalse(horario.hayChoque(session, "M2", "Martes", 9, null));
+
+        horario.quitar("ACT1");
+        assertFalse(horario.hayChoque(session, "M1", "Lunes", 10, null));
+        horario.invalidar();
+        assertTrue(horario.hayChoque(session, "M1", "Lunes", 10, null));
+    }
+
+    @Test
+    void reconoceElErrorDelIndiceUnico() {
+        Exception error = new RuntimeException("Error en la transacción",
+                new IllegalStateException("Duplicate entry 'M1-Lunes-10' for key '" + HorarioMonitores.RESTRICCION + "'"));
+        assertTrue(HorarioMonitores.esChoque(error));
+        assertFalse(HorarioMonitores.esChoque(new RuntimeException("Duplicate entry 'ACT1' for key 'PRIMARY'")));
+        assertFalse(HorarioMonitores.esChoque(new RuntimeException()));
+    }
+}
@@ -0,0 +1,118 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del índice invertido de {@link IndiceActividades}, cargado de una base de datos H2 en memoria.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class IndiceActividadesTest {
+
+    private SessionFactory sessionFactory;
+    private final IndiceActividades indice = new IndiceActividades();
+
+    @BeforeEach
+    void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void normalizaLosTerminos() {
+        assertEquals("martin ae", IndiceActividades.normalizar("Martín ÁÉ"));
+        assertEquals(List.of("clas", "natacion"), IndiceActividades.terminos("Clases de Natación"));
+        assertEquals(List.of("clas", "yoga", "bici"), IndiceActividades.terminos("clase: Yoga, y bici"));
+        assertEquals(List.of(), IndiceActividades.terminos("de la para"));
+        assertEquals(List.of(), IndiceActividades.terminos(null));
+    }
+
+    @Test
+    void elNombrePesaMasQueLaDescripcion() {
+        cargar(actividad("ACT1", "Pilates", "Estiramientos tras la natación"),
+                actividad("ACT2", "Natación", "Clases de natación para adultos"),
+                actividad("ACT3", "Yoga", null));
+
+        assertEquals(List.of("ACT2", "ACT1"), indice.buscar("natacion "));
+        assertEquals(List.of("ACT2"), indice.buscar("clase natacion "));
+    }
+
+    @Test
+    void elUltimoTerminoEsUnPrefijoSalvoQueAcabeEnEspacio() {
+        cargar(actividad("ACT1", "Pilates", "Estiramientos tras la natación"),
+                actividad("ACT2", "Natación", null));
+
+        assertEquals(List.of("ACT2", "ACT1"), indice.buscar("nata"));
+        assertEquals(List.of(), indice.buscar("nata "));
+        assertEquals(List.of("ACT1"), indice.buscar("natacion pila"));
+        assertEquals(List.of(), indice.buscar("pila natacion"));
+    }
+
+    @Test
+    void exigeTodosLosTerminosYDesempataPorId() {
+        cargar(actividad("ACT4", "Yoga", "Para principiantes"),
+                actividad("ACT3", "Yoga", "Avanzado"),
+                actividad("ACT5", "Spinning", null));
+
+        assertEquals(List.of("ACT3", "ACT4"), indice.buscar("yoga"));
+        assertEquals(List.of("ACT4"), indice.buscar("yoga principiante"));
+        assertEquals(List.of(), indice.buscar("yoga spinning"));
+        assertEquals(List.of(), indice.buscar("de la "));
+    }
+
+    @Test
+    void seMantieneAlDiaConLasAltasModificacionesYBajas() {
+        cargar(actividad("ACT1", "Pilates", null),
+                actividad("ACT2", "Yoga", null));
+
+        indice.indexar("ACT3", "Pilates suelo", null);
+        indice.indexar("ACT2", "Yoga y pilates", null);
+        indice.quitar("ACT1");
+
+        assertEquals(List.of("ACT2", "ACT3"), indice.buscar("pilates"));
+        assertEquals(List.of("ACT2"), indice.buscar("yoga"));
+        indice.indexar("ACT2", "Estiramientos", null);
+        assertEquals(List.of(), indice.buscar("yoga"));
+    }
+
+    @Test
+    void losCambiosAnterioresALaCargaSeIgnoran() {
+        indice.indexar("ACT9", "Boxeo", null);
+        assertFalse(indice.estaCargado());
+
+        cargar(actividad("ACT1", "Pilates", null));
+        assertTrue(indice.estaCargado());
+        assertEquals(List.of(), indice.buscar("boxeo"));
+        assertEquals(List.of("ACT1"), indice.buscar("pilates"));
+    }
+
+    private void cargar(Actividad... actividades) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (Actividad a : actividades) {
+                session.persist(a);
+            }
+            tx.commit();
+            session.clear();
+            assertEquals(actividades.length, indice.cargar(session));
+        }
+    }
+
+    private static Actividad actividad(String id, String nombre, String descripcion) {
+        return new Actividad(id, nombre, "Lunes", 10, descripcion, 20, null);
+    }
+}
@@ -0,0 +1,143 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la búsqueda por prefijo de {@link IndiceSocios}, cargado de una base de datos H2 en memoria.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class IndiceSociosTest {
+
+    private static final LocalDate ALTA = LocalDate.of(2024, 1, 1);
+
+    private SessionFactory sessionFactory;
+    private final IndiceSocios indice = new IndiceSocios();
+
+    @BeforeEach
+    void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void buscaPorElPrincipioDeCualquierCampo() {
+        cargar(socio("S1", "María García López", "12345678Z", "600111222", "maria@correo.es"),
+                socio("S2", "Mario Garcés", "87654321X", "699000000", "mgarces@correo.es"),
+                socio("S3", "Ana García", "11111111H", "600999888", null));
+
+        assertEquals(List.of("S2", "S1", "S3"), indice.buscar("gar", 50));
+        assertEquals(List.of("S1", "S2"), indice.buscar("mari", 50));
+        assertEquals(List.of("S1"), indice.buscar("MARÍA", 50));
+        assertEquals(List.of("S2"), indice.buscar("8765", 50));
+        assertEquals(List.of("S1"), indice.buscar("maria@correo", 50));
+        assertEquals(List.of(), indice.buscar("arcia", 50));
+    }
+
+    @Test
+    void cadaPalabraDebeCoincidirConAlgunaClave() {
+        cargar(socio("S1", "María García López", "12345678Z", "600111222", null),
+                socio("S2", "Mario Garcés", "87654321X", "699000000", null),
+                socio("S3", "Ana García", "11111111H", "600999888", null));
+
+        assertEquals(List.of("S1", "S3"), indice.buscar("garcia 600", 50));
+        assertEquals(List.of("S3"), indice.buscar("  600   ana ", 50));
+        assertEquals(List.of(), indice.buscar("garcia 699", 50));
+    }
+
+    @Test
+    void respetaElLimiteYNoDevuelveRepetidos() {
+        cargar(socio("S1", "Garcia Garcia", "12345678Z", null, "garcia@correo.es"),
+                socio("S2", "Ana García", "87654321X", null, null));
+
+        assertEquals(List.of("S1", "S2"), indice.buscar("garcia", 50));
+        assertEquals(List.of("S1"), indice.buscar("garcia", 1));
+        assertEquals(List.of(), indice.buscar("garcia", 0));
+        assertEquals(List.of(), indice.buscar("   ", 50));
+        assertEquals(List.of(), indice.buscar(null, 50));
+    }
+
+    @Test
+    void seMantieneAlDiaConLosCambiosConfirmados() {
+        cargar(socio("S1", "María García", "12345678Z", null, null),
+                socio("S2", "Mario Garcés", "87654321X", null, null));
+
+        indice.aplicarCambio(CambioDatos.alta("S3", fila("S3", "Gara Ruiz", "11111111H")));
+        indice.aplicarCambio(CambioDatos.modificacion("S2", fila("S2", "Mario Pérez", "87654321X")));
+        indice.aplicarCambio(CambioDatos.baja("S1"));
+
+        assertEquals(List.of("S3"), indice.buscar("gar", 50));
+        assertEquals(List.of("S2"), indice.buscar("perez", 50));
+        assertEquals(List.of("S2"), indice.buscar("mari", 50));
+        assertEquals(List.of(), indice.buscar("1234", 50));
+    }
+
+    @Test
+    void creceYEncogeAlIndexarYQuitarMuchosSocios() {
+        cargar();
+        for (int i = 1; i <= 40; i++) {
+            indice.indexar(fila(String.format("S%02d", i), "Socio Número" + i, String.format("%08dA", i)));
+        }
+        assertEquals(40, indice.buscar("socio", 50).size());
+        for (int i = 1; i <= 40; i += 2) {
+            indice.quitar(String.format("S%02d", i));
+        }
+        List<String> pares = new ArrayList<>();
+        for (int i = 2; i <= 40; i += 2) {
+            pares.add(String.format("S%02d", i));
+        }
+        assertEquals(pares, indice.buscar("socio", 50));
+        assertEquals(List.of("S12"), indice.buscar("numero12", 50));
+        assertEquals(List.of(), indice.buscar("numero11", 50));
+    }
+
+    @Test
+    void losCambiosAnterioresALaCargaSeIgnoran() {
+        indice.indexar(fila("S9", "Socio Fantasma", "99999999R"));
+        assertFalse(indice.estaCargado());
+        assertTrue(indice.estaCaducado());
+
+        cargar(socio("S1", "Socio Real", "12345678Z", null, null));
+        assertTrue(indice.estaCargado());
+        assertFalse(indice.estaCaducado());
+        assertEquals(List.of("S1"), indice.buscar("socio", 50));
+    }
+
+    private void cargar(Socio... socios) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (Socio s : socios) {
+                session.persist(s);
+            }
+            tx.commit();
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            assertEquals(socios.length, indice.cargar(session));
+        }
+    }
+
+    private static Socio socio(String numero, String nombre, String dni, String telefono, String correo) {
+        return new Socio(numero, nombre, dni, null, telefono, correo, ALTA, 'A');
+    }
+
+    private static SocioFila fila(String numero, String nombre, String dni) {
+        return new SocioFila(numero, nombre, dni, null, null, null, ALTA, 'A');
+    }
+}
@@ -0,0 +1,218 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del aforo y la lista de espera de {@link InscripcionDAO} sobre una base de datos H2 en memoria.
+ * La actividad ACT1 tiene 2 plazas y hay cinco socios, S1 a S5.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class InscripcionDAOTest {
+
+    // LISTA_ESPERA no es una entidad: se crea como en la migración V005
+    private static final String SQL_LISTA_ESPERA = "CREATE TABLE LISTA_ESPERA ("
+            + "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+            + "idActividad VARCHAR(10) NOT NULL, "
+            + "numeroSocio VARCHAR(10) NOT NULL, "
+            + "fecha DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+            + "CONSTRAINT uq_lista_espera_socio UNIQUE (idActividad, numeroSocio))";
+
+    private SessionFactory sessionFactory;
+    private final InscripcionDAO inscripcionDAO = new InscripcionDAO();
+
+    @BeforeEach
+    void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+        enTransaccion(session -> {
+            session.createNativeQuery(SQL_LISTA_ESPERA).executeUpdate();
+            Actividad actividad = new Actividad("ACT1", "Pilates", "Lunes", 10, null, 20, null);
+            actividad.setCapacidad(2);
+            session.persist(actividad);
+            for (int i = 1; i <= 5; i++) {
+                session.persist(new Socio("S" + i, "Socio " + i, String.format("%08dX", i), LocalDate.of(2024, 1, 1), 'A'));
+            }
+            return null;
+        });
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void sinPlazasLosSiguientesPasanALaListaDeEspera() {
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3", "S4", "S1", "S9")));
+
+        assertEquals(List.of("S1", "S2", "S3", "S4", "S9"), List.copyOf(resultado.keySet()));
+        assertEquals(ResultadoInscripcion.INSCRITO, resultado.get("S1"));
+        assertEquals(ResultadoInscripcion.INSCRITO, resultado.get("S2"));
+        assertEquals(ResultadoInscripcion.EN_LISTA_ESPERA, resultado.get("S3"));
+        assertEquals(ResultadoInscripcion.EN_LISTA_ESPERA, resultado.get("S4"));
+        assertEquals(ResultadoInscripcion.SOCIO_INEXISTENTE, resultado.get("S9"));
+        assertEquals(List.of("S1", "S2"), inscritos());
+        assertEquals(List.of("S3", "S4"), enEspera());
+        assertEquals(2, plazasOcupadas());
+    }
+
+    @Test
+    void losQueYaEstanNoSeVuelvenAInscribirNiAEsperar() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3")));
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S3")));
+
+        assertEquals(ResultadoInscripcion.YA_INSCRITO, resultado.get("S1"));
+        assertEquals(ResultadoInscripcion.YA_EN_LISTA_ESPERA, resultado.get("S3"));
+        assertEquals(List.of("S3"), enEspera());
+        assertEquals(2, plazasOcupadas());
+    }
+
+    @Test
+    void cadaBajaPromueveAlPrimeroDeLaListaPorOrdenDeLlegada() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2")));
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S5")));
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S3")));
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.darDeBaja(session, "ACT1", List.of("S1")));
+
+        assertEquals(Map.of("S1", ResultadoInscripcion.DADO_DE_BAJA, "S5", ResultadoInscripcion.PROMOCIONADO), resultado);
+        assertEquals(List.of("S2", "S5"), inscritos());
+        assertEquals(List.of("S3"), enEspera());
+        assertEquals(2, plazasOcupadas());
+    }
+
+    @Test
+    void salirDeLaListaDeEsperaNoLiberaPlaza() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3", "S4")));
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.darDeBaja(session, "ACT1", List.of("S3", "S5")));
+
+        assertEquals(Map.of("S3", ResultadoInscripcion.SALE_DE_LISTA_ESPERA, "S5", ResultadoInscripcion.NO_INSCRITO),
+                resultado);
+        assertEquals(List.of("S1", "S2"), inscritos());
+        assertEquals(List.of("S4"), enEspera());
+        assertEquals(2, plazasOcupadas());
+    }
+
+    @Test
+    void laBajaDeVariosPromueveComoMaximoLasPlazasLibres() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3")));
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.darDeBaja(session, "ACT1", List.of("S1", "S2")));
+
+        assertEquals(ResultadoInscripcion.PROMOCIONADO, resultado.get("S3"));
+        assertEquals(List.of("S3"), inscritos());
+        assertEquals(List.of(), enEspera());
+        assertEquals(1, plazasOcupadas());
+    }
+
+    @Test
+    void conUnSocioCargadoLaActividadCompletaLoPoneEnEspera() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2")));
+
+        assertEquals(ResultadoInscripcion.EN_LISTA_ESPERA, enTransaccion(session -> inscripcionDAO.inscribir(
+                session, session.get(Actividad.class, "ACT1"), session.get(Socio.class, "S3"))));
+        assertEquals(ResultadoInscripcion.YA_EN_LISTA_ESPERA, enTransaccion(session -> inscripcionDAO.inscribir(
+                session, session.get(Actividad.class, "ACT1"), session.get(Socio.class, "S3"))));
+        assertEquals(ResultadoInscripcion.YA_INSCRITO, enTransaccion(session -> inscripcionDAO.inscribir(
+                session, session.get(Actividad.class, "ACT1"), session.get(Socio.class, "S1"))));
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(session -> inscripcionDAO.darDeBaja(
+                session, session.get(Actividad.class, "ACT1"), session.get(Socio.class, "S2")));
+
+        assertEquals(Map.of("S2", ResultadoInscripcion.DADO_DE_BAJA, "S3", ResultadoInscripcion.PROMOCIONADO), resultado);
+        assertEquals(List.of("S1", "S3"), inscritos());
+        assertEquals(List.of(), enEspera());
+        assertEquals(2, plazasOcupadas());
+    }
+
+    @Test
+    void alAmpliarElAforoSePromuevenLosPrimerosDeLaLista() {
+        enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3", "S4", "S5")));
+
+        List<String> promovidos = enTransaccion(session -> {
+            Actividad actividad = session.get(Actividad.class, "ACT1");
+            actividad.setCapacidad(4);
+            return inscripcionDAO.promover(session, actividad);
+        });
+
+        assertEquals(List.of("S3", "S4"), promovidos);
+        assertEquals(List.of("S5"), enEspera());
+        assertEquals(4, plazasOcupadas());
+        assertEquals(List.of(), enTransaccion(session -> inscripcionDAO.promover(session, session.get(Actividad.class, "ACT1"))));
+    }
+
+    @Test
+    void sinAforoNoHayListaDeEspera() {
+        enTransaccion(session -> {
+            session.get(Actividad.class, "ACT1").setCapacidad(null);
+            return null;
+        });
+
+        Map<String, ResultadoInscripcion> resultado = enTransaccion(
+                session -> inscripcionDAO.inscribir(session, "ACT1", List.of("S1", "S2", "S3", "S4", "S5")));
+
+        assertEquals(5, resultado.values().stream().filter(r -> r == ResultadoInscripcion.INSCRITO).count());
+        assertEquals(List.of(), enEspera());
+        assertEquals(5, plazasOcupadas());
+    }
+
+    @Test
+    void unaActividadInexistenteEsUnError() {
+        assertThrows(IllegalArgumentException.class,
+                () -> enTransaccion(session -> inscripcionDAO.inscribir(session, "ACT9", List.of("S1"))));
+    }
+
+    private <T> T enTransaccion(Function<Session, T> operacion) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                T resultado = operacion.apply(session);
+                tx.commit();
+                return resultado;
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private List<String> inscritos() {
+        return consultar("SELECT numeroSocio FROM REALIZA WHERE idActividad = 'ACT1' ORDER BY numeroSocio");
+    }
+
+    private List<String> enEspera() {
+        return consultar("SELECT numeroSocio FROM LISTA_ESPERA WHERE idActividad = 'ACT1' ORDER BY id");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> consultar(String sql) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNativeQuery(sql).getResultList();
+        }
+    }
+
+    private int plazasOcupadas() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.get(Actividad.class, "ACT1").getPlazasOcupadas();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la paginación por keyset sobre (columna, clave) de {@link PaginacionOrdenada}: recorrer
+ * la tabla página a página debe dar el mismo orden que una sola consulta, con valores repetidos y nulos.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class PaginacionOrdenadaTest {
+
+    private static final String SELECT = "SELECT s.numeroSocio ";
+    private static final String FROM = "FROM Socio s ";
+    private static final int SOCIOS = 23;
+
+    private static SessionFactory sessionFactory;
+    private static final List<Socio> socios = new ArrayList<>();
+
+    @BeforeAll
+    static void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+        for (int i = 1; i <= SOCIOS; i++) {
+            // Fechas repetidas cada 5 socios y sin fecha uno de cada 4; solo 3 categorías
+            LocalDate nacimiento = i % 4 == 0 ? null : LocalDate.of(1990, 1, 1).plusYears(i % 5);
+            socios.add(new Socio(String.format("S%02d", i), "Socio " + (char) ('A' + i % 7), String.format("%08dX", i),
+                    nacimiento, null, null, LocalDate.of(2024, 1, 1), (char) ('A' + i % 3)));
+        }
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            socios.forEach(session::persist);
+            tx.commit();
+        }
+    }
+
+    @AfterAll
+    static void cerrarBaseDatos() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void recorrerPorPaginasDaElOrdenDeUnaSolaConsulta() {
+        for (boolean descendente : new boolean[]{false, true}) {
+            comprobar("s.fechaNacimiento", Socio::getFechaNacimiento, descendente, null);
+            comprobar("s.categoria", Socio::getCategoria, descendente, null);
+            comprobar("s.nombre", Socio::getNombre, descendente, null);
+        }
+    }
+
+    @Test
+    void limitadaALasClavesDeUnaBusqueda() {
+        Set<String> claves = Set.of("S01", "S04", "S06", "S08", "S11", "S16", "S20", "S23");
+        for (boolean descendente : new boolean[]{false, true}) {
+            comprobar("s.fechaNacimiento", Socio::getFechaNacimiento, descendente, claves);
+        }
+    }
+
+    @Test
+    void unaBusquedaSinResultadosNoConsulta() {
+        PaginacionOrdenada orden = new PaginacionOrdenada(SELECT, FROM, "s.numeroSocio", "s.categoria", false, Set.of());
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(List.of(), orden.pagina(session, String.class, "", 10));
+            assertNull(orden.claveEnPosicion(session, 0));
+        }
+    }
+
+    @Test
+    void siLaFilaDePartidaYaNoExisteNoHayMasFilas() {
+        PaginacionOrdenada orden = new PaginacionOrdenada(SELECT, FROM, "s.numeroSocio", "s.categoria", false, null);
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(List.of(), orden.pagina(session, String.class, "S99", 10));
+        }
+    }
+
+    // Recorre el orden con páginas de varios tamaños y lo compara con el esperado y con claveEnPosicion
+    private static <V extends Comparable<V>> void comprobar(String columna, Function<Socio, V> valor, boolean descendente,
+            Collection<String> claves) {
+        Comparator<Socio> porValor = Comparator.comparing(valor, Comparator.nullsFirst(Comparator.<V>naturalOrder()));
+        Comparator<Socio> orden = porValor.thenComparing(Socio::getNumeroSocio);
+        List<String> esperado = new ArrayList<>();
+        socios.stream()
+                .filter(s -> claves == null || claves.contains(s.getNumeroSocio()))
+                .sorted(descendente ? orden.reversed() : orden)
+                .forEach(s -> esperado.add(s.getNumeroSocio()));
+
+        PaginacionOrdenada paginacion = new PaginacionOrdenada(SELECT, FROM, "s.numeroSocio", columna, descendente, claves);
+        String caso = columna + (descendente ? " DESC" : " ASC");
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(esperado, paginacion.pagina(session, String.class, "", SOCIOS), caso);
+            for (int limite : new int[]{1, 4, 7}) {
+                List<String> recorridas = new ArrayList<>();
+                List<String> pagina = paginacion.pagina(session, String.class, "", limite);
+                while (!pagina.isEmpty()) {
+                    recorridas.addAll(pagina);
+                    pagina = paginacion.pagina(session, String.class, pagina.get(pagina.size() - 1), limite);
+                }
+                assertEquals(esperado, recorridas, caso + " de " + limite + " en " + limite);
+            }
+            for (int i = 0; i < esperado.size(); i++) {
+                assertEquals(esperado.get(i), paginacion.claveEnPosicion(session, i), caso + " posición " + i);
+            }
+            assertNull(paginacion.claveEnPosicion(session, esperado.size()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package Modelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas de la inserción por lotes de {@link SocioDAO#insertaSocios}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class SocioDAOTest {
+
+    private SessionFactory sessionFactory;
+    private final SocioDAO socioDAO = new SocioDAO();
+
+    @BeforeEach
+    void crearBaseDatos() {
+        sessionFactory = BaseDatosPrueba.crear(10);
+    }
+
+    @AfterEach
+    void cerrarBaseDatos() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void insertaTodosLosBloques() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(250, socioDAO.insertaSocios(session, socios(250), 100));
+        }
+        assertEquals(250, contarSocios());
+    }
+
+    @Test
+    void unFalloDeshaceSoloSuBloque() throws Exception {
+        List<Socio> socios = socios(250);
+        // El socio 230 repite el DNI del primero: falla el tercer bloque
+        socios.get(229).setDni(socios.get(0).getDni());
+
+        Exception error;
+        try (Session session = sessionFactory.openSession()) {
+            error = assertThrows(Exception.class, () -> socioDAO.insertaSocios(session, socios, 100));
+        }
+        assertTrue(error.getMessage().contains("tras 200 socios confirmados"), error.getMessage());
+        assertEquals(200, contarSocios());
+    }
+
+    @Test
+    void rechazaUnTamanoDeBloqueNoPositivo() {
+        try (Session session = sessionFactory.openSession()) {
+            assertThrows(IllegalArgumentException.class, () -> socioDAO.insertaSocios(session, socios(1), 0));
+        }
+    }
+
+    private static List<Socio> socios(int cuantos) {
+        List<Socio> socios = new ArrayList<>(cuantos);
+        for (int i = 1; i <= cuantos; i++) {
+            socios.add(new Socio(GeneradorCodigos.Secuencia.SOCIO.formatear(i), "Socio " + i, String.format("%08dX", i),
+                    LocalDate.of(2024, 1, 1), 'A'));
+        }
+        return socios;
+    }
+
+    private long contarSocios() {
+        try (Session session = sessionFactory.openSession()) {
+            return socioDAO.contarSocios(session);
+        }
+    }
+}
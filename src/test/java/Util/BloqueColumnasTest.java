@@ -0,0 +1,132 @@
+package Util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del almacenamiento por columnas de {@link BloqueColumnas}.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class BloqueColumnasTest {
+
+    private static final TipoColumna[] TIPOS = {
+        TipoColumna.TEXTO, TipoColumna.TEXTO_REPETIDO, TipoColumna.ENTERO, TipoColumna.CARACTER, TipoColumna.FECHA
+    };
+
+    private final Map<String, String> reserva = new HashMap<>();
+
+    @Test
+    void devuelveLosValoresConSuTipoYLosNulos() {
+        BloqueColumnas bloque = new BloqueColumnas(TIPOS, reserva, 4);
+        Object[] completa = {"S1", "Lunes", 42, 'B', LocalDate.of(2000, 2, 29)};
+        Object[] vacia = {"S2", null, null, null, null};
+        bloque.anadir(completa);
+        bloque.anadir(vacia);
+
+        assertEquals(2, bloque.size());
+        assertEquals("S1", bloque.clave(0));
+        assertArrayEquals(completa, bloque.fila(0));
+        assertArrayEquals(vacia, bloque.fila(1));
+        assertEquals(42, bloque.valor(0, 2));
+        assertEquals('B', bloque.valor(0, 3));
+        assertEquals(LocalDate.of(2000, 2, 29), bloque.valor(0, 4));
+        assertNull(bloque.valor(1, 2));
+    }
+
+    @Test
+    void guardaFechasAnterioresA1970YElEnteroCero() {
+        BloqueColumnas bloque = new BloqueColumnas(TIPOS, reserva, 1);
+        bloque.anadir(new Object[]{"S1", "Lunes", 0, 'A', LocalDate.of(1950, 6, 1)});
+        assertEquals(0, bloque.valor(0, 2));
+        assertEquals(LocalDate.of(1950, 6, 1), bloque.valor(0, 4));
+    }
+
+    @Test
+    void losTextosRepetidosSeCompartenEntreBloques() {
+        BloqueColumnas b1 = new BloqueColumnas(TIPOS, reserva, 1);
+        BloqueColumnas b2 = new BloqueColumnas(TIPOS, reserva, 1);
+        b1.anadir(new Object[]{"S1", new String("Lunes"), 1, 'A', null});
+        b2.anadir(new Object[]{"S2", new String("Lunes"), 2, 'A', null});
+
+        assertSame(b1.valor(0, 1), b2.valor(0, 1));
+        assertEquals(1, reserva.size());
+    }
+
+    @Test
+    void insertarYQuitarDesplazanTodasLasColumnas() {
+        // Capacidad 0: cada inserción obliga a ampliar las columnas
+        BloqueColumnas bloque = new BloqueColumnas(TIPOS, reserva, 0);
+        bloque.anadir(fila(2));
+        bloque.anadir(fila(4));
+        bloque.insertar(0, fila(1));
+        bloque.insertar(2, fila(3));
+        bloque.insertar(4, fila(5));
+        assertEquals(List.of("S1", "S2", "S3", "S4", "S5"), claves(bloque));
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(fila(i + 1), bloque.fila(i));
+        }
+
+        assertArrayEquals(fila(3), bloque.quitar(2));
+        assertArrayEquals(fila(1), bloque.quitar(0));
+        assertArrayEquals(fila(5), bloque.quitar(2));
+        assertEquals(List.of("S2", "S4"), claves(bloque));
+        assertArrayEquals(fila(4), bloque.fila(1));
+
+        bloque.quitar(0);
+        bloque.quitar(0);
+        assertTrue(bloque.isEmpty());
+    }
+
+    @Test
+    void sustituirSoloCambiaSuFila() {
+        BloqueColumnas bloque = new BloqueColumnas(TIPOS, reserva, 3);
+        bloque.anadir(fila(1));
+        bloque.anadir(fila(2));
+        bloque.anadir(fila(3));
+        Object[] nueva = {"S2", "Martes", null, 'C', null};
+        bloque.sustituir(1, nueva);
+
+        assertArrayEquals(fila(1), bloque.fila(0));
+        assertArrayEquals(nueva, bloque.fila(1));
+        assertArrayEquals(fila(3), bloque.fila(2));
+    }
+
+    @Test
+    void anadirTodasAmpliaDeUnaVez() {
+        BloqueColumnas bloque = new BloqueColumnas(TIPOS, reserva, 2);
+        bloque.anadir(fila(1));
+        List<Object[]> filas = new ArrayList<>();
+        for (int i = 2; i <= 100; i++) {
+            filas.add(fila(i));
+        }
+        bloque.anadirTodas(filas);
+
+        assertEquals(100, bloque.size());
+        assertArrayEquals(fila(1), bloque.fila(0));
+        assertArrayEquals(fila(100), bloque.fila(99));
+    }
+
+    private static Object[] fila(int n) {
+        return new Object[]{"S" + n, n % 2 == 0 ? "Lunes" : "Martes", n * 10, (char) ('A' + n % 4),
+            LocalDate.of(2024, 1, 1).plusDays(n)};
+    }
+
+    private static List<String> claves(BloqueColumnas bloque) {
+        List<String> claves = new ArrayList<>();
+        for (int i = 0; i < bloque.size(); i++) {
+            claves.add(bloque.clave(i));
+        }
+        return claves;
+    }
+}
@@ -0,0 +1,355 @@
+package Util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del desplazamiento de filas de {@link ModeloTablaVirtual} al insertar y quitar filas con
+ * las páginas en memoria o sin cargar. Las filas salen de una fuente en memoria; la base de datos H2
+ * solo aporta las sesiones que abre el modelo. Cada fila tiene la clave "K" + n (cuatro cifras) y n en la columna 1.
+ *
+ * @author Manuel Martín Rodrigo
+ */
+class ModeloTablaVirtualTest {
+
+    private static final int PAGINA = ModeloTablaVirtual.TAMANO_PAGINA;
+    private static final long ESPERA_MS = 10_000;
+
+    private static SessionFactory sessionFactory;
+
+    private FuenteMemoria fuente;
+    private ModeloTablaVirtual modelo;
+    private final List<TableModelEvent> eventos = new ArrayList<>();
+
+    /**
+     * Filas ordenadas por clave, que cuenta las páginas que se le piden.
+     */
+    private static final class FuenteMemoria implements FuentePaginada {
+        final TreeMap<String, Object[]> filas = new TreeMap<>();
+        volatile boolean ordenada = true;
+        volatile int paginasPedidas;
+
+        @Override
+        public synchronized long contar(Session session) {
+            return filas.size();
+        }
+
+        @Override
+        public synchronized List<Object[]> pagina(Session session, String despuesDe, int limite) {
+            paginasPedidas++;
+            List<Object[]> pagina = new ArrayList<>();
+            for (Object[] f : filas.tailMap(despuesDe, false).values()) {
+                if (pagina.size() == limite) {
+                    break;
+                }
+                pagina.add(f.clone());
+            }
+            return pagina;
+        }
+
+        @Override
+        public synchronized String claveEnPosicion(Session session, long posicion) {
+            int i = 0;
+            for (String clave : filas.keySet()) {
+                if (i++ == posicion) {
+                    return clave;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean ordenadaPorClave() {
+            return ordenada;
+        }
+
+        synchronized void poner(int n) {
+            filas.put(clave(n), fila(n));
+        }
+
+        synchronized void quitar(int n) {
+            filas.remove(clave(n));
+        }
+
+        synchronized List<String> claves() {
+            return new ArrayList<>(filas.keySet());
+        }
+    }
+
+    @BeforeAll
+    static void crearSesiones() {
+        sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.driver_class", "org.h2.Driver")
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:tablaVirtual;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .buildSessionFactory();
+    }
+
+    @AfterAll
+    static void cerrarSesiones() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void crearModelo() throws Exception {
+        fuente = new FuenteMemoria();
+        enEventos(() -> {
+            modelo = new ModeloTablaVirtual(sessionFactory, new String[]{"Clave", "Número"},
+                    new TipoColumna[]{TipoColumna.TEXTO, TipoColumna.ENTERO}, fuente,
+                    e -> fail("Error de carga: " + e));
+            modelo.addTableModelListener(eventos::add);
+            return null;
+        });
+    }
+
+    @Test
+    void insertarConTodasLasPaginasDesplazaLasFilasSinPedirNada() throws Exception {
+        llenar(250);
+        cargar(0, 250);
+        int pedidas = fuente.paginasPedidas;
+
+        insertar(1);
+
+        assertEquals(pedidas, fuente.paginasPedidas);
+        assertEquals(251, enEventos(modelo::getRowCount));
+        assertEquals(clave(196), valor(99));
+        assertEquals(clave(198), valor(100));
+        assertEquals(clave(398), valor(200));
+        assertEquals(clave(498), valor(250));
+        assertEquals(198, enEventos(() -> modelo.getValueAt(100, 1)));
+        assertEvento(TableModelEvent.INSERT, 1);
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void insertarSinLaPaginaSiguienteLaVuelveAPedirDesdeLaUltimaClave() throws Exception {
+        llenar(250);
+        cargar(0, PAGINA);
+
+        insertar(1);
+
+        assertEquals(251, enEventos(modelo::getRowCount));
+        assertEquals(clave(196), valor(99));
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void insertarEntrePaginasNoCargadasDescartaLasDeDetras() throws Exception {
+        llenar(250);
+        cargar(0, PAGINA);
+        cargar(2 * PAGINA, 250);
+
+        // K0301 va en la página 1, que no está en memoria
+        insertar(301);
+
+        assertEquals(251, enEventos(modelo::getRowCount));
+        assertEvento(TableModelEvent.INSERT, PAGINA);
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void insertarDetrasDeLaUltimaPaginaCompletaCreaUnaPagina() throws Exception {
+        llenar(200);
+        cargar(0, 200);
+
+        insertar(999);
+
+        assertEquals(201, enEventos(modelo::getRowCount));
+        assertEquals(clave(999), valor(200));
+        assertEvento(TableModelEvent.INSERT, 200);
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void quitarConTodasLasPaginasAdelantaLasFilasSinPedirNada() throws Exception {
+        llenar(250);
+        cargar(0, 250);
+        int pedidas = fuente.paginasPedidas;
+
+        quitar(0);
+
+        assertEquals(pedidas, fuente.paginasPedidas);
+        assertEquals(249, enEventos(modelo::getRowCount));
+        assertEquals(clave(200), valor(99));
+        assertEquals(clave(400), valor(199));
+        assertEquals(clave(498), valor(248));
+        assertNull(enEventos(() -> modelo.getValueAt(249, 0)));
+        assertEvento(TableModelEvent.DELETE, 0);
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void quitarSinLaPaginaSiguienteVuelveAPedirLaIncompleta() throws Exception {
+        llenar(250);
+        cargar(0, PAGINA);
+
+        quitar(10);
+
+        // A la página 0 le falta su última fila, que estaba en la página 1
+        assertEquals(249, enEventos(modelo::getRowCount));
+        assertNull(valor(0));
+        cargar(0, PAGINA);
+        assertEquals(clave(200), valor(99));
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void quitarUnaFilaQueNoEstaEnMemoriaDescartaLasPaginasDeDetras() throws Exception {
+        llenar(250);
+        cargar(0, PAGINA);
+
+        quitar(300);
+
+        assertEquals(249, enEventos(modelo::getRowCount));
+        assertEvento(TableModelEvent.DELETE, PAGINA);
+        assertEquals(fuente.claves(), todas());
+    }
+
+    @Test
+    void actualizarSoloCambiaLaFilaEnMemoria() throws Exception {
+        llenar(250);
+        cargar(0, PAGINA);
+
+        enEventos(() -> {
+            eventos.clear();
+            modelo.actualizarFila(new Object[]{clave(20), -1});
+            modelo.actualizarFila(new Object[]{clave(400), -1});
+            return null;
+        });
+
+        assertEquals(-1, enEventos(() -> modelo.getValueAt(10, 1)));
+        assertEvento(TableModelEvent.UPDATE, 10);
+    }
+
+    @Test
+    void enUnosResultadosDeBusquedaNoSeInsertanFilas() throws Exception {
+        llenar(10);
+        fuente.ordenada = false;
+        cargar(0, 10);
+
+        enEventos(() -> {
+            modelo.insertarFila(fila(1));
+            return null;
+        });
+
+        assertEquals(10, enEventos(modelo::getRowCount));
+        assertEquals(clave(2), valor(1));
+    }
+
+    private void llenar(int filas) throws Exception {
+        for (int i = 0; i < filas; i++) {
+            fuente.poner(2 * i);
+        }
+        enEventos(() -> {
+            modelo.recargar();
+            return null;
+        });
+        esperar(() -> modelo.getRowCount() == filas);
+    }
+
+    // Confirma el alta en la fuente y la aplica al modelo, como haría el controlador
+    private void insertar(int n) throws Exception {
+        fuente.poner(n);
+        enEventos(() -> {
+            eventos.clear();
+            modelo.insertarFila(fila(n));
+            return null;
+        });
+    }
+
+    private void quitar(int n) throws Exception {
+        fuente.quitar(n);
+        enEventos(() -> {
+            eventos.clear();
+            modelo.quitarFila(clave(n));
+            return null;
+        });
+    }
+
+    // Espera a que estén en memoria las filas [desde, hasta)
+    private void cargar(int desde, int hasta) throws Exception {
+        esperar(() -> {
+            boolean todas = true;
+            for (int i = desde; i < hasta; i++) {
+                todas &= modelo.getValueAt(i, 0) != null;
+            }
+            return todas;
+        });
+    }
+
+    private List<String> todas() throws Exception {
+        int filas = enEventos(modelo::getRowCount);
+        cargar(0, filas);
+        return enEventos(() -> {
+            List<String> claves = new ArrayList<>();
+            for (int i = 0; i < filas; i++) {
+                claves.add((String) modelo.getValueAt(i, 0));
+                assertEquals(Integer.parseInt(claves.get(i).substring(1)), modelo.getValueAt(i, 1));
+            }
+            return claves;
+        });
+    }
+
+    private Object valor(int fila) throws Exception {
+        return enEventos(() -> modelo.getValueAt(fila, 0));
+    }
+
+    private void assertEvento(int tipo, int fila) throws Exception {
+        TableModelEvent e = enEventos(() -> eventos.get(0));
+        assertEquals(tipo, e.getType());
+        assertEquals(fila, e.getFirstRow());
+        assertEquals(fila, e.getLastRow());
+    }
+
+    private static void esperar(Callable<Boolean> condicion) throws Exception {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (!enEventos(condicion)) {
+            if (System.currentTimeMillis() > limite) {
+                fail("La tabla no ha cargado las filas a tiempo");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    // El modelo solo se usa en el hilo de eventos de Swing
+    private static <T> T enEventos(Callable<T> accion) throws Exception {
+        AtomicReference<T> resultado = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                resultado.set(accion.call());
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return resultado.get();
+    }
+
+    private static String clave(int n) {
+        return String.format("K%04d", n);
+    }
+
+    private static Object[] fila(int n) {
+        return new Object[]{clave(n), n};
+    }
+}